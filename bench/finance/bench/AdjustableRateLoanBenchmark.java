@@ -0,0 +1,80 @@
+package finance.bench;
+
+import finance.AdjustableRateLoan;
+import finance.RateSchedule;
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a 30-year 5/1 ARM with 25 annual resets: calcSegments () in each
+ * precision mode, against amortizing the loan one period at a time and
+ * recasting the payment at each reset.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdjustableRateLoanBenchmark {
+
+    @Param({"DOUBLE", "DECIMAL"})
+    public PrecisionMode mode;
+
+    private AdjustableRateLoan arm;
+
+    @Setup
+    public void setUp() {
+        double[] rates = new double[25];
+        for (int j = 0; j < rates.length; j++) {
+            rates[j] = 5 + (j % 7) * 0.5;
+        }
+        arm = new AdjustableRateLoan(400000, 80000, 5.5, CompoundingOption.MONTHLY, 30,
+                RateSchedule.periodic(5, 1, rates));
+        arm.setPrecisionMode(mode);
+    }
+
+    @Benchmark
+    public AdjustableRateLoan.Segment[] segments() {
+        return arm.calcSegments();
+    }
+
+    @Benchmark
+    public double periods() {
+        RateSchedule schedule = arm.getRateSchedule();
+        int total = (int) Math.round(arm.getYears() * 12);
+        double balance = arm.getPurchaseAmount() - arm.getDownPayment();
+        double rate = arm.getAPR() / 1200;
+        double payment = 0;
+        double interest = 0;
+        int reset = 0;
+        for (int t = 0; t < total; t++) {
+            boolean changed = t == 0;
+            if (reset < schedule.size() && Math.round(schedule.getYears(reset) * 12) == t) {
+                rate = schedule.getAPR(reset++) / 1200;
+                changed = true;
+            }
+            if (changed) {
+                payment = balance * rate / (1 - Math.pow(1 + rate, t - total));
+            }
+            double due = balance * rate;
+            interest += due;
+            balance += due - payment;
+        }
+        return interest;
+    }
+}
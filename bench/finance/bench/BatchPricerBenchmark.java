@@ -0,0 +1,81 @@
+package finance.bench;
+
+import finance.batch.BatchPricer;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures BatchPricer on a CSV file of quotes in temporary files, from
+ * reading the quotes to writing the results. The results are per quote; run
+ * with -prof gc to see the allocation and collections while pricing.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchPricerBenchmark {
+
+    private static final int QUOTES = 100000;
+
+    @Param({"LOAN_PAYMENT", "INVESTMENT"})
+    public QuoteType type;
+
+    private Path input;
+    private Path output;
+    private BatchPricer pricer;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(161012);
+        CompoundingOption[] options = {CompoundingOption.ANNUAL, CompoundingOption.SEMIANNUAL,
+            CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+        input = Files.createTempFile("quotes", ".csv");
+        output = Files.createTempFile("results", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(input, StandardCharsets.US_ASCII)) {
+            out.write("amount,second amount,apr,compounding,years\n");
+            for (int i = 0; i < QUOTES; i++) {
+                out.write((10000 + random.nextInt(490000)) + "," + random.nextInt(4000) * 25 + ","
+                        + random.nextInt(2000) / 100.0 + ","
+                        + options[random.nextInt(options.length)].name() + ","
+                        + (1 + random.nextInt(40)) + "\n");
+            }
+        }
+        pricer = new BatchPricer(type);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public long price() throws IOException {
+        return pricer.price(input, output);
+    }
+}
@@ -0,0 +1,35 @@
+package finance.bench;
+
+import finance.enums.CompoundingOption;
+import java.util.Random;
+
+/**
+ * Reproducible scenario columns shared by the benchmarks. Values are drawn
+ * from the ranges used by FinancialCalculationsTest: purchase amounts up to
+ * $1,000,000, APRs between 1% and 16% and terms between 5 and 30 years.
+ * @author koluongMBP
+ * @version 261016
+ */
+final class BenchmarkData {
+
+    final double[] years;
+    final double[] apr;
+    final double[] amount;
+    final double[] payment;
+    final CompoundingOption compounding;
+
+    BenchmarkData(int scenarios, CompoundingOption compounding) {
+        Random random = new Random(161012);
+        this.compounding = compounding;
+        years = new double[scenarios];
+        apr = new double[scenarios];
+        amount = new double[scenarios];
+        payment = new double[scenarios];
+        for (int i = 0; i < scenarios; i++) {
+            years[i] = 5 + random.nextInt(26);
+            apr[i] = 1 + random.nextInt(1500) / 100.0;
+            amount[i] = 10000 + random.nextInt(990000);
+            payment[i] = 10 + random.nextInt(2000);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package finance.bench;
+
+import finance.CashFlowAnalysis;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures NPV, XNPV, IRR and XIRR on long series of uneven cash flows: an
+ * outflow followed by mostly positive flows dated every few days. The series
+ * are built so that IRR is 0.4% a period and XIRR 8% a year. powNPV is the
+ * sum of flows discounted with Math.pow (), for comparison with npv.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CashFlowAnalysisBenchmark {
+
+    private static final double RATE = 0.004;
+    private static final double ANNUAL_RATE = 0.08;
+
+    @Param({"100", "10000"})
+    public int flows;
+
+    private final CashFlowAnalysis analysis = new CashFlowAnalysis();
+    private double[] series;
+    private double[] datedSeries;
+    private long[] days;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(161012);
+        series = new double[flows];
+        days = new long[flows];
+        series[0] = -(100000 + random.nextInt(9900000));
+        for (int j = 1; j < flows; j++) {
+            series[j] = random.nextInt(5500) - 500;
+            days[j] = days[j - 1] + 1 + random.nextInt(7);
+        }
+        datedSeries = series.clone();
+        series[0] -= CashFlowAnalysis.npv(RATE, series);
+        datedSeries[0] -= CashFlowAnalysis.xnpv(ANNUAL_RATE, datedSeries, days);
+    }
+
+    @Benchmark
+    public double powNPV() {
+        double npv = 0;
+        for (int t = 0; t < series.length; t++) {
+            npv += series[t] / Math.pow(1 + RATE, t);
+        }
+        return npv;
+    }
+
+    @Benchmark
+    public double npv() {
+        return CashFlowAnalysis.npv(RATE, series);
+    }
+
+    @Benchmark
+    public double xnpv() {
+        return CashFlowAnalysis.xnpv(ANNUAL_RATE, series, days);
+    }
+
+    @Benchmark
+    public double irr() {
+        return analysis.irr(series);
+    }
+
+    @Benchmark
+    public double xirr() {
+        return analysis.xirr(datedSeries, days);
+    }
+}
@@ -0,0 +1,74 @@
+package finance.bench;
+
+import finance.Investment;
+import finance.LoanPayment;
+import finance.enums.CompoundingOption;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the object-per-scenario path: constructing a LoanPayment or
+ * Investment and calling getValue (), as FinancialCalculationsTest and
+ * FinanceAnalyzerForm do. Each invocation prices the given number of
+ * scenarios.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int scenarios;
+
+    @Param({"ANNUAL", "MONTHLY", "WEEKLY"})
+    public CompoundingOption compounding;
+
+    private BenchmarkData data;
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(scenarios, compounding);
+    }
+
+    @Benchmark
+    public void loanPaymentGetValue(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            LoanPayment loan = new LoanPayment(data.amount[i], 0, data.apr[i],
+                    compounding, data.years[i]);
+            blackhole.consume(loan.getValue());
+        }
+    }
+
+    @Benchmark
+    public void investmentGetValue(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            Investment investment = new Investment(data.amount[i],
+                    data.payment[i], data.apr[i], compounding, data.years[i]);
+            blackhole.consume(investment.getValue());
+        }
+    }
+
+    @Benchmark
+    public void loanPaymentConstruction(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            blackhole.consume(new LoanPayment(data.amount[i], 0, data.apr[i],
+                    compounding, data.years[i]));
+        }
+    }
+}
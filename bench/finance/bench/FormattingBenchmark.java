@@ -0,0 +1,93 @@
+package finance.bench;
+
+import finance.Investment;
+import finance.LoanPayment;
+import finance.Report;
+import finance.TVMEngine;
+import finance.enums.CompoundingOption;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures text output: toCurrency () on its own, against the BigDecimal
+ * rounding and NumberFormat formatting it replaced, and the Report.print ()
+ * summaries of LoanPayment and Investment. Each invocation formats the given
+ * number of values or reports.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormattingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int scenarios;
+
+    private BenchmarkData data;
+    private TVMEngine engine;
+    private NumberFormat format;
+    private Report[] loans;
+    private Report[] investments;
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(scenarios, CompoundingOption.MONTHLY);
+        engine = new LoanPayment();
+        format = NumberFormat.getCurrencyInstance();
+        loans = new Report[scenarios];
+        investments = new Report[scenarios];
+        for (int i = 0; i < scenarios; i++) {
+            loans[i] = new LoanPayment(data.amount[i], 0, data.apr[i],
+                    data.compounding, data.years[i]);
+            investments[i] = new Investment(data.amount[i], data.payment[i],
+                    data.apr[i], data.compounding, data.years[i]);
+        }
+    }
+
+    @Benchmark
+    public void toCurrency(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            blackhole.consume(engine.toCurrency(data.amount[i] / 7));
+        }
+    }
+
+    @Benchmark
+    public void legacyToCurrency(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            blackhole.consume(format.format(BigDecimal.valueOf(data.amount[i] / 7)
+                    .setScale(format.getMaximumFractionDigits(), RoundingMode.HALF_UP)));
+        }
+    }
+
+    @Benchmark
+    public void loanPaymentPrint(Blackhole blackhole) {
+        for (Report loan : loans) {
+            blackhole.consume(loan.print());
+        }
+    }
+
+    @Benchmark
+    public void investmentPrint(Blackhole blackhole) {
+        for (Report investment : investments) {
+            blackhole.consume(investment.print());
+        }
+    }
+}
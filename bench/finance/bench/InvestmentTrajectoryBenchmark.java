@@ -0,0 +1,80 @@
+package finance.bench;
+
+import finance.Investment;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the weekly balances of an investment over its whole term, from
+ * Investment.fillTrajectory (), which runs a recurrence, against calling
+ * calcFV () once per horizon. Terms are 10 to 30 years, so each trajectory
+ * holds about 1,000 balances; the results are per trajectory.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvestmentTrajectoryBenchmark {
+
+    private static final int PORTFOLIOS = 100;
+
+    private Investment[] portfolios;
+    private double[] balance;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(161012);
+        portfolios = new Investment[PORTFOLIOS];
+        int maxPeriods = 0;
+        for (int i = 0; i < PORTFOLIOS; i++) {
+            portfolios[i] = new Investment(random.nextInt(50000), 10 + random.nextInt(1000),
+                    1 + random.nextInt(1200) / 100.0, CompoundingOption.WEEKLY,
+                    10 + random.nextInt(21));
+            maxPeriods = Math.max(maxPeriods, portfolios[i].getPeriods());
+        }
+        balance = new double[maxPeriods];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PORTFOLIOS)
+    public double recurrence() {
+        double sum = 0;
+        for (Investment portfolio : portfolios) {
+            portfolio.fillTrajectory(null, null, balance);
+            sum += balance[portfolio.getPeriods() - 1];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PORTFOLIOS)
+    public double calcFVPerHorizon() {
+        double sum = 0;
+        for (Investment portfolio : portfolios) {
+            TVMScenario scenario = portfolio.getScenario();
+            double periodsPerYear = scenario.getCompounding().getPeriodsPerYear();
+            for (int k = 0; k < portfolio.getPeriods(); k++) {
+                balance[k] = -scenario.withYears((k + 1) / periodsPerYear).calcFV();
+            }
+            sum += balance[portfolio.getPeriods() - 1];
+        }
+        return sum;
+    }
+}
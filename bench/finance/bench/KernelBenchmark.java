@@ -0,0 +1,91 @@
+package finance.bench;
+
+import finance.ScenarioPricer;
+import finance.TVMBatch;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the raw calcPMT () and calcFV () formulas, both through TVMScenario
+ * (which TVMEngine delegates to) and through the columnar TVMBatch entry
+ * point, and calcPMT () through ScenarioPricer on the common ForkJoinPool.
+ * Each invocation prices the given number of scenarios.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KernelBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int scenarios;
+
+    @Param({"MONTHLY", "WEEKLY"})
+    public CompoundingOption compounding;
+
+    private final ScenarioPricer pricer = new ScenarioPricer();
+    private BenchmarkData data;
+    private double[] zeros;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(scenarios, compounding);
+        zeros = new double[scenarios];
+        out = new double[scenarios];
+    }
+
+    @Benchmark
+    public void scenarioCalcPMT(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            TVMScenario loan = new TVMScenario(data.years[i], data.apr[i],
+                    compounding, data.amount[i], 0, 0);
+            blackhole.consume(loan.calcPMT());
+        }
+    }
+
+    @Benchmark
+    public void scenarioCalcFV(Blackhole blackhole) {
+        for (int i = 0; i < scenarios; i++) {
+            TVMScenario investment = new TVMScenario(data.years[i], data.apr[i],
+                    compounding, -data.amount[i], -data.payment[i], 0);
+            blackhole.consume(investment.calcFV());
+        }
+    }
+
+    @Benchmark
+    public double[] batchCalcPMT() {
+        TVMBatch.calcPMT(compounding, data.years, data.apr, data.amount, zeros, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] pricerCalcPMT() {
+        pricer.calcPMT(compounding, data.years, data.apr, data.amount, zeros, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchCalcFV() {
+        TVMBatch.calcFV(compounding, data.years, data.apr, data.amount,
+                data.payment, out);
+        return out;
+    }
+}
@@ -0,0 +1,98 @@
+package finance.bench;
+
+import finance.LoanPayment;
+import finance.LoanPortfolio;
+import finance.enums.CompoundingOption;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the LoanPortfolio reductions on a book of loans: the summary and
+ * the monthly cash flow ladder, both on the common pool, against the total
+ * annual payment calculated the way it was before LoanPortfolio, with one
+ * LoanPayment object per loan. changeLoan changes the rate and term of one
+ * loan and reads the running totals.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoanPortfolioBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int loans;
+
+    private LoanPortfolio book;
+    private SplittableRandom changes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(161012);
+        CompoundingOption[] options = {CompoundingOption.ANNUAL, CompoundingOption.SEMIANNUAL,
+            CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY, CompoundingOption.BIWEEKLY,
+            CompoundingOption.WEEKLY};
+        book = new LoanPortfolio(loans);
+        for (int i = 0; i < loans; i++) {
+            book.add(10000 + random.nextInt(490000), random.nextInt(400) * 25.0,
+                    random.nextInt(2000) / 100.0, options[random.nextInt(options.length)],
+                    1 + random.nextInt(40));
+        }
+        changes = new SplittableRandom(161012);
+    }
+
+    @Benchmark
+    public double loanObjects() {
+        double annual = 0;
+        for (int i = 0; i < book.size(); i++) {
+            Quote loan = new Quote(book.getPrincipal(i), book.getAPR(i), book.getCompounding(i),
+                    book.getYears(i));
+            annual += -loan.payment() * loan.getPaymentFrequency();
+        }
+        return annual;
+    }
+
+    @Benchmark
+    public LoanPortfolio.Summary summarize() {
+        return book.summarize();
+    }
+
+    @Benchmark
+    public LoanPortfolio.CashFlowLadder ladder() {
+        return book.ladder(12);
+    }
+
+    @Benchmark
+    public LoanPortfolio.Summary changeLoan() {
+        int index = changes.nextInt(loans);
+        book.set(index, book.getPrincipal(index), 0, changes.nextInt(0, 2000) / 100.0,
+                book.getCompounding(index), changes.nextInt(1, 41));
+        return book.totals();
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double principal, double apr, CompoundingOption compounding, double years) {
+            super(principal, 0, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
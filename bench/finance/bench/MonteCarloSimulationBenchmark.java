@@ -0,0 +1,55 @@
+package finance.bench;
+
+import finance.Investment;
+import finance.MonteCarloSimulation;
+import finance.enums.CompoundingOption;
+import finance.enums.ReturnDistribution;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a Monte Carlo simulation of a 30-year retirement investment with
+ * monthly contributions and 15% volatility, on the common pool. The results
+ * are per path of 360 periods.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MonteCarloSimulationBenchmark {
+
+    private static final int PATHS = 20000;
+
+    @Param({"NORMAL", "LOGNORMAL"})
+    public ReturnDistribution distribution;
+
+    private MonteCarloSimulation retirement;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        Investment investment = new Investment(10000, 500, 7, CompoundingOption.MONTHLY, 30);
+        retirement = new MonteCarloSimulation(investment, 15, distribution);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATHS)
+    public MonteCarloSimulation.Result run() {
+        return retirement.run(PATHS, ++seed);
+    }
+}
@@ -0,0 +1,71 @@
+package finance.bench;
+
+import finance.AmortizationSchedule;
+import finance.LoanPayment;
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of each precision mode on a 30-year monthly mortgage:
+ * the payment alone, and the full 360-row amortization schedule read through
+ * its cursor.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrecisionModeBenchmark {
+
+    @Param({"DOUBLE", "DECIMAL"})
+    public PrecisionMode mode;
+
+    private Quote mortgage;
+
+    @Setup
+    public void setUp() {
+        mortgage = new Quote(400000, 80000, 6.35, CompoundingOption.MONTHLY, 30);
+        mortgage.setPrecisionMode(mode);
+    }
+
+    @Benchmark
+    public double payment() {
+        return mortgage.payment();
+    }
+
+    @Benchmark
+    public double schedule() {
+        AmortizationSchedule.Cursor row = mortgage.getAmortizationSchedule().cursor();
+        double interest = 0;
+        while (row.next()) {
+            interest += row.getInterest();
+        }
+        return interest;
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
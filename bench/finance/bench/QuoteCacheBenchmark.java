@@ -0,0 +1,84 @@
+package finance.bench;
+
+import finance.LoanPayment;
+import finance.QuoteCache;
+import finance.enums.CompoundingOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loan quotes priced from a skewed stream, in which 90% of the
+ * requests repeat one of 200 popular quotes, with and without a QuoteCache.
+ * Four threads share one cache; each walks the stream from its own position.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class QuoteCacheBenchmark {
+
+    private static final int POPULAR_QUOTES = 200;
+    private static final int REQUESTS = 1 << 16;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY,
+        CompoundingOption.BIWEEKLY, CompoundingOption.WEEKLY};
+
+    private double[][] quotes;
+    private QuoteCache cache;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(11);
+        quotes = new double[REQUESTS][];
+        for (int k = 0; k < REQUESTS; k++) {
+            SplittableRandom source = random.nextInt(10) < 9
+                    ? new SplittableRandom(random.nextInt(POPULAR_QUOTES)) : random;
+            quotes[k] = new double[]{source.nextInt(10000, 2000000) / 4.0,
+                source.nextInt(0, 400) * 25.0, source.nextInt(0, 2000) / 100.0,
+                source.nextInt(OPTIONS.length), source.nextInt(1, 41)};
+        }
+        cache = new QuoteCache(4096);
+    }
+
+    @Benchmark
+    public String uncached(Position position) {
+        double[] q = quotes[position.next()];
+        return new LoanPayment(q[0], q[1], q[2], OPTIONS[(int) q[3]], q[4]).getValue();
+    }
+
+    @Benchmark
+    public String cached(Position position) {
+        double[] q = quotes[position.next()];
+        return cache.loanPayment(q[0], q[1], q[2], OPTIONS[(int) q[3]], q[4]).getText();
+    }
+
+    /**
+     * The position of one thread in the stream of quotes.
+     */
+    @State(Scope.Thread)
+    public static class Position {
+
+        private int next = (int) (Thread.currentThread().getId() * 7919);
+
+        int next() {
+            next = (next + 1) & (REQUESTS - 1);
+            return next;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package finance.bench;
+
+import finance.RateSolver;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures RateSolver.solvePeriodRate () on random loans and investments,
+ * per solve. The solves and the solver iterations they take are reported as
+ * the auxiliary counters solves and iterations, so their ratio is the mean
+ * number of iterations per solve.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RateSolverBenchmark {
+
+    private static final int SCENARIOS = 10000;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+
+    @Param({"LOAN_PAYMENT", "INVESTMENT"})
+    public QuoteType type;
+
+    private final RateSolver solver = new RateSolver();
+    private final double[] periods = new double[SCENARIOS];
+    private final double[] pv = new double[SCENARIOS];
+    private final double[] pmt = new double[SCENARIOS];
+    private final double[] fv = new double[SCENARIOS];
+    private long iterations;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(161012);
+        iterations = 0;
+        for (int i = 0; i < SCENARIOS; i++) {
+            CompoundingOption compounding = OPTIONS[random.nextInt(OPTIONS.length)];
+            double apr = 0.5 + random.nextInt(2000) / 100.0;
+            double years = 1 + random.nextInt(30);
+            TVMScenario scenario;
+            if (type == QuoteType.LOAN_PAYMENT) {
+                scenario = new TVMScenario(years, apr, compounding,
+                        1000 + random.nextInt(1000000), 0, 0);
+                scenario = scenario.withPMT(scenario.calcPMT());
+            } else {
+                scenario = new TVMScenario(years, apr, compounding,
+                        -random.nextInt(10000), -(10 + random.nextInt(1000)), 0);
+                scenario = scenario.withFV(scenario.calcFV());
+            }
+            periods[i] = scenario.getPeriods();
+            pv[i] = scenario.getPV();
+            pmt[i] = scenario.getPMT();
+            fv[i] = scenario.getFV();
+            iterations += solver.countIterations(periods[i], pv[i], pmt[i], fv[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENARIOS)
+    public double solvePeriodRate(Counters counters) {
+        double sum = 0;
+        for (int i = 0; i < SCENARIOS; i++) {
+            sum += solver.solvePeriodRate(periods[i], pv[i], pmt[i], fv[i]);
+        }
+        counters.solves += SCENARIOS;
+        counters.iterations += iterations;
+        return sum;
+    }
+
+    /**
+     * The solves and solver iterations of one measurement iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        public long solves;
+        public long iterations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            solves = 0;
+            iterations = 0;
+        }
+    }
+}
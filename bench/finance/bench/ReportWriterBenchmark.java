@@ -0,0 +1,104 @@
+package finance.bench;
+
+import finance.ChannelAppendable;
+import finance.LoanPayment;
+import finance.ReportWriter;
+import finance.enums.CompoundingOption;
+import finance.enums.ReportFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the bulk export of loan summaries through a ReportWriter in each
+ * format, against appending the print () text of each loan. Both write UTF-8
+ * through a ChannelAppendable to a channel that discards the bytes, so the
+ * results are per report and leave out the disk. Run with -prof gc to see
+ * the bytes allocated per report.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportWriterBenchmark {
+
+    private static final int REPORTS = 1000;
+
+    @Param({"TEXT", "CSV", "JSON", "FIXED_WIDTH"})
+    public ReportFormat format;
+
+    private LoanPayment[] loans;
+    private ChannelAppendable out;
+    private ReportWriter writer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(161012);
+        CompoundingOption[] options = {CompoundingOption.ANNUAL, CompoundingOption.SEMIANNUAL,
+            CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+        loans = new LoanPayment[REPORTS];
+        for (int i = 0; i < REPORTS; i++) {
+            loans[i] = new LoanPayment(10000 + random.nextInt(490000), random.nextInt(400) * 25.0,
+                    random.nextInt(2000) / 100.0, options[random.nextInt(options.length)],
+                    1 + random.nextInt(40));
+        }
+        out = new ChannelAppendable(new Discard());
+        writer = ReportWriter.create(format, out);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void writeTo() throws IOException {
+        for (LoanPayment loan : loans) {
+            loan.writeTo(writer);
+        }
+        writer.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPORTS)
+    public void print() throws IOException {
+        for (LoanPayment loan : loans) {
+            out.append(loan.print());
+        }
+        out.flush();
+    }
+
+    // Accepts every byte and keeps none.
+    private static final class Discard implements WritableByteChannel {
+
+        @Override
+        public int write(ByteBuffer source) {
+            int written = source.remaining();
+            source.position(source.limit());
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
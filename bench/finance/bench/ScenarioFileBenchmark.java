@@ -0,0 +1,77 @@
+package finance.bench;
+
+import finance.batch.ScenarioFile;
+import finance.enums.CompoundingOption;
+import finance.enums.TVMRegister;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a memory-mapped ScenarioFile of 1,000,000 records in a temporary
+ * file: writing every record, and solving the file in parallel for a
+ * register. The results are per record.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScenarioFileBenchmark {
+
+    private static final int RECORDS = 1000000;
+
+    @Param({"PMT", "FV"})
+    public TVMRegister target;
+
+    private BenchmarkData data;
+    private Path path;
+    private ScenarioFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        data = new BenchmarkData(RECORDS, CompoundingOption.MONTHLY);
+        path = Files.createTempFile("scenarios", ".tvm");
+        file = ScenarioFile.create(path, RECORDS);
+        write();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        file.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void write() {
+        for (int i = 0; i < RECORDS; i++) {
+            file.set(i, data.compounding, data.years[i], data.apr[i], data.amount[i],
+                    -data.payment[i], 0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void solve() {
+        file.solve(target);
+    }
+}
@@ -0,0 +1,70 @@
+package finance.bench;
+
+import finance.LoanPayment;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import finance.ui.SensitivityTableModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures building a 200 x 50 loan payment sensitivity grid (APRs from
+ * 0.125% to 25% by eighths, terms from 1 to 50 years) with
+ * SensitivityTableModel, against one LoanPayment object per cell.
+ * @author koluongMBP
+ * @version 261016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SensitivityGridBenchmark {
+
+    private double[] apr;
+    private double[] years;
+
+    @Setup
+    public void setUp() {
+        apr = SensitivityTableModel.steps(0.125, 25, 0.125, 0);
+        years = SensitivityTableModel.steps(1, 50, 1, 0);
+    }
+
+    @Benchmark
+    public SensitivityTableModel grid() {
+        return new SensitivityTableModel(QuoteType.LOAN_PAYMENT, CompoundingOption.MONTHLY,
+                350000, 50000, apr, years);
+    }
+
+    @Benchmark
+    public void loanObjects(Blackhole blackhole) {
+        for (double rate : apr) {
+            for (double term : years) {
+                blackhole.consume(new Quote(350000, 50000, rate, CompoundingOption.MONTHLY,
+                        term).payment());
+            }
+        }
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
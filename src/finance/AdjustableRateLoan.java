@@ -0,0 +1,449 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import finance.enums.ReportFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The AdjustableRateLoan class calculates the payments of a loan whose rate
+ * changes over its life, such as an adjustable-rate mortgage (ARM) or a
+ * teaser-rate product. The loan starts at its APR, and a RateSchedule gives
+ * the APR that takes effect at each later reset. At every reset the payment
+ * is recalculated so that the remaining balance is paid off over the
+ * remaining term at the new rate.
+ * <p>
+ * The loan is calculated segment by segment, a segment being the run of
+ * payment periods between two resets. The payment of a segment and the
+ * balance at its end both follow from the TVM closed forms, so each segment
+ * costs two power calculations however many periods it spans: a 30-year 5/1
+ * ARM is 26 segments rather than 360 periods. As in AmortizationSchedule, a
+ * reset takes effect at the nearest whole payment period, and the final
+ * payment is adjusted to clear the balance.
+ * <p>
+ * In PrecisionMode.DECIMAL each segment is amortized as AmortizationSchedule
+ * does in that mode: the payment of the segment is calculated in decimal
+ * arithmetic and rounded to the minor unit of the currency, and the balance
+ * is carried in whole minor units with each period's interest rounded
+ * HALF_UP. Rounded interest has no closed form, so decimal segments are
+ * stepped period by period. This class inherits the TVMEngine class and
+ * implements the Report interface. The loan parameters are held in an
+ * immutable TVMScenario and an immutable RateSchedule, so once configured a
+ * single object can be read by any number of threads.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public class AdjustableRateLoan extends TVMEngine implements Report {
+
+    private static final String[] COMPOUNDING_TEXT = new String[CompoundingOption.values().length];
+    private static final String[] PAYMENT_LABELS = new String[COMPOUNDING_TEXT.length];
+
+    static {
+        for (CompoundingOption option : CompoundingOption.values()) {
+            COMPOUNDING_TEXT[option.ordinal()] = option.toString().toLowerCase();
+            PAYMENT_LABELS[option.ordinal()] = "Initial Payment (" + COMPOUNDING_TEXT[option.ordinal()] + ")";
+        }
+    }
+
+    private volatile double purchaseAmount;
+    private volatile double downPayment;
+    private volatile RateSchedule schedule = new RateSchedule();
+
+    /**
+     * Creates a loan with no parameters set. Parameters must be set with the
+     * appropriate set () methods.
+     */
+    public AdjustableRateLoan() {
+        super();
+    }
+
+    /**
+     * Creates a loan configured with the specified parameters.
+     *
+     * @param purchaseAmount the amount of the purchase made by the borrower
+     * @param downPayment the down payment made against the purchase amount
+     * @param initialRate the annual percentage rate (APR) before the first
+     * reset
+     * @param compounding how often interest is added to the loan principal
+     * @param loanDuration the duration of the loan in years
+     * @param schedule the rate resets
+     */
+    public AdjustableRateLoan(double purchaseAmount, double downPayment, double initialRate,
+            CompoundingOption compounding, double loanDuration, RateSchedule schedule) {
+        super();
+        this.purchaseAmount = purchaseAmount;
+        this.downPayment = downPayment;
+        setCompounding(compounding);
+        updateLoan();
+        setAPR(initialRate);
+        setYears(loanDuration);
+        setRateSchedule(schedule);
+    }
+
+    /**
+     * Sets the purchase amount associated with this loan.
+     *
+     * @param purchaseAmount the amount of the purchase made by the borrower
+     */
+    public synchronized void setPurchaseAmount(double purchaseAmount) {
+        this.purchaseAmount = purchaseAmount;
+        updateLoan();
+    }
+
+    /**
+     * Sets the down payment associated with this loan.
+     *
+     * @param downPayment the down payment made against the purchase amount
+     */
+    public synchronized void setDownPayment(double downPayment) {
+        this.downPayment = downPayment;
+        updateLoan();
+    }
+
+    /**
+     * Sets the rate resets. The APR set with setAPR () applies before the
+     * first reset.
+     *
+     * @param schedule the rate resets
+     */
+    public synchronized void setRateSchedule(RateSchedule schedule) {
+        if (schedule == null) {
+            throw new IllegalArgumentException("A rate schedule is required.");
+        }
+        this.schedule = schedule;
+    }
+
+    /**
+     * Returns the purchase amount associated with this loan.
+     *
+     * @return the purchase amount
+     */
+    public double getPurchaseAmount() {
+        return purchaseAmount;
+    }
+
+    /**
+     * Returns the down payment associated with this loan.
+     *
+     * @return the down payment
+     */
+    public double getDownPayment() {
+        return downPayment;
+    }
+
+    /**
+     * Returns the rate resets of this loan.
+     *
+     * @return the rate schedule
+     */
+    public RateSchedule getRateSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Calculates the segments of the loan, one for the initial rate and one
+     * for each reset that falls within the loan term.
+     *
+     * @return the segments, in order
+     */
+    public Segment[] calcSegments() {
+        TVMScenario loan;
+        RateSchedule resets;
+        synchronized (this) {
+            loan = getScenario();
+            resets = schedule;
+        }
+        return calcSegments(loan, resets, getPrecisionMode());
+    }
+
+    /**
+     * Provides the initial periodic payment formatted as currency.
+     *
+     * @return the initial payment as text
+     */
+    @Override
+    public String getValue() {
+        return toCurrency(calcSegments()[0].getPayment());
+    }
+
+    /**
+     * Provides a text summary report of the loan. The report includes the
+     * amount purchased, down payment, initial interest rate (APR),
+     * compounding, loan duration, number of rate resets, initial and highest
+     * payments, and total interest.
+     *
+     * @return a summary of the loan
+     */
+    @Override
+    public String print() {
+        StringBuilder text = new StringBuilder(384);
+        try {
+            writeTo(ReportWriter.create(ReportFormat.TEXT, text, getCurrencyFormatter()));
+        } catch (IOException e) {
+            // A StringBuilder does not throw.
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the loan summary to a report writer. The segments are
+     * calculated once.
+     *
+     * @param writer the writer that renders the report
+     * @throws IOException if the writer's output cannot be written
+     */
+    @Override
+    public void writeTo(ReportWriter writer) throws IOException {
+
+        // Report from a single snapshot so that a concurrent update cannot mix
+        // old and new loan parameters. The setters update the amounts, the
+        // scenario and the rate schedule under this lock, so they are read
+        // together under it; the report itself is written outside the lock.
+        double purchase;
+        double down;
+        TVMScenario loan;
+        RateSchedule resets;
+        synchronized (this) {
+            purchase = purchaseAmount;
+            down = downPayment;
+            loan = getScenario();
+            resets = schedule;
+        }
+        Segment[] segments = calcSegments(loan, resets, getPrecisionMode());
+        double highest = 0;
+        double interest = 0;
+        for (Segment segment : segments) {
+            highest = Math.max(highest, segment.getPayment());
+            interest += segment.getInterest();
+        }
+        int option = loan.getCompounding().ordinal();
+        writer.beginReport("Adjustable-Rate Loan Summary");
+        writer.amount("purchaseAmount", "Purchase Amount", purchase);
+        writer.amount("downPayment", "Down Payment", down);
+        writer.amount("amountFinanced", "Amount Financed", loan.getPV());
+        writer.percent("initialApr", "Initial APR", loan.getAPR());
+        writer.text("compounding", "Compounding", COMPOUNDING_TEXT[option]);
+        writer.number("years", "Loan Duration (years)", loan.getYears());
+        writer.number("resets", "Rate Resets", segments.length - 1);
+        writer.amount("initialPayment", PAYMENT_LABELS[option], segments[0].getPayment());
+        writer.amount("highestPayment", "Highest Payment", highest);
+        writer.amount("totalInterest", "Total Interest", interest);
+        writer.endReport();
+    }
+
+    /**
+     * A run of payment periods at one rate. Amounts follow the borrower's
+     * view of the balance: the balance, payment and interest are positive
+     * for a loan.
+     */
+    public static final class Segment {
+
+        private final int startPeriod;
+        private final int periods;
+        private final double apr;
+        private final double periodRate;
+        private final double payment;
+        private final double startBalance;
+        private final double endBalance;
+        private final double interest;
+
+        private Segment(int startPeriod, int periods, double apr, double periodRate,
+                double payment, double startBalance, double endBalance, double interest) {
+            this.startPeriod = startPeriod;
+            this.periods = periods;
+            this.apr = apr;
+            this.periodRate = periodRate;
+            this.payment = payment;
+            this.startBalance = startBalance;
+            this.endBalance = endBalance;
+            this.interest = interest;
+        }
+
+        /**
+         * Provides the number of payments made before the segment.
+         *
+         * @return the first period of the segment, from zero
+         */
+        public int getStartPeriod() {
+            return startPeriod;
+        }
+
+        /**
+         * Provides the number of payments in the segment.
+         *
+         * @return the number of payment periods
+         */
+        public int getPeriods() {
+            return periods;
+        }
+
+        /**
+         * Provides the rate of the segment.
+         *
+         * @return the annual percentage rate (APR), as a percentage (e.g.,
+         * 6.5 for 6.5%)
+         */
+        public double getAPR() {
+            return apr;
+        }
+
+        /**
+         * Provides the interest rate applied in each payment period of the
+         * segment, derived from the APR and the compounding frequency.
+         *
+         * @return the rate per payment period, as a fraction (e.g., 0.005 for
+         * 0.5%)
+         */
+        public double getPeriodRate() {
+            return periodRate;
+        }
+
+        /**
+         * Provides the payment made in each period of the segment. The final
+         * payment of the loan also clears any balance left by rounding; see
+         * getInterest ().
+         *
+         * @return the periodic payment
+         */
+        public double getPayment() {
+            return payment;
+        }
+
+        /**
+         * Provides the balance owed before the first payment of the segment,
+         * positive for a loan.
+         *
+         * @return the starting balance
+         */
+        public double getStartBalance() {
+            return startBalance;
+        }
+
+        /**
+         * Provides the balance owed after the last payment of the segment,
+         * positive for a loan and zero at the end of the final segment.
+         *
+         * @return the ending balance
+         */
+        public double getEndBalance() {
+            return endBalance;
+        }
+
+        /**
+         * Provides the interest paid over the segment.
+         *
+         * @return the interest
+         */
+        public double getInterest() {
+            return interest;
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static Segment[] calcSegments(TVMScenario loan, RateSchedule schedule,
+            PrecisionMode mode) {
+        double paymentsPerYear = loan.getPaymentFrequency();
+        // Whole payments, as AmortizationSchedule counts them.
+        int total = (int) Math.max(1, Math.round(loan.getPeriods()));
+
+        // The start period and rate of each segment. A reset that rounds to
+        // the same period as the one before replaces it.
+        int[] starts = new int[schedule.size() + 1];
+        double[] rates = new double[starts.length];
+        rates[0] = loan.getAPR();
+        int count = 1;
+        for (int k = 0; k < schedule.size(); k++) {
+            long start = Math.round(schedule.getYears(k) * paymentsPerYear);
+            if (start >= total) {
+                break;
+            }
+            if (start > starts[count - 1]) {
+                count++;
+            }
+            starts[count - 1] = (int) start;
+            rates[count - 1] = schedule.getAPR(k);
+        }
+
+        // As in AmortizationSchedule, a loan whose payment cannot be
+        // calculated in decimal is calculated in double precision.
+        if (mode == PrecisionMode.DECIMAL && DecimalFormulas.wholePeriods(loan) > 0) {
+            return decimalSegments(loan, starts, rates, count, total);
+        }
+        return doubleSegments(loan, starts, rates, count, total);
+    }
+
+    private static Segment[] doubleSegments(TVMScenario loan, int[] starts, double[] rates,
+            int count, int total) {
+        double compoundingPerYear = loan.getCompoundingFrequency();
+        double paymentsPerYear = loan.getPaymentFrequency();
+        Segment[] segments = new Segment[count];
+        double balance = loan.getPV();
+        for (int k = 0; k < count; k++) {
+            int start = starts[k];
+            int end = k + 1 < count ? starts[k + 1] : total;
+            int periods = end - start;
+            int remaining = total - start;
+            double i = k == 0 && start == 0 && rates[0] == loan.getAPR()
+                    ? loan.getPeriodRate()
+                    : TVMFormulas.periodRate(rates[k] / 100, compoundingPerYear, paymentsPerYear);
+            // Recast: the payment that pays off the balance over the
+            // remaining term, then the balance left after this segment. The
+            // final payment clears what rounding has left.
+            double remainingGrowth = TVMFormulas.growth(i, remaining);
+            double payment = -TVMFormulas.payment(balance, 0, i, remaining, remainingGrowth);
+            double left = -TVMFormulas.futureValue(balance, -payment, i, periods,
+                    end == total ? remainingGrowth : TVMFormulas.growth(i, periods));
+            double endBalance = end == total ? 0 : left;
+            double paid = payment * periods + (left - endBalance);
+            segments[k] = new Segment(start, periods, rates[k], i, payment, balance, endBalance,
+                    paid - (balance - endBalance));
+            balance = endBalance;
+        }
+        return segments;
+    }
+
+    // Amounts in whole minor units of the currency, as in the decimal mode of
+    // AmortizationSchedule.
+    private static Segment[] decimalSegments(TVMScenario loan, int[] starts, double[] rates,
+            int count, int total) {
+        int fractionDigits = CurrencyFormatter.getInstance().getFractionDigits();
+        double unitsPerCurrency = Math.pow(10, fractionDigits);
+        Segment[] segments = new Segment[count];
+        long balanceUnits = DecimalFormulas.decimal(loan.getPV()).movePointRight(fractionDigits)
+                .setScale(0, RoundingMode.HALF_UP).longValue();
+        for (int k = 0; k < count; k++) {
+            int start = starts[k];
+            int end = k + 1 < count ? starts[k + 1] : total;
+            TVMScenario rate = k == 0 ? loan : loan.withAPR(rates[k]);
+            BigDecimal rateNumerator = DecimalFormulas.rateNumerator(rate);
+            BigDecimal rateDivisor = DecimalFormulas.rateDivisor(rate);
+            BigDecimal periodRate = rateNumerator.divide(rateDivisor, DecimalFormulas.CONTEXT);
+            long paymentUnits = DecimalFormulas.payment(
+                    BigDecimal.valueOf(balanceUnits, fractionDigits), BigDecimal.ZERO,
+                    periodRate, total - start).negate().movePointRight(fractionDigits)
+                    .setScale(0, RoundingMode.HALF_UP).longValue();
+            long startUnits = balanceUnits;
+            long interestUnits = 0;
+            for (int period = start; period < end; period++) {
+                long due = BigDecimal.valueOf(balanceUnits).multiply(rateNumerator)
+                        .divide(rateDivisor, 0, RoundingMode.HALF_UP).longValue();
+                interestUnits += due;
+                balanceUnits -= period == total - 1 ? balanceUnits : paymentUnits - due;
+            }
+            segments[k] = new Segment(start, end - start, rates[k], periodRate.doubleValue(),
+                    paymentUnits / unitsPerCurrency, startUnits / unitsPerCurrency,
+                    balanceUnits / unitsPerCurrency, interestUnits / unitsPerCurrency);
+        }
+        return segments;
+    }
+
+    private void updateLoan() {
+        setPV(this.purchaseAmount - this.downPayment);
+    }
+}
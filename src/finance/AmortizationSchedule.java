@@ -0,0 +1,255 @@
+package finance;
+
+import finance.enums.PrecisionMode;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The AmortizationSchedule class breaks the payments on a loan down period by
+ * period into interest, principal, remaining balance and cumulative interest.
+ * The periodic payment is calculated once with the TVM equation; each row is
+ * then derived from the balance of the previous row, so producing the
+ * schedule costs a few arithmetic operations per period and no power
+ * calculations.
+ * <p>
+ * The schedule is available in two forms:<ol>
+ * <li>fill () writes every row into caller-supplied primitive arrays.</li>
+ * <li>cursor () returns a Cursor that steps through the rows one at a time
+ * without ever holding the whole table, which suits long schedules that are
+ * streamed to a file or aggregated.</li>
+ * </ol>
+ * In PrecisionMode.DECIMAL the payment is calculated in decimal arithmetic
+ * and rounded to the minor unit of the currency, and the schedule is kept in
+ * whole minor units: each period's interest is rounded HALF_UP, the rest of
+ * the payment repays principal, and the final payment is adjusted so that
+ * the balance ends at exactly zero. Every row is then exact to the cent.
+ * <p>
+ * Amounts are reported from the borrower's point of view: the payment,
+ * interest, principal and balance of an ordinary loan are all positive. A
+ * schedule is immutable and may be shared across threads; each Cursor belongs
+ * to a single thread.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class AmortizationSchedule {
+
+    private final double principal;
+    private final double periodRate;
+    private final double payment;
+    private final int periods;
+
+    // Decimal mode only (rateNumerator is null otherwise): the rate per
+    // period as a fraction and the amounts in whole minor units of the
+    // currency.
+    private final BigDecimal rateNumerator;
+    private final BigDecimal rateDivisor;
+    private final long principalUnits;
+    private final long paymentUnits;
+    private final double unitsPerCurrency;
+
+    /**
+     * Creates the amortization schedule for a loan in double precision. The
+     * present value of the scenario is the amount financed; the payment is
+     * solved from the other registers, so any PMT held by the scenario is
+     * ignored.
+     *
+     * @param loan the loan scenario
+     */
+    public AmortizationSchedule(TVMScenario loan) {
+        this(loan, PrecisionMode.DOUBLE);
+    }
+
+    /**
+     * Creates the amortization schedule for a loan in the specified precision
+     * mode. A scenario whose payment cannot be calculated (for example, one
+     * with no payment periods) is scheduled in double precision.
+     *
+     * @param loan the loan scenario
+     * @param mode the precision mode
+     */
+    public AmortizationSchedule(TVMScenario loan, PrecisionMode mode) {
+        this.periodRate = loan.getPeriodRate();
+        this.periods = (int) Math.round(loan.getPeriods());
+        int fractionDigits = CurrencyFormatter.getInstance().getFractionDigits();
+        double decimalPayment = mode == PrecisionMode.DECIMAL
+                ? -DecimalFormulas.payment(loan, fractionDigits) : Double.NaN;
+        if (Double.isNaN(decimalPayment) || Double.isInfinite(decimalPayment)) {
+            this.principal = loan.getPV();
+            this.payment = -loan.calcPMT();
+            this.rateNumerator = null;
+            this.rateDivisor = null;
+            this.principalUnits = 0;
+            this.paymentUnits = 0;
+            this.unitsPerCurrency = 1;
+        } else {
+            this.unitsPerCurrency = Math.pow(10, fractionDigits);
+            this.rateNumerator = DecimalFormulas.rateNumerator(loan);
+            this.rateDivisor = DecimalFormulas.rateDivisor(loan);
+            this.principalUnits = DecimalFormulas.decimal(loan.getPV()).movePointRight(fractionDigits)
+                    .setScale(0, RoundingMode.HALF_UP).longValue();
+            this.paymentUnits = Math.round(decimalPayment * unitsPerCurrency);
+            this.principal = principalUnits / unitsPerCurrency;
+            this.payment = decimalPayment;
+        }
+    }
+
+    /**
+     * Returns the number of payment periods (rows) in the schedule.
+     *
+     * @return the number of payment periods
+     */
+    public int getPeriods() {
+        return periods;
+    }
+
+    /**
+     * Returns the amount paid in every period. In decimal mode the final
+     * payment may differ from this amount by the rounding of the schedule;
+     * see Cursor.getPayment ().
+     *
+     * @return the periodic payment
+     */
+    public double getPayment() {
+        return payment;
+    }
+
+    /**
+     * Returns the amount financed.
+     *
+     * @return the loan principal
+     */
+    public double getPrincipal() {
+        return principal;
+    }
+
+    /**
+     * Writes the schedule into caller-supplied arrays. Element k of each array
+     * receives the value for payment period k + 1. Any array may be null if
+     * that column is not needed; the others must hold at least getPeriods ()
+     * elements.
+     *
+     * @param interest receives the interest paid in each period
+     * @param principalPaid receives the principal repaid in each period
+     * @param balance receives the balance remaining after each payment
+     * @param cumulativeInterest receives the total interest paid up to and
+     * including each period
+     */
+    public void fill(double[] interest, double[] principalPaid,
+            double[] balance, double[] cumulativeInterest) {
+        Cursor row = cursor();
+        for (int k = 0; row.next(); k++) {
+            if (interest != null) {
+                interest[k] = row.interest;
+            }
+            if (principalPaid != null) {
+                principalPaid[k] = row.principalPaid;
+            }
+            if (balance != null) {
+                balance[k] = row.balance;
+            }
+            if (cumulativeInterest != null) {
+                cumulativeInterest[k] = row.cumulativeInterest;
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor positioned before the first row of the schedule.
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Steps through an amortization schedule one row at a time. Call next ()
+     * to advance to each row, then read the row with the "get" methods. A
+     * cursor holds only the current row.
+     */
+    public final class Cursor {
+
+        private int period;
+        private double rowPayment = payment;
+        private double interest;
+        private double principalPaid;
+        private double balance = principal;
+        private double cumulativeInterest;
+        private long balanceUnits = principalUnits;
+        private long cumulativeUnits;
+
+        private Cursor() {
+        }
+
+        /**
+         * Advances to the next row.
+         *
+         * @return true if the cursor is on a row, or false if the schedule is
+         * finished
+         */
+        public boolean next() {
+            if (period >= periods) {
+                return false;
+            }
+            period++;
+            if (rateNumerator != null) {
+                nextDecimal();
+                return true;
+            }
+            interest = balance * periodRate;
+            principalPaid = payment - interest;
+            balance -= principalPaid;
+            cumulativeInterest += interest;
+            return true;
+        }
+
+        /**
+         * Returns the payment period of the current row, starting at 1.
+         *
+         * @return the payment period
+         */
+        public int getPeriod() {
+            return period;
+        }
+
+        /**
+         * Returns the amount paid in the current row. In decimal mode the
+         * final payment is adjusted to clear the balance.
+         *
+         * @return the payment
+         */
+        public double getPayment() {
+            return rowPayment;
+        }
+
+        public double getInterest() {
+            return interest;
+        }
+
+        public double getPrincipal() {
+            return principalPaid;
+        }
+
+        public double getBalance() {
+            return balance;
+        }
+
+        public double getCumulativeInterest() {
+            return cumulativeInterest;
+        }
+
+        private void nextDecimal() {
+            long interestUnits = BigDecimal.valueOf(balanceUnits).multiply(rateNumerator)
+                    .divide(rateDivisor, 0, RoundingMode.HALF_UP).longValue();
+            long repaidUnits = period == periods ? balanceUnits : paymentUnits - interestUnits;
+            balanceUnits -= repaidUnits;
+            cumulativeUnits += interestUnits;
+            rowPayment = (interestUnits + repaidUnits) / unitsPerCurrency;
+            interest = interestUnits / unitsPerCurrency;
+            principalPaid = repaidUnits / unitsPerCurrency;
+            balance = balanceUnits / unitsPerCurrency;
+            cumulativeInterest = cumulativeUnits / unitsPerCurrency;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package finance;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The slot bookkeeping shared by the fixed-size caches of this package
+ * (DiscountFactorCache and QuoteCache). The slots are grouped into sets of
+ * WAYS slots; a key is mapped to a set by its hash, and when a set is full its
+ * least recently used slot is given to the new key. The sets are guarded by a
+ * fixed number of striped locks.
+ * <p>
+ * A cache keeps its keys and values in its own arrays, indexed by slot, and
+ * drives this class as follows: it chooses the set with set (), holds
+ * lock () while it scans the slots from first () for a used slot with its key,
+ * and records the outcome with hit () or miss (). To store a value it takes a
+ * slot from evict () under the lock, fills it and calls use (). Every method
+ * that takes a slot must be called while holding the lock of its set.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class CacheSlots {
+
+    /**
+     * Slots per set. Lookups scan the whole set.
+     */
+    static final int WAYS = 4;
+
+    /**
+     * The largest maximum size a cache accepts.
+     */
+    static final int MAX_SIZE = 1 << 28;
+
+    // Upper bound on the number of lock stripes.
+    private static final int MAX_STRIPES = 64;
+
+    // The clock value of the last use of each slot; 0 marks a free slot.
+    private final long[] lastUsed;
+    private final long[] clocks;
+    private final Object[] locks;
+    private final int setMask;
+    private final int stripeMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates the slots of a cache. The maximum size is rounded up to a power
+     * of two of at least WAYS.
+     *
+     * @param maximumSize the maximum number of entries of the cache
+     */
+    CacheSlots(int maximumSize) {
+        if (maximumSize < 1 || maximumSize > MAX_SIZE) {
+            throw new IllegalArgumentException("Maximum size must be between 1 and "
+                    + MAX_SIZE + ".");
+        }
+        int sets = Integer.highestOneBit(Math.max(1, (maximumSize + WAYS - 1) / WAYS) * 2 - 1);
+        int stripes = Math.min(sets, MAX_STRIPES);
+        setMask = sets - 1;
+        stripeMask = stripes - 1;
+        lastUsed = new long[sets * WAYS];
+        clocks = new long[stripes];
+        locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the number of slots, which is the maximum number of entries.
+     *
+     * @return the number of slots
+     */
+    int size() {
+        return lastUsed.length;
+    }
+
+    /**
+     * Selects the set of a key.
+     *
+     * @param hash the hash of the key
+     * @return the set
+     */
+    int set(int hash) {
+        return hash & setMask;
+    }
+
+    /**
+     * Returns the lock that guards a set.
+     *
+     * @param set the set
+     * @return the lock
+     */
+    Object lock(int set) {
+        return locks[set & stripeMask];
+    }
+
+    /**
+     * Returns the first slot of a set; the set holds the WAYS slots from it.
+     *
+     * @param set the set
+     * @return the first slot of the set
+     */
+    static int first(int set) {
+        return set * WAYS;
+    }
+
+    /**
+     * Tells whether a slot holds an entry.
+     *
+     * @param slot the slot
+     * @return true if the slot is in use
+     */
+    boolean isUsed(int slot) {
+        return lastUsed[slot] != 0;
+    }
+
+    /**
+     * Records a lookup answered from a slot, which becomes the most recently
+     * used slot of its set.
+     *
+     * @param slot the slot
+     */
+    void hit(int slot) {
+        use(slot);
+        hits.increment();
+    }
+
+    /**
+     * Records a lookup that had to calculate its value. The lock need not be
+     * held.
+     */
+    void miss() {
+        misses.increment();
+    }
+
+    /**
+     * Chooses the slot for a new key in a set: a free slot if there is one,
+     * and otherwise the least recently used slot, whose entry is evicted.
+     *
+     * @param set the set
+     * @return the slot
+     */
+    int evict(int set) {
+        int first = first(set);
+        int victim = first;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            if (lastUsed[slot] == 0) {
+                return slot;
+            }
+            if (lastUsed[slot] < lastUsed[victim]) {
+                victim = slot;
+            }
+        }
+        evictions.increment();
+        return victim;
+    }
+
+    /**
+     * Marks a slot as the most recently used slot of its set.
+     *
+     * @param slot the slot
+     */
+    void use(int slot) {
+        lastUsed[slot] = ++clocks[(slot / WAYS) & stripeMask];
+    }
+
+    /**
+     * Frees a slot.
+     *
+     * @param slot the slot
+     */
+    void free(int slot) {
+        lastUsed[slot] = 0;
+    }
+
+    /**
+     * Frees every slot, taking each lock in turn. The counts are not reset.
+     *
+     * @param references the cache's array of object values, whose elements are
+     * set to null so that they can be collected, or null if it has none
+     */
+    void clear(Object[] references) {
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int set = stripe; set <= setMask; set += locks.length) {
+                    for (int slot = first(set); slot < first(set) + WAYS; slot++) {
+                        lastUsed[slot] = 0;
+                        if (references != null) {
+                            references[slot] = null;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return the hit ratio, or zero if there have been no lookups
+     */
+    double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,514 @@
+package finance;
+
+/**
+ * The CashFlowAnalysis class values uneven cash flows: the net present value
+ * (NPV) of flows at regular periods, the NPV of dated flows (XNPV), and the
+ * internal rates of return (IRR and XIRR) that make those values zero.
+ * <p>
+ * Flows follow the cash flow sign convention of the TVMScenario class: money
+ * received is positive and money paid out is negative. For regular flows,
+ * flows[t] is made t periods from now, so flows[0] plays the part of PV and
+ * is not discounted; the flows {PV, PMT, ..., PMT + FV} of a TVM scenario
+ * have a net present value of zero at the scenario's rate per period. Dated
+ * flows are discounted at an effective annual rate over the days from the
+ * first flow, with {@value #DAYS_PER_YEAR} days to the year.
+ * <p>
+ * Each evaluation is a single pass over the flows that calculates the value
+ * and, for the root finder, its derivative together: Horner's rule for
+ * regular flows, and discount factors chained from one date to the next for
+ * dated flows, where the factor for a gap of up to 64 days is a power of the
+ * one-day factor found with a few multiplications rather than exp (). At a
+ * positive rate the flows are discounted to the first flow; at a negative
+ * rate they are compounded to the last, so no power exceeds one and long
+ * series cannot overflow. The root finder is the safeguarded Newton-Raphson
+ * iteration of the RateSolver class: Newton steps from an estimate of the
+ * rate, with a fall back to bisection on a bracket that contains a sign
+ * change.
+ * <p>
+ * A CashFlowAnalysis holds only its configuration, does not allocate while
+ * solving, and may be shared across threads.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class CashFlowAnalysis {
+
+    /**
+     * The default tolerance on the rate.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+
+    /**
+     * The default maximum number of iterations.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /**
+     * The number of days in a year when discounting dated flows.
+     */
+    public static final double DAYS_PER_YEAR = 365;
+
+    // Lowest rate considered. A rate of -100% or less has no meaning.
+    private static final double MIN_RATE = -1 + 1e-9;
+
+    // Gaps between dates up to this many days are discounted with powers of
+    // the one-day factor rather than with exp ().
+    private static final long SHORT_GAP = 64;
+
+    // Rates tried, in ascending order, when looking for a bracket.
+    private static final double[] BRACKET_RATES = {MIN_RATE, -0.99, -0.9, -0.5, -0.2,
+        -0.1, -0.01, 0, 0.01, 0.05, 0.1, 0.2, 0.5, 1, 2, 5, 10, 100, 1e3, 1e4, 1e6};
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    /**
+     * Creates a cash flow analysis with the default tolerance and iteration
+     * limit.
+     */
+    public CashFlowAnalysis() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates a cash flow analysis with the specified tolerance and iteration
+     * limit.
+     *
+     * @param tolerance iteration stops when the rate changes by no more than
+     * this amount
+     * @param maxIterations the maximum number of iterations
+     */
+    public CashFlowAnalysis(double tolerance, int maxIterations) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance must be greater than zero.");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("The iteration limit must be at least 1.");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Provides the tolerance: iteration stops when the rate changes by no
+     * more than this amount.
+     *
+     * @return the tolerance
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Provides the maximum number of iterations.
+     *
+     * @return the iteration limit
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Calculates the net present value of flows made at regular periods.
+     *
+     * @param rate the discount rate per period (e.g., 0.005 for 0.5%)
+     * @param flows the flows, flows[t] being made t periods from now
+     * @return the net present value
+     */
+    public static double npv(double rate, double[] flows) {
+        checkRate(rate);
+        return presentValue(rate, flows);
+    }
+
+    /**
+     * Calculates the net present value of dated flows, discounted to the date
+     * of the first flow.
+     *
+     * @param rate the effective annual discount rate (e.g., 0.08 for 8%)
+     * @param flows the flows
+     * @param days the date of each flow as a day number, such as
+     * LocalDate.toEpochDay (), in ascending order
+     * @return the net present value
+     */
+    public static double xnpv(double rate, double[] flows, long[] days) {
+        checkRate(rate);
+        checkDates(flows, days);
+        return presentValue(rate, flows, days);
+    }
+
+    /**
+     * Solves for the internal rate of return of flows made at regular
+     * periods, starting from an estimate made from the flows.
+     *
+     * @param flows the flows, flows[t] being made t periods from now
+     * @return the rate per period, or NaN if the flows do not change sign or
+     * no rate is found within the iteration limit
+     */
+    public double irr(double[] flows) {
+        return solve(flows, null, Double.NaN);
+    }
+
+    /**
+     * Solves for the internal rate of return of flows made at regular
+     * periods, starting from the specified guess.
+     *
+     * @param flows the flows, flows[t] being made t periods from now
+     * @param guess the rate per period to start from
+     * @return the rate per period, or NaN if the flows do not change sign or
+     * no rate is found within the iteration limit
+     */
+    public double irr(double[] flows, double guess) {
+        checkRate(guess);
+        return solve(flows, null, guess);
+    }
+
+    /**
+     * Solves for the internal rate of return of dated flows, starting from an
+     * estimate made from the flows.
+     *
+     * @param flows the flows
+     * @param days the date of each flow as a day number, such as
+     * LocalDate.toEpochDay (), in ascending order
+     * @return the effective annual rate, or NaN if the flows do not change
+     * sign or no rate is found within the iteration limit
+     */
+    public double xirr(double[] flows, long[] days) {
+        checkDates(flows, days);
+        return solve(flows, days, Double.NaN);
+    }
+
+    /**
+     * Solves for the internal rate of return of dated flows, starting from the
+     * specified guess.
+     *
+     * @param flows the flows
+     * @param days the date of each flow as a day number, such as
+     * LocalDate.toEpochDay (), in ascending order
+     * @param guess the effective annual rate to start from
+     * @return the effective annual rate, or NaN if the flows do not change
+     * sign or no rate is found within the iteration limit
+     */
+    public double xirr(double[] flows, long[] days, double guess) {
+        checkRate(guess);
+        checkDates(flows, days);
+        return solve(flows, days, guess);
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static void checkRate(double rate) {
+        if (!(rate > -1)) {
+            throw new IllegalArgumentException("The rate must be greater than -100%.");
+        }
+    }
+
+    private static void checkDates(double[] flows, long[] days) {
+        if (flows.length != days.length) {
+            throw new IllegalArgumentException("Every flow needs a date.");
+        }
+        for (int j = 1; j < days.length; j++) {
+            if (days[j] < days[j - 1]) {
+                throw new IllegalArgumentException("The dates must be in ascending order.");
+            }
+        }
+    }
+
+    private double solve(double[] flows, long[] days, double guess) {
+        if (!changesSign(flows)) {
+            return Double.NaN;
+        }
+        double x = Double.isNaN(guess) ? initialGuess(flows, days) : guess;
+        int iteration = 0;
+
+        // Unguarded Newton-Raphson from the initial estimate. From the low
+        // side of a convex NPV curve each step falls short of the root and
+        // the steps may grow for a while; a growing step that also changes
+        // direction, or grows tenfold, means Newton is not converging.
+        double previousStep = Double.POSITIVE_INFINITY;
+        while (iteration < maxIterations) {
+            iteration++;
+            double step = newtonStep(x, flows, days);
+            if (step == 0) {
+                return x;
+            }
+            double next = x - step;
+            double growth = step / previousStep;
+            if (!(next > MIN_RATE) || Double.isInfinite(next)
+                    || growth < -1 || growth > 10) {
+                break;
+            }
+            if (Math.abs(step) <= tolerance) {
+                return next;
+            }
+            previousStep = step;
+            x = next;
+        }
+
+        // Fall back to a bracketed search on the sign change nearest the
+        // estimate, taking a Newton step only when it stays inside the
+        // bracket and shrinks faster than bisection would.
+        double lo = Double.NaN;
+        double hi = Double.NaN;
+        double fLo = Double.NaN;
+        double distance = Double.POSITIVE_INFINITY;
+        double previousRate = BRACKET_RATES[0];
+        double previousValue = value(previousRate, flows, days);
+        for (int k = 1; k < BRACKET_RATES.length; k++) {
+            double rate = BRACKET_RATES[k];
+            double f = value(rate, flows, days);
+            if (f == 0) {
+                return rate;
+            }
+            if (Math.signum(f) == -Math.signum(previousValue)) {
+                double gap = x < previousRate ? previousRate - x : x > rate ? x - rate : 0;
+                if (gap < distance) {
+                    distance = gap;
+                    lo = previousRate;
+                    hi = rate;
+                    fLo = previousValue;
+                }
+            }
+            previousRate = rate;
+            previousValue = f;
+        }
+        if (Double.isNaN(lo)) {
+            return Double.NaN;
+        }
+        if (!(x > lo && x < hi)) {
+            x = 0.5 * (lo + hi);
+        }
+        double step = hi - lo;
+        while (iteration < maxIterations) {
+            iteration++;
+            double f = value(x, flows, days);
+            if (f == 0) {
+                return x;
+            }
+            if (Math.signum(f) == Math.signum(fLo)) {
+                lo = x;
+                fLo = f;
+            } else {
+                hi = x;
+            }
+            double previous = step;
+            double next = x - newtonStep(x, flows, days);
+            if (!(next > lo && next < hi)
+                    || Math.abs(next - x) > 0.5 * Math.abs(previous)) {
+                next = 0.5 * (lo + hi);
+            }
+            step = next - x;
+            if (Math.abs(step) <= tolerance || hi - lo <= tolerance) {
+                return next;
+            }
+            x = next;
+        }
+        return Double.NaN;
+    }
+
+    private static boolean changesSign(double[] flows) {
+        boolean positive = false;
+        boolean negative = false;
+        for (double flow : flows) {
+            positive |= flow > 0;
+            negative |= flow < 0;
+        }
+        return positive && negative;
+    }
+
+    // Estimates the rate as RateSolver does, by collapsing the flows of each
+    // sign into a single flow at their average time and equating the values
+    // of the two collapsed flows.
+    private static double initialGuess(double[] flows, long[] days) {
+        double positive = 0;
+        double positiveTime = 0;
+        double negative = 0;
+        double negativeTime = 0;
+        for (int t = 0; t < flows.length; t++) {
+            double time = days == null ? t : (days[t] - days[0]) / DAYS_PER_YEAR;
+            if (flows[t] > 0) {
+                positive += flows[t];
+                positiveTime += flows[t] * time;
+            } else {
+                negative -= flows[t];
+                negativeTime -= flows[t] * time;
+            }
+        }
+        double guess = Math.expm1(Math.log(negative / positive)
+                / (negativeTime / negative - positiveTime / positive));
+        if (!(guess > MIN_RATE) || Double.isInfinite(guess)) {
+            guess = 0.1;
+        }
+        return guess;
+    }
+
+    // A function with the sign of the NPV at the rate: the NPV itself at a
+    // positive rate and the value at the last flow at a negative one.
+    private static double value(double rate, double[] flows, long[] days) {
+        if (rate >= 0) {
+            return days == null ? presentValue(rate, flows) : presentValue(rate, flows, days);
+        }
+        return days == null ? futureValue(rate, flows) : futureValue(rate, flows, days);
+    }
+
+    // Sum of flows[t] v^t with v = 1 / (1 + rate), by Horner's rule from the
+    // last flow.
+    private static double presentValue(double rate, double[] flows) {
+        int last = flows.length - 1;
+        if (last < 0) {
+            return 0;
+        }
+        double v = 1 / (1 + rate);
+        double p = flows[last];
+        for (int t = last - 1; t >= 0; t--) {
+            p = p * v + flows[t];
+        }
+        return p;
+    }
+
+    // Sum of flows[t] (1 + rate)^(last - t), by Horner's rule from the first
+    // flow.
+    private static double futureValue(double rate, double[] flows) {
+        if (flows.length == 0) {
+            return 0;
+        }
+        double x = 1 + rate;
+        double p = flows[0];
+        for (int t = 1; t < flows.length; t++) {
+            p = p * x + flows[t];
+        }
+        return p;
+    }
+
+    // Sum of flows[j] (1 + rate)^-(years from the first date), with each
+    // discount factor chained from the one before.
+    private static double presentValue(double rate, double[] flows, long[] days) {
+        double logGrowth = Math.log1p(rate) / DAYS_PER_YEAR;
+        double dayDiscount = Math.exp(-logGrowth);
+        double p = 0;
+        double df = 1;
+        long gap = 0;
+        double gapFactor = 1;
+        for (int j = 0; j < flows.length; j++) {
+            if (j > 0) {
+                long next = days[j] - days[j - 1];
+                if (next != gap) {
+                    gap = next;
+                    gapFactor = gapFactor(dayDiscount, -logGrowth, gap);
+                }
+                df *= gapFactor;
+            }
+            p += flows[j] * df;
+        }
+        return p;
+    }
+
+    // Sum of flows[j] (1 + rate)^(years to the last date), with each growth
+    // factor chained from the one after.
+    private static double futureValue(double rate, double[] flows, long[] days) {
+        double logGrowth = Math.log1p(rate) / DAYS_PER_YEAR;
+        double dayGrowth = Math.exp(logGrowth);
+        double p = 0;
+        double g = 1;
+        long gap = 0;
+        double gapFactor = 1;
+        for (int j = flows.length - 1; j >= 0; j--) {
+            if (j < flows.length - 1) {
+                long next = days[j + 1] - days[j];
+                if (next != gap) {
+                    gap = next;
+                    gapFactor = gapFactor(dayGrowth, logGrowth, gap);
+                }
+                g *= gapFactor;
+            }
+            p += flows[j] * g;
+        }
+        return p;
+    }
+
+    // exp (days * logGrowth): for a short gap, the one-day factor
+    // exp (logGrowth) raised to the power by repeated squaring, which takes a
+    // few multiplications.
+    private static double gapFactor(double day, double logGrowth, long days) {
+        if (days > SHORT_GAP) {
+            return Math.exp(days * logGrowth);
+        }
+        double base = day;
+        double factor = 1;
+        for (long n = days; n > 0; n >>= 1) {
+            if ((n & 1) != 0) {
+                factor *= base;
+            }
+            base *= base;
+        }
+        return factor;
+    }
+
+    // The Newton-Raphson step value () / value' () at the rate, from a single
+    // pass that calculates both.
+    private static double newtonStep(double rate, double[] flows, long[] days) {
+        int last = flows.length - 1;
+        if (days == null) {
+            if (rate >= 0) {
+                // P(v) = sum flows[t] v^t and dP/drate = -v^2 P'(v).
+                double v = 1 / (1 + rate);
+                double p = flows[last];
+                double d = 0;
+                for (int t = last - 1; t >= 0; t--) {
+                    d = d * v + p;
+                    p = p * v + flows[t];
+                }
+                return p / (-v * v * d);
+            }
+            // F(x) = sum flows[t] x^(last - t) and dF/drate = F'(x).
+            double x = 1 + rate;
+            double p = flows[0];
+            double d = 0;
+            for (int t = 1; t <= last; t++) {
+                d = d * x + p;
+                p = p * x + flows[t];
+            }
+            return p / d;
+        }
+        double logGrowth = Math.log1p(rate) / DAYS_PER_YEAR;
+        double dayDiscount = Math.exp(-logGrowth);
+        double dayGrowth = Math.exp(logGrowth);
+        double p = 0;
+        // Sum of flows times discount factors times days from the end the
+        // factor is measured from; the derivative is this over
+        // (1 + rate) DAYS_PER_YEAR, negated when discounting.
+        double d = 0;
+        double factor = 1;
+        long gap = 0;
+        double gapFactor = 1;
+        if (rate >= 0) {
+            for (int j = 0; j <= last; j++) {
+                if (j > 0) {
+                    long next = days[j] - days[j - 1];
+                    if (next != gap) {
+                        gap = next;
+                        gapFactor = gapFactor(dayDiscount, -logGrowth, gap);
+                    }
+                    factor *= gapFactor;
+                }
+                double flow = flows[j] * factor;
+                p += flow;
+                d -= flow * (days[j] - days[0]);
+            }
+        } else {
+            for (int j = last; j >= 0; j--) {
+                if (j < last) {
+                    long next = days[j + 1] - days[j];
+                    if (next != gap) {
+                        gap = next;
+                        gapFactor = gapFactor(dayGrowth, logGrowth, gap);
+                    }
+                    factor *= gapFactor;
+                }
+                double flow = flows[j] * factor;
+                p += flow;
+                d += flow * (days[last] - days[j]);
+            }
+        }
+        return p / (d / ((1 + rate) * DAYS_PER_YEAR));
+    }
+}
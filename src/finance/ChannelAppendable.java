@@ -0,0 +1,156 @@
+package finance;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ChannelAppendable class lets a ReportWriter (or anything else that
+ * writes to an Appendable) stream text to a byte channel, such as a
+ * FileChannel or a socket channel. Characters are collected in a fixed-size
+ * buffer and encoded in bulk into a fixed-size byte buffer, which is written
+ * to the channel whenever it fills, so memory use does not grow with the
+ * amount of text written.
+ * <p>
+ * Call flush () when done: text still buffered is otherwise not written. The
+ * channel is not closed by this class. Instances are not thread-safe.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class ChannelAppendable implements Appendable, Flushable {
+
+    /**
+     * The default size of the character and byte buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+
+    /**
+     * Creates an appendable that writes UTF-8 text to a channel through
+     * buffers of the default size.
+     *
+     * @param channel the channel that receives the text
+     */
+    public ChannelAppendable(WritableByteChannel channel) {
+        this(channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an appendable that writes text to a channel. Characters that
+     * the character set cannot encode are replaced.
+     *
+     * @param channel the channel that receives the text
+     * @param charset the character set of the bytes written
+     * @param bufferSize the size of the character and byte buffers
+     */
+    public ChannelAppendable(WritableByteChannel channel, Charset charset, int bufferSize) {
+        if (channel == null || charset == null) {
+            throw new IllegalArgumentException("A channel and a character set are required.");
+        }
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("The buffer size must be at least 16.");
+        }
+        this.channel = channel;
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        chars = CharBuffer.allocate(bufferSize);
+        bytes = ByteBuffer.allocate(Math.max(bufferSize,
+                (int) Math.ceil(16 * encoder.maxBytesPerChar())));
+    }
+
+    @Override
+    public ChannelAppendable append(CharSequence text) throws IOException {
+        return text == null ? append("null", 0, 4) : append(text, 0, text.length());
+    }
+
+    @Override
+    public ChannelAppendable append(CharSequence text, int start, int end) throws IOException {
+        if (text == null) {
+            return append("null", start, end);
+        }
+        if (start < 0 || start > end || end > text.length()) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end
+                    + ", length " + text.length());
+        }
+        while (start < end) {
+            if (!chars.hasRemaining()) {
+                encode();
+            }
+            int count = Math.min(chars.remaining(), end - start);
+            if (text instanceof String) {
+                chars.put((String) text, start, start + count);
+            } else {
+                for (int i = start; i < start + count; i++) {
+                    chars.put(text.charAt(i));
+                }
+            }
+            start += count;
+        }
+        return this;
+    }
+
+    @Override
+    public ChannelAppendable append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            encode();
+        }
+        chars.put(c);
+        return this;
+    }
+
+    /**
+     * Encodes the buffered text and writes it to the channel. A lone high
+     * surrogate at the end of the text is held back until its low surrogate
+     * is appended.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        encode();
+        write();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private void encode() throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, false);
+            if (result.isOverflow()) {
+                write();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                try {
+                    result.throwException();
+                } catch (CharacterCodingException e) {
+                    throw new IOException("The text cannot be encoded.", e);
+                }
+            }
+        }
+        chars.compact();
+    }
+
+    private void write() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
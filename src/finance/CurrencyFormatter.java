@@ -0,0 +1,287 @@
+package finance;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The CurrencyFormatter class converts numbers to text formatted as the
+ * currency of a locale. Numbers are rounded HALF_UP to the number of decimal
+ * places used by the currency, and the output is identical to rounding the
+ * number with BigDecimal and formatting it with
+ * NumberFormat.getCurrencyInstance (), which is how TVMEngine.toCurrency ()
+ * has always formatted values.
+ * <p>
+ * For currencies with a fixed number of decimal places the number is rounded
+ * with long arithmetic and its digits, grouping separators and currency
+ * symbols are appended directly to a StringBuilder, so formatting allocates
+ * nothing beyond the result. Values that cannot be handled exactly this way
+ * (values that lie within a rounding error of a HALF_UP tie, very large
+ * values, and non-finite values) are formatted through BigDecimal exactly as
+ * before.
+ * <p>
+ * One formatter is cached per locale. The currency symbols are read from the
+ * locale once, when its formatter is created, and formatters are immutable, so
+ * a single formatter may be shared by any number of threads.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class CurrencyFormatter {
+
+    private static final ConcurrentMap<Locale, CurrencyFormatter> FORMATTERS
+            = new ConcurrentHashMap<>();
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L,
+        10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+        10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+        100000000000000L, 1000000000000000L, 10000000000000000L,
+        100000000000000000L, 1000000000000000000L};
+
+    // Scaled values at or above this are formatted with BigDecimal; below it a
+    // double holds every whole number exactly.
+    private static final double MAX_FAST_SCALED = 1e15;
+
+    private static final ThreadLocal<StringBuilder> BUFFER
+            = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    // Used by the BigDecimal path. NumberFormat is not thread-safe.
+    private final NumberFormat format;
+    private final int fractionDigits;
+    private final double scale;
+    private final boolean fastPath;
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final int groupingSize;
+    private final int minimumIntegerDigits;
+
+    /**
+     * Returns the formatter for the default formatting locale specified by
+     * the operating system.
+     *
+     * @return the currency formatter for the default locale
+     */
+    public static CurrencyFormatter getInstance() {
+        return getInstance(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Returns the formatter for the currency of the specified locale.
+     *
+     * @param locale the locale whose currency format is used
+     * @return the currency formatter for the locale
+     */
+    public static CurrencyFormatter getInstance(Locale locale) {
+        CurrencyFormatter formatter = FORMATTERS.get(locale);
+        if (formatter == null) {
+            formatter = new CurrencyFormatter(locale);
+            CurrencyFormatter existing = FORMATTERS.putIfAbsent(locale, formatter);
+            if (existing != null) {
+                formatter = existing;
+            }
+        }
+        return formatter;
+    }
+
+    private CurrencyFormatter(Locale locale) {
+        format = NumberFormat.getCurrencyInstance(locale);
+        fractionDigits = format.getMaximumFractionDigits();
+        scale = Math.pow(10, fractionDigits);
+
+        // Read the symbols by formatting sample values, so that the fast path
+        // uses exactly the characters NumberFormat produces (monetary
+        // separators differ from the plain number separators in some locales).
+        String positive = formatExactly(1234567.0 + 8 / scale);
+        String negative = formatExactly(-1234567.0 - 8 / scale);
+        char zero = format instanceof DecimalFormat
+                ? ((DecimalFormat) format).getDecimalFormatSymbols().getZeroDigit()
+                : DecimalFormatSymbols.getInstance(locale).getZeroDigit();
+        int first = positive.indexOf(zero + 1);
+        int last = lastDigit(positive, zero);
+        int negativeFirst = negative.indexOf(zero + 1);
+        int negativeLast = lastDigit(negative, zero);
+
+        zeroDigit = zero;
+        positivePrefix = first < 0 ? "" : positive.substring(0, first);
+        positiveSuffix = last < 0 ? "" : positive.substring(last + 1);
+        negativePrefix = negativeFirst < 0 ? "" : negative.substring(0, negativeFirst);
+        negativeSuffix = negativeLast < 0 ? "" : negative.substring(negativeLast + 1);
+        groupingSize = format.isGroupingUsed() && format instanceof DecimalFormat
+                ? ((DecimalFormat) format).getGroupingSize() : 0;
+        groupingSeparator = groupingSize > 0 && first >= 0 && first + 1 < positive.length()
+                ? positive.charAt(first + 1) : 0;
+        decimalSeparator = fractionDigits > 0 && last - fractionDigits >= 0
+                ? positive.charAt(last - fractionDigits) : 0;
+        minimumIntegerDigits = format.getMinimumIntegerDigits();
+
+        fastPath = format instanceof DecimalFormat && first >= 0
+                && negativeFirst >= 0
+                && format.getMinimumFractionDigits() == fractionDigits
+                && fractionDigits < 10 && minimumIntegerDigits <= 18
+                && selfCheck();
+    }
+
+    /**
+     * Returns the number of decimal places used by the currency.
+     *
+     * @return the number of fraction digits
+     */
+    public int getFractionDigits() {
+        return fractionDigits;
+    }
+
+    /**
+     * Converts a number to text formatted as currency.
+     *
+     * @param number the number to be rounded and formatted as currency
+     * @return text representation of the number formatted as currency and
+     * rounded HALF_UP to the decimal places used by the currency
+     */
+    public String format(double number) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return format(number, buffer).toString();
+    }
+
+    /**
+     * Appends a number formatted as currency to a StringBuilder.
+     *
+     * @param number the number to be rounded and formatted as currency
+     * @param out the StringBuilder that receives the text
+     * @return the StringBuilder passed in
+     */
+    public StringBuilder format(double number, StringBuilder out) {
+        if (fastPath) {
+            double scaled = Math.abs(number) * scale;
+            if (scaled < MAX_FAST_SCALED) {
+                double whole = Math.floor(scaled);
+                double fraction = scaled - whole;
+                // Near a tie the binary value may round differently from its
+                // decimal representation; let BigDecimal decide.
+                if (Math.abs(fraction - 0.5) > 4 * Math.ulp(scaled)) {
+                    long units = (long) whole + (fraction > 0.5 ? 1 : 0);
+                    appendUnits(units, number < 0 && units != 0, out);
+                    return out;
+                }
+            }
+        }
+        return out.append(formatExactly(number));
+    }
+
+    /**
+     * Appends a number rounded HALF_UP to the decimal places of the currency
+     * as a plain decimal number: an optional minus sign, ASCII digits and a
+     * period, without grouping or currency symbols (e.g., -1234.50). This is
+     * the form used in CSV and JSON output. Non-finite numbers are appended as
+     * Double.toString () writes them.
+     *
+     * @param number the number to be rounded
+     * @param out the StringBuilder that receives the text
+     * @return the StringBuilder passed in
+     */
+    public StringBuilder formatPlain(double number, StringBuilder out) {
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            return out.append(number);
+        }
+        double scaled = Math.abs(number) * scale;
+        if (fractionDigits < POWERS_OF_TEN.length && scaled < MAX_FAST_SCALED) {
+            double whole = Math.floor(scaled);
+            double fraction = scaled - whole;
+            if (Math.abs(fraction - 0.5) > 4 * Math.ulp(scaled)) {
+                long units = (long) whole + (fraction > 0.5 ? 1 : 0);
+                if (number < 0 && units != 0) {
+                    out.append('-');
+                }
+                out.append(units / POWERS_OF_TEN[fractionDigits]);
+                if (fractionDigits > 0) {
+                    out.append('.');
+                    long minor = units % POWERS_OF_TEN[fractionDigits];
+                    for (int position = fractionDigits - 1; position >= 0; position--) {
+                        out.append((char) ('0' + minor / POWERS_OF_TEN[position] % 10));
+                    }
+                }
+                return out;
+            }
+        }
+        return out.append(BigDecimal.valueOf(number).setScale(fractionDigits,
+                RoundingMode.HALF_UP).toPlainString());
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    // The original TVMEngine.toCurrency () algorithm.
+    private String formatExactly(double number) {
+        BigDecimal rounded = BigDecimal.valueOf(number).setScale(fractionDigits,
+                RoundingMode.HALF_UP);
+        synchronized (format) {
+            return format.format(rounded);
+        }
+    }
+
+    // Appends a value expressed in the currency's smallest unit (e.g., cents).
+    private void appendUnits(long units, boolean negative, StringBuilder out) {
+        out.append(negative ? negativePrefix : positivePrefix);
+        long integer = units / POWERS_OF_TEN[fractionDigits];
+        long fraction = units % POWERS_OF_TEN[fractionDigits];
+
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && integer >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        digits = Math.max(digits, minimumIntegerDigits);
+        for (int position = digits - 1; position >= 0; position--) {
+            long digit = position < POWERS_OF_TEN.length - 1
+                    ? integer / POWERS_OF_TEN[position] % 10 : 0;
+            out.append((char) (zeroDigit + digit));
+            if (groupingSize > 0 && position > 0 && position % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+        if (fractionDigits > 0) {
+            out.append(decimalSeparator);
+            for (int position = fractionDigits - 1; position >= 0; position--) {
+                out.append((char) (zeroDigit + fraction / POWERS_OF_TEN[position] % 10));
+            }
+        }
+        out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    // Confirms that the fast path reproduces NumberFormat for sample values.
+    private boolean selfCheck() {
+        double[] samples = {0, 0.001, -0.001, 0.5, -0.5, 7, -7, 12.5, 999.99,
+            1000, -1000, 1234.5678, -98765.4321, 1234567.891, -1234567.891,
+            123456789012.34, -123456789012.34};
+        StringBuilder fast = new StringBuilder();
+        for (double sample : samples) {
+            double scaled = Math.abs(sample) * scale;
+            long units = Math.round(Math.floor(scaled)
+                    + (scaled - Math.floor(scaled) > 0.5 ? 1 : 0));
+            fast.setLength(0);
+            appendUnits(units, sample < 0 && units != 0, fast);
+            if (!fast.toString().equals(formatExactly(sample))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lastDigit(String text, char zero) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c >= zero && c <= zero + 9) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
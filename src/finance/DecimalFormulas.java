@@ -0,0 +1,238 @@
+package finance;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Decimal versions of the closed-form time-value of money (TVM) formulas, used
+ * by the TVMEngine and AmortizationSchedule classes in PrecisionMode.DECIMAL.
+ * Inputs are converted to decimals of 15 significant digits, which recovers
+ * any value entered with up to 15 digits even after a double division or
+ * subtraction (an APR of 0.81, held as the fraction 0.008100000000000001,
+ * becomes exactly 0.0081). The formulas are evaluated with 34 significant
+ * digits, and results are rounded HALF_UP to the minor unit of the currency.
+ * <p>
+ * The decimal formulas need a whole number of payment periods, since
+ * (1 + i)^n is evaluated by repeated multiplication. A scenario with a
+ * fractional number of periods falls back to the double result, rounded to
+ * the minor unit. When payments do not follow the compounding frequency, the
+ * rate per payment period is irrational, so its double value is used.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class DecimalFormulas {
+
+    /**
+     * The precision used for intermediate results.
+     */
+    static final MathContext CONTEXT = MathContext.DECIMAL128;
+
+    // Significant digits kept when a double input is converted to a decimal.
+    private static final MathContext INPUT = new MathContext(15);
+
+    private DecimalFormulas() {
+        // Static formulas only.
+    }
+
+    /**
+     * Provides the interest rate per payment period of a scenario.
+     *
+     * @param scenario the scenario
+     * @return the interest rate per payment period
+     */
+    static BigDecimal periodRate(TVMScenario scenario) {
+        return rateNumerator(scenario).divide(rateDivisor(scenario), CONTEXT);
+    }
+
+    /**
+     * Provides the numerator of the interest rate per payment period, which
+     * is the annual rate when payments follow the compounding frequency.
+     * Dividing an amount times the numerator by rateDivisor () with a single
+     * rounding gives exactly rounded interest, which the 34-digit period rate
+     * cannot (e.g., 5.9% / 26 does not terminate).
+     *
+     * @param scenario the scenario
+     * @return the numerator of the interest rate per payment period
+     */
+    static BigDecimal rateNumerator(TVMScenario scenario) {
+        if (scenario.getCompoundingFrequency() == scenario.getPaymentFrequency()) {
+            return decimal(scenario.getAnnualRate());
+        }
+        return new BigDecimal(scenario.getPeriodRate());
+    }
+
+    /**
+     * Provides the denominator of the interest rate per payment period: the
+     * payments per year when payments follow the compounding frequency, and
+     * otherwise one.
+     *
+     * @param scenario the scenario
+     * @return the denominator of the interest rate per payment period
+     */
+    static BigDecimal rateDivisor(TVMScenario scenario) {
+        double paymentsPerYear = scenario.getPaymentFrequency();
+        if (scenario.getCompoundingFrequency() == paymentsPerYear) {
+            return decimal(paymentsPerYear);
+        }
+        return BigDecimal.ONE;
+    }
+
+    /**
+     * Provides the number of payment periods of a scenario if it is a whole
+     * number.
+     *
+     * @param scenario the scenario
+     * @return the number of payment periods, or -1 if it is not a positive
+     * whole number
+     */
+    static int wholePeriods(TVMScenario scenario) {
+        double periods = scenario.getPeriods();
+        if (periods > 0 && periods <= 999999999 && periods == Math.rint(periods)) {
+            return (int) periods;
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates the payment that satisfies the TVM equation for a scenario,
+     * rounded to the minor unit.
+     *
+     * @param scenario the scenario
+     * @param fractionDigits the decimal places of the minor unit
+     * @return payment (standard cash flow sign convention applies)
+     */
+    static double payment(TVMScenario scenario, int fractionDigits) {
+        int n = wholePeriods(scenario);
+        if (n < 0) {
+            return round(scenario.calcPMT(), fractionDigits);
+        }
+        return round(payment(decimal(scenario.getPV()),
+                decimal(scenario.getFV()), periodRate(scenario), n),
+                fractionDigits);
+    }
+
+    /**
+     * Calculates the future value that satisfies the TVM equation for a
+     * scenario, rounded to the minor unit.
+     *
+     * @param scenario the scenario
+     * @param fractionDigits the decimal places of the minor unit
+     * @return future value (standard cash flow sign convention applies)
+     */
+    static double futureValue(TVMScenario scenario, int fractionDigits) {
+        int n = wholePeriods(scenario);
+        if (n < 0) {
+            return round(scenario.calcFV(), fractionDigits);
+        }
+        return round(futureValue(decimal(scenario.getPV()),
+                decimal(scenario.getPMT()), periodRate(scenario), n),
+                fractionDigits);
+    }
+
+    /**
+     * Calculates the present value that satisfies the TVM equation for a
+     * scenario, rounded to the minor unit.
+     *
+     * @param scenario the scenario
+     * @param fractionDigits the decimal places of the minor unit
+     * @return present value (standard cash flow sign convention applies)
+     */
+    static double presentValue(TVMScenario scenario, int fractionDigits) {
+        int n = wholePeriods(scenario);
+        if (n < 0) {
+            return round(scenario.calcPV(), fractionDigits);
+        }
+        return round(presentValue(decimal(scenario.getPMT()),
+                decimal(scenario.getFV()), periodRate(scenario), n),
+                fractionDigits);
+    }
+
+    /**
+     * Calculates the payment that satisfies the TVM equation.
+     *
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per payment period
+     * @param periods the number of payment periods
+     * @return payment (standard cash flow sign convention applies)
+     */
+    static BigDecimal payment(BigDecimal pv, BigDecimal fv, BigDecimal periodRate,
+            int periods) {
+        if (periodRate.signum() == 0) {
+            return pv.add(fv).negate().divide(BigDecimal.valueOf(periods), CONTEXT);
+        }
+        BigDecimal df = BigDecimal.ONE.add(periodRate).pow(periods, CONTEXT);
+        return pv.multiply(df).add(fv).negate().multiply(periodRate)
+                .divide(df.subtract(BigDecimal.ONE), CONTEXT);
+    }
+
+    /**
+     * Calculates the future value that satisfies the TVM equation.
+     *
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per payment period
+     * @param periods the number of payment periods
+     * @return future value (standard cash flow sign convention applies)
+     */
+    static BigDecimal futureValue(BigDecimal pv, BigDecimal pmt, BigDecimal periodRate,
+            int periods) {
+        if (periodRate.signum() == 0) {
+            return pv.add(pmt.multiply(BigDecimal.valueOf(periods))).negate();
+        }
+        BigDecimal df = BigDecimal.ONE.add(periodRate).pow(periods, CONTEXT);
+        BigDecimal annuity = df.subtract(BigDecimal.ONE).divide(periodRate, CONTEXT);
+        return pv.multiply(df).add(pmt.multiply(annuity)).negate();
+    }
+
+    /**
+     * Calculates the present value that satisfies the TVM equation.
+     *
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per payment period
+     * @param periods the number of payment periods
+     * @return present value (standard cash flow sign convention applies)
+     */
+    static BigDecimal presentValue(BigDecimal pmt, BigDecimal fv, BigDecimal periodRate,
+            int periods) {
+        if (periodRate.signum() == 0) {
+            return fv.add(pmt.multiply(BigDecimal.valueOf(periods))).negate();
+        }
+        BigDecimal df = BigDecimal.ONE.add(periodRate).pow(periods, CONTEXT);
+        BigDecimal annuity = df.subtract(BigDecimal.ONE).divide(periodRate, CONTEXT);
+        return fv.add(pmt.multiply(annuity)).negate().divide(df, CONTEXT);
+    }
+
+    /**
+     * Converts a double input to a decimal of 15 significant digits.
+     *
+     * @param value the input
+     * @return the decimal value of the input
+     */
+    static BigDecimal decimal(double value) {
+        return new BigDecimal(value, INPUT);
+    }
+
+    /**
+     * Rounds an amount HALF_UP to the minor unit.
+     *
+     * @param amount the amount
+     * @param fractionDigits the decimal places of the minor unit
+     * @return the rounded amount
+     */
+    static double round(BigDecimal amount, int fractionDigits) {
+        return amount.setScale(fractionDigits, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static double round(double amount, int fractionDigits) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            return amount;
+        }
+        return round(decimal(amount), fractionDigits);
+    }
+}
@@ -0,0 +1,184 @@
+package finance;
+
+/**
+ * The DiscountFactorCache class remembers recently calculated discount factors
+ * (1 + i)^n so that scenarios that share a rate and term do not repeat the
+ * power calculation. Each factor is stored as its growth factor
+ * (1 + i)^n - 1, the form used by the TVM formulas. A discount factor depends
+ * only on the rate per compounding period and the number of compounding
+ * periods, which together capture the APR, the term and the compounding
+ * frequency, so these two values form the cache key.
+ * <p>
+ * The cache holds at most a fixed number of entries. Entries are grouped into
+ * small sets selected by the hash of the key; when a set is full the least
+ * recently used entry in that set is evicted. Keys and values are stored in
+ * primitive arrays, so lookups do not box or allocate. The sets are guarded by
+ * a fixed number of striped locks, so a single cache can be shared by any
+ * number of engine objects and threads. The sets, locks and counts are kept
+ * by the CacheSlots class, which QuoteCache shares.
+ * <p>
+ * Cached values are the exact results of the uncached calculation, so using a
+ * cache never changes a result.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class DiscountFactorCache {
+
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private final CacheSlots slots;
+    private final long[] rateKeys;
+    private final long[] periodKeys;
+    private final double[] values;
+
+    /**
+     * Creates a discount factor cache with the default maximum size.
+     */
+    public DiscountFactorCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a discount factor cache. The maximum size is rounded up to a
+     * power of two of at least 4.
+     *
+     * @param maximumSize the maximum number of discount factors held
+     */
+    public DiscountFactorCache(int maximumSize) {
+        slots = new CacheSlots(maximumSize);
+        rateKeys = new long[slots.size()];
+        periodKeys = new long[slots.size()];
+        values = new double[slots.size()];
+    }
+
+    /**
+     * Returns the discount factor (1 + periodRate)^periods, calculating and
+     * caching it if it is not already cached.
+     *
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @return the discount factor
+     */
+    public double discountFactor(double periodRate, double periods) {
+        return 1 + growth(periodRate, periods);
+    }
+
+    /**
+     * Returns the growth factor (1 + periodRate)^periods - 1, calculating and
+     * caching it if it is not already cached. This is the value the TVM
+     * formulas use; it keeps the precision that the discount factor loses at
+     * rates near zero.
+     *
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @return the growth factor
+     */
+    public double growth(double periodRate, double periods) {
+        long rateKey = Double.doubleToLongBits(periodRate);
+        long periodKey = Double.doubleToLongBits(periods);
+        int set = slots.set(hash(rateKey, periodKey));
+
+        synchronized (slots.lock(set)) {
+            int slot = find(set, rateKey, periodKey);
+            if (slot >= 0) {
+                slots.hit(slot);
+                return values[slot];
+            }
+        }
+
+        // Calculate outside the lock; a concurrent miss on the same key simply
+        // stores the same value twice.
+        double growth = TVMFormulas.growth(periodRate, periods);
+        slots.miss();
+
+        synchronized (slots.lock(set)) {
+            int slot = find(set, rateKey, periodKey);
+            if (slot < 0) {
+                slot = slots.evict(set);
+                rateKeys[slot] = rateKey;
+                periodKeys[slot] = periodKey;
+            }
+            values[slot] = growth;
+            slots.use(slot);
+        }
+        return growth;
+    }
+
+    /**
+     * Removes every cached discount factor. The hit, miss and eviction counts
+     * are not reset.
+     */
+    public void clear() {
+        slots.clear(null);
+    }
+
+    /**
+     * Returns the maximum number of discount factors held by this cache.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return slots.getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to calculate the discount factor.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return slots.getMissCount();
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for new ones.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return slots.getEvictionCount();
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return the hit ratio, or zero if there have been no lookups
+     */
+    public double getHitRatio() {
+        return slots.getHitRatio();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    // The slot holding a key, or -1. The lock of the set must be held.
+    private int find(int set, long rateKey, long periodKey) {
+        int first = CacheSlots.first(set);
+        for (int slot = first; slot < first + CacheSlots.WAYS; slot++) {
+            if (slots.isUsed(slot) && rateKeys[slot] == rateKey
+                    && periodKeys[slot] == periodKey) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(long rateKey, long periodKey) {
+        long h = rateKey * 0x9E3779B97F4A7C15L + periodKey;
+        h ^= h >>> 32;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 29));
+    }
+}
@@ -1,15 +1,29 @@
 package finance;
 
 import finance.enums.CompoundingOption;
+import finance.enums.ReportFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.DoubleStream;
 
 /**
- * The Investment class calculates the future value of an investment after a specified number of years. It also provides a summary report of the investment parameters. This class inherits the TVMEngine class and implements the Report interface.
+ * The Investment class calculates the future value of an investment after a specified number of years. It also provides a summary report of the investment parameters. This class inherits the TVMEngine class and implements the Report interface. The investment parameters are held in an immutable TVMScenario, so once configured a single object can be read by any number of threads.
  *
  * @author KoluongMBP
  * @version 161012
  */
 public class Investment extends TVMEngine implements Report {
 
+    private static final String[] COMPOUNDING_TEXT = new String[CompoundingOption.values().length];
+    private static final String[] PERIODIC_LABELS = new String[COMPOUNDING_TEXT.length];
+
+    static {
+        for (CompoundingOption option : CompoundingOption.values()) {
+            COMPOUNDING_TEXT[option.ordinal()] = option.toString().toLowerCase();
+            PERIODIC_LABELS[option.ordinal()] = "Periodic Investment (" + COMPOUNDING_TEXT[option.ordinal()] + ")";
+        }
+    }
+
     /**
      * This class constructor does not accept parameters. Parameters must be set with the appropriate set() methods. The investment parameters are provided to the object through the constructor.
      * 
@@ -73,6 +87,70 @@ public class Investment extends TVMEngine implements Report {
         return getPMT();
     }
 
+    /**
+     * Returns the number of compounding periods in the investment term. This
+     * is the length of the balance trajectory.
+     *
+     * @return the number of compounding periods, rounded to a whole number.
+     */
+    public int getPeriods() {
+        return (int) Math.round(getScenario().getPeriods());
+    }
+
+    /**
+     * Writes the value of the investment at the end of every compounding
+     * period into caller-supplied arrays. Element k of each array receives the
+     * value for period k + 1. Each balance is derived from the previous one
+     * (the balance grows by one period of interest and then receives the
+     * periodic investment), so the whole trajectory costs a few arithmetic
+     * operations per period. Any array may be null if that series is not
+     * needed; the others must hold at least getPeriods () elements.
+     *
+     * @param contributions receives the total amount invested (initial plus
+     * periodic investments) up to and including each period.
+     * @param growth receives the total return earned up to and including each
+     * period.
+     * @param balance receives the value of the investment at the end of each
+     * period.
+     */
+    public void fillTrajectory(double[] contributions, double[] growth, double[] balance) {
+        TVMScenario investment = getScenario();
+        double growthFactor = 1 + investment.getPeriodRate();
+        double payment = investment.getPMT();
+        double invested = investment.getPV();
+        double value = invested;
+        int periods = (int) Math.round(investment.getPeriods());
+        for (int k = 0; k < periods; k++) {
+            value = value * growthFactor + payment;
+            invested += payment;
+            if (contributions != null) {
+                contributions[k] = invested;
+            }
+            if (growth != null) {
+                growth[k] = value - invested;
+            }
+            if (balance != null) {
+                balance[k] = value;
+            }
+        }
+    }
+
+    /**
+     * Provides the value of the investment at the end of every compounding
+     * period as a stream. Balances are generated one at a time from the
+     * previous balance, so the trajectory is never held in memory.
+     *
+     * @return a stream of getPeriods () balances, one per compounding period.
+     */
+    public DoubleStream balances() {
+        TVMScenario investment = getScenario();
+        final double growthFactor = 1 + investment.getPeriodRate();
+        final double payment = investment.getPMT();
+        return DoubleStream.iterate(investment.getPV() * growthFactor + payment,
+                value -> value * growthFactor + payment)
+                .limit(Math.round(investment.getPeriods()));
+    }
+
     /**
      * Provides the future value of an investment as text formatted as US currency.
      * 
@@ -90,10 +168,36 @@ public class Investment extends TVMEngine implements Report {
      */
     @Override
     public String print() {
-        return "\nInvestment Value Summary"
-                + "\nInitial Investment: " + toCurrency(getPV())
-                + "\nPeriodic Investment (" + getCompounding().toString().toLowerCase() + "): " + toCurrency(getPMT())
-                + "\nAnnual Return: " + getAPR() + "%"
-                + "\nInvestment after " + getYears() + " years: " + getValue();
+        StringBuilder text = new StringBuilder(256);
+        try {
+            writeTo(ReportWriter.create(ReportFormat.TEXT, text, getCurrencyFormatter()));
+        } catch (IOException e) {
+            // A StringBuilder does not throw.
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the investment summary to a report writer. The fields are the initial investment, periodic investment, compounding, annual return, years invested and future value; the future value is calculated once. Compounding and years appear in the text report only as part of the labels.
+     *
+     * @param writer the writer that renders the report.
+     * @throws IOException if the writer's output cannot be written.
+     */
+    @Override
+    public void writeTo(ReportWriter writer) throws IOException {
+        // Report from a single snapshot so that a concurrent update cannot mix
+        // old and new investment parameters.
+        TVMScenario investment = getScenario();
+        int option = investment.getCompounding().ordinal();
+        writer.beginReport("Investment Value Summary");
+        writer.amount("initialInvestment", "Initial Investment", investment.getPV());
+        writer.amount("periodicInvestment", PERIODIC_LABELS[option], investment.getPMT());
+        writer.text("compounding", null, COMPOUNDING_TEXT[option]);
+        writer.percent("apr", "Annual Return", investment.getAPR());
+        writer.number("years", null, investment.getYears());
+        writer.amount("futureValue", "Investment after " + investment.getYears() + " years",
+                -calcFV(investment));
+        writer.endReport();
     }
 }
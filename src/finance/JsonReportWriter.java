@@ -0,0 +1,87 @@
+package finance;
+
+import java.io.IOException;
+
+/**
+ * Renders reports as JSON Lines: each report is one JSON object on its own
+ * line, with a member per field keyed by the field name. Amounts are numbers
+ * rounded to the minor unit of the currency, and numbers that are not finite
+ * are written as null.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class JsonReportWriter extends ReportWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private int fields;
+
+    JsonReportWriter(Appendable out, CurrencyFormatter currency) {
+        super(out, currency);
+    }
+
+    @Override
+    public void beginReport(String title) throws IOException {
+        getOut().append('{');
+        fields = 0;
+    }
+
+    @Override
+    public void text(String name, String label, CharSequence value) throws IOException {
+        Appendable out = name(name);
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public void number(String name, String label, double value) throws IOException {
+        Appendable out = name(name);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+        } else {
+            out.append(numberText(value));
+        }
+    }
+
+    @Override
+    public void percent(String name, String label, double value) throws IOException {
+        number(name, label, value);
+    }
+
+    @Override
+    public void amount(String name, String label, double value) throws IOException {
+        Appendable out = name(name);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+        } else {
+            out.append(plainText(value));
+        }
+    }
+
+    @Override
+    public void endReport() throws IOException {
+        getOut().append("}\n");
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    // Field names are Java identifiers, so they need no escaping.
+    private Appendable name(String name) throws IOException {
+        Appendable out = getOut();
+        if (fields++ > 0) {
+            out.append(',');
+        }
+        return out.append('"').append(name).append("\":");
+    }
+}
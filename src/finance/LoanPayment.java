@@ -1,17 +1,30 @@
 package finance;
 
 import finance.enums.CompoundingOption;
+import finance.enums.ReportFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
- * The LoanPayment class calculates the periodic payment needed to pay off a loan. It also provides a summary report of the loan parameters. The class interface is based on a purchase amount and a down payment. Internally, the class calculates the amount to be financed by the loan as the purchase amount less the down payment. This class inherits the TVMEngine class and implements the Report interface.
+ * The LoanPayment class calculates the periodic payment needed to pay off a loan. It also provides a summary report of the loan parameters. The class interface is based on a purchase amount and a down payment. Internally, the class calculates the amount to be financed by the loan as the purchase amount less the down payment. This class inherits the TVMEngine class and implements the Report interface. The loan parameters are held in an immutable TVMScenario, so once configured a single object can be read by any number of threads.
  *
  * @author KoluongMBP
  * @version 161012
  */
 public class LoanPayment extends TVMEngine implements Report {
 
-    private double purchaseAmount;
-    private double downPayment;
+    private static final String[] COMPOUNDING_TEXT = new String[CompoundingOption.values().length];
+    private static final String[] PAYMENT_LABELS = new String[COMPOUNDING_TEXT.length];
+
+    static {
+        for (CompoundingOption option : CompoundingOption.values()) {
+            COMPOUNDING_TEXT[option.ordinal()] = option.toString().toLowerCase();
+            PAYMENT_LABELS[option.ordinal()] = "Payment (" + COMPOUNDING_TEXT[option.ordinal()] + ")";
+        }
+    }
+
+    private volatile double purchaseAmount;
+    private volatile double downPayment;
 
     /**
      * This class constructor does not accept parameters. Parameters must be set through the appropriate set() methods. The loan parameters are provided to the object through the constructor.
@@ -46,7 +59,7 @@ public class LoanPayment extends TVMEngine implements Report {
      *
      * @param purchaseAmount the amount of the purchase to be made by the borrower.
      */
-    public void setPurchaseAmount(double purchaseAmount) {
+    public synchronized void setPurchaseAmount(double purchaseAmount) {
         this.purchaseAmount = purchaseAmount;
         updateLoan();
     }
@@ -56,7 +69,7 @@ public class LoanPayment extends TVMEngine implements Report {
      *
      * @param downPayment the down payment to be made by the borrower against the purchase amount.
      */
-    public void setDownPayment(double downPayment) {
+    public synchronized void setDownPayment(double downPayment) {
         this.downPayment = downPayment;
         updateLoan();
     }
@@ -86,16 +99,47 @@ public class LoanPayment extends TVMEngine implements Report {
      */
     @Override
     public String print() {
+        StringBuilder text = new StringBuilder(256);
+        try {
+            writeTo(ReportWriter.create(ReportFormat.TEXT, text, getCurrencyFormatter()));
+        } catch (IOException e) {
+            // A StringBuilder does not throw.
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
 
-        return "\nLoan Payment Summary"
-                + "\nPurchase Amount: " + toCurrency(purchaseAmount)
-                + "\nDown Payment: " + toCurrency(downPayment)
-                + "\nAmount Financed: " + toCurrency(getPV())
-                + "\nAPR: " + getAPR() + "%"
-                + "\nCompounding: " + getCompounding().toString().toLowerCase()
-                + "\nLoan Duration (years): " + getYears()
-                + "\nPayment " + "(" + getCompounding().toString().toLowerCase() + "): " + getValue();
+    /**
+     * Writes the loan summary to a report writer. The fields are the purchase amount, down payment, amount financed, APR, compounding, loan duration in years and periodic payment; the payment is calculated once.
+     *
+     * @param writer the writer that renders the report.
+     * @throws IOException if the writer's output cannot be written.
+     */
+    @Override
+    public void writeTo(ReportWriter writer) throws IOException {
 
+        // Report from a single snapshot so that a concurrent update cannot mix
+        // old and new loan parameters. The setters update the purchase amount,
+        // down payment and scenario under this lock, so they are read together
+        // under it; the report itself is written outside the lock.
+        double purchase;
+        double down;
+        TVMScenario loan;
+        synchronized (this) {
+            purchase = purchaseAmount;
+            down = downPayment;
+            loan = getScenario();
+        }
+        int option = loan.getCompounding().ordinal();
+        writer.beginReport("Loan Payment Summary");
+        writer.amount("purchaseAmount", "Purchase Amount", purchase);
+        writer.amount("downPayment", "Down Payment", down);
+        writer.amount("amountFinanced", "Amount Financed", loan.getPV());
+        writer.percent("apr", "APR", loan.getAPR());
+        writer.text("compounding", "Compounding", COMPOUNDING_TEXT[option]);
+        writer.number("years", "Loan Duration (years)", loan.getYears());
+        writer.amount("payment", PAYMENT_LABELS[option], -calcPMT(loan));
+        writer.endReport();
     }
 
     /**
@@ -108,6 +152,17 @@ public class LoanPayment extends TVMEngine implements Report {
         return toCurrency(-calcPMT());
     }
 
+    /**
+     * Provides the period-by-period amortization schedule for the amount
+     * financed. In PrecisionMode.DECIMAL every row of the schedule is exact
+     * to the cent.
+     *
+     * @return the amortization schedule of the loan.
+     */
+    public AmortizationSchedule getAmortizationSchedule() {
+        return new AmortizationSchedule(getScenario(), getPrecisionMode());
+    }
+
     private void updateLoan() {
         setPV(this.purchaseAmount - this.downPayment);
     }
@@ -0,0 +1,831 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * The LoanPortfolio class holds a book of loans and calculates totals across
+ * it: the periodic payment due for each compounding option, the
+ * principal-weighted average APR, the total interest over the life of the
+ * book, and a ladder of the cash flow expected in each future period.
+ * <p>
+ * Each loan keeps the index returned when it is added until it is removed;
+ * the index of a removed loan is reused by a later add. Running totals are
+ * updated as loans are added, changed and removed, in constant time per
+ * change, so totals () answers during a stream of updates without reading
+ * the book. The running sums are compensated (Neumaier's variant of Kahan
+ * summation), so subtracting a loan restores the totals it was added to.
+ * <p>
+ * Loans are stored column by column in primitive arrays (amount financed,
+ * APR, years, rate per payment period, payment periods, payments per year,
+ * payment and compounding option), the layout used by the TVMBatch class, so
+ * a pass over the book reads contiguous memory and creates no objects per
+ * loan. Each loan's payment is calculated once, when it is added or changed.
+ * <p>
+ * summarize () and ladder () recalculate from every loan with parallel
+ * reductions on a ForkJoinPool. The book
+ * is always split into the same fixed blocks of {@value #BLOCK_LOANS} loans,
+ * and block results are combined in block order, so a result depends only on
+ * the loans and not on the number of threads.
+ * <p>
+ * Amounts follow the lender's view: the amount financed and the payments
+ * received are positive. Loans may be added, changed and removed from one
+ * thread at a time. summarize () and ladder () must not run while the book is
+ * changing; totals () may be called between any two changes.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class LoanPortfolio {
+
+    /**
+     * The number of loans reduced by each task.
+     */
+    public static final int BLOCK_LOANS = 8192;
+
+    private static final int OPTIONS = CompoundingOption.values().length;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final byte REMOVED = -1;
+
+    private int size;
+    private int slots;
+    private int[] free = new int[0];
+    private int freeCount;
+    private double[] principal;
+    private double[] apr;
+    private double[] years;
+    private double[] periodRate;
+    private double[] paymentsPerYear;
+    private double[] payment;
+    private int[] payments;
+    private double[] interest;
+    private byte[] compounding;
+
+    private final long[] runningCount = new long[OPTIONS];
+    private final RunningSum[] runningPrincipal = RunningSum.array(OPTIONS);
+    private final RunningSum[] runningPayment = RunningSum.array(OPTIONS);
+    private final RunningSum runningAnnualPayment = new RunningSum();
+    private final RunningSum runningWeightedAPR = new RunningSum();
+    private final RunningSum runningInterest = new RunningSum();
+
+    /**
+     * Creates an empty portfolio.
+     */
+    public LoanPortfolio() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty portfolio with room for the specified number of loans
+     * before its columns grow.
+     *
+     * @param initialCapacity the number of loans to make room for
+     */
+    public LoanPortfolio(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative.");
+        }
+        principal = new double[initialCapacity];
+        apr = new double[initialCapacity];
+        years = new double[initialCapacity];
+        periodRate = new double[initialCapacity];
+        paymentsPerYear = new double[initialCapacity];
+        payment = new double[initialCapacity];
+        payments = new int[initialCapacity];
+        interest = new double[initialCapacity];
+        compounding = new byte[initialCapacity];
+    }
+
+    /**
+     * Adds a loan. The arguments are those of the LoanPayment constructor.
+     *
+     * @param purchaseAmount the amount of the purchase made by the borrower
+     * @param downPayment the down payment made against the purchase amount
+     * @param interestRate the annual percentage rate (APR) of the loan
+     * @param compounding how often interest is added to the loan principal
+     * @param loanDuration the duration of the loan in years
+     * @return the index of the loan
+     * @throws IllegalArgumentException if compounding is CUSTOM, which has no
+     * frequency of its own
+     */
+    public int add(double purchaseAmount, double downPayment, double interestRate,
+            CompoundingOption compounding, double loanDuration) {
+        return add(new TVMScenario(loanDuration, interestRate, compounding,
+                purchaseAmount - downPayment, 0, 0));
+    }
+
+    /**
+     * Adds the current parameters of a loan, including any compounding or
+     * payment frequency set on it.
+     *
+     * @param loan the loan
+     * @return the index of the loan
+     */
+    public int add(LoanPayment loan) {
+        return add(loan.getScenario());
+    }
+
+    /**
+     * Replaces a loan, for example after a change of rate or term. The
+     * arguments after the index are those of the LoanPayment constructor.
+     *
+     * @param index the index of the loan
+     * @param purchaseAmount the amount of the purchase made by the borrower
+     * @param downPayment the down payment made against the purchase amount
+     * @param interestRate the annual percentage rate (APR) of the loan
+     * @param compounding how often interest is added to the loan principal
+     * @param loanDuration the duration of the loan in years
+     * @throws IllegalArgumentException if compounding is CUSTOM, which has no
+     * frequency of its own
+     */
+    public void set(int index, double purchaseAmount, double downPayment,
+            double interestRate, CompoundingOption compounding, double loanDuration) {
+        check(index);
+        set(index, new TVMScenario(loanDuration, interestRate, compounding,
+                purchaseAmount - downPayment, 0, 0));
+    }
+
+    /**
+     * Replaces a loan with the current parameters of a LoanPayment, for
+     * example after its rate or term has been changed.
+     *
+     * @param index the index of the loan
+     * @param loan the loan
+     */
+    public void set(int index, LoanPayment loan) {
+        check(index);
+        set(index, loan.getScenario());
+    }
+
+    /**
+     * Removes a loan. Its index may be reused by a later add.
+     *
+     * @param index the index of the loan
+     */
+    public void remove(int index) {
+        check(index);
+        count(index, -1);
+        compounding[index] = REMOVED;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.max(16, free.length * 2));
+        }
+        free[freeCount++] = index;
+        size--;
+    }
+
+    /**
+     * Tells whether an index holds a loan.
+     *
+     * @param index the index
+     * @return true if the index holds a loan that has not been removed
+     */
+    public boolean contains(int index) {
+        return index >= 0 && index < slots && compounding[index] != REMOVED;
+    }
+
+    /**
+     * Provides the number of loans in the portfolio.
+     *
+     * @return the number of loans
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Provides the amount financed by a loan.
+     *
+     * @param index the index of the loan
+     * @return the amount financed
+     */
+    public double getPrincipal(int index) {
+        return principal[check(index)];
+    }
+
+    /**
+     * Provides the APR of a loan.
+     *
+     * @param index the index of the loan
+     * @return the annual percentage rate
+     */
+    public double getAPR(int index) {
+        return apr[check(index)];
+    }
+
+    /**
+     * Provides the duration of a loan.
+     *
+     * @param index the index of the loan
+     * @return the duration in years
+     */
+    public double getYears(int index) {
+        return years[check(index)];
+    }
+
+    /**
+     * Provides the compounding option of a loan.
+     *
+     * @param index the index of the loan
+     * @return the compounding option
+     */
+    public CompoundingOption getCompounding(int index) {
+        return CompoundingOption.values()[compounding[check(index)]];
+    }
+
+    /**
+     * Provides the periodic payment of a loan, as LoanPayment.getValue ()
+     * reports it before formatting.
+     *
+     * @param index the index of the loan
+     * @return the payment
+     */
+    public double getPayment(int index) {
+        return payment[check(index)];
+    }
+
+    /**
+     * Provides the running totals of the portfolio, kept up to date as loans
+     * are added, changed and removed. This takes the same time however many
+     * loans the book holds. The totals may differ from those of summarize ()
+     * in the last digits.
+     *
+     * @return the totals
+     */
+    public Summary totals() {
+        double[] principal = new double[OPTIONS];
+        double[] payment = new double[OPTIONS];
+        for (int k = 0; k < OPTIONS; k++) {
+            principal[k] = runningPrincipal[k].value();
+            payment[k] = runningPayment[k].value();
+        }
+        return new Summary(runningCount.clone(), principal, payment,
+                runningAnnualPayment.value(), runningWeightedAPR.value(),
+                runningInterest.value());
+    }
+
+    /**
+     * Calculates the totals of the portfolio from every loan on the common
+     * ForkJoinPool.
+     *
+     * @return the totals
+     */
+    public Summary summarize() {
+        return summarize(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculates the totals of the portfolio from every loan on the specified
+     * ForkJoinPool.
+     *
+     * @param pool the pool used to reduce blocks of loans
+     * @return the totals
+     */
+    public Summary summarize(ForkJoinPool pool) {
+        Totals totals = pool.invoke(new Reduction<>(Totals::new, 0, slots));
+        return new Summary(totals.count, totals.principal, totals.payment,
+                totals.annualPayment, totals.weightedAPR, totals.interest);
+    }
+
+    /**
+     * Calculates the cash flow ladder of the portfolio on the common
+     * ForkJoinPool.
+     *
+     * @param periodsPerYear the number of ladder periods per year (e.g., 12
+     * for a monthly ladder)
+     * @return the cash flow ladder
+     */
+    public CashFlowLadder ladder(int periodsPerYear) {
+        return ladder(periodsPerYear, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculates the cash flow ladder of the portfolio on the specified
+     * ForkJoinPool. Every payment of every loan is placed in the ladder
+     * period in which it falls, whatever the payment frequency of the loan,
+     * and split into interest and principal as the loan's
+     * AmortizationSchedule would, with the final payment adjusted to clear
+     * the balance. The payments a loan makes in one ladder period are
+     * totalled in closed form rather than one by one.
+     *
+     * @param periodsPerYear the number of ladder periods per year (e.g., 12
+     * for a monthly ladder)
+     * @param pool the pool used to reduce blocks of loans
+     * @return the cash flow ladder
+     */
+    public CashFlowLadder ladder(int periodsPerYear, ForkJoinPool pool) {
+        if (periodsPerYear < 1) {
+            throw new IllegalArgumentException("A ladder needs at least one period per year.");
+        }
+        double longestTerm = 0;
+        for (int i = 0; i < slots; i++) {
+            if (compounding[i] != REMOVED) {
+                longestTerm = Math.max(longestTerm, payments[i] / paymentsPerYear[i]);
+            }
+        }
+        double ladderPeriods = Math.ceil(longestTerm * periodsPerYear);
+        if (ladderPeriods > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("The ladder would have too many periods.");
+        }
+        int length = (int) ladderPeriods;
+        Ladder ladder = pool.invoke(new Reduction<>(() -> new Ladder(length, periodsPerYear),
+                0, slots));
+        return new CashFlowLadder(periodsPerYear, ladder);
+    }
+
+    /**
+     * The totals of a portfolio.
+     */
+    public static final class Summary {
+
+        private final long[] count;
+        private final double[] principal;
+        private final double[] payment;
+        private final double annualPayment;
+        private final double totalPrincipal;
+        private final double weightedAPR;
+        private final double totalInterest;
+        private final long totalCount;
+
+        private Summary(long[] count, double[] principal, double[] payment,
+                double annualPayment, double weightedAPR, double interest) {
+            this.count = count;
+            this.principal = principal;
+            this.payment = payment;
+            this.annualPayment = annualPayment;
+            totalInterest = interest;
+            long loans = 0;
+            double amount = 0;
+            for (int k = 0; k < OPTIONS; k++) {
+                loans += count[k];
+                amount += principal[k];
+            }
+            totalCount = loans;
+            totalPrincipal = amount;
+            this.weightedAPR = amount == 0 ? 0 : weightedAPR / amount;
+        }
+
+        /**
+         * Provides the number of loans.
+         *
+         * @return the number of loans
+         */
+        public long getLoanCount() {
+            return totalCount;
+        }
+
+        /**
+         * Provides the number of loans with a compounding option.
+         *
+         * @param option the compounding option
+         * @return the number of loans
+         */
+        public long getLoanCount(CompoundingOption option) {
+            return count[option.ordinal()];
+        }
+
+        /**
+         * Provides the total amount financed.
+         *
+         * @return the total principal
+         */
+        public double getTotalPrincipal() {
+            return totalPrincipal;
+        }
+
+        /**
+         * Provides the total amount financed by loans with a compounding
+         * option.
+         *
+         * @param option the compounding option
+         * @return the total principal
+         */
+        public double getTotalPrincipal(CompoundingOption option) {
+            return principal[option.ordinal()];
+        }
+
+        /**
+         * Provides the total payment due each period from loans with a
+         * compounding option (e.g., the total monthly payment of the monthly
+         * loans).
+         *
+         * @param option the compounding option
+         * @return the total periodic payment
+         */
+        public double getTotalPayment(CompoundingOption option) {
+            return payment[option.ordinal()];
+        }
+
+        /**
+         * Provides the total of all payments due in a year, across all
+         * payment frequencies.
+         *
+         * @return the total annual payment
+         */
+        public double getAnnualPayment() {
+            return annualPayment;
+        }
+
+        /**
+         * Provides the APR averaged over the loans, weighted by amount
+         * financed.
+         *
+         * @return the weighted-average APR, or zero for an empty portfolio
+         */
+        public double getWeightedAverageAPR() {
+            return weightedAPR;
+        }
+
+        /**
+         * Provides the interest paid over the life of every loan, with the
+         * final payment of each loan adjusted to clear its balance as in its
+         * AmortizationSchedule.
+         *
+         * @return the total interest
+         */
+        public double getTotalInterest() {
+            return totalInterest;
+        }
+    }
+
+    /**
+     * The cash flow expected from a portfolio in each future period. Period
+     * k covers the time after k ladder periods, up to and including the end
+     * of period k + 1; period 0 is the first.
+     */
+    public static final class CashFlowLadder {
+
+        private final int periodsPerYear;
+        private final double[] payment;
+        private final double[] interest;
+        private final double[] principal;
+
+        private CashFlowLadder(int periodsPerYear, Ladder ladder) {
+            this.periodsPerYear = periodsPerYear;
+            payment = ladder.payment;
+            interest = ladder.interest;
+            principal = ladder.principal;
+        }
+
+        /**
+         * Provides the number of ladder periods per year.
+         *
+         * @return the periods per year
+         */
+        public int getPeriodsPerYear() {
+            return periodsPerYear;
+        }
+
+        /**
+         * Provides the number of periods in the ladder, which ends with the
+         * last payment of the longest loan.
+         *
+         * @return the number of periods
+         */
+        public int getPeriods() {
+            return payment.length;
+        }
+
+        /**
+         * Provides the payments received in a period.
+         *
+         * @param period the ladder period
+         * @return the total payment
+         */
+        public double getPayment(int period) {
+            return payment[period];
+        }
+
+        /**
+         * Provides the interest received in a period.
+         *
+         * @param period the ladder period
+         * @return the total interest
+         */
+        public double getInterest(int period) {
+            return interest[period];
+        }
+
+        /**
+         * Provides the principal repaid in a period.
+         *
+         * @param period the ladder period
+         * @return the total principal
+         */
+        public double getPrincipal(int period) {
+            return principal[period];
+        }
+
+        /**
+         * Provides the payments received in every period.
+         *
+         * @return a copy of the payments, one per period
+         */
+        public double[] getPayments() {
+            return payment.clone();
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private int add(TVMScenario loan) {
+        int index;
+        if (freeCount > 0) {
+            index = free[--freeCount];
+        } else {
+            if (slots == principal.length) {
+                grow();
+            }
+            index = slots++;
+        }
+        store(index, loan);
+        count(index, 1);
+        size++;
+        return index;
+    }
+
+    private void set(int index, TVMScenario loan) {
+        count(index, -1);
+        store(index, loan);
+        count(index, 1);
+    }
+
+    private void store(int index, TVMScenario loan) {
+        principal[index] = loan.getPV();
+        apr[index] = loan.getAPR();
+        years[index] = loan.getYears();
+        periodRate[index] = loan.getPeriodRate();
+        paymentsPerYear[index] = loan.getPaymentFrequency();
+        payment[index] = -loan.calcPMT();
+        // Whole payments, as AmortizationSchedule counts them.
+        payments[index] = (int) Math.max(1, Math.round(loan.getPeriods()));
+        interest[index] = lifetimeInterest(index);
+        compounding[index] = (byte) loan.getCompounding().ordinal();
+    }
+
+    // Adds a loan to the running totals (sign 1) or takes it out (sign -1).
+    private void count(int index, int sign) {
+        int option = compounding[index];
+        runningCount[option] += sign;
+        if (runningCount[option] == 0) {
+            // Nothing is left to round: start the bucket again from zero.
+            runningPrincipal[option].clear();
+            runningPayment[option].clear();
+        } else {
+            runningPrincipal[option].add(sign * principal[index]);
+            runningPayment[option].add(sign * payment[index]);
+        }
+        if (size == 1 && sign < 0) {
+            runningAnnualPayment.clear();
+            runningWeightedAPR.clear();
+            runningInterest.clear();
+        } else {
+            runningAnnualPayment.add(sign * payment[index] * paymentsPerYear[index]);
+            runningWeightedAPR.add(sign * principal[index] * apr[index]);
+            runningInterest.add(sign * interest[index]);
+        }
+    }
+
+    // The interest paid by every payment of a loan: all but the last are the
+    // periodic payment, and the last clears the balance left after them.
+    private double lifetimeInterest(int index) {
+        int last = payments[index] - 1;
+        double balance = balance(principal[index], periodRate[index], payment[index], last);
+        return last * payment[index] + balance * (1 + periodRate[index]) - principal[index];
+    }
+
+    // The balance of a loan after the specified number of payments:
+    // B (1 + i)^c - P ((1 + i)^c - 1) / i.
+    private static double balance(double balance, double rate, double payment, int count) {
+        return balance(balance, rate, payment, count, TVMFormulas.growth(rate, count));
+    }
+
+    // As above, given the growth factor (1 + i)^c - 1.
+    private static double balance(double balance, double rate, double payment, int count,
+            double growth) {
+        if (rate == 0) {
+            return balance - payment * count;
+        }
+        return balance + balance * growth - payment * growth / rate;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, principal.length + (principal.length >> 1));
+        principal = Arrays.copyOf(principal, capacity);
+        apr = Arrays.copyOf(apr, capacity);
+        years = Arrays.copyOf(years, capacity);
+        periodRate = Arrays.copyOf(periodRate, capacity);
+        paymentsPerYear = Arrays.copyOf(paymentsPerYear, capacity);
+        payment = Arrays.copyOf(payment, capacity);
+        payments = Arrays.copyOf(payments, capacity);
+        interest = Arrays.copyOf(interest, capacity);
+        compounding = Arrays.copyOf(compounding, capacity);
+    }
+
+    private int check(int index) {
+        if (!contains(index)) {
+            throw new IndexOutOfBoundsException("No loan has index " + index);
+        }
+        return index;
+    }
+
+    // A running sum that carries the rounding error of each addition, so
+    // that adding and then subtracting a value leaves the sum unchanged.
+    private static final class RunningSum {
+
+        private double sum;
+        private double compensation;
+
+        static RunningSum[] array(int length) {
+            RunningSum[] sums = new RunningSum[length];
+            for (int k = 0; k < length; k++) {
+                sums[k] = new RunningSum();
+            }
+            return sums;
+        }
+
+        void add(double value) {
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+
+        double value() {
+            return sum + compensation;
+        }
+
+        void clear() {
+            sum = 0;
+            compensation = 0;
+        }
+    }
+
+    // The result of reducing a range of loans.
+    private interface Accumulator<A> {
+
+        void add(int from, int to);
+
+        A merge(A other);
+    }
+
+    // Reduces the loans in [from, to), splitting at block boundaries so that
+    // the blocks, and the order they are merged in, never depend on the pool.
+    private final class Reduction<A extends Accumulator<A>> extends RecursiveTask<A> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Supplier<A> accumulator;
+        private final int from;
+        private final int to;
+
+        Reduction(Supplier<A> accumulator, int from, int to) {
+            this.accumulator = accumulator;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= BLOCK_LOANS) {
+                A result = accumulator.get();
+                result.add(from, to);
+                return result;
+            }
+            int blocks = (to - from + BLOCK_LOANS - 1) / BLOCK_LOANS;
+            int middle = from + blocks / 2 * BLOCK_LOANS;
+            Reduction<A> right = new Reduction<>(accumulator, middle, to);
+            right.fork();
+            A left = new Reduction<>(accumulator, from, middle).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    private final class Totals implements Accumulator<Totals> {
+
+        final long[] count = new long[OPTIONS];
+        final double[] principal = new double[OPTIONS];
+        final double[] payment = new double[OPTIONS];
+        double annualPayment;
+        double weightedAPR;
+        double interest;
+
+        @Override
+        public void add(int from, int to) {
+            double[] amount = LoanPortfolio.this.principal;
+            double[] rate = LoanPortfolio.this.apr;
+            double[] due = LoanPortfolio.this.payment;
+            double[] owed = LoanPortfolio.this.interest;
+            for (int i = from; i < to; i++) {
+                int option = compounding[i];
+                if (option == REMOVED) {
+                    continue;
+                }
+                count[option]++;
+                principal[option] += amount[i];
+                payment[option] += due[i];
+                annualPayment += due[i] * paymentsPerYear[i];
+                weightedAPR += amount[i] * rate[i];
+                interest += owed[i];
+            }
+        }
+
+        @Override
+        public Totals merge(Totals other) {
+            for (int k = 0; k < OPTIONS; k++) {
+                count[k] += other.count[k];
+                principal[k] += other.principal[k];
+                payment[k] += other.payment[k];
+            }
+            annualPayment += other.annualPayment;
+            weightedAPR += other.weightedAPR;
+            interest += other.interest;
+            return this;
+        }
+    }
+
+    private final class Ladder implements Accumulator<Ladder> {
+
+        final double[] payment;
+        final double[] interest;
+        final double[] principal;
+        final int periodsPerYear;
+
+        Ladder(int length, int periodsPerYear) {
+            payment = new double[length];
+            interest = new double[length];
+            principal = new double[length];
+            this.periodsPerYear = periodsPerYear;
+        }
+
+        @Override
+        public void add(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (compounding[i] == REMOVED) {
+                    continue;
+                }
+                double balance = LoanPortfolio.this.principal[i];
+                double rate = periodRate[i];
+                double due = LoanPortfolio.this.payment[i];
+                int last = payments[i];
+                // Payment k is made k / paymentsPerYear years from now, so
+                // ladder period p holds payments up to floor((p + 1) *
+                // perPeriod); a tiny tolerance keeps payments on a period
+                // boundary in the period that ends there.
+                double perPeriod = paymentsPerYear[i] / periodsPerYear;
+                double periodLength = periodsPerYear / paymentsPerYear[i];
+                // Most ladder periods hold the same number of payments, or
+                // one more, so their growth factors are calculated once.
+                int usual = (int) perPeriod;
+                double usualGrowth = TVMFormulas.growth(rate, usual);
+                double nextGrowth = TVMFormulas.growth(rate, usual + 1);
+                int made = 0;
+                int period = 0;
+                while (made < last) {
+                    // A cast rather than Math.floor, which is not an
+                    // intrinsic on every CPU; the value is positive.
+                    int through = Math.min(last, (int) ((period + 1) * perPeriod + 1e-9));
+                    if (through == made) {
+                        // Skip ahead to the period of the next payment,
+                        // ceil((made + 1) / perPeriod) - 1.
+                        double next = (made + 1) * periodLength - 1e-9;
+                        int skip = (int) next == next ? (int) next - 1 : (int) next;
+                        period = Math.max(period + 1, skip);
+                        continue;
+                    }
+                    // The last payment clears whatever is left.
+                    int count = through == last ? through - made - 1 : through - made;
+                    double growth = count == usual ? usualGrowth
+                            : count == usual + 1 ? nextGrowth : TVMFormulas.growth(rate, count);
+                    double remaining = balance(balance, rate, due, count, growth);
+                    double paid = count * due;
+                    if (through == last) {
+                        paid += remaining * (1 + rate);
+                        remaining = 0;
+                    }
+                    payment[period] += paid;
+                    interest[period] += paid - (balance - remaining);
+                    principal[period] += balance - remaining;
+                    balance = remaining;
+                    made = through;
+                    period++;
+                }
+            }
+        }
+
+        @Override
+        public Ladder merge(Ladder other) {
+            for (int k = 0; k < payment.length; k++) {
+                payment[k] += other.payment[k];
+                interest[k] += other.interest[k];
+                principal[k] += other.principal[k];
+            }
+            return this;
+        }
+    }
+}
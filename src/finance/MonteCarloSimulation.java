@@ -0,0 +1,420 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+import finance.enums.ReturnDistribution;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The MonteCarloSimulation class projects the value of an investment when the
+ * return earned in each compounding period is random instead of a fixed APR.
+ * Each simulated path starts with the initial investment and, every period,
+ * grows by a random return and then receives the periodic investment (the
+ * same recurrence as Investment.fillTrajectory ()). The final values of all
+ * paths are summarized by their mean, standard deviation, extremes and
+ * percentiles.
+ * <p>
+ * Paths are never stored. Final values are counted in a histogram with
+ * {@value #BINS_PER_DECADE} logarithmic bins per decade, so percentiles are
+ * accurate to about 0.25% of the value, and the mean and standard deviation
+ * are accumulated as they are generated.
+ * <p>
+ * Paths are simulated in fixed chunks of {@value #CHUNK_PATHS} on a
+ * ForkJoinPool. Every chunk has its own SplittableRandom, split from a root
+ * generator in chunk order, and chunk statistics are combined in chunk order,
+ * so the result depends only on the seed and not on the number of threads.
+ * A simulation holds no mutable state and may be run from several threads at
+ * once.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class MonteCarloSimulation {
+
+    /**
+     * The number of paths simulated with each random number generator.
+     */
+    public static final int CHUNK_PATHS = 4096;
+
+    /**
+     * The number of histogram bins per decade of final value.
+     */
+    public static final int BINS_PER_DECADE = 500;
+
+    // Histogram range: magnitudes below MIN_MAGNITUDE count as zero, and
+    // magnitudes above MIN_MAGNITUDE * 10^DECADES fall in the last bin.
+    private static final double MIN_MAGNITUDE = 1e-2;
+    private static final int DECADES = 16;
+    private static final int MAGNITUDE_BINS = BINS_PER_DECADE * DECADES;
+    private static final int ZERO_BIN = MAGNITUDE_BINS;
+    private static final int BINS = 2 * MAGNITUDE_BINS + 1;
+    private static final double BINS_PER_LOG = BINS_PER_DECADE / Math.log(10);
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final double initialInvestment;
+    private final double periodicInvestment;
+    private final CompoundingOption compounding;
+    private final double years;
+    private final ReturnDistribution distribution;
+    private final double meanReturn;
+    private final double volatility;
+    private final int periods;
+
+    /**
+     * Creates a simulation of an investment with random returns.
+     *
+     * @param initialInvestment the amount invested at the start
+     * @param periodicInvestment the amount invested at the end of every
+     * compounding period
+     * @param meanReturn the expected annual return, specified as an annual
+     * percentage rate (APR)
+     * @param volatility the annual standard deviation of returns, specified
+     * as a percentage
+     * @param distribution the distribution of period returns
+     * @param compounding the compounding interval, which sets the length of a
+     * period (one year for continuous compounding)
+     * @param yearsInvested the number of years the investment is held
+     */
+    public MonteCarloSimulation(double initialInvestment, double periodicInvestment,
+            double meanReturn, double volatility, ReturnDistribution distribution,
+            CompoundingOption compounding, double yearsInvested) {
+        if (!(volatility >= 0)) {
+            throw new IllegalArgumentException("Volatility cannot be negative.");
+        }
+        this.initialInvestment = initialInvestment;
+        this.periodicInvestment = periodicInvestment;
+        this.meanReturn = meanReturn;
+        this.volatility = volatility;
+        this.distribution = distribution;
+        this.compounding = compounding;
+        this.years = yearsInvested;
+        periods = (int) Math.round(yearsInvested * TVMFormulas.paymentsPerYear(compounding));
+    }
+
+    /**
+     * Creates a simulation of an Investment whose APR is the expected return.
+     *
+     * @param investment the investment to simulate
+     * @param volatility the annual standard deviation of returns, specified
+     * as a percentage
+     * @param distribution the distribution of period returns
+     */
+    public MonteCarloSimulation(Investment investment, double volatility,
+            ReturnDistribution distribution) {
+        this(investment.getScenario(), volatility, distribution);
+    }
+
+    private MonteCarloSimulation(TVMScenario investment, double volatility,
+            ReturnDistribution distribution) {
+        this(investment.getPV(), investment.getPMT(), investment.getAPR(),
+                volatility, distribution, investment.getCompounding(),
+                investment.getYears());
+    }
+
+    /**
+     * Provides the number of compounding periods in each path.
+     *
+     * @return the number of periods, rounded to a whole number
+     */
+    public int getPeriods() {
+        return periods;
+    }
+
+    /**
+     * Simulates the specified number of paths on the common ForkJoinPool.
+     *
+     * @param paths the number of paths to simulate
+     * @param seed the seed of the random number generators
+     * @return the summary of the final values
+     */
+    public Result run(long paths, long seed) {
+        return run(paths, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates the specified number of paths on the specified ForkJoinPool.
+     * The same seed always gives the same result, whatever the pool.
+     *
+     * @param paths the number of paths to simulate
+     * @param seed the seed of the random number generators
+     * @param pool the pool used to simulate chunks of paths
+     * @return the summary of the final values
+     */
+    public Result run(long paths, long seed, ForkJoinPool pool) {
+        if (paths < 1) {
+            throw new IllegalArgumentException("At least one path must be simulated.");
+        }
+        long chunkCount = (paths + CHUNK_PATHS - 1) / CHUNK_PATHS;
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many paths: " + paths);
+        }
+        int chunks = (int) chunkCount;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] generators = new SplittableRandom[chunks];
+        for (int k = 0; k < chunks; k++) {
+            generators[k] = root.split();
+        }
+        double[] means = new double[chunks];
+        double[] squares = new double[chunks];
+        int leafChunks = Math.max(1, chunks / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        Accumulator total = pool.invoke(new Simulation(paths, generators, means,
+                squares, 0, chunks, leafChunks));
+
+        // Combine chunk moments in chunk order (Chan et al.) so that the result
+        // does not depend on how chunks were scheduled.
+        double mean = 0;
+        double m2 = 0;
+        long count = 0;
+        for (int k = 0; k < chunks; k++) {
+            long n = Math.min(CHUNK_PATHS, paths - (long) k * CHUNK_PATHS);
+            double delta = means[k] - mean;
+            long combined = count + n;
+            mean += delta * n / combined;
+            m2 += squares[k] + delta * delta * ((double) count * n / combined);
+            count = combined;
+        }
+        return new Result(paths, mean, count > 1 ? Math.sqrt(m2 / (count - 1)) : 0,
+                total.min, total.max, total.counts);
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    // Simulates the paths of one chunk, storing the chunk's mean and sum of
+    // squared deviations and adding its final values to the accumulator.
+    private void simulateChunk(int chunk, long paths, SplittableRandom random,
+            double[] means, double[] squares, Accumulator accumulator) {
+        double periodsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        double annualReturn = meanReturn / 100.0;
+        double annualVolatility = volatility / 100.0;
+        double periodVolatility = annualVolatility / Math.sqrt(periodsPerYear);
+        boolean lognormal = distribution == ReturnDistribution.LOGNORMAL;
+        double drift = lognormal
+                ? (annualReturn - annualVolatility * annualVolatility / 2) / periodsPerYear
+                : annualReturn / periodsPerYear;
+
+        long first = (long) chunk * CHUNK_PATHS;
+        int n = (int) Math.min(CHUNK_PATHS, paths - first);
+        double mean = 0;
+        double m2 = 0;
+        double spare = 0;
+        boolean hasSpare = false;
+        for (int path = 0; path < n; path++) {
+            double value = initialInvestment;
+            for (int period = 0; period < periods; period++) {
+                double z;
+                if (hasSpare) {
+                    z = spare;
+                    hasSpare = false;
+                } else {
+                    // Marsaglia polar method: two standard normals per accepted pair.
+                    double u;
+                    double v;
+                    double s;
+                    do {
+                        u = 2 * random.nextDouble() - 1;
+                        v = 2 * random.nextDouble() - 1;
+                        s = u * u + v * v;
+                    } while (s >= 1 || s == 0);
+                    double scale = Math.sqrt(-2 * Math.log(s) / s);
+                    z = u * scale;
+                    spare = v * scale;
+                    hasSpare = true;
+                }
+                double growth = lognormal
+                        ? Math.exp(drift + periodVolatility * z)
+                        : 1 + drift + periodVolatility * z;
+                value = value * growth + periodicInvestment;
+            }
+            double delta = value - mean;
+            mean += delta / (path + 1);
+            m2 += delta * (value - mean);
+            accumulator.add(value);
+        }
+        means[chunk] = mean;
+        squares[chunk] = m2;
+    }
+
+    private static int bin(double value) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude >= MIN_MAGNITUDE)) {
+            return ZERO_BIN;
+        }
+        int k = (int) Math.min(MAGNITUDE_BINS - 1,
+                Math.log(magnitude / MIN_MAGNITUDE) * BINS_PER_LOG);
+        return value > 0 ? ZERO_BIN + 1 + k : ZERO_BIN - 1 - k;
+    }
+
+    // The geometric midpoint of a bin.
+    private static double binValue(int bin) {
+        if (bin == ZERO_BIN) {
+            return 0;
+        }
+        int k = bin > ZERO_BIN ? bin - ZERO_BIN - 1 : ZERO_BIN - 1 - bin;
+        double magnitude = MIN_MAGNITUDE * Math.exp((k + 0.5) / BINS_PER_LOG);
+        return bin > ZERO_BIN ? magnitude : -magnitude;
+    }
+
+    // Histogram and extremes of final values. Counts and extremes combine
+    // exactly in any order.
+    private static final class Accumulator {
+
+        private final long[] counts = new long[BINS];
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            counts[bin(value)]++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int k = 0; k < BINS; k++) {
+                counts[k] += other.counts[k];
+            }
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+    }
+
+    private final class Simulation extends RecursiveTask<Accumulator> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long paths;
+        private final SplittableRandom[] generators;
+        private final double[] means;
+        private final double[] squares;
+        private final int from;
+        private final int to;
+        private final int leafChunks;
+
+        Simulation(long paths, SplittableRandom[] generators, double[] means,
+                double[] squares, int from, int to, int leafChunks) {
+            this.paths = paths;
+            this.generators = generators;
+            this.means = means;
+            this.squares = squares;
+            this.from = from;
+            this.to = to;
+            this.leafChunks = leafChunks;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= leafChunks) {
+                Accumulator accumulator = new Accumulator();
+                for (int chunk = from; chunk < to; chunk++) {
+                    simulateChunk(chunk, paths, generators[chunk], means, squares, accumulator);
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            Simulation right = new Simulation(paths, generators, means, squares,
+                    middle, to, leafChunks);
+            right.fork();
+            Accumulator left = new Simulation(paths, generators, means, squares,
+                    from, middle, leafChunks).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    /**
+     * The summary of the final values of a Monte Carlo simulation.
+     */
+    public static final class Result {
+
+        private final long paths;
+        private final double mean;
+        private final double standardDeviation;
+        private final double min;
+        private final double max;
+        private final long[] counts;
+
+        private Result(long paths, double mean, double standardDeviation,
+                double min, double max, long[] counts) {
+            this.paths = paths;
+            this.mean = mean;
+            this.standardDeviation = standardDeviation;
+            this.min = min;
+            this.max = max;
+            this.counts = counts;
+        }
+
+        /**
+         * Provides the number of simulated paths.
+         *
+         * @return the number of paths
+         */
+        public long getPaths() {
+            return paths;
+        }
+
+        /**
+         * Provides the mean final value.
+         *
+         * @return the mean of the final values
+         */
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * Provides the sample standard deviation of the final values.
+         *
+         * @return the standard deviation of the final values
+         */
+        public double getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        /**
+         * Provides the smallest final value.
+         *
+         * @return the minimum final value
+         */
+        public double getMin() {
+            return min;
+        }
+
+        /**
+         * Provides the largest final value.
+         *
+         * @return the maximum final value
+         */
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * Provides a percentile of the final values, accurate to the
+         * resolution of the histogram.
+         *
+         * @param percent the percentile, from 0 to 100
+         * @return the final value below which the specified percentage of
+         * paths fall
+         */
+        public double getPercentile(double percent) {
+            if (!(percent >= 0 && percent <= 100)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+            }
+            if (percent == 0) {
+                return min;
+            }
+            if (percent == 100) {
+                return max;
+            }
+            long rank = (long) Math.ceil(percent / 100 * paths);
+            long seen = 0;
+            for (int bin = 0; bin < counts.length; bin++) {
+                seen += counts[bin];
+                if (seen >= rank) {
+                    return Math.max(min, Math.min(max, binValue(bin)));
+                }
+            }
+            return max;
+        }
+    }
+}
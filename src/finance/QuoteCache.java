@@ -0,0 +1,364 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The QuoteCache class remembers the results of recent loan payment and
+ * investment quotes, so that repeated quotes do not create an engine object
+ * and repeat the calculation and currency formatting. A quote is identified by
+ * its exact inputs: the quote type, the two amounts, the APR, the compounding
+ * option and the number of years. Each cached result holds both the numeric
+ * value and the text formatted as currency, which are exactly what
+ * LoanPayment.getValue () and Investment.getValue () return for the same
+ * inputs, so using a cache never changes a result.
+ * <p>
+ * The text depends on the currency format of the default locale, as
+ * toCurrency () does, so results are also kept by currency format: a quote
+ * requested after the default locale changes is calculated and formatted
+ * again rather than served in the old format.
+ * <p>
+ * The cache holds at most a fixed number of results. As in the
+ * DiscountFactorCache class, results are grouped into small sets selected by
+ * the hash of the inputs, and when a set is full its least recently used
+ * result is evicted; both caches keep their sets with the CacheSlots class. A
+ * result can also be given a time to live, after which it is calculated
+ * again. Keys are stored in primitive arrays and the sets are guarded by
+ * striped locks, so lookups do not box their inputs and a single cache can be
+ * shared by any number of threads.
+ * <p>
+ * The cache is opt-in: engines do not use it unless quotes are requested
+ * through it. For example:
+ * <pre>
+ * QuoteCache cache = new QuoteCache(10000, 10, TimeUnit.MINUTES);
+ * String payment = cache.loanPayment(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30).getText();
+ * </pre>
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class QuoteCache {
+
+    /**
+     * The default maximum number of results.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    // Double inputs per key: the two amounts, the APR and the years.
+    private static final int KEY_FIELDS = 4;
+
+    private static final int LOAN_PAYMENT = 0;
+    private static final int INVESTMENT = 1;
+
+    private final PrecisionMode precisionMode;
+    private final long timeToLive;
+    private final CacheSlots slots;
+    private final long[] keys;
+    private final int[] kinds;
+    private final CurrencyFormatter[] currencies;
+    private final Result[] results;
+    private final long[] stored;
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Creates a quote cache with the default maximum size whose results do
+     * not expire and are calculated in PrecisionMode.DOUBLE.
+     */
+    public QuoteCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a quote cache whose results do not expire and are calculated in
+     * PrecisionMode.DOUBLE. The maximum size is rounded up to a power of two
+     * of at least 4.
+     *
+     * @param maximumSize the maximum number of results held
+     */
+    public QuoteCache(int maximumSize) {
+        this(maximumSize, Long.MAX_VALUE, TimeUnit.NANOSECONDS, PrecisionMode.DOUBLE);
+    }
+
+    /**
+     * Creates a quote cache whose results are calculated in
+     * PrecisionMode.DOUBLE. The maximum size is rounded up to a power of two
+     * of at least 4.
+     *
+     * @param maximumSize the maximum number of results held
+     * @param timeToLive the time after which a result is calculated again
+     * @param unit the unit of the time to live
+     */
+    public QuoteCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        this(maximumSize, timeToLive, unit, PrecisionMode.DOUBLE);
+    }
+
+    /**
+     * Creates a quote cache. The maximum size is rounded up to a power of two
+     * of at least 4.
+     *
+     * @param maximumSize the maximum number of results held
+     * @param timeToLive the time after which a result is calculated again
+     * @param unit the unit of the time to live
+     * @param precisionMode the arithmetic used to calculate results
+     */
+    public QuoteCache(int maximumSize, long timeToLive, TimeUnit unit,
+            PrecisionMode precisionMode) {
+        if (timeToLive <= 0 || unit == null) {
+            throw new IllegalArgumentException("The time to live must be positive.");
+        }
+        if (precisionMode == null) {
+            throw new IllegalArgumentException("The precision mode is required.");
+        }
+        slots = new CacheSlots(maximumSize);
+        this.precisionMode = precisionMode;
+        this.timeToLive = unit.toNanos(timeToLive);
+        keys = new long[slots.size() * KEY_FIELDS];
+        kinds = new int[slots.size()];
+        currencies = new CurrencyFormatter[slots.size()];
+        results = new Result[slots.size()];
+        stored = new long[slots.size()];
+    }
+
+    /**
+     * Returns the periodic payment of a loan, calculating and caching it if it
+     * is not already cached. The arguments are those of the LoanPayment
+     * constructor.
+     *
+     * @param purchaseAmount the amount of the purchase to be made by the borrower
+     * @param downPayment the down payment made against the purchase amount
+     * @param interestRate the annual percentage rate (APR) of the loan
+     * @param compounding how often interest is added to the loan principal
+     * @param loanDuration the duration of the loan in years
+     * @return the payment, as LoanPayment.getValue () provides it
+     */
+    public Result loanPayment(double purchaseAmount, double downPayment,
+            double interestRate, CompoundingOption compounding, double loanDuration) {
+        return lookup(LOAN_PAYMENT, purchaseAmount, downPayment, interestRate,
+                compounding, loanDuration);
+    }
+
+    /**
+     * Returns the future value of an investment, calculating and caching it if
+     * it is not already cached. The arguments are those of the Investment
+     * constructor.
+     *
+     * @param initialInvestment the amount invested at the beginning of the term
+     * @param periodicPayment the amount invested at regular intervals
+     * @param interestRate the annual return (APR) of the investment
+     * @param compounding how often interest is added to the investment
+     * @param yearsInvested the length of the investment in years
+     * @return the future value, as Investment.getValue () provides it
+     */
+    public Result investmentValue(double initialInvestment, double periodicPayment,
+            double interestRate, CompoundingOption compounding, double yearsInvested) {
+        return lookup(INVESTMENT, initialInvestment, periodicPayment, interestRate,
+                compounding, yearsInvested);
+    }
+
+    /**
+     * Removes every cached result. The counts are not reset.
+     */
+    public void clear() {
+        slots.clear(results);
+    }
+
+    /**
+     * Returns the maximum number of results held by this cache.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the arithmetic used to calculate results.
+     *
+     * @return the precision mode
+     */
+    public PrecisionMode getPrecisionMode() {
+        return precisionMode;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return slots.getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to calculate the result,
+     * including those whose cached result had expired.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return slots.getMissCount();
+    }
+
+    /**
+     * Returns the number of results evicted to make room for new ones.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return slots.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of cached results found to have outlived the time to
+     * live.
+     *
+     * @return the expiration count
+     */
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return the hit ratio, or zero if there have been no lookups
+     */
+    public double getHitRatio() {
+        return slots.getHitRatio();
+    }
+
+    /**
+     * A cached quote result. Results are immutable.
+     */
+    public static final class Result {
+
+        private final double value;
+        private final String text;
+
+        private Result(double value, String text) {
+            this.value = value;
+            this.text = text;
+        }
+
+        /**
+         * Returns the result as a number, before rounding.
+         *
+         * @return the payment or future value
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the result formatted as currency.
+         *
+         * @return the payment or future value as text
+         */
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private Result lookup(int type, double first, double second, double apr,
+            CompoundingOption compounding, double years) {
+        if (compounding == null) {
+            throw new IllegalArgumentException("The compounding option is required.");
+        }
+        int kind = type | compounding.ordinal() << 1;
+        CurrencyFormatter currency = CurrencyFormatter.getInstance();
+        long firstKey = Double.doubleToLongBits(first);
+        long secondKey = Double.doubleToLongBits(second);
+        long aprKey = Double.doubleToLongBits(apr);
+        long yearsKey = Double.doubleToLongBits(years);
+        int set = slots.set(hash(kind, firstKey, secondKey, aprKey, yearsKey));
+        long now = System.nanoTime();
+
+        synchronized (slots.lock(set)) {
+            int slot = find(set, kind, currency, firstKey, secondKey, aprKey, yearsKey);
+            if (slot >= 0) {
+                if (now - stored[slot] < timeToLive) {
+                    slots.hit(slot);
+                    return results[slot];
+                }
+                slots.free(slot);
+                results[slot] = null;
+                expirations.increment();
+            }
+        }
+
+        // Calculate outside the lock; a concurrent miss on the same quote
+        // simply stores the same result twice.
+        Result result = calculate(type, first, second, apr, compounding, years, currency);
+        slots.miss();
+
+        synchronized (slots.lock(set)) {
+            int slot = find(set, kind, currency, firstKey, secondKey, aprKey, yearsKey);
+            if (slot < 0) {
+                slot = slots.evict(set);
+                int key = slot * KEY_FIELDS;
+                keys[key] = firstKey;
+                keys[key + 1] = secondKey;
+                keys[key + 2] = aprKey;
+                keys[key + 3] = yearsKey;
+                kinds[slot] = kind;
+                currencies[slot] = currency;
+            }
+            results[slot] = result;
+            stored[slot] = now;
+            slots.use(slot);
+        }
+        return result;
+    }
+
+    private Result calculate(int type, double first, double second, double apr,
+            CompoundingOption compounding, double years, CurrencyFormatter currency) {
+        double value;
+        if (type == LOAN_PAYMENT) {
+            LoanPayment loan = new LoanPayment(first, second, apr, compounding, years);
+            loan.setPrecisionMode(precisionMode);
+            value = -loan.calcPMT();
+        } else {
+            Investment investment = new Investment(first, second, apr, compounding, years);
+            investment.setPrecisionMode(precisionMode);
+            value = -investment.calcFV();
+        }
+        return new Result(value, currency.format(value));
+    }
+
+    // The slot holding a quote, or -1. The lock of the set must be held.
+    // Formatters are shared per locale, so they are compared by identity.
+    private int find(int set, int kind, CurrencyFormatter currency, long firstKey,
+            long secondKey, long aprKey, long yearsKey) {
+        int first = CacheSlots.first(set);
+        for (int slot = first; slot < first + CacheSlots.WAYS; slot++) {
+            int key = slot * KEY_FIELDS;
+            if (slots.isUsed(slot) && kinds[slot] == kind && currencies[slot] == currency
+                    && keys[key] == firstKey && keys[key + 1] == secondKey
+                    && keys[key + 2] == aprKey && keys[key + 3] == yearsKey) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(int kind, long firstKey, long secondKey, long aprKey,
+            long yearsKey) {
+        long h = kind;
+        h = h * 0x9E3779B97F4A7C15L + firstKey;
+        h = h * 0x9E3779B97F4A7C15L + secondKey;
+        h = h * 0x9E3779B97F4A7C15L + aprKey;
+        h = h * 0x9E3779B97F4A7C15L + yearsKey;
+        h ^= h >>> 32;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 29));
+    }
+}
@@ -0,0 +1,112 @@
+package finance;
+
+import java.util.Arrays;
+
+/**
+ * The RateSchedule class holds the rate resets of an adjustable-rate loan:
+ * the times, in years from the start of the loan, at which a new APR takes
+ * effect. The rate before the first reset is the loan's own APR, so an empty
+ * schedule describes a fixed-rate loan, and a schedule of one reset
+ * describes a teaser-rate product.
+ * <p>
+ * Like TVMScenario, a RateSchedule is immutable: withReset () returns an
+ * updated copy, so a schedule can be shared by any number of loans and
+ * threads.
+ * <pre>
+ * // A 5/1 ARM: fixed for 5 years, then a new rate every year.
+ * RateSchedule schedule = RateSchedule.periodic(5, 1, 6.25, 6.75, 7.25, 7.5);
+ * </pre>
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class RateSchedule {
+
+    private static final double[] NONE = new double[0];
+
+    private final double[] years;
+    private final double[] apr;
+
+    /**
+     * Creates a schedule with no resets.
+     */
+    public RateSchedule() {
+        this(NONE, NONE);
+    }
+
+    private RateSchedule(double[] years, double[] apr) {
+        this.years = years;
+        this.apr = apr;
+    }
+
+    /**
+     * Creates a schedule of resets at a regular interval. The last rate
+     * applies for the rest of the loan.
+     *
+     * @param firstReset the years from the start of the loan to the first
+     * reset (e.g., 5 for a 5/1 ARM)
+     * @param interval the years between resets (e.g., 1 for a 5/1 ARM)
+     * @param aprs the APR set at each reset, in order
+     * @return the schedule
+     */
+    public static RateSchedule periodic(double firstReset, double interval, double... aprs) {
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException("The reset interval must be greater than zero.");
+        }
+        RateSchedule schedule = new RateSchedule();
+        for (int k = 0; k < aprs.length; k++) {
+            schedule = schedule.withReset(firstReset + k * interval, aprs[k]);
+        }
+        return schedule;
+    }
+
+    /**
+     * Returns a copy of this schedule with a reset added after the last one.
+     *
+     * @param years the years from the start of the loan to the reset
+     * @param apr the APR that takes effect at the reset
+     * @return the updated schedule
+     * @throws IllegalArgumentException if the reset is not after the start of
+     * the loan and after every earlier reset
+     */
+    public RateSchedule withReset(double years, double apr) {
+        double last = this.years.length == 0 ? 0 : this.years[this.years.length - 1];
+        if (!(years > last)) {
+            throw new IllegalArgumentException("Each reset must come after the one before.");
+        }
+        double[] resetYears = Arrays.copyOf(this.years, this.years.length + 1);
+        double[] resetAPR = Arrays.copyOf(this.apr, this.apr.length + 1);
+        resetYears[this.years.length] = years;
+        resetAPR[this.apr.length] = apr;
+        return new RateSchedule(resetYears, resetAPR);
+    }
+
+    /**
+     * Provides the number of resets.
+     *
+     * @return the number of resets
+     */
+    public int size() {
+        return years.length;
+    }
+
+    /**
+     * Provides the time of a reset.
+     *
+     * @param index the index of the reset, from zero
+     * @return the years from the start of the loan to the reset
+     */
+    public double getYears(int index) {
+        return years[index];
+    }
+
+    /**
+     * Provides the APR that takes effect at a reset.
+     *
+     * @param index the index of the reset, from zero
+     * @return the APR
+     */
+    public double getAPR(int index) {
+        return apr[index];
+    }
+}
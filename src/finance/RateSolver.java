@@ -0,0 +1,296 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+
+/**
+ * The RateSolver class finds the interest rate that satisfies the time-value
+ * of money (TVM) equation when the number of periods, PV, PMT and FV are
+ * known:
+ * <pre>
+ * PV * (1 + i)^n + PMT * ((1 + i)^n - 1) / i + FV = 0
+ * </pre>
+ * The solver uses Newton-Raphson iteration with the analytic derivative of the
+ * equation, starting from a closed-form estimate of the rate. If a Newton step
+ * leaves the range of valid rates or fails to make progress, the solver falls
+ * back to bisection on a bracket that contains a sign change, taking Newton
+ * steps whenever they stay inside the bracket. Iteration stops when the change
+ * in rate is within the tolerance or the iteration limit is reached.
+ * <p>
+ * A RateSolver holds only its configuration, does not allocate while solving,
+ * and may be shared across threads. The calculations assume the cash flow sign
+ * convention used by standard financial calculators.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class RateSolver {
+
+    /**
+     * The default tolerance on the rate per period.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+
+    /**
+     * The default maximum number of iterations.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    // Lowest rate per period considered. A rate of -100% or less has no meaning.
+    private static final double MIN_RATE = -1 + 1e-9;
+
+    // Upper bound for (1 + i)^n while bracketing, well below overflow.
+    private static final double MAX_LOG_DF = 500;
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    /**
+     * Creates a rate solver with the default tolerance and iteration limit.
+     */
+    public RateSolver() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates a rate solver with the specified tolerance and iteration limit.
+     *
+     * @param tolerance iteration stops when the rate per period changes by no
+     * more than this amount
+     * @param maxIterations the maximum number of iterations
+     */
+    public RateSolver(double tolerance, int maxIterations) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance must be greater than zero.");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("The iteration limit must be at least 1.");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Provides the tolerance: iteration stops when the rate per period
+     * changes by no more than this amount.
+     *
+     * @return the tolerance
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Provides the maximum number of iterations.
+     *
+     * @return the iteration limit
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Solves for the interest rate or return specified as an annual percentage
+     * rate (APR).
+     *
+     * @param compounding the interest compounding interval
+     * @param years the number of years over which the TVM calculation applies
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @return the APR, or NaN if no rate satisfies the TVM equation within the
+     * iteration limit
+     */
+    public double solveAPR(CompoundingOption compounding, double years,
+            double pv, double pmt, double fv) {
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        return TVMFormulas.annualRate(solvePeriodRate(
+                TVMFormulas.periods(years, paymentsPerYear), pv, pmt, fv),
+                compoundingPerYear, paymentsPerYear) * 100;
+    }
+
+    /**
+     * Solves for the interest rate per period.
+     *
+     * @param periods the number of periods
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @return the interest rate per period, or NaN if no rate satisfies the
+     * TVM equation within the iteration limit
+     */
+    public double solvePeriodRate(double periods, double pv, double pmt,
+            double fv) {
+        return solve(periods, pv, pmt, fv, false);
+    }
+
+    /**
+     * Returns the number of iterations needed to solve for the interest rate
+     * per period. Intended for tuning and benchmarking.
+     *
+     * @param periods the number of periods
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @return the number of iterations, or -1 if the solver did not converge
+     */
+    public int countIterations(double periods, double pv, double pmt,
+            double fv) {
+        return (int) solve(periods, pv, pmt, fv, true);
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    // Returns the rate, or the iteration count when countOnly is set.
+    private double solve(double n, double pv, double pmt, double fv,
+            boolean countOnly) {
+        if (!(n > 0)) {
+            return countOnly ? -1 : Double.NaN;
+        }
+        // The future value form of the equation is monotonic in the rate when
+        // PV and PMT have the same sign (e.g., an investment); the present
+        // value form is monotonic when PMT and FV have the same sign (e.g., a
+        // loan). Iterating on a monotonic function keeps Newton well behaved.
+        boolean futureValueForm = pv == 0 || Math.signum(pv) == Math.signum(pmt);
+        double x = initialGuess(n, pv, pmt, fv);
+        int iteration = 0;
+
+        // Unguarded Newton-Raphson from the initial estimate.
+        double previousStep = Double.POSITIVE_INFINITY;
+        while (iteration < maxIterations) {
+            iteration++;
+            double step = newtonStep(x, n, pv, pmt, fv, futureValueForm);
+            if (step == 0) {
+                return countOnly ? iteration : x;
+            }
+            double next = x - step;
+            if (!(next > MIN_RATE) || Double.isInfinite(next)
+                    || Math.abs(step) > Math.abs(previousStep)) {
+                break;
+            }
+            if (Math.abs(step) <= tolerance) {
+                return countOnly ? iteration : next;
+            }
+            previousStep = step;
+            x = next;
+        }
+
+        // Fall back to a bracketed search, taking a Newton step only when it
+        // stays inside the bracket and shrinks faster than bisection would.
+        double lo = MIN_RATE;
+        double hi = Math.expm1(MAX_LOG_DF / n);
+        double fLo = value(lo, n, pv, pmt, fv, futureValueForm);
+        double fHi = value(hi, n, pv, pmt, fv, futureValueForm);
+        if (Math.signum(fLo) == Math.signum(fHi) || Double.isNaN(fLo)
+                || Double.isNaN(fHi)) {
+            return countOnly ? -1 : Double.NaN;
+        }
+        if (!(x > lo && x < hi)) {
+            x = 0.5 * (lo + hi);
+        }
+        double step = hi - lo;
+        while (iteration < maxIterations) {
+            iteration++;
+            double f = value(x, n, pv, pmt, fv, futureValueForm);
+            if (f == 0) {
+                return countOnly ? iteration : x;
+            }
+            if (Math.signum(f) == Math.signum(fLo)) {
+                lo = x;
+                fLo = f;
+            } else {
+                hi = x;
+            }
+            double previous = step;
+            double next = x - newtonStep(x, n, pv, pmt, fv, futureValueForm);
+            if (!(next > lo && next < hi)
+                    || Math.abs(next - x) > 0.5 * Math.abs(previous)) {
+                next = 0.5 * (lo + hi);
+            }
+            step = next - x;
+            if (Math.abs(step) <= tolerance || hi - lo <= tolerance) {
+                return countOnly ? iteration : next;
+            }
+            x = next;
+        }
+        return countOnly ? -1 : Double.NaN;
+    }
+
+    // Estimates the rate by collapsing the cash flows of each sign into a
+    // single flow at their average time: PV at period 0, the payments at
+    // period (n + 1) / 2 and FV at period n. Equating the value of the two
+    // collapsed flows gives the rate in closed form.
+    private static double initialGuess(double n, double pv, double pmt,
+            double fv) {
+        double annuity = pmt * n;
+        double annuityTime = (n + 1) / 2;
+        double positive = 0;
+        double positiveTime = 0;
+        double negative = 0;
+        double negativeTime = 0;
+        if (pv > 0) {
+            positive += pv;
+        } else {
+            negative -= pv;
+        }
+        if (annuity > 0) {
+            positive += annuity;
+            positiveTime += annuity * annuityTime;
+        } else {
+            negative -= annuity;
+            negativeTime -= annuity * annuityTime;
+        }
+        if (fv > 0) {
+            positive += fv;
+            positiveTime += fv * n;
+        } else {
+            negative -= fv;
+            negativeTime -= fv * n;
+        }
+        double guess = Math.expm1(Math.log(negative / positive)
+                / (negativeTime / negative - positiveTime / positive));
+        if (!(guess > MIN_RATE) || Double.isInfinite(guess)) {
+            guess = 0.01;
+        }
+        return guess;
+    }
+
+    // The TVM equation in either its future value form,
+    //     PV * (1 + i)^n + PMT * ((1 + i)^n - 1) / i + FV,
+    // or its present value form (the same expression divided by (1 + i)^n),
+    //     PV + PMT * (1 - (1 + i)^-n) / i + FV * (1 + i)^-n.
+    private static double value(double i, double n, double pv, double pmt,
+            double fv, boolean futureValueForm) {
+        double logDF = n * Math.log1p(i);
+        if (futureValueForm) {
+            return pv * Math.exp(logDF) + pmt * annuityFactor(i, n, logDF) + fv;
+        }
+        return pv - pmt * annuityFactor(i, -n, -logDF) + fv * Math.exp(-logDF);
+    }
+
+    // The Newton-Raphson step value () / value' () at i, evaluated with a
+    // single power calculation.
+    private static double newtonStep(double i, double n, double pv, double pmt,
+            double fv, boolean futureValueForm) {
+        double logDF = n * Math.log1p(i);
+        if (futureValueForm) {
+            double df = Math.exp(logDF);
+            double annuity = annuityFactor(i, n, logDF);
+            double dDF = n * df / (1 + i);
+            double dAnnuity = i == 0 ? n * (n - 1) / 2 : (dDF - annuity) / i;
+            return (pv * df + pmt * annuity + fv) / (pv * dDF + pmt * dAnnuity);
+        }
+        double discount = Math.exp(-logDF);
+        double annuity = annuityFactor(i, -n, -logDF);
+        double dDiscount = -n * discount / (1 + i);
+        double dAnnuity = i == 0 ? -n * (n + 1) / 2 : (annuity - dDiscount) / i;
+        return (pv - pmt * annuity + fv * discount)
+                / (pmt * dAnnuity + fv * dDiscount);
+    }
+
+    // ((1 + i)^n - 1) / i, which tends to n as i tends to zero. With a
+    // negative n this is the negated present value annuity factor.
+    private static double annuityFactor(double i, double n, double logDF) {
+        return i == 0 ? n : Math.expm1(logDF) / i;
+    }
+}
@@ -1,7 +1,13 @@
 package finance;
 
+import finance.enums.ReportFormat;
+import java.io.IOException;
+
 /**
  * Interface for generating summary reports for financial calculations.
+ * Besides the text summary provided by print (), a report can write its
+ * fields to a ReportWriter, which renders them as text, CSV, JSON or
+ * fixed-width columns directly to an Appendable.
  * @author koluongMBP
  * @version 161012
  */
@@ -12,5 +18,32 @@ public interface Report {
      * @return text summary report of the financial calculation
      */
     public String print ();
+
+    /**
+     * Writes the fields of the report to a report writer. Results are
+     * calculated once per call, from a single snapshot of the parameters.
+     * The default writes the text of print () as a single summary field;
+     * reports override it to write one field per value. An implementation
+     * of print () that calls this method must therefore override it.
+     * @param writer the writer that renders the report
+     * @throws IOException if the writer's output cannot be written
+     */
+    public default void writeTo (ReportWriter writer) throws IOException {
+        writer.beginReport(getClass().getSimpleName());
+        writer.text("summary", "Summary", print());
+        writer.endReport();
+    }
+
+    /**
+     * Writes the report in the specified format to an Appendable. To write
+     * many reports to one output (e.g., one CSV header and a row per report),
+     * create a single ReportWriter and pass it to writeTo () for each report.
+     * @param out the destination of the report
+     * @param format the output format
+     * @throws IOException if the output cannot be written
+     */
+    public default void writeTo (Appendable out, ReportFormat format) throws IOException {
+        writeTo(ReportWriter.create(format, out));
+    }
  
 }
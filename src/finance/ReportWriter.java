@@ -0,0 +1,208 @@
+package finance;
+
+import finance.enums.ReportFormat;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * The ReportWriter class renders reports as a stream of fields. A Report
+ * describes itself by calling beginReport (), one method per field and
+ * endReport (); the writer appends the fields in its output format directly to
+ * an Appendable, such as a StringBuilder, a java.io.Writer or a
+ * ChannelAppendable over a file channel. Any number of reports can be written
+ * to one writer, so a bulk export streams to its destination without creating
+ * a String per report.
+ * <p>
+ * Each field has a name, used as the key or column heading by the structured
+ * formats, and a label, used by the text format. A field with no label is
+ * data only and is left out of text output, which lets a report add fields to
+ * structured output without changing its print () text.
+ * <p>
+ * Writers for the formats in ReportFormat are created with the create ()
+ * methods; other formats can be added by extending this class. Amounts are
+ * rounded HALF_UP to the minor unit of the writer's currency. Writers reuse
+ * internal buffers and are not thread-safe.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public abstract class ReportWriter {
+
+    private final Appendable out;
+    private final CurrencyFormatter currency;
+    private final StringBuilder scratch = new StringBuilder(32);
+
+    /**
+     * Creates a writer.
+     *
+     * @param out the destination of the output
+     * @param currency the formatter used for amounts
+     */
+    protected ReportWriter(Appendable out, CurrencyFormatter currency) {
+        if (out == null || currency == null) {
+            throw new IllegalArgumentException("An output and a currency formatter are required.");
+        }
+        this.out = out;
+        this.currency = currency;
+    }
+
+    /**
+     * Creates a writer for the specified format that formats amounts as the
+     * currency set by the operating system.
+     *
+     * @param format the output format
+     * @param out the destination of the output
+     * @return the report writer
+     */
+    public static ReportWriter create(ReportFormat format, Appendable out) {
+        return create(format, out, CurrencyFormatter.getInstance());
+    }
+
+    /**
+     * Creates a writer for the specified format.
+     *
+     * @param format the output format
+     * @param out the destination of the output
+     * @param currency the formatter used for amounts
+     * @return the report writer
+     */
+    public static ReportWriter create(ReportFormat format, Appendable out,
+            CurrencyFormatter currency) {
+        if (format == null) {
+            throw new IllegalArgumentException("The report format is required.");
+        }
+        switch (format) {
+            case TEXT:
+                return new TextReportWriter(out, currency);
+            case CSV:
+                return new TabularReportWriter(out, currency, 0);
+            case JSON:
+                return new JsonReportWriter(out, currency);
+            default:
+                return new TabularReportWriter(out, currency,
+                        TabularReportWriter.DEFAULT_COLUMN_WIDTH);
+        }
+    }
+
+    /**
+     * Starts a report.
+     *
+     * @param title the title of the report (e.g., Loan Payment Summary)
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void beginReport(String title) throws IOException;
+
+    /**
+     * Writes a text field.
+     *
+     * @param name the field name
+     * @param label the text label, or null for a data-only field
+     * @param value the value
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void text(String name, String label, CharSequence value)
+            throws IOException;
+
+    /**
+     * Writes a numeric field, such as a number of years.
+     *
+     * @param name the field name
+     * @param label the text label, or null for a data-only field
+     * @param value the value
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void number(String name, String label, double value)
+            throws IOException;
+
+    /**
+     * Writes a percentage field, such as an APR, given in percent.
+     *
+     * @param name the field name
+     * @param label the text label, or null for a data-only field
+     * @param value the value in percent
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void percent(String name, String label, double value)
+            throws IOException;
+
+    /**
+     * Writes an amount of money.
+     *
+     * @param name the field name
+     * @param label the text label, or null for a data-only field
+     * @param value the amount
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void amount(String name, String label, double value)
+            throws IOException;
+
+    /**
+     * Ends a report.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void endReport() throws IOException;
+
+    /**
+     * Flushes the output if it is Flushable.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    public void flush() throws IOException {
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+    }
+
+    /**
+     * Provides the destination of the output.
+     *
+     * @return the output
+     */
+    protected final Appendable getOut() {
+        return out;
+    }
+
+    /**
+     * Provides the formatter used for amounts.
+     *
+     * @return the currency formatter
+     */
+    protected final CurrencyFormatter getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Formats a number as Double.toString () does into a reused buffer.
+     *
+     * @param value the number
+     * @return the buffer holding the text, valid until the next call
+     */
+    protected final StringBuilder numberText(double value) {
+        scratch.setLength(0);
+        return scratch.append(value);
+    }
+
+    /**
+     * Formats an amount as currency into a reused buffer.
+     *
+     * @param value the amount
+     * @return the buffer holding the text, valid until the next call
+     */
+    protected final StringBuilder currencyText(double value) {
+        scratch.setLength(0);
+        return currency.format(value, scratch);
+    }
+
+    /**
+     * Formats an amount as a plain decimal rounded to the minor unit into a
+     * reused buffer.
+     *
+     * @param value the amount
+     * @return the buffer holding the text, valid until the next call
+     */
+    protected final StringBuilder plainText(double value) {
+        scratch.setLength(0);
+        return currency.formatPlain(value, scratch);
+    }
+}
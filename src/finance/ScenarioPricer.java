@@ -0,0 +1,301 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+import finance.enums.TVMRegister;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The ScenarioPricer class solves the time-value of money (TVM) equation for
+ * large arrays of scenarios in parallel. The scenario arrays are split into
+ * chunks that are priced with the TVMBatch class on a ForkJoinPool or on a
+ * caller-supplied executor. The chunk size adapts to the parallelism of the
+ * pool (by default, the number of available processors).
+ * <p>
+ * Every result is written to the output array at the index of its scenario and
+ * is calculated by the same formula regardless of which thread prices it, so
+ * the output is deterministic and in input order no matter how many threads
+ * are used. A ScenarioPricer holds no scenario state and may be shared across
+ * threads.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class ScenarioPricer {
+
+    /**
+     * Scenarios below this count are not worth splitting into chunks.
+     */
+    private static final int MIN_CHUNK = 4096;
+
+    /**
+     * Number of chunks per worker thread. More than one chunk per thread lets
+     * fast threads pick up work left by slow ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final Executor executor;
+    private final int parallelism;
+    private final DiscountFactorCache cache;
+
+    /**
+     * Creates a scenario pricer that uses the common ForkJoinPool.
+     */
+    public ScenarioPricer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a scenario pricer that uses the specified ForkJoinPool.
+     *
+     * @param pool the pool used to price scenario chunks
+     */
+    public ScenarioPricer(ForkJoinPool pool) {
+        this(pool, null, pool.getParallelism(), null);
+    }
+
+    /**
+     * Creates a scenario pricer that uses a caller-supplied executor.
+     *
+     * @param executor the executor used to price scenario chunks
+     * @param parallelism the number of threads available to the executor, used
+     * to size the chunks
+     */
+    public ScenarioPricer(Executor executor, int parallelism) {
+        this(null, executor, parallelism, null);
+    }
+
+    private ScenarioPricer(ForkJoinPool pool, Executor executor,
+            int parallelism, DiscountFactorCache cache) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.pool = pool;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns a copy of this pricer that looks up discount factors in the
+     * specified cache. The cache is shared by all of the threads used to price
+     * the scenarios.
+     *
+     * @param cache the discount factor cache, or null to calculate every
+     * discount factor
+     * @return a pricer that uses the specified cache
+     */
+    public ScenarioPricer withDiscountFactorCache(DiscountFactorCache cache) {
+        return new ScenarioPricer(pool, executor, parallelism, cache);
+    }
+
+    /**
+     * Returns the number of scenarios priced by each chunk for the specified
+     * number of scenarios.
+     *
+     * @param scenarios the number of scenarios to be priced
+     * @return the chunk size
+     */
+    public int getChunkSize(int scenarios) {
+        int chunks = parallelism * CHUNKS_PER_THREAD;
+        return Math.max(MIN_CHUNK, (scenarios + chunks - 1) / chunks);
+    }
+
+    /**
+     * Solves for the selected TVM register for every scenario. Columns that
+     * are not used to solve for the selected register are ignored and may be
+     * null. This method returns when every scenario has been priced. If
+     * pricing a chunk fails, or the executor rejects a chunk, the exception
+     * is thrown once every chunk already started has finished, so no chunk
+     * is still writing to the output.
+     *
+     * @param target the TVM register to solve for
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fv the future value for each scenario
+     * @param out receives the value of the selected register for each scenario
+     */
+    public void solve(TVMRegister target, CompoundingOption compounding,
+            double[] years, double[] apr, double[] pv, double[] pmt,
+            double[] fv, double[] out) {
+        Chunk task = new Chunk(cache, target, compounding, years, apr, pv, pmt, fv,
+                out, 0, out.length, getChunkSize(out.length));
+        if (out.length <= task.chunkSize) {
+            task.price(0, out.length);
+        } else if (pool != null) {
+            pool.invoke(task);
+        } else {
+            runOnExecutor(task);
+        }
+    }
+
+    /**
+     * Calculates the payment (e.g., loan payment) for every scenario.
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate for each scenario, specified as an annual
+     * percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param fv the future value for each scenario
+     * @param pmtOut receives the payment for each scenario
+     */
+    public void calcPMT(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pv, double[] fv, double[] pmtOut) {
+        solve(TVMRegister.PMT, compounding, years, apr, pv, null, fv, pmtOut);
+    }
+
+    /**
+     * Calculates the future value (e.g., value of an investment) for every
+     * scenario.
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fvOut receives the future value for each scenario
+     */
+    public void calcFV(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pv, double[] pmt, double[] fvOut) {
+        solve(TVMRegister.FV, compounding, years, apr, pv, pmt, null, fvOut);
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private void runOnExecutor(final Chunk task) {
+        int size = task.to - task.from;
+        int chunks = (size + task.chunkSize - 1) / task.chunkSize;
+        final CountDownLatch done = new CountDownLatch(chunks);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        int submitted = 0;
+        try {
+            for (int start = task.from; start < task.to; start += task.chunkSize) {
+                final int from = start;
+                final int to = Math.min(task.to, start + task.chunkSize);
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.price(from, to);
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                });
+                submitted++;
+            }
+        } catch (RuntimeException e) {
+            // The executor rejected a chunk. Wait for the chunks it accepted
+            // so that none is still writing to the output once this returns.
+            for (int k = submitted; k < chunks; k++) {
+                done.countDown();
+            }
+            awaitUninterruptibly(done);
+            throw e;
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pricing scenarios.", e);
+        }
+        Throwable thrown = failure.get();
+        if (thrown instanceof RuntimeException) {
+            throw (RuntimeException) thrown;
+        }
+        if (thrown instanceof Error) {
+            throw (Error) thrown;
+        }
+        if (thrown != null) {
+            throw new IllegalStateException("Pricing failed.", thrown);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Prices the range [from, to), splitting it in half until it fits in a
+    // single chunk.
+    private static final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DiscountFactorCache cache;
+        private final TVMRegister target;
+        private final CompoundingOption compounding;
+        private final double[] years;
+        private final double[] apr;
+        private final double[] pv;
+        private final double[] pmt;
+        private final double[] fv;
+        private final double[] out;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        Chunk(DiscountFactorCache cache, TVMRegister target,
+                CompoundingOption compounding, double[] years, double[] apr,
+                double[] pv, double[] pmt, double[] fv, double[] out, int from,
+                int to, int chunkSize) {
+            this.cache = cache;
+            this.target = target;
+            this.compounding = compounding;
+            this.years = years;
+            this.apr = apr;
+            this.pv = pv;
+            this.pmt = pmt;
+            this.fv = fv;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                price(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(split(from, middle), split(middle, to));
+        }
+
+        void price(int start, int end) {
+            TVMBatch.solve(cache, target, compounding, years, apr, pv, pmt, fv,
+                    out, start, end);
+        }
+
+        private Chunk split(int start, int end) {
+            return new Chunk(cache, target, compounding, years, apr, pv, pmt,
+                    fv, out, start, end, chunkSize);
+        }
+    }
+}
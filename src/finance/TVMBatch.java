@@ -0,0 +1,420 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+import finance.enums.TVMRegister;
+
+/**
+ * The TVMBatch class solves the time-value of money (TVM) equation for many
+ * scenarios in a single call. Scenarios are supplied as columns of primitive
+ * values (one array per TVM register) and results are written into a
+ * caller-supplied output array, so no objects are created per scenario.
+ * <p>
+ * The same formulas used by the TVMEngine class are applied to each row, so
+ * results match TVMEngine.calcPMT() and TVMEngine.calcFV() bit for bit. Inputs
+ * use the same units and the same cash flow sign convention as the TVMEngine
+ * class: years, APR expressed as a percentage, and cash flowing away from you
+ * is negative.
+ * <p>
+ * Scenario grids that reuse a limited set of rates and terms can pass a
+ * DiscountFactorCache to the solve () method to avoid repeating the power
+ * calculation for each row.
+ * <p>
+ * The methods of this class are stateless and may be called concurrently from
+ * any number of threads, provided that the output ranges do not overlap.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class TVMBatch {
+
+    private static final RateSolver RATE_SOLVER = new RateSolver();
+
+    private TVMBatch() {
+        // Static methods only.
+    }
+
+    /**
+     * Solves for the selected TVM register for the scenarios in the range
+     * [from, to). Columns that are not used to solve for the selected register
+     * are ignored and may be null.
+     *
+     * @param target the TVM register to solve for
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fv the future value for each scenario
+     * @param out receives the value of the selected register for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void solve(TVMRegister target, CompoundingOption compounding,
+            double[] years, double[] apr, double[] pv, double[] pmt,
+            double[] fv, double[] out, int from, int to) {
+        solve(null, target, compounding, years, apr, pv, pmt, fv, out, from, to);
+    }
+
+    /**
+     * Solves for the selected TVM register for the scenarios in the range
+     * [from, to), looking up discount factors in the specified cache. Columns
+     * that are not used to solve for the selected register are ignored and
+     * may be null.
+     *
+     * @param cache the discount factor cache, or null to calculate every
+     * discount factor
+     * @param target the TVM register to solve for
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fv the future value for each scenario
+     * @param out receives the value of the selected register for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void solve(DiscountFactorCache cache, TVMRegister target,
+            CompoundingOption compounding, double[] years, double[] apr,
+            double[] pv, double[] pmt, double[] fv, double[] out, int from,
+            int to) {
+        switch (target) {
+            case PMT:
+                solvePMT(cache, compounding, years, apr, pv, fv, out, from, to);
+                break;
+            case FV:
+                solveFV(cache, compounding, years, apr, pv, pmt, out, from, to);
+                break;
+            case PV:
+                solvePV(cache, compounding, years, apr, pmt, fv, out, from, to);
+                break;
+            case YEARS:
+                calcYears(compounding, apr, pv, pmt, fv, out, from, to);
+                break;
+            case APR:
+                calcAPR(RATE_SOLVER, compounding, years, pv, pmt, fv, out,
+                        from, to);
+                break;
+            default:
+                throw new UnsupportedOperationException("Solving for "
+                        + target + " is not supported.");
+        }
+    }
+
+    /**
+     * Calculates the payment (e.g., loan payment) for every scenario.
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate for each scenario, specified as an annual
+     * percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param fv the future value for each scenario
+     * @param pmtOut receives the payment for each scenario
+     */
+    public static void calcPMT(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pv, double[] fv, double[] pmtOut) {
+        calcPMT(compounding, years, apr, pv, fv, pmtOut, 0, pmtOut.length);
+    }
+
+    /**
+     * Calculates the payment (e.g., loan payment) for the scenarios in the
+     * range [from, to).
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate for each scenario, specified as an annual
+     * percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param fv the future value for each scenario
+     * @param pmtOut receives the payment for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void calcPMT(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pv, double[] fv, double[] pmtOut,
+            int from, int to) {
+        solvePMT(null, compounding, years, apr, pv, fv, pmtOut, from, to);
+    }
+
+    /**
+     * Calculates the future value (e.g., value of an investment) for every
+     * scenario.
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fvOut receives the future value for each scenario
+     */
+    public static void calcFV(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pv, double[] pmt, double[] fvOut) {
+        calcFV(compounding, years, apr, pv, pmt, fvOut, 0, fvOut.length);
+    }
+
+    /**
+     * Calculates the future value (e.g., value of an investment) for the
+     * scenarios in the range [from, to).
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fvOut receives the future value for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void calcFV(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pv, double[] pmt, double[] fvOut,
+            int from, int to) {
+        solveFV(null, compounding, years, apr, pv, pmt, fvOut, from, to);
+    }
+
+    /**
+     * Calculates the present value (e.g., loan amount or initial investment)
+     * for the scenarios in the range [from, to).
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pmt the payment for each scenario
+     * @param fv the future value for each scenario
+     * @param pvOut receives the present value for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void calcPV(CompoundingOption compounding, double[] years,
+            double[] apr, double[] pmt, double[] fv, double[] pvOut,
+            int from, int to) {
+        solvePV(null, compounding, years, apr, pmt, fv, pvOut, from, to);
+    }
+
+    /**
+     * Calculates the number of years needed to satisfy the TVM equation for
+     * the scenarios in the range [from, to).
+     *
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param apr the interest rate or return for each scenario, specified as
+     * an annual percentage rate (APR)
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fv the future value for each scenario
+     * @param yearsOut receives the number of years for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void calcYears(CompoundingOption compounding, double[] apr,
+            double[] pv, double[] pmt, double[] fv, double[] yearsOut,
+            int from, int to) {
+        checkRange(from, to, apr, pv, pmt, fv, yearsOut);
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        for (int i = from; i < to; i++) {
+            double periodRate = TVMFormulas.periodRate(apr[i] / 100.0,
+                    compoundingPerYear, paymentsPerYear);
+            yearsOut[i] = TVMFormulas.solvePeriods(pv[i], pmt[i], fv[i],
+                    periodRate) / paymentsPerYear;
+        }
+    }
+
+    /**
+     * Calculates the interest rate or return for the scenarios in the range
+     * [from, to). Scenarios for which no rate satisfies the TVM equation
+     * receive NaN.
+     *
+     * @param solver the rate solver, which sets the tolerance and iteration
+     * limit
+     * @param compounding the interest compounding interval shared by all
+     * scenarios
+     * @param years the number of years for each scenario
+     * @param pv the present value for each scenario
+     * @param pmt the payment for each scenario
+     * @param fv the future value for each scenario
+     * @param aprOut receives the APR for each scenario
+     * @param from the index of the first scenario (inclusive)
+     * @param to the index of the last scenario (exclusive)
+     */
+    public static void calcAPR(RateSolver solver, CompoundingOption compounding,
+            double[] years, double[] pv, double[] pmt, double[] fv,
+            double[] aprOut, int from, int to) {
+        checkRange(from, to, years, pv, pmt, fv, aprOut);
+        for (int i = from; i < to; i++) {
+            aprOut[i] = solver.solveAPR(compounding, years[i], pv[i], pmt[i],
+                    fv[i]);
+        }
+    }
+
+    /**
+     * Calculates the payment (e.g., loan payment) for every combination of
+     * interest rate and term in a sensitivity grid. The result for apr[row]
+     * and years[column] is written to pmtOut[row * years.length + column].
+     * The period rate is calculated once per row and the number of periods
+     * once per column, and each cell matches TVMEngine.calcPMT() bit for bit.
+     *
+     * @param compounding the interest compounding interval shared by all cells
+     * @param pv the present value shared by all cells
+     * @param fv the future value shared by all cells
+     * @param apr the interest rate for each row, specified as an annual
+     * percentage rate (APR)
+     * @param years the number of years for each column
+     * @param pmtOut receives the payment for each cell in row-major order
+     */
+    public static void calcPMTGrid(CompoundingOption compounding, double pv,
+            double fv, double[] apr, double[] years, double[] pmtOut) {
+        checkGrid(apr, years, pmtOut);
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        double[] periods = periods(years, paymentsPerYear);
+        for (int row = 0, cell = 0; row < apr.length; row++) {
+            double annualRate = apr[row] / 100.0;
+            double periodRate = TVMFormulas.periodRate(annualRate,
+                    compoundingPerYear, paymentsPerYear);
+            double logRate = Math.log1p(periodRate);
+            for (int column = 0; column < periods.length; column++, cell++) {
+                // expm1(n * log1p(i)), as TVMFormulas.growth () evaluates it.
+                double growth = compoundingPerYear == paymentsPerYear
+                        ? Math.expm1(periods[column] * logRate)
+                        : TVMFormulas.growth(null, annualRate, years[column],
+                                periodRate, compoundingPerYear, paymentsPerYear);
+                pmtOut[cell] = TVMFormulas.payment(pv, fv, periodRate, periods[column],
+                        growth);
+            }
+        }
+    }
+
+    /**
+     * Calculates the future value (e.g., value of an investment) for every
+     * combination of return and term in a sensitivity grid. The result for
+     * apr[row] and years[column] is written to
+     * fvOut[row * years.length + column], and each cell matches
+     * TVMEngine.calcFV() bit for bit.
+     *
+     * @param compounding the interest compounding interval shared by all cells
+     * @param pv the present value shared by all cells
+     * @param pmt the payment shared by all cells
+     * @param apr the return for each row, specified as an annual percentage
+     * rate (APR)
+     * @param years the number of years for each column
+     * @param fvOut receives the future value for each cell in row-major order
+     */
+    public static void calcFVGrid(CompoundingOption compounding, double pv,
+            double pmt, double[] apr, double[] years, double[] fvOut) {
+        checkGrid(apr, years, fvOut);
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        double[] periods = periods(years, paymentsPerYear);
+        for (int row = 0, cell = 0; row < apr.length; row++) {
+            double annualRate = apr[row] / 100.0;
+            double periodRate = TVMFormulas.periodRate(annualRate,
+                    compoundingPerYear, paymentsPerYear);
+            double logRate = Math.log1p(periodRate);
+            for (int column = 0; column < periods.length; column++, cell++) {
+                // expm1(n * log1p(i)), as TVMFormulas.growth () evaluates it.
+                double growth = compoundingPerYear == paymentsPerYear
+                        ? Math.expm1(periods[column] * logRate)
+                        : TVMFormulas.growth(null, annualRate, years[column],
+                                periodRate, compoundingPerYear, paymentsPerYear);
+                fvOut[cell] = TVMFormulas.futureValue(pv, pmt, periodRate, periods[column],
+                        growth);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static void solvePMT(DiscountFactorCache cache,
+            CompoundingOption compounding, double[] years, double[] apr,
+            double[] pv, double[] fv, double[] pmtOut, int from, int to) {
+        checkRange(from, to, years, apr, pv, fv, pmtOut);
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        for (int i = from; i < to; i++) {
+            double annualRate = apr[i] / 100.0;
+            double periodRate = TVMFormulas.periodRate(annualRate,
+                    compoundingPerYear, paymentsPerYear);
+            double periods = TVMFormulas.periods(years[i], paymentsPerYear);
+            double growth = TVMFormulas.growth(cache, annualRate, years[i],
+                    periodRate, compoundingPerYear, paymentsPerYear);
+            pmtOut[i] = TVMFormulas.payment(pv[i], fv[i], periodRate, periods, growth);
+        }
+    }
+
+    private static void solveFV(DiscountFactorCache cache,
+            CompoundingOption compounding, double[] years, double[] apr,
+            double[] pv, double[] pmt, double[] fvOut, int from, int to) {
+        checkRange(from, to, years, apr, pv, pmt, fvOut);
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        for (int i = from; i < to; i++) {
+            double annualRate = apr[i] / 100.0;
+            double periodRate = TVMFormulas.periodRate(annualRate,
+                    compoundingPerYear, paymentsPerYear);
+            double periods = TVMFormulas.periods(years[i], paymentsPerYear);
+            double growth = TVMFormulas.growth(cache, annualRate, years[i],
+                    periodRate, compoundingPerYear, paymentsPerYear);
+            fvOut[i] = TVMFormulas.futureValue(pv[i], pmt[i], periodRate, periods, growth);
+        }
+    }
+
+    private static void solvePV(DiscountFactorCache cache,
+            CompoundingOption compounding, double[] years, double[] apr,
+            double[] pmt, double[] fv, double[] pvOut, int from, int to) {
+        checkRange(from, to, years, apr, pmt, fv, pvOut);
+        double compoundingPerYear = TVMFormulas.compoundingPerYear(compounding);
+        double paymentsPerYear = TVMFormulas.paymentsPerYear(compounding);
+        for (int i = from; i < to; i++) {
+            double annualRate = apr[i] / 100.0;
+            double periodRate = TVMFormulas.periodRate(annualRate,
+                    compoundingPerYear, paymentsPerYear);
+            double periods = TVMFormulas.periods(years[i], paymentsPerYear);
+            double growth = TVMFormulas.growth(cache, annualRate, years[i],
+                    periodRate, compoundingPerYear, paymentsPerYear);
+            pvOut[i] = TVMFormulas.presentValue(pmt[i], fv[i], periodRate, periods, growth);
+        }
+    }
+
+    private static double[] periods(double[] years, double paymentsPerYear) {
+        double[] periods = new double[years.length];
+        for (int column = 0; column < years.length; column++) {
+            periods[column] = TVMFormulas.periods(years[column], paymentsPerYear);
+        }
+        return periods;
+    }
+
+    private static void checkGrid(double[] apr, double[] years, double[] out) {
+        if ((long) apr.length * years.length > out.length) {
+            throw new IllegalArgumentException("Grid output has " + out.length
+                    + " cells; " + (long) apr.length * years.length
+                    + " are required.");
+        }
+    }
+
+    private static void checkRange(int from, int to, double[]... columns) {
+        if (from < 0 || from > to) {
+            throw new IndexOutOfBoundsException("Invalid scenario range ["
+                    + from + ", " + to + ")");
+        }
+        for (double[] column : columns) {
+            if (column.length < to) {
+                throw new IllegalArgumentException("Scenario column has "
+                        + column.length + " rows; at least " + to
+                        + " are required.");
+            }
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package finance;
 
 import finance.enums.CompoundingOption;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.text.NumberFormat;
+import finance.enums.PrecisionMode;
 
 /**
  * This class provides generalized time-value of money (TVM) functions and can
@@ -12,7 +10,7 @@ import java.text.NumberFormat;
  * specified as an annual percentage rate (APR), and the compounding frequency
  * is specified using the enumerated class finance.enum.CompoundingOption.
  * Calculations performed by the TVMEngine class are based on the values of the
- * following five TVM registers (implemented as instance variables):<ol>
+ * following five TVM registers (held in an immutable TVMScenario):<ol>
  * <li>Years: the number of years associated with the financial calculation
  * (e.g., the duration of a loan or investment)</li>
  * <li>APR: the annual percentage interest rate (in the case of a loan) or the
@@ -33,7 +31,9 @@ import java.text.NumberFormat;
  * <li>Call the appropriate "calc" method to find the value of the unknown TVM
  * register. For example, call the calcPMT() method to find the periodic loan
  * payment, and call the calcFV() method to find the future value of an
- * investment.</li>
+ * investment. The calcPV(), calcYears() and calcAPR() methods solve for the
+ * remaining registers. The calculated value is returned and is not stored in the
+ * register.</li>
  * </ol><br>
  * The TVMEngine class is abstract and must be inherited by a subclass. If the
  * subclass constructor is passed the compounding interval and 4 out of the 5
@@ -47,25 +47,36 @@ import java.text.NumberFormat;
  * used by standard financial calculators. This convention is that cash flowing
  * away from you is negative, and cash flowing toward you is positive.
  * <p>
+ * Each "set" method replaces the engine's TVMScenario with an updated copy, so
+ * the "get" and "calc" methods always see a consistent set of register values.
+ * Once an engine has been configured it can safely be read by any number of
+ * threads. The current registers are available as a TVMScenario through the
+ * getScenario () method.
+ * <p>
+ * To price many scenarios at once without creating an engine object per
+ * scenario, use the static methods of the TVMBatch class, which apply the same
+ * formulas to columns of primitive values. To answer repeated quotes without
+ * recalculating them, use a QuoteCache.
+ * <p>
+ * Monetary results are calculated in double precision by default. For
+ * figures that must be reproducible to the cent, select
+ * PrecisionMode.DECIMAL with the setPrecisionMode () method; the "calc"
+ * methods then evaluate the TVM equation in decimal arithmetic and round PV,
+ * PMT and FV to the minor unit of the currency. The API is the same in both
+ * modes.
+ * <p>
  * A convenience toCurrency () method is provided to convert numbers to text
- * formatted as the currency set by the computer's operating system.
+ * formatted as the currency set by the computer's operating system. It uses a
+ * shared CurrencyFormatter, which can also be used directly.
  *
  * @author koluongMBP
  * @version 161012
  */
 public abstract class TVMEngine {
 
-    private double annualRate;
-    private double periodRate;
-    private double pv;
-    private double fv;
-    private double pmt;
-    private double df;
-    private double periods;
-    private double years;
-    private double periodsPerYear;
-    private CompoundingOption compounding;
-    private NumberFormat currency;
+    private volatile TVMScenario scenario;
+    private volatile PrecisionMode precisionMode = PrecisionMode.DOUBLE;
+    private final CurrencyFormatter currency;
 
     /**
      * Creates a TVM engine object with the TVM registers cleared and
@@ -73,7 +84,7 @@ public abstract class TVMEngine {
      */
     protected TVMEngine() {
         clearTVM();
-        currency = NumberFormat.getCurrencyInstance();
+        currency = CurrencyFormatter.getInstance();
     }
 
     /**
@@ -96,38 +107,18 @@ public abstract class TVMEngine {
             CompoundingOption compounding, double pv,
             double pmt, double fv) {
         this();
-        this.years = years;
-        propogateYearsChange();
-        propogateAnnualRateChange(annualRate);
-        periodsPerYear = compounding.getPeriodsPerYear();
-        this.compounding = compounding;
-        changeCompounding();
-        this.pv = pv;
-        this.pmt = pmt;
-        this.fv = fv;
+        scenario = new TVMScenario(years, annualRate, compounding, pv, pmt, fv);
     }
 
     /**
-     * Clears the TVM calculation parameters and sets compounding to annual
+     * Clears the TVM calculation parameters and sets compounding to annual.
+     * The discount factor cache, if any, is kept.
      *
      */
-    protected final void clearTVM() {
-
-        // Set default compounding
-        compounding = CompoundingOption.ANNUAL;
-        periodsPerYear = compounding.getPeriodsPerYear();
-
-        // Initialize remaining TVM registers
-        pv = 0;
-        fv = 0;
-        pmt = 0;
-        periods = 0;
-        years = 0;
-        periodRate = 0;
-        annualRate = 0;
-
-        // Initialize the discount factor
-        df = 1;
+    protected final synchronized void clearTVM() {
+        DiscountFactorCache cache = scenario == null ? null
+                : scenario.getDiscountFactorCache();
+        scenario = new TVMScenario().withDiscountFactorCache(cache);
     }
 
     /**
@@ -136,8 +127,8 @@ public abstract class TVMEngine {
      * @param apr the interest rate or return specified as an annual percentage
      * rate (APR)
      */
-    public final void setAPR(double apr) {
-        propogateAnnualRateChange(apr);
+    public final synchronized void setAPR(double apr) {
+        scenario = scenario.withAPR(apr);
     }
 
     /**
@@ -145,10 +136,42 @@ public abstract class TVMEngine {
      *
      * @param cOption the interest compounding interval
      */
-    public final void setCompounding(CompoundingOption cOption) {
-        periodsPerYear = cOption.getPeriodsPerYear();
-        compounding = cOption;
-        changeCompounding();
+    public final synchronized void setCompounding(CompoundingOption cOption) {
+        scenario = scenario.withCompounding(cOption);
+    }
+
+    /**
+     * Sets the number of times interest compounds each year, for frequencies
+     * not covered by CompoundingOption.
+     *
+     * @param periodsPerYear the compounding periods per year, or positive
+     * infinity for continuous compounding
+     */
+    public final synchronized void setCompoundingFrequency(double periodsPerYear) {
+        scenario = scenario.withCompoundingFrequency(periodsPerYear);
+    }
+
+    /**
+     * Sets the number of payments made each year.
+     *
+     * @param paymentsPerYear the payments per year, or zero to make one
+     * payment per compounding period
+     */
+    public final synchronized void setPaymentFrequency(double paymentsPerYear) {
+        scenario = scenario.withPaymentFrequency(paymentsPerYear);
+    }
+
+    /**
+     * Sets the arithmetic used for monetary results. The precision mode is
+     * kept when the TVM registers are cleared.
+     *
+     * @param mode the precision mode
+     */
+    public final void setPrecisionMode(PrecisionMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Precision mode must not be null.");
+        }
+        precisionMode = mode;
     }
 
     /**
@@ -156,8 +179,8 @@ public abstract class TVMEngine {
      *
      * @param pv present value (standard cash flow sign convention applies)
      */
-    protected final void setPV(double pv) {
-        this.pv = pv;
+    protected final synchronized void setPV(double pv) {
+        scenario = scenario.withPV(pv);
     }
 
     /** 
@@ -166,8 +189,8 @@ public abstract class TVMEngine {
      *
      * @param fv future value (standard cash flow sign convention applies)
      */
-    protected final void setFV(double fv) {
-        this.fv = fv;
+    protected final synchronized void setFV(double fv) {
+        scenario = scenario.withFV(fv);
     }
 
     /**
@@ -175,8 +198,8 @@ public abstract class TVMEngine {
      *
      * @param pmt payment (standard cash flow sign convention applies)
      */
-    protected final void setPMT(double pmt) {
-        this.pmt = pmt;
+    protected final synchronized void setPMT(double pmt) {
+        scenario = scenario.withPMT(pmt);
     }
 
     /**
@@ -185,33 +208,74 @@ public abstract class TVMEngine {
      *
      * @param years the number of years over which the TVM calculation applies
      */
-    public final void setYears(double years) {
-        this.years = years;
-        propogateYearsChange();
+    public final synchronized void setYears(double years) {
+        scenario = scenario.withYears(years);
+    }
+
+    /**
+     * Sets the cache used to look up discount factors. A single cache can be
+     * shared by any number of engine objects.
+     *
+     * @param cache the discount factor cache, or null to calculate every
+     * discount factor
+     */
+    public final synchronized void setDiscountFactorCache(DiscountFactorCache cache) {
+        scenario = scenario.withDiscountFactorCache(cache);
+    }
+
+    /**
+     * Replaces all of the TVM registers and the compounding frequency at once.
+     *
+     * @param scenario the new TVM register values
+     */
+    protected final synchronized void setScenario(TVMScenario scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Returns the current TVM register values. The returned scenario is
+     * immutable and is not affected by later calls to the "set" methods.
+     *
+     * @return the current TVM register values
+     */
+    public TVMScenario getScenario() {
+        return scenario;
     }
 
     protected double getPV() {
-        return pv;
+        return scenario.getPV();
     }
 
     protected double getFV() {
-        return fv;
+        return scenario.getFV();
     }
 
     protected double getPMT() {
-        return pmt;
+        return scenario.getPMT();
     }
 
     public double getAPR() {
-        return annualRate * 100;
+        return scenario.getAPR();
     }
 
     public double getYears() {
-        return years;
+        return scenario.getYears();
     }
 
     public CompoundingOption getCompounding() {
-        return compounding;
+        return scenario.getCompounding();
+    }
+
+    public double getCompoundingFrequency() {
+        return scenario.getCompoundingFrequency();
+    }
+
+    public double getPaymentFrequency() {
+        return scenario.getPaymentFrequency();
+    }
+
+    public PrecisionMode getPrecisionMode() {
+        return precisionMode;
     }
 
     /**
@@ -220,8 +284,7 @@ public abstract class TVMEngine {
      * @return payment (standard cash flow sign convention applies)
      */
     protected double calcPMT() {
-        pmt = (-pv - fv / df) * periodRate / (1 - 1 / df);
-        return pmt;
+        return calcPMT(scenario);
     }
 
     /**
@@ -231,8 +294,76 @@ public abstract class TVMEngine {
      * @return future value (standard cash flow sign convention applies)
      */
     protected double calcFV() {
-        fv = (-pv - (pmt / periodRate) * (1 - 1 / df)) * df;
-        return fv;
+        return calcFV(scenario);
+    }
+
+    /**
+     * Calculate the present value (e.g., loan amount or initial investment).
+     *
+     * @return present value (standard cash flow sign convention applies)
+     */
+    protected double calcPV() {
+        return calcPV(scenario);
+    }
+
+    /**
+     * Calculate the payment for a snapshot of the TVM registers, such as one
+     * returned by getScenario (), in the precision mode of this engine.
+     *
+     * @param snapshot the TVM registers
+     * @return payment (standard cash flow sign convention applies)
+     */
+    protected final double calcPMT(TVMScenario snapshot) {
+        return precisionMode == PrecisionMode.DECIMAL
+                ? DecimalFormulas.payment(snapshot, currency.getFractionDigits())
+                : snapshot.calcPMT();
+    }
+
+    /**
+     * Calculate the future value for a snapshot of the TVM registers in the
+     * precision mode of this engine.
+     *
+     * @param snapshot the TVM registers
+     * @return future value (standard cash flow sign convention applies)
+     */
+    protected final double calcFV(TVMScenario snapshot) {
+        return precisionMode == PrecisionMode.DECIMAL
+                ? DecimalFormulas.futureValue(snapshot, currency.getFractionDigits())
+                : snapshot.calcFV();
+    }
+
+    /**
+     * Calculate the present value for a snapshot of the TVM registers in the
+     * precision mode of this engine.
+     *
+     * @param snapshot the TVM registers
+     * @return present value (standard cash flow sign convention applies)
+     */
+    protected final double calcPV(TVMScenario snapshot) {
+        return precisionMode == PrecisionMode.DECIMAL
+                ? DecimalFormulas.presentValue(snapshot, currency.getFractionDigits())
+                : snapshot.calcPV();
+    }
+
+    /**
+     * Calculate the number of years needed to satisfy the TVM equation (e.g.,
+     * the time needed to pay off a loan).
+     *
+     * @return the number of years
+     */
+    protected double calcYears() {
+        return scenario.calcYears();
+    }
+
+    /**
+     * Calculate the interest rate or return. The rate is found iteratively;
+     * see the RateSolver class.
+     *
+     * @return the interest rate or return specified as an annual percentage
+     * rate (APR), or NaN if no rate satisfies the TVM equation
+     */
+    protected double calcAPR() {
+        return scenario.calcAPR();
     }
 
     /**
@@ -245,10 +376,17 @@ public abstract class TVMEngine {
      * rounded to the decimal places used that currency.
      */
     public String toCurrency(double number) {
-        BigDecimal bigNumber = BigDecimal.valueOf(number);
-        BigDecimal roundedNumber = bigNumber.setScale(currency.getMaximumFractionDigits(),
-                RoundingMode.HALF_UP);
-        return currency.format(roundedNumber);
+        return currency.format(number);
+    }
+
+    /**
+     * Provides the formatter used by the toCurrency () method, so that other
+     * output (e.g., a ReportWriter) can format amounts the same way.
+     *
+     * @return the currency formatter of this engine
+     */
+    public CurrencyFormatter getCurrencyFormatter() {
+        return currency;
     }
 
     /**
@@ -258,27 +396,4 @@ public abstract class TVMEngine {
      */
     public abstract String getValue();
 
-    ///////////////////////////////////////////
-    //Private methods - NOT PART OF THE API!!!
-    private void propogateAnnualRateChange(double annualRate) {
-        this.annualRate = annualRate / 100.0;
-        periodRate = this.annualRate / periodsPerYear;
-        df = calcDF();
-    }
-
-    private void changeCompounding() {
-        periodRate = annualRate / periodsPerYear;
-        periods = years * periodsPerYear;
-        df = calcDF();
-    }
-
-    private void propogateYearsChange() {
-        periods = years * periodsPerYear;
-        df = calcDF();
-    }
-
-    private double calcDF() {
-        return Math.pow(1 + periodRate, periods);
-    }
-
 }
@@ -0,0 +1,245 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+
+/**
+ * Closed-form time-value of money (TVM) formulas shared by the TVMEngine class
+ * and the batch entry points. Keeping a single copy of each expression
+ * guarantees that every caller produces bit-for-bit identical results for the
+ * same inputs.
+ * <p>
+ * The formulas work with the growth factor (1 + i)^n - 1 rather than the
+ * discount factor (1 + i)^n. The growth factor is evaluated with log1p () and
+ * expm1 (), and each formula has an exact path for a zero rate, so results
+ * stay accurate at rates near zero and are never 0 / 0 at a zero rate.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class TVMFormulas {
+
+    private TVMFormulas() {
+        // Static formulas only.
+    }
+
+    /**
+     * Converts a time span in years to a number of compounding periods.
+     *
+     * @param years the number of years
+     * @param periodsPerYear the compounding periods per year
+     * @return the number of compounding periods
+     */
+    static double periods(double years, double periodsPerYear) {
+        return years * periodsPerYear;
+    }
+
+    /**
+     * Calculates the growth factor (1 + i)^n - 1, which is the discount factor
+     * less one. Evaluating it as expm1(n * log1p(i)) keeps full precision at
+     * rates near zero, where 1 + i and (1 + i)^n would round away most of the
+     * digits of i.
+     *
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @return the growth factor
+     */
+    static double growth(double periodRate, double periods) {
+        return Math.expm1(periods * Math.log1p(periodRate));
+    }
+
+    /**
+     * Calculates the growth factor (1 + i)^n - 1, looking it up in a cache if
+     * one is supplied.
+     *
+     * @param cache the discount factor cache, or null
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @return the growth factor
+     */
+    static double growth(DiscountFactorCache cache, double periodRate,
+            double periods) {
+        return cache == null ? growth(periodRate, periods)
+                : cache.growth(periodRate, periods);
+    }
+
+    /**
+     * Provides the compounding periods per year of a compounding option.
+     *
+     * @param compounding the interest compounding interval
+     * @return the compounding periods per year (positive infinity for
+     * continuous compounding)
+     * @throws IllegalArgumentException for CUSTOM, which has no frequency of
+     * its own
+     */
+    static double compoundingPerYear(CompoundingOption compounding) {
+        double periodsPerYear = compounding.getPeriodsPerYear();
+        if (!(periodsPerYear > 0)) {
+            throw new IllegalArgumentException("Compounding option " + compounding
+                    + " has no frequency; set a compounding frequency instead.");
+        }
+        return periodsPerYear;
+    }
+
+    /**
+     * Provides the payments per year used with a compounding option when no
+     * separate payment frequency is given: one payment per compounding period,
+     * or one payment a year for continuous compounding.
+     *
+     * @param compounding the interest compounding interval
+     * @return the payments per year
+     * @throws IllegalArgumentException for CUSTOM, which has no frequency of
+     * its own
+     */
+    static double paymentsPerYear(CompoundingOption compounding) {
+        double periodsPerYear = compoundingPerYear(compounding);
+        return Double.isInfinite(periodsPerYear) ? 1 : periodsPerYear;
+    }
+
+    /**
+     * Converts an annual rate to the interest rate applied per payment period.
+     * When payments and compounding share a frequency this is the annual rate
+     * divided by the periods per year, exactly as periodRate () calculates it.
+     * Otherwise it is the rate that gives the same growth per payment period
+     * as the compounding frequency: (1 + r/m)^(m/p) - 1, or exp(r/p) - 1 for
+     * continuous compounding.
+     *
+     * @param annualRate the annual rate expressed as a fraction (APR / 100)
+     * @param compoundingPerYear the compounding periods per year
+     * @param paymentsPerYear the payments per year
+     * @return the interest rate per payment period
+     */
+    static double periodRate(double annualRate, double compoundingPerYear,
+            double paymentsPerYear) {
+        if (compoundingPerYear == paymentsPerYear) {
+            return annualRate / paymentsPerYear;
+        }
+        return Math.expm1(annualLogGrowth(annualRate, compoundingPerYear) / paymentsPerYear);
+    }
+
+    /**
+     * Calculates the growth factor (discount factor less one) over a number of
+     * years. When payments and compounding share a frequency this is
+     * (1 + i)^n - 1, looked up in the cache if one is supplied. Otherwise the
+     * closed form (1 + r/m)^(m * years) - 1, or exp(r * years) - 1 for
+     * continuous compounding, is used.
+     *
+     * @param cache the discount factor cache, or null
+     * @param annualRate the annual rate expressed as a fraction (APR / 100)
+     * @param years the number of years
+     * @param periodRate the interest rate per payment period
+     * @param compoundingPerYear the compounding periods per year
+     * @param paymentsPerYear the payments per year
+     * @return the growth factor
+     */
+    static double growth(DiscountFactorCache cache, double annualRate,
+            double years, double periodRate, double compoundingPerYear,
+            double paymentsPerYear) {
+        if (compoundingPerYear == paymentsPerYear) {
+            return growth(cache, periodRate, periods(years, paymentsPerYear));
+        }
+        return Math.expm1(annualLogGrowth(annualRate, compoundingPerYear) * years);
+    }
+
+    /**
+     * Converts an interest rate per payment period back to an annual rate.
+     * This is the inverse of periodRate ().
+     *
+     * @param periodRate the interest rate per payment period
+     * @param compoundingPerYear the compounding periods per year
+     * @param paymentsPerYear the payments per year
+     * @return the annual rate expressed as a fraction (APR / 100)
+     */
+    static double annualRate(double periodRate, double compoundingPerYear,
+            double paymentsPerYear) {
+        if (compoundingPerYear == paymentsPerYear) {
+            return periodRate * paymentsPerYear;
+        }
+        double logGrowth = paymentsPerYear * Math.log1p(periodRate);
+        return Double.isInfinite(compoundingPerYear) ? logGrowth
+                : compoundingPerYear * Math.expm1(logGrowth / compoundingPerYear);
+    }
+
+    /**
+     * Calculates the payment that satisfies the TVM equation. A zero rate is
+     * handled exactly rather than producing 0 / 0.
+     *
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @param growth the growth factor for the rate and number of periods
+     * @return payment (standard cash flow sign convention applies)
+     */
+    static double payment(double pv, double fv, double periodRate,
+            double periods, double growth) {
+        if (periodRate == 0) {
+            return (-pv - fv) / periods;
+        }
+        return -(pv + (pv + fv) / growth) * periodRate;
+    }
+
+    /**
+     * Calculates the future value that satisfies the TVM equation. A zero
+     * rate is handled exactly rather than producing 0 / 0.
+     *
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @param growth the growth factor for the rate and number of periods
+     * @return future value (standard cash flow sign convention applies)
+     */
+    static double futureValue(double pv, double pmt, double periodRate,
+            double periods, double growth) {
+        if (periodRate == 0) {
+            return -pv - pmt * periods;
+        }
+        return -pv - (pv * growth + pmt * growth / periodRate);
+    }
+
+    /**
+     * Calculates the present value that satisfies the TVM equation. A zero
+     * rate is handled exactly rather than producing 0 / 0.
+     *
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per compounding period
+     * @param periods the number of compounding periods
+     * @param growth the growth factor for the rate and number of periods
+     * @return present value (standard cash flow sign convention applies)
+     */
+    static double presentValue(double pmt, double fv, double periodRate,
+            double periods, double growth) {
+        if (periodRate == 0) {
+            return -fv - pmt * periods;
+        }
+        // 1 / (1 / g + 1) is g / (1 + g), written so that it tends to one
+        // rather than NaN when the growth factor overflows.
+        return -fv / (1 + growth) - pmt / periodRate / (1 / growth + 1);
+    }
+
+    /**
+     * Calculates the number of compounding periods that satisfies the TVM
+     * equation.
+     *
+     * @param pv present value (standard cash flow sign convention applies)
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @param fv future value (standard cash flow sign convention applies)
+     * @param periodRate the interest rate per compounding period
+     * @return the number of compounding periods
+     */
+    static double solvePeriods(double pv, double pmt, double fv, double periodRate) {
+        if (periodRate == 0) {
+            return (-pv - fv) / pmt;
+        }
+        return Math.log1p(-periodRate * (pv + fv) / (pmt + pv * periodRate))
+                / Math.log1p(periodRate);
+    }
+
+    // The continuously compounded annual growth rate equivalent to an annual
+    // rate compounded the specified number of times a year.
+    private static double annualLogGrowth(double annualRate, double compoundingPerYear) {
+        return Double.isInfinite(compoundingPerYear) ? annualRate
+                : compoundingPerYear * Math.log1p(annualRate / compoundingPerYear);
+    }
+}
@@ -0,0 +1,442 @@
+package finance;
+
+import finance.enums.CompoundingOption;
+
+/**
+ * The TVMScenario class is an immutable set of values for the five
+ * time-value of money (TVM) registers (years, APR, PV, PMT and FV) together
+ * with the compounding frequency. The rate per payment period and the
+ * number of payment periods are derived when the scenario is created. The
+ * discount factor, which needs a power calculation, is derived the first time
+ * it is used and then remembered. A scenario created by a "with" method reuses
+ * the discount factor of the scenario it was created from unless the change
+ * affects the rate per period or the number of periods, so configuring a
+ * scenario one register at a time costs at most one power calculation. The
+ * discount factor is remembered as its growth factor, the discount factor
+ * less one, which keeps full precision at rates near zero.
+ * <p>
+ * Scenarios are changed through the "with" methods, each of which returns a
+ * new scenario and leaves the original untouched. For example:
+ * <pre>
+ * TVMScenario loan = new TVMScenario()
+ *         .withCompounding(CompoundingOption.MONTHLY)
+ *         .withAPR(10)
+ *         .withYears(15)
+ *         .withPV(350000);
+ * double payment = loan.calcPMT();
+ * </pre>
+ * Payments are made once per compounding period unless a separate payment
+ * frequency is set with withPaymentFrequency () (for example, monthly
+ * payments on a loan that accrues interest daily). Besides the intervals of
+ * CompoundingOption, any compounding frequency can be set with
+ * withCompoundingFrequency (), and CompoundingOption.CONTINUOUS compounds
+ * continuously. Every combination is calculated in closed form.
+ * <p>
+ * Because a scenario never changes after it is created, a single instance can
+ * be shared by any number of threads without synchronization. The "calc"
+ * methods return their result and do not store it in the scenario.
+ * <p>
+ * The calculations performed by this class assume the cash flow sign
+ * convention used by standard financial calculators. This convention is that
+ * cash flowing away from you is negative, and cash flowing toward you is
+ * positive.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class TVMScenario {
+
+    private static final RateSolver RATE_SOLVER = new RateSolver();
+
+    private final double years;
+    private final double annualRate;
+    private final CompoundingOption compounding;
+    private final double compoundingPerYear;
+    // NaN when payments follow the compounding frequency.
+    private final double paymentFrequency;
+    private final double paymentsPerYear;
+    private final double pv;
+    private final double pmt;
+    private final double fv;
+    private final double periodRate;
+    private final double periods;
+    private final DiscountFactorCache dfCache;
+
+    // Derived on first use. A scenario may be read by several threads at once;
+    // the volatile flag publishes growth, and a race only repeats the calculation.
+    private double growth;
+    private volatile boolean growthReady;
+
+    /**
+     * Creates a scenario with the TVM registers cleared and compounding set to
+     * annual.
+     */
+    public TVMScenario() {
+        this(0, 0, CompoundingOption.ANNUAL, 0, 0, 0);
+    }
+
+    /**
+     * Creates a scenario with the specified TVM register values.
+     *
+     * @param years the number of years over which the TVM calculation applies
+     * @param annualRate the interest rate or return specified as an annual
+     * percentage rate (APR)
+     * @param compounding the interest compounding interval
+     * @param pv present value (e.g., loan amount or initial investment) -
+     * standard cash flow sign convention applies. Set this to zero if unknown.
+     * @param pmt payment (e.g., loan payment or periodic investment) - standard
+     * cash flow sign convention applies. Set this to zero if unknown.
+     * @param fv future value (e.g., value of an investment over a period of
+     * time) - standard cash flow sign convention applies. Set this to zero if
+     * unknown.
+     * @throws IllegalArgumentException if compounding is CUSTOM, which has no
+     * frequency of its own
+     */
+    public TVMScenario(double years, double annualRate,
+            CompoundingOption compounding, double pv, double pmt, double fv) {
+        this(null, compounding, TVMFormulas.compoundingPerYear(compounding),
+                Double.NaN, years, annualRate / 100.0, pv, pmt, fv, null);
+    }
+
+    // Derives the rate values from an annual rate expressed as a fraction. The
+    // rate is stored as a fraction so that getAPR () reports the same value
+    // the TVMEngine class always has. The discount factor of the previous
+    // scenario, if any, is kept when the rate values have not changed.
+    private TVMScenario(TVMScenario previous, CompoundingOption compounding,
+            double compoundingPerYear, double paymentFrequency, double years,
+            double annualRate, double pv, double pmt, double fv,
+            DiscountFactorCache dfCache) {
+        this.years = years;
+        this.annualRate = annualRate;
+        this.compounding = compounding;
+        this.compoundingPerYear = compoundingPerYear;
+        this.paymentFrequency = paymentFrequency;
+        this.paymentsPerYear = !Double.isNaN(paymentFrequency) ? paymentFrequency
+                : Double.isInfinite(compoundingPerYear) ? 1 : compoundingPerYear;
+        this.pv = pv;
+        this.pmt = pmt;
+        this.fv = fv;
+        this.periodRate = TVMFormulas.periodRate(annualRate, compoundingPerYear,
+                paymentsPerYear);
+        this.periods = TVMFormulas.periods(years, paymentsPerYear);
+        this.dfCache = dfCache;
+        if (previous != null && previous.growthReady
+                && Double.doubleToLongBits(previous.periodRate)
+                == Double.doubleToLongBits(periodRate)
+                && Double.doubleToLongBits(previous.periods)
+                == Double.doubleToLongBits(periods)
+                && previous.compoundingPerYear == compoundingPerYear
+                && previous.paymentsPerYear == paymentsPerYear
+                && (compoundingPerYear == paymentsPerYear
+                || Double.doubleToLongBits(previous.annualRate)
+                == Double.doubleToLongBits(annualRate)
+                && Double.doubleToLongBits(previous.years)
+                == Double.doubleToLongBits(years))) {
+            this.growth = previous.growth;
+            this.growthReady = true;
+        }
+    }
+
+    // Copies the derived rate values of an existing scenario when only the
+    // cash flow registers change.
+    private TVMScenario(TVMScenario rates, double pv, double pmt, double fv) {
+        this.years = rates.years;
+        this.annualRate = rates.annualRate;
+        this.compounding = rates.compounding;
+        this.compoundingPerYear = rates.compoundingPerYear;
+        this.paymentFrequency = rates.paymentFrequency;
+        this.paymentsPerYear = rates.paymentsPerYear;
+        this.pv = pv;
+        this.pmt = pmt;
+        this.fv = fv;
+        this.periodRate = rates.periodRate;
+        this.periods = rates.periods;
+        this.dfCache = rates.dfCache;
+        if (rates.growthReady) {
+            this.growth = rates.growth;
+            this.growthReady = true;
+        }
+    }
+
+    /**
+     * Returns a copy of this scenario with a different number of years.
+     *
+     * @param years the number of years over which the TVM calculation applies
+     * @return a scenario with the specified number of years
+     */
+    public TVMScenario withYears(double years) {
+        return new TVMScenario(this, compounding, compoundingPerYear,
+                paymentFrequency, years, annualRate, pv, pmt, fv, dfCache);
+    }
+
+    /**
+     * Returns a copy of this scenario with a different interest rate or rate
+     * of return.
+     *
+     * @param apr the interest rate or return specified as an annual percentage
+     * rate (APR)
+     * @return a scenario with the specified APR
+     */
+    public TVMScenario withAPR(double apr) {
+        return new TVMScenario(this, compounding, compoundingPerYear,
+                paymentFrequency, years, apr / 100.0, pv, pmt, fv, dfCache);
+    }
+
+    /**
+     * Returns a copy of this scenario with a different compounding frequency.
+     *
+     * @param cOption the interest compounding interval
+     * @return a scenario with the specified compounding frequency
+     * @throws IllegalArgumentException if cOption is CUSTOM; use
+     * withCompoundingFrequency () to set a custom frequency
+     */
+    public TVMScenario withCompounding(CompoundingOption cOption) {
+        return new TVMScenario(this, cOption, TVMFormulas.compoundingPerYear(cOption),
+                paymentFrequency, years, annualRate, pv, pmt, fv, dfCache);
+    }
+
+    /**
+     * Returns a copy of this scenario that compounds interest the specified
+     * number of times a year. Frequencies that match a CompoundingOption (for
+     * example 12) select that option; any other frequency is reported as
+     * CompoundingOption.CUSTOM.
+     *
+     * @param periodsPerYear the compounding periods per year, or positive
+     * infinity for continuous compounding
+     * @return a scenario with the specified compounding frequency
+     */
+    public TVMScenario withCompoundingFrequency(double periodsPerYear) {
+        if (!(periodsPerYear > 0)) {
+            throw new IllegalArgumentException(
+                    "The compounding frequency must be greater than zero.");
+        }
+        return new TVMScenario(this, CompoundingOption.forPeriodsPerYear(periodsPerYear),
+                periodsPerYear, paymentFrequency, years, annualRate, pv, pmt, fv, dfCache);
+    }
+
+    /**
+     * Returns a copy of this scenario that makes the specified number of
+     * payments a year, independently of the compounding frequency. The rate
+     * per payment period is the rate that gives the same growth as the
+     * compounding frequency.
+     *
+     * @param paymentsPerYear the payments per year, or zero to make one
+     * payment per compounding period (one a year with continuous compounding)
+     * @return a scenario with the specified payment frequency
+     */
+    public TVMScenario withPaymentFrequency(double paymentsPerYear) {
+        if (!(paymentsPerYear >= 0) || Double.isInfinite(paymentsPerYear)) {
+            throw new IllegalArgumentException(
+                    "The payment frequency must be zero or a finite number above zero.");
+        }
+        return new TVMScenario(this, compounding, compoundingPerYear,
+                paymentsPerYear == 0 ? Double.NaN : paymentsPerYear, years,
+                annualRate, pv, pmt, fv, dfCache);
+    }
+
+    /**
+     * Returns a copy of this scenario with a different present value.
+     *
+     * @param pv present value (standard cash flow sign convention applies)
+     * @return a scenario with the specified present value
+     */
+    public TVMScenario withPV(double pv) {
+        return new TVMScenario(this, pv, pmt, fv);
+    }
+
+    /**
+     * Returns a copy of this scenario with a different payment.
+     *
+     * @param pmt payment (standard cash flow sign convention applies)
+     * @return a scenario with the specified payment
+     */
+    public TVMScenario withPMT(double pmt) {
+        return new TVMScenario(this, pv, pmt, fv);
+    }
+
+    /**
+     * Returns a copy of this scenario with a different future value.
+     *
+     * @param fv future value (standard cash flow sign convention applies)
+     * @return a scenario with the specified future value
+     */
+    public TVMScenario withFV(double fv) {
+        return new TVMScenario(this, pv, pmt, fv);
+    }
+
+    /**
+     * Returns a copy of this scenario that looks up discount factors in the
+     * specified cache. Scenarios derived from the copy with the "with" methods
+     * use the same cache.
+     *
+     * @param cache the discount factor cache, or null to calculate every
+     * discount factor
+     * @return a scenario that uses the specified cache
+     */
+    public TVMScenario withDiscountFactorCache(DiscountFactorCache cache) {
+        return new TVMScenario(this, compounding, compoundingPerYear,
+                paymentFrequency, years, annualRate, pv, pmt, fv, cache);
+    }
+
+    public double getYears() {
+        return years;
+    }
+
+    public double getAPR() {
+        return annualRate * 100;
+    }
+
+    // The APR as the fraction it is stored as, read by the decimal formulas.
+    double getAnnualRate() {
+        return annualRate;
+    }
+
+    public CompoundingOption getCompounding() {
+        return compounding;
+    }
+
+    /**
+     * Returns the number of times interest compounds each year.
+     *
+     * @return the compounding periods per year, or positive infinity for
+     * continuous compounding
+     */
+    public double getCompoundingFrequency() {
+        return compoundingPerYear;
+    }
+
+    /**
+     * Returns the number of payments made each year.
+     *
+     * @return the payments per year
+     */
+    public double getPaymentFrequency() {
+        return paymentsPerYear;
+    }
+
+    public double getPV() {
+        return pv;
+    }
+
+    public double getPMT() {
+        return pmt;
+    }
+
+    public double getFV() {
+        return fv;
+    }
+
+    /**
+     * Returns the interest rate applied per payment period. This is the rate
+     * per compounding period when payments follow the compounding frequency.
+     *
+     * @return the interest rate per payment period
+     */
+    public double getPeriodRate() {
+        return periodRate;
+    }
+
+    /**
+     * Returns the number of payment periods.
+     *
+     * @return the number of payment periods
+     */
+    public double getPeriods() {
+        return periods;
+    }
+
+    /**
+     * Returns the discount factor cache used by this scenario.
+     *
+     * @return the discount factor cache, or null if none is used
+     */
+    public DiscountFactorCache getDiscountFactorCache() {
+        return dfCache;
+    }
+
+    /**
+     * Returns the discount factor (1 + i)^n for this scenario.
+     *
+     * @return the discount factor
+     */
+    public double getDiscountFactor() {
+        return 1 + getGrowth();
+    }
+
+    /**
+     * Returns the growth factor (1 + i)^n - 1 for this scenario, which is the
+     * discount factor less one.
+     *
+     * @return the growth factor
+     */
+    public double getGrowth() {
+        if (!growthReady) {
+            growth = TVMFormulas.growth(dfCache, annualRate, years,
+                    periodRate, compoundingPerYear, paymentsPerYear);
+            growthReady = true;
+        }
+        return growth;
+    }
+
+    /**
+     * Calculate the payment (e.g., loan payment or periodic investment).
+     *
+     * @return payment (standard cash flow sign convention applies)
+     */
+    public double calcPMT() {
+        return TVMFormulas.payment(pv, fv, periodRate, periods, getGrowth());
+    }
+
+    /**
+     * Calculate the future value (e.g., value of an investment over a period
+     * of time).
+     *
+     * @return future value (standard cash flow sign convention applies)
+     */
+    public double calcFV() {
+        return TVMFormulas.futureValue(pv, pmt, periodRate, periods, getGrowth());
+    }
+
+    /**
+     * Calculate the present value (e.g., loan amount or initial investment).
+     *
+     * @return present value (standard cash flow sign convention applies)
+     */
+    public double calcPV() {
+        return TVMFormulas.presentValue(pmt, fv, periodRate, periods, getGrowth());
+    }
+
+    /**
+     * Calculate the number of years needed to satisfy the TVM equation (e.g.,
+     * the time needed to pay off a loan).
+     *
+     * @return the number of years
+     */
+    public double calcYears() {
+        return TVMFormulas.solvePeriods(pv, pmt, fv, periodRate)
+                / paymentsPerYear;
+    }
+
+    /**
+     * Calculate the interest rate or return using the default rate solver.
+     *
+     * @return the interest rate or return specified as an annual percentage
+     * rate (APR), or NaN if no rate satisfies the TVM equation
+     */
+    public double calcAPR() {
+        return calcAPR(RATE_SOLVER);
+    }
+
+    /**
+     * Calculate the interest rate or return using the specified rate solver.
+     *
+     * @param solver the rate solver, which sets the tolerance and iteration
+     * limit
+     * @return the interest rate or return specified as an annual percentage
+     * rate (APR), or NaN if no rate satisfies the TVM equation
+     */
+    public double calcAPR(RateSolver solver) {
+        return TVMFormulas.annualRate(solver.solvePeriodRate(periods, pv, pmt, fv),
+                compoundingPerYear, paymentsPerYear) * 100;
+    }
+}
@@ -0,0 +1,118 @@
+package finance;
+
+import java.io.IOException;
+
+/**
+ * Renders reports as rows of a table: comma-separated values, or fixed-width
+ * columns when a column width is given. The field names of the first report
+ * form a header row, and each report is one row. All reports written to one
+ * writer should therefore have the same fields. Amounts are plain decimals
+ * rounded to the minor unit of the currency.
+ * <p>
+ * CSV text fields are quoted when they contain a comma, quote or line break.
+ * Fixed-width fields are right-aligned with at least one space before them;
+ * a value too wide for its column is written in full.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class TabularReportWriter extends ReportWriter {
+
+    /**
+     * The column width used for ReportFormat.FIXED_WIDTH.
+     */
+    static final int DEFAULT_COLUMN_WIDTH = 20;
+
+    private final int columnWidth;
+    private final StringBuilder row = new StringBuilder(256);
+    private StringBuilder header = new StringBuilder(256);
+    private int column;
+
+    TabularReportWriter(Appendable out, CurrencyFormatter currency, int columnWidth) {
+        super(out, currency);
+        this.columnWidth = columnWidth;
+    }
+
+    @Override
+    public void beginReport(String title) {
+        row.setLength(0);
+        column = 0;
+    }
+
+    @Override
+    public void text(String name, String label, CharSequence value) {
+        cell(name, value, columnWidth == 0 && needsQuotes(value));
+    }
+
+    @Override
+    public void number(String name, String label, double value) {
+        cell(name, numberText(value), false);
+    }
+
+    @Override
+    public void percent(String name, String label, double value) {
+        cell(name, numberText(value), false);
+    }
+
+    @Override
+    public void amount(String name, String label, double value) {
+        cell(name, plainText(value), false);
+    }
+
+    @Override
+    public void endReport() throws IOException {
+        Appendable out = getOut();
+        if (header != null) {
+            out.append(header).append('\n');
+            // The header is written once.
+            header = null;
+        }
+        out.append(row).append('\n');
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private void cell(String name, CharSequence value, boolean quoted) {
+        if (header != null) {
+            append(header, name, false);
+        }
+        append(row, value, quoted);
+        column++;
+    }
+
+    private void append(StringBuilder line, CharSequence value, boolean quoted) {
+        if (columnWidth > 0) {
+            for (int pad = Math.max(1, columnWidth - value.length()); pad > 0; pad--) {
+                line.append(' ');
+            }
+            line.append(value);
+            return;
+        }
+        if (column > 0) {
+            line.append(',');
+        }
+        if (!quoted) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package finance;
+
+import java.io.IOException;
+
+/**
+ * Renders reports as the text summaries produced by Report.print (): the title
+ * on its own line, then one "label: value" line per labelled field, with
+ * amounts formatted as currency and percentages followed by a percent sign.
+ * Every line, including the title, is preceded by a line break, and
+ * consecutive reports are separated by a blank line.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class TextReportWriter extends ReportWriter {
+
+    private boolean first = true;
+
+    TextReportWriter(Appendable out, CurrencyFormatter currency) {
+        super(out, currency);
+    }
+
+    @Override
+    public void beginReport(String title) throws IOException {
+        Appendable out = getOut();
+        if (!first) {
+            out.append('\n');
+        }
+        first = false;
+        out.append('\n').append(title);
+    }
+
+    @Override
+    public void text(String name, String label, CharSequence value) throws IOException {
+        if (label != null) {
+            line(label).append(value);
+        }
+    }
+
+    @Override
+    public void number(String name, String label, double value) throws IOException {
+        if (label != null) {
+            line(label).append(numberText(value));
+        }
+    }
+
+    @Override
+    public void percent(String name, String label, double value) throws IOException {
+        if (label != null) {
+            line(label).append(numberText(value)).append('%');
+        }
+    }
+
+    @Override
+    public void amount(String name, String label, double value) throws IOException {
+        if (label != null) {
+            line(label).append(currencyText(value));
+        }
+    }
+
+    @Override
+    public void endReport() {
+        // Each line starts with its own line break.
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private Appendable line(String label) throws IOException {
+        return getOut().append('\n').append(label).append(": ");
+    }
+}
@@ -0,0 +1,228 @@
+package finance.batch;
+
+import finance.enums.CompoundingOption;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts numbers and compounding options to and from ASCII bytes without
+ * creating intermediate strings. Decimal numbers with at most 15 significant
+ * digits and a small exponent are converted exactly with a single double
+ * multiplication or division; any other text is passed to
+ * Double.parseDouble (), so the result is always the correctly rounded double.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class AsciiCodec {
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4,
+        1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+        1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    // Values of this many cents or more are written with BigDecimal.
+    private static final double MAX_FAST_CENTS = 1e15;
+
+    private static final CompoundingOption[] OPTIONS = CompoundingOption.values();
+    private static final byte[][] OPTION_NAMES = new byte[OPTIONS.length][];
+
+    static {
+        for (int k = 0; k < OPTIONS.length; k++) {
+            OPTION_NAMES[k] = OPTIONS[k].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private AsciiCodec() {
+    }
+
+    /**
+     * Parses a decimal number from the bytes in the range [from, to). Leading
+     * and trailing spaces and enclosing double quotes are ignored.
+     */
+    static double parseDouble(byte[] bytes, int from, int to) {
+        while (from < to && isBlank(bytes[from])) {
+            from++;
+        }
+        while (to > from && isBlank(bytes[to - 1])) {
+            to--;
+        }
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+        boolean exact = true;
+        int start = i;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa == 0 && b == '0') {
+                    // Leading zeros are not significant.
+                } else if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                } else {
+                    exact = false;
+                    break;
+                }
+                if (point) {
+                    exponent--;
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        boolean hasDigits = i > start + (point ? 1 : 0);
+        if (exact && hasDigits && i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            int value = 0;
+            int exponentStart = i;
+            for (; i < to && bytes[i] >= '0' && bytes[i] <= '9' && value < 1000; i++) {
+                value = value * 10 + (bytes[i] - '0');
+            }
+            exact = i > exponentStart;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (exact && hasDigits && i == to && mantissa < MAX_EXACT_MANTISSA) {
+            double value = mantissa;
+            if (exponent < 0 && exponent >= -22) {
+                value /= POWERS_OF_TEN[-exponent];
+            } else if (exponent > 0 && exponent <= 22) {
+                value *= POWERS_OF_TEN[exponent];
+            } else if (exponent != 0 && mantissa != 0) {
+                return fallback(bytes, from, to);
+            }
+            return negative ? -value : value;
+        }
+        return fallback(bytes, from, to);
+    }
+
+    /**
+     * Parses a compounding option name (e.g., MONTHLY or Monthly) from the
+     * bytes in the range [from, to). Case is ignored. CUSTOM is rejected, as
+     * it has no frequency to price a quote with.
+     */
+    static CompoundingOption parseCompounding(byte[] bytes, int from, int to) {
+        while (from < to && isBlank(bytes[from])) {
+            from++;
+        }
+        while (to > from && isBlank(bytes[to - 1])) {
+            to--;
+        }
+        if (to - from >= 2 && bytes[from] == '"' && bytes[to - 1] == '"') {
+            from++;
+            to--;
+        }
+        for (int k = 0; k < OPTIONS.length; k++) {
+            byte[] name = OPTION_NAMES[k];
+            if (name.length == to - from && equalsIgnoreCase(name, bytes, from)) {
+                if (!(OPTIONS[k].getPeriodsPerYear() > 0)) {
+                    throw new IllegalArgumentException("Compounding option " + OPTIONS[k]
+                            + " has no frequency.");
+                }
+                return OPTIONS[k];
+            }
+        }
+        throw new IllegalArgumentException("Unknown compounding option \""
+                + new String(bytes, from, to - from, StandardCharsets.US_ASCII) + "\"");
+    }
+
+    /**
+     * Writes a value rounded HALF_UP to two decimal places into the buffer at
+     * the specified position and returns the position after the last byte
+     * written. Very large values are written out in full, so the buffer must
+     * have room for at least 320 bytes.
+     */
+    static int writeCents(double value, byte[] buffer, int position) {
+        double cents = Math.abs(value) * 100;
+        if (cents < MAX_FAST_CENTS) {
+            double whole = Math.floor(cents);
+            double fraction = cents - whole;
+            // Near a tie the binary value may round differently from its
+            // decimal representation; let BigDecimal decide.
+            if (Math.abs(fraction - 0.5) > 4 * Math.ulp(cents)) {
+                long units = (long) whole + (fraction > 0.5 ? 1 : 0);
+                if (value < 0 && units != 0) {
+                    buffer[position++] = '-';
+                }
+                position = writeLong(units / 100, buffer, position);
+                buffer[position++] = '.';
+                buffer[position++] = (byte) ('0' + units / 10 % 10);
+                buffer[position++] = (byte) ('0' + units % 10);
+                return position;
+            }
+        }
+        String text = Double.isNaN(value) || Double.isInfinite(value)
+                ? Double.toString(value)
+                : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        return writeAscii(text, buffer, position);
+    }
+
+    /**
+     * Writes a non-negative whole number and returns the position after the
+     * last byte written.
+     */
+    static int writeLong(long value, byte[] buffer, int position) {
+        int end = position;
+        long remaining = value;
+        do {
+            end++;
+            remaining /= 10;
+        } while (remaining != 0);
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Writes ASCII text and returns the position after the last byte written.
+     */
+    static int writeAscii(String text, byte[] buffer, int position) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+        return position;
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static double fallback(byte[] bytes, int from, int to) {
+        if (to - from >= 2 && bytes[from] == '"' && bytes[to - 1] == '"') {
+            return parseDouble(bytes, from + 1, to - 1);
+        }
+        return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static boolean equalsIgnoreCase(byte[] upperCase, byte[] bytes, int from) {
+        for (int k = 0; k < upperCase.length; k++) {
+            byte b = bytes[from + k];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != upperCase[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,297 @@
+package finance.batch;
+
+import finance.TVMBatch;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import finance.enums.TVMRegister;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The BatchPricer class prices every row of a comma-separated quote file and
+ * writes one result row per quote. Loan payment quotes are priced like the
+ * LoanPayment class and investment quotes like the Investment class, and the
+ * results match LoanPayment.getValue () and Investment.getValue () rounded to
+ * cents.
+ * <p>
+ * Each quote row holds five fields: two amounts, the APR, the compounding
+ * option name (e.g., MONTHLY) and the number of years. For loan payment quotes
+ * the amounts are the purchase amount and the down payment; for investment
+ * quotes they are the initial investment and the periodic investment, using
+ * the same sign convention as the Investment class. CUSTOM compounding has no
+ * frequency, so a row that uses it is rejected like any other bad row. The
+ * output holds the source line number and the result of each quote.
+ * <p>
+ * The file is processed by three stages running on separate threads: parsing,
+ * pricing with the TVMBatch class, and writing. The stages exchange a fixed
+ * number of QuoteBatch blocks through bounded queues, so memory use stays the
+ * same regardless of the size of the file, and a slow stage holds back the
+ * others instead of letting work pile up.
+ * <p>
+ * The class can be run from the command line:
+ * <pre>
+ * java finance.batch.BatchPricer loan|investment input.csv output.csv
+ * java finance.batch.BatchPricer solve pmt|fv|pv|years|apr scenarios.tvm
+ * </pre>
+ * The second form solves a binary ScenarioFile in place, which avoids text
+ * parsing altogether.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class BatchPricer {
+
+    /**
+     * The default number of quote rows per batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    /**
+     * The default number of batches in flight between the stages.
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final QuoteType quoteType;
+    private final int batchSize;
+    private final int queueDepth;
+
+    /**
+     * Creates a pricer for the specified quote type using the default batch
+     * size and queue depth.
+     *
+     * @param quoteType the type of quote held in the quote files
+     */
+    public BatchPricer(QuoteType quoteType) {
+        this(quoteType, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * Creates a pricer for the specified quote type.
+     *
+     * @param quoteType the type of quote held in the quote files
+     * @param batchSize the number of quote rows per batch
+     * @param queueDepth the number of batches in flight between the stages
+     */
+    public BatchPricer(QuoteType quoteType, int batchSize, int queueDepth) {
+        if (quoteType == null) {
+            throw new IllegalArgumentException("The quote type is required.");
+        }
+        if (batchSize < 1 || queueDepth < 1) {
+            throw new IllegalArgumentException(
+                    "Batch size and queue depth must be at least 1.");
+        }
+        this.quoteType = quoteType;
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Provides the type of quote priced by this pricer.
+     *
+     * @return the quote type
+     */
+    public QuoteType getQuoteType() {
+        return quoteType;
+    }
+
+    /**
+     * Prices every quote in the input file and writes the results to the
+     * output file, replacing any existing content.
+     *
+     * @param input the quote file
+     * @param output the result file
+     * @return the number of quotes priced
+     * @throws IOException if a file cannot be read or written
+     * @throws IllegalArgumentException if a quote row cannot be parsed
+     */
+    public long price(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return run(new QuoteFileReader(in, IO_BUFFER_SIZE),
+                    new ResultFileWriter(out, IO_BUFFER_SIZE));
+        }
+    }
+
+    /**
+     * Prices a quote file from the command line. The arguments are the quote
+     * type (loan or investment), the input file and the output file. A binary
+     * ScenarioFile is solved in place when the arguments are "solve", the TVM
+     * register to solve for (e.g., pmt) and the scenario file.
+     *
+     * @param args the quote type, input file and output file, or "solve",
+     * the register and the scenario file
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 || !args[0].equalsIgnoreCase("loan")
+                && !args[0].equalsIgnoreCase("investment")
+                && !args[0].equalsIgnoreCase("solve")) {
+            System.err.println("Usage: java finance.batch.BatchPricer loan|investment input.csv output.csv");
+            System.err.println("       java finance.batch.BatchPricer solve pmt|fv|pv|years|apr scenarios.tvm");
+            System.exit(2);
+        }
+        try {
+            long start = System.nanoTime();
+            long count;
+            if (args[0].equalsIgnoreCase("solve")) {
+                TVMRegister target = TVMRegister.valueOf(args[1].toUpperCase());
+                try (ScenarioFile file = ScenarioFile.open(Paths.get(args[2]))) {
+                    file.solve(target);
+                    count = file.size();
+                }
+            } else {
+                QuoteType type = args[0].equalsIgnoreCase("loan")
+                        ? QuoteType.LOAN_PAYMENT : QuoteType.INVESTMENT;
+                count = new BatchPricer(type).price(Paths.get(args[1]), Paths.get(args[2]));
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println("Priced " + count + " quotes in " + elapsed / 1000000 + " ms");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private long run(QuoteFileReader reader, ResultFileWriter writer) throws IOException {
+        BlockingQueue<QuoteBatch> free = new ArrayBlockingQueue<>(queueDepth);
+        BlockingQueue<QuoteBatch> parsed = new ArrayBlockingQueue<>(queueDepth);
+        BlockingQueue<QuoteBatch> priced = new ArrayBlockingQueue<>(queueDepth);
+        for (int k = 0; k < queueDepth; k++) {
+            free.add(new QuoteBatch(batchSize));
+        }
+        // Passed downstream in place of a batch when an upstream stage fails.
+        QuoteBatch failed = new QuoteBatch(0);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Once a batch is queued it belongs to the next stage, and the writer
+        // returns it to the parser to be refilled, so every stage reads the
+        // last flag before queueing the batch.
+        Thread parser = stage("parse", failure, parsed, failed, () -> {
+            boolean last;
+            do {
+                QuoteBatch batch = free.take();
+                reader.read(batch);
+                last = batch.last;
+                parsed.put(batch);
+            } while (!last);
+        });
+        Thread pricer = stage("compute", failure, priced, failed, () -> {
+            boolean last;
+            do {
+                QuoteBatch batch = parsed.take();
+                if (batch == failed) {
+                    priced.put(failed);
+                    return;
+                }
+                price(batch);
+                last = batch.last;
+                priced.put(batch);
+            } while (!last);
+        });
+        parser.start();
+        pricer.start();
+
+        long count = 0;
+        try {
+            writer.writeHeader(quoteType.getResultTitle());
+            boolean last;
+            do {
+                QuoteBatch batch = priced.take();
+                if (batch == failed) {
+                    break;
+                }
+                writer.write(batch);
+                count += batch.size;
+                last = batch.last;
+                if (!last) {
+                    free.put(batch);
+                }
+            } while (!last);
+            writer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Pricing was interrupted.", e);
+        } finally {
+            parser.interrupt();
+            pricer.interrupt();
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause != null) {
+            throw new IllegalStateException(cause);
+        }
+        return count;
+    }
+
+    private void price(QuoteBatch batch) {
+        price(quoteType, batch);
+    }
+
+    // Prices every row of a batch; shared with the PricingServer class.
+    static void price(QuoteType quoteType, QuoteBatch batch) {
+        int from = 0;
+        while (from < batch.size) {
+            CompoundingOption compounding = batch.compounding[from];
+            int to = from + 1;
+            while (to < batch.size && batch.compounding[to] == compounding) {
+                to++;
+            }
+            if (quoteType == QuoteType.LOAN_PAYMENT) {
+                for (int i = from; i < to; i++) {
+                    batch.presentValue[i] = batch.first[i] - batch.second[i];
+                }
+                TVMBatch.calcPMT(compounding, batch.years, batch.apr,
+                        batch.presentValue, batch.zeros, batch.results, from, to);
+            } else {
+                TVMBatch.calcFV(compounding, batch.years, batch.apr,
+                        batch.first, batch.second, batch.results, from, to);
+            }
+            for (int i = from; i < to; i++) {
+                batch.results[i] = -batch.results[i];
+            }
+            from = to;
+        }
+    }
+
+    // Runs a stage on its own thread. Whatever the stage throws is recorded
+    // and the failed sentinel is queued in its place, so the stages
+    // downstream stop instead of waiting for a batch that will never come.
+    private static Thread stage(String name, AtomicReference<Throwable> failure,
+            BlockingQueue<QuoteBatch> downstream, QuoteBatch failed, Stage body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                // The writer stopped early; nothing more to do.
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                try {
+                    downstream.put(failed);
+                } catch (InterruptedException stopped) {
+                    // The writer stopped early; nothing more to do.
+                }
+            }
+        }, "BatchPricer-" + name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private interface Stage {
+
+        void run() throws IOException, InterruptedException;
+    }
+}
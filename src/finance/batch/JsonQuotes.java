@@ -0,0 +1,271 @@
+package finance.batch;
+
+import finance.enums.QuoteType;
+import java.util.Arrays;
+
+/**
+ * Reads quotes from, and writes results to, the JSON bodies of the pricing
+ * service. A request is a single quote object or an array of quote objects.
+ * Loan payment quotes have the members purchaseAmount and downPayment, and
+ * investment quotes have initialInvestment and periodicInvestment; both have
+ * apr, compounding (an option name such as "MONTHLY"; CUSTOM has no
+ * frequency and is rejected) and years. Missing amounts are zero, and other
+ * members are ignored. For example:
+ * <pre>
+ * {"purchaseAmount": 350000, "downPayment": 50000, "apr": 6.5,
+ *  "compounding": "MONTHLY", "years": 30}
+ * </pre>
+ * The response to a single quote is {"result": 1896.20}, and the response to
+ * an array is {"results": [...]} in request order. Results are rounded HALF_UP
+ * to cents; a result that cannot be calculated is null.
+ * <p>
+ * Only the subset of JSON that quotes need is understood: member values must
+ * be numbers, strings without escapes, true, false or null.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class JsonQuotes {
+
+    private static final String[] LOAN_NAMES = {"purchaseAmount", "downPayment"};
+    private static final String[] INVESTMENT_NAMES = {"initialInvestment", "periodicInvestment"};
+
+    // Room needed to write one result; very large values are written in full.
+    private static final int MAX_RESULT_BYTES = 400;
+
+    private final byte[] bytes;
+    private final int length;
+    private final String[] amountNames;
+    private int position;
+
+    private JsonQuotes(byte[] bytes, int length, QuoteType quoteType) {
+        this.bytes = bytes;
+        this.length = length;
+        this.amountNames = quoteType == QuoteType.LOAN_PAYMENT ? LOAN_NAMES : INVESTMENT_NAMES;
+    }
+
+    /**
+     * Parses the quotes of a request body.
+     *
+     * @throws IllegalArgumentException if the body is not a quote or an array
+     * of quotes
+     */
+    static QuoteBatch parse(byte[] bytes, int length, QuoteType quoteType) {
+        return new JsonQuotes(bytes, length, quoteType).parse();
+    }
+
+    /**
+     * Indicates whether a request body holds a single quote rather than an
+     * array.
+     */
+    static boolean isSingle(byte[] bytes, int length) {
+        int i = 0;
+        while (i < length && isWhitespace(bytes[i])) {
+            i++;
+        }
+        return i < length && bytes[i] == '{';
+    }
+
+    /**
+     * Writes the results of a batch as a response body.
+     */
+    static byte[] write(QuoteBatch batch, boolean single) {
+        byte[] out = new byte[64 + batch.size * 16];
+        int position = AsciiCodec.writeAscii(single ? "{\"result\":" : "{\"results\":[", out, 0);
+        for (int row = 0; row < batch.size; row++) {
+            if (position + MAX_RESULT_BYTES > out.length) {
+                out = Arrays.copyOf(out, out.length * 2 + MAX_RESULT_BYTES);
+            }
+            if (row > 0) {
+                out[position++] = ',';
+            }
+            double result = batch.results[row];
+            position = Double.isNaN(result) || Double.isInfinite(result)
+                    ? AsciiCodec.writeAscii("null", out, position)
+                    : AsciiCodec.writeCents(result, out, position);
+        }
+        position = AsciiCodec.writeAscii(single ? "}\n" : "]}\n", out, position);
+        return Arrays.copyOf(out, position);
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private QuoteBatch parse() {
+        // Every quote opens an object, so counting braces bounds the size.
+        int objects = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '{') {
+                objects++;
+            }
+        }
+        QuoteBatch batch = new QuoteBatch(Math.max(objects, 1));
+        skipWhitespace();
+        if (peek() == '{') {
+            parseQuote(batch);
+        } else if (peek() == '[') {
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    parseQuote(batch);
+                    skipWhitespace();
+                    byte b = next();
+                    if (b == ']') {
+                        break;
+                    }
+                    if (b != ',') {
+                        throw error("expected ',' or ']'");
+                    }
+                }
+            }
+        } else {
+            throw error("expected a quote object or an array of quote objects");
+        }
+        skipWhitespace();
+        if (position < length) {
+            throw error("unexpected content after the quotes");
+        }
+        return batch;
+    }
+
+    private void parseQuote(QuoteBatch batch) {
+        int row = batch.size;
+        if (next() != '{') {
+            throw error("expected a quote object");
+        }
+        batch.first[row] = 0;
+        batch.second[row] = 0;
+        boolean hasApr = false;
+        boolean hasCompounding = false;
+        boolean hasYears = false;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                int nameStart = position + 1;
+                int nameEnd = skipString();
+                skipWhitespace();
+                if (next() != ':') {
+                    throw error("expected ':'");
+                }
+                skipWhitespace();
+                int valueStart = position;
+                int valueEnd = skipValue();
+                try {
+                    if (nameIs(nameStart, nameEnd, amountNames[0])) {
+                        batch.first[row] = AsciiCodec.parseDouble(bytes, valueStart, valueEnd);
+                    } else if (nameIs(nameStart, nameEnd, amountNames[1])) {
+                        batch.second[row] = AsciiCodec.parseDouble(bytes, valueStart, valueEnd);
+                    } else if (nameIs(nameStart, nameEnd, "apr")) {
+                        batch.apr[row] = AsciiCodec.parseDouble(bytes, valueStart, valueEnd);
+                        hasApr = true;
+                    } else if (nameIs(nameStart, nameEnd, "compounding")) {
+                        batch.compounding[row] = AsciiCodec.parseCompounding(bytes,
+                                valueStart, valueEnd);
+                        hasCompounding = true;
+                    } else if (nameIs(nameStart, nameEnd, "years")) {
+                        batch.years[row] = AsciiCodec.parseDouble(bytes, valueStart, valueEnd);
+                        hasYears = true;
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Quote " + (row + 1) + ": "
+                            + e.getMessage(), e);
+                }
+                skipWhitespace();
+                byte b = next();
+                if (b == '}') {
+                    break;
+                }
+                if (b != ',') {
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+        if (!hasApr || !hasCompounding || !hasYears) {
+            throw new IllegalArgumentException("Quote " + (row + 1) + ": "
+                    + (!hasApr ? "apr" : !hasCompounding ? "compounding" : "years")
+                    + " is missing.");
+        }
+        batch.lines[row] = row + 1;
+        batch.size++;
+    }
+
+    // Skips a string and returns the position of its closing quote.
+    private int skipString() {
+        if (next() != '"') {
+            throw error("expected a string");
+        }
+        while (position < length) {
+            byte b = bytes[position++];
+            if (b == '"') {
+                return position - 1;
+            }
+            if (b == '\\') {
+                throw error("escaped characters are not supported");
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    // Skips a scalar value and returns the position after it.
+    private int skipValue() {
+        if (peek() == '"') {
+            skipString();
+            return position;
+        }
+        while (position < length) {
+            byte b = bytes[position];
+            if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) {
+                break;
+            }
+            if (b == '{' || b == '[' || b == '"') {
+                throw error("only numbers, strings, true, false and null are supported");
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private boolean nameIs(int from, int to, String name) {
+        if (to - from != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (bytes[from + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (position < length && isWhitespace(bytes[position])) {
+            position++;
+        }
+    }
+
+    private byte peek() {
+        return position < length ? bytes[position] : 0;
+    }
+
+    private byte next() {
+        if (position >= length) {
+            throw error("unexpected end of input");
+        }
+        return bytes[position++];
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at offset " + position + ": "
+                + message + ".");
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
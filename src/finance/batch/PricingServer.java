@@ -0,0 +1,399 @@
+package finance.batch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import finance.enums.QuoteType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The PricingServer class prices quotes over HTTP on the local machine. Quotes
+ * are posted to /price/loan or /price/investment either as JSON (see below) or
+ * as comma-separated rows in the format read by the BatchPricer class, and the
+ * response uses the same format as the request. For example:
+ * <pre>
+ * curl -d '{"purchaseAmount":350000,"downPayment":50000,"apr":6.5,
+ *           "compounding":"MONTHLY","years":30}' http://localhost:8080/price/loan
+ * {"result":1896.20}
+ * </pre>
+ * A JSON request holds a single quote object or an array of them. Loan
+ * payment quotes have the members purchaseAmount and downPayment, investment
+ * quotes have initialInvestment and periodicInvestment, and both have apr,
+ * compounding and years. The results match LoanPayment.getValue () and
+ * Investment.getValue () rounded to cents.
+ * <p>
+ * Connections are handled by a bounded pool of threads; when every thread is
+ * busy and the queue of accepted connections is full, the accepting thread
+ * handles the next one itself, which slows acceptance down instead of letting
+ * work pile up. The quotes of concurrent requests are coalesced into
+ * micro-batches and priced together by the TVMBatch class. Pricing a quote
+ * takes far less time than handling its HTTP request, so without a linger
+ * time few requests arrive while a batch is being priced and most batches
+ * hold a single quote; coalescing pays off for requests of many quotes and
+ * for servers created with a linger time, which trades latency for larger
+ * batches.
+ * <p>
+ * The server listens on the loopback address only. It can be run from the
+ * command line:
+ * <pre>
+ * java finance.batch.PricingServer [port]
+ * </pre>
+ * The JDK HTTP server writes response headers and body separately, so without
+ * TCP_NODELAY a small response waits for the client's delayed
+ * acknowledgement. main () sets the JVM-wide sun.net.httpserver.nodelay
+ * system property for this reason; an application that embeds the server
+ * should set it on the command line (-Dsun.net.httpserver.nodelay=true) or
+ * before the first server is created.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class PricingServer implements Closeable {
+
+    /**
+     * The default port.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The default number of connection threads.
+     */
+    public static final int DEFAULT_THREADS = Math.max(4,
+            2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The default maximum number of quotes per micro-batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * The largest request body accepted, in bytes.
+     */
+    public static final int MAX_REQUEST_BYTES = 16 << 20;
+
+    private static final int CONNECTION_QUEUE_DEPTH = 256;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final int threads;
+    private final int batchSize;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final Map<QuoteType, QuoteCoalescer> coalescers = new EnumMap<>(QuoteType.class);
+    private volatile boolean running;
+
+    /**
+     * Creates a server on the specified port using the default number of
+     * threads and batch size, without lingering for more requests.
+     *
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PricingServer(int port) throws IOException {
+        this(port, DEFAULT_THREADS, DEFAULT_BATCH_SIZE, 0);
+    }
+
+    /**
+     * Creates a server on the specified port.
+     *
+     * @param port the port, or 0 for any free port
+     * @param threads the number of connection threads
+     * @param batchSize the maximum number of quotes per micro-batch
+     * @param lingerMicros the time the pricing thread waits for more requests
+     * before pricing a partly filled batch, in microseconds; 0 prices at once
+     * @throws IOException if the port cannot be bound
+     */
+    public PricingServer(int port, int threads, int batchSize, long lingerMicros)
+            throws IOException {
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "Threads and batch size must be at least 1.");
+        }
+        if (lingerMicros < 0) {
+            throw new IllegalArgumentException("The linger time cannot be negative.");
+        }
+        this.threads = threads;
+        this.batchSize = batchSize;
+        for (QuoteType quoteType : QuoteType.values()) {
+            coalescers.put(quoteType, new QuoteCoalescer(quoteType, batchSize,
+                    TimeUnit.MICROSECONDS.toNanos(lingerMicros), threads));
+        }
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CONNECTION_QUEUE_DEPTH), task -> {
+                    Thread thread = new Thread(task, "PricingServer-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/price/", this::handle);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        for (QuoteCoalescer coalescer : coalescers.values()) {
+            coalescer.start();
+        }
+        running = true;
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for requests in progress
+     * and releases the port.
+     */
+    @Override
+    public void close() {
+        running = false;
+        server.stop(1);
+        for (QuoteCoalescer coalescer : coalescers.values()) {
+            coalescer.stop();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Provides the port the server is bound to, which is useful when the
+     * server was created with port 0.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Provides the number of micro-batches priced so far.
+     *
+     * @return the number of batches
+     */
+    public long getBatchCount() {
+        long count = 0;
+        for (QuoteCoalescer coalescer : coalescers.values()) {
+            count += coalescer.getBatchCount();
+        }
+        return count;
+    }
+
+    /**
+     * Provides the number of quotes priced so far.
+     *
+     * @return the number of quotes
+     */
+    public long getQuoteCount() {
+        long count = 0;
+        for (QuoteCoalescer coalescer : coalescers.values()) {
+            count += coalescer.getQuoteCount();
+        }
+        return count;
+    }
+
+    /**
+     * Runs a server from the command line until the process is stopped. The
+     * optional argument is the port. Unless it is already set, the
+     * sun.net.httpserver.nodelay system property is set to true first.
+     *
+     * @param args the port, if not the default
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        if (args.length > 1) {
+            System.err.println("Usage: java finance.batch.PricingServer [port]");
+            System.exit(2);
+        }
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        try {
+            if (args.length == 1) {
+                port = Integer.parseInt(args[0]);
+            }
+            PricingServer server = new PricingServer(port);
+            server.start();
+            System.out.println("Pricing quotes on http://localhost:" + server.getPort()
+                    + "/price/loan and /price/investment with " + server.threads
+                    + " threads");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            QuoteType quoteType = quoteType(exchange.getRequestURI().getPath());
+            if (quoteType == null) {
+                respond(exchange, 404, "Use /price/loan or /price/investment.");
+            } else if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Quotes must be posted.");
+            } else if (!running) {
+                respond(exchange, 503, "The pricing service has stopped.");
+            } else {
+                price(exchange, coalescers.get(quoteType));
+            }
+        } catch (RequestTooLargeException e) {
+            respond(exchange, 413, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, e.getMessage());
+        } catch (IllegalStateException e) {
+            respond(exchange, 503, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "The pricing service has stopped.");
+        } catch (RuntimeException e) {
+            respond(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void price(HttpExchange exchange, QuoteCoalescer coalescer)
+            throws IOException, InterruptedException {
+        byte[] body = readBody(exchange);
+        int length = body.length;
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        byte[] response;
+        if (isJson(contentType, body, length)) {
+            QuoteBatch batch = JsonQuotes.parse(body, length, coalescer.quoteType());
+            coalescer.price(batch);
+            response = JsonQuotes.write(batch, JsonQuotes.isSingle(body, length));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+        } else {
+            response = priceRows(body, length, coalescer);
+            exchange.getResponseHeaders().set("Content-Type", "text/csv");
+        }
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private byte[] priceRows(byte[] body, int length, QuoteCoalescer coalescer)
+            throws IOException, InterruptedException {
+        int lines = 1;
+        for (int i = 0; i < length; i++) {
+            if (body[i] == '\n') {
+                lines++;
+            }
+        }
+        QuoteFileReader reader = new QuoteFileReader(
+                Channels.newChannel(new ByteArrayInputStream(body, 0, length)), IO_BUFFER_SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + lines * 16);
+        ResultFileWriter writer = new ResultFileWriter(Channels.newChannel(out), IO_BUFFER_SIZE);
+        writer.writeHeader(coalescer.quoteType().getResultTitle());
+        QuoteBatch batch = new QuoteBatch(Math.min(batchSize, lines));
+        do {
+            reader.read(batch);
+            coalescer.price(batch);
+            writer.write(batch);
+        } while (!batch.last);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        int size = 8192;
+        if (declared != null) {
+            try {
+                long declaredSize = Long.parseLong(declared.trim());
+                if (declaredSize > MAX_REQUEST_BYTES) {
+                    throw new RequestTooLargeException();
+                }
+                size = (int) Math.max(declaredSize, 0);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid Content-Length.");
+            }
+        }
+        byte[] body = new byte[size];
+        int length = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            while (true) {
+                if (length == body.length) {
+                    if (length >= MAX_REQUEST_BYTES) {
+                        if (in.read() < 0) {
+                            break;
+                        }
+                        throw new RequestTooLargeException();
+                    }
+                    body = Arrays.copyOf(body, Math.min(Math.max(2 * length, 8192),
+                            MAX_REQUEST_BYTES));
+                }
+                int read = in.read(body, length, body.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+        }
+        return length == body.length ? body : Arrays.copyOf(body, length);
+    }
+
+    // JSON when declared as such; comma-separated when declared as text; and
+    // otherwise (e.g., curl's default form type) JSON if it starts like JSON.
+    private static boolean isJson(String contentType, byte[] body, int length) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase();
+            if (type.contains("json")) {
+                return true;
+            } else if (type.contains("csv") || type.startsWith("text/")) {
+                return false;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = body[i];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return b == '{' || b == '[';
+            }
+        }
+        return false;
+    }
+
+    private static QuoteType quoteType(String path) {
+        if (path.equals("/price/loan")) {
+            return QuoteType.LOAN_PAYMENT;
+        } else if (path.equals("/price/investment")) {
+            return QuoteType.INVESTMENT;
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message)
+            throws IOException {
+        byte[] body = (message + "\n").getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static final class RequestTooLargeException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        RequestTooLargeException() {
+            super("Requests are limited to " + MAX_REQUEST_BYTES + " bytes.");
+        }
+    }
+}
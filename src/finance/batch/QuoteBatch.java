@@ -0,0 +1,52 @@
+package finance.batch;
+
+import finance.enums.CompoundingOption;
+
+/**
+ * A fixed-size block of quote rows held as columns of primitive values. The
+ * batch pricer allocates a small number of batches up front and passes them
+ * between the parse, compute and write stages, so memory use does not depend
+ * on the size of the quote file.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class QuoteBatch {
+
+    final long[] lines;
+    final double[] first;
+    final double[] second;
+    final double[] apr;
+    final CompoundingOption[] compounding;
+    final double[] years;
+    final double[] presentValue;
+    final double[] zeros;
+    final double[] results;
+    int size;
+    boolean last;
+
+    QuoteBatch(int capacity) {
+        lines = new long[capacity];
+        first = new double[capacity];
+        second = new double[capacity];
+        apr = new double[capacity];
+        compounding = new CompoundingOption[capacity];
+        years = new double[capacity];
+        presentValue = new double[capacity];
+        zeros = new double[capacity];
+        results = new double[capacity];
+    }
+
+    int capacity() {
+        return lines.length;
+    }
+
+    boolean isFull() {
+        return size == lines.length;
+    }
+
+    void clear() {
+        size = 0;
+        last = false;
+    }
+}
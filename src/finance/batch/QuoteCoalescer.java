@@ -0,0 +1,247 @@
+package finance.batch;
+
+import finance.enums.QuoteType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces the quotes of concurrent requests into micro-batches. Request
+ * threads hand their parsed quotes to a single pricing thread and wait; the
+ * pricing thread copies every request that is waiting (up to the batch
+ * capacity) into one set of columns, prices them with a single pass of the
+ * TVMBatch class and hands each request its results. Under light load each
+ * batch holds one request and adds no delay; under heavy load requests queue
+ * while a batch is being priced, so batches grow with the load. An optional
+ * linger time lets the pricing thread wait briefly for more requests before
+ * pricing a partly filled batch.
+ * <p>
+ * Quotes are checked as they are parsed, so a batch should not fail. If one
+ * does, its requests are priced again one at a time, so that only a request
+ * whose own quotes cannot be priced fails.
+ * <p>
+ * Requests that are at least as large as the batch capacity gain nothing from
+ * coalescing and are priced directly on the request thread.
+ * <p>
+ * If the pricing thread stops, whether it was stopped or failed with an
+ * Error, every waiting request fails with an IllegalStateException and so
+ * does every later request.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class QuoteCoalescer {
+
+    private final QuoteType quoteType;
+    private final QuoteBatch work;
+    private final long lingerNanos;
+    private final BlockingQueue<Request> queue;
+    private final List<Request> pending = new ArrayList<>();
+    private final Thread thread;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder quotes = new LongAdder();
+    private volatile IllegalStateException stopped;
+
+    QuoteCoalescer(QuoteType quoteType, int batchSize, long lingerNanos, int queueCapacity) {
+        this.quoteType = quoteType;
+        this.work = new QuoteBatch(batchSize);
+        this.lingerNanos = lingerNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.thread = new Thread(this::run, "QuoteCoalescer-" + quoteType);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        thread.interrupt();
+    }
+
+    /**
+     * Prices every row of a batch, waiting until the results have been
+     * written to the batch.
+     */
+    void price(QuoteBatch batch) throws InterruptedException {
+        if (batch.size == 0) {
+            return;
+        }
+        if (batch.size >= work.capacity()) {
+            BatchPricer.price(quoteType, batch);
+            batches.increment();
+            quotes.add(batch.size);
+            return;
+        }
+        checkRunning();
+        Request request = new Request(batch);
+        queue.put(request);
+        if (stopped != null) {
+            // The pricing thread stopped after the check above and may have
+            // failed the waiting requests before this one was queued.
+            failQueued(stopped);
+        }
+        request.done.await();
+        if (request.failure != null) {
+            throw request.failure;
+        }
+    }
+
+    QuoteType quoteType() {
+        return quoteType;
+    }
+
+    long getBatchCount() {
+        return batches.sum();
+    }
+
+    long getQuoteCount() {
+        return quotes.sum();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private void run() {
+        Throwable cause = null;
+        try {
+            while (true) {
+                gather(queue.take());
+                priceGathered();
+            }
+        } catch (InterruptedException e) {
+            // Stopped.
+        } catch (Throwable e) {
+            cause = e;
+            throw e;
+        } finally {
+            // Fail anything still waiting so no request hangs, and refuse
+            // new requests from now on.
+            stopped = cause == null
+                    ? new IllegalStateException("The pricing service has stopped.")
+                    : new IllegalStateException("The pricing service has failed.", cause);
+            for (Request request : pending) {
+                request.fail(stopped);
+            }
+            pending.clear();
+            failQueued(stopped);
+        }
+    }
+
+    private void checkRunning() {
+        IllegalStateException failure = stopped;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void failQueued(IllegalStateException failure) {
+        for (Request request; (request = queue.poll()) != null;) {
+            request.fail(failure);
+        }
+    }
+
+    // Copies the first request and every waiting request that still fits
+    // into the work batch, lingering for more if allowed.
+    private void gather(Request first) throws InterruptedException {
+        work.clear();
+        add(first);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (true) {
+            Request next = queue.peek();
+            if (next == null && lingerNanos > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        if (work.size + next.batch.size > work.capacity()) {
+                            // Too large for this batch; price it on its own next.
+                            priceGathered();
+                            work.clear();
+                        }
+                        add(next);
+                        continue;
+                    }
+                }
+            }
+            if (next == null || work.size + next.batch.size > work.capacity()) {
+                return;
+            }
+            add(queue.poll());
+        }
+    }
+
+    private void add(Request request) {
+        QuoteBatch batch = request.batch;
+        System.arraycopy(batch.first, 0, work.first, work.size, batch.size);
+        System.arraycopy(batch.second, 0, work.second, work.size, batch.size);
+        System.arraycopy(batch.apr, 0, work.apr, work.size, batch.size);
+        System.arraycopy(batch.compounding, 0, work.compounding, work.size, batch.size);
+        System.arraycopy(batch.years, 0, work.years, work.size, batch.size);
+        request.offset = work.size;
+        work.size += batch.size;
+        pending.add(request);
+    }
+
+    private void priceGathered() {
+        RuntimeException failure = null;
+        Error error = null;
+        try {
+            BatchPricer.price(quoteType, work);
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            // Fail this batch, then let the error stop the pricing thread.
+            failure = new IllegalStateException("The pricing service has failed.", e);
+            error = e;
+        }
+        batches.increment();
+        quotes.add(work.size);
+        for (Request request : pending) {
+            if (error != null) {
+                request.fail(failure);
+            } else if (failure == null) {
+                System.arraycopy(work.results, request.offset, request.batch.results, 0,
+                        request.batch.size);
+                request.done.countDown();
+            } else {
+                // One bad request must not fail the others that shared its
+                // batch, so each is priced on its own.
+                try {
+                    BatchPricer.price(quoteType, request.batch);
+                    request.done.countDown();
+                } catch (RuntimeException e) {
+                    request.fail(e);
+                } catch (Error e) {
+                    failure = new IllegalStateException("The pricing service has failed.", e);
+                    error = e;
+                    request.fail(failure);
+                }
+            }
+        }
+        pending.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static final class Request {
+
+        final QuoteBatch batch;
+        final CountDownLatch done = new CountDownLatch(1);
+        int offset;
+        volatile RuntimeException failure;
+
+        Request(QuoteBatch batch) {
+            this.batch = batch;
+        }
+
+        void fail(RuntimeException e) {
+            failure = e;
+            done.countDown();
+        }
+    }
+}
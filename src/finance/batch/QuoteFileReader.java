@@ -0,0 +1,135 @@
+package finance.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads quote rows from a comma-separated file into QuoteBatch columns. The
+ * file is read through a fixed-size buffer and each field is parsed directly
+ * from its bytes, so no strings are created per row. Each row holds five
+ * fields: two amounts, the APR, the compounding option and the number of
+ * years. Blank lines are skipped, and the first line is treated as a header if
+ * it does not start with a number.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class QuoteFileReader {
+
+    private static final int FIELDS = 5;
+
+    private final ReadableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private final int[] commas = new int[FIELDS - 1];
+    private int position;
+    private int limit;
+    private long line;
+    private boolean endOfInput;
+
+    QuoteFileReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        bytes = new byte[bufferSize];
+        buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Clears the batch and fills it with the next rows of the file. The
+     * batch's last flag is set once the end of the file has been reached.
+     */
+    void read(QuoteBatch batch) throws IOException {
+        batch.clear();
+        while (!batch.isFull()) {
+            int end = indexOf((byte) '\n', position, limit);
+            if (end < 0) {
+                if (!endOfInput) {
+                    fill();
+                    continue;
+                }
+                if (position == limit) {
+                    batch.last = true;
+                    return;
+                }
+                end = limit;
+            }
+            line++;
+            int lineEnd = end > position && bytes[end - 1] == '\r' ? end - 1 : end;
+            parseLine(batch, position, lineEnd);
+            position = Math.min(end + 1, limit);
+        }
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == bytes.length) {
+            throw new IOException("Line " + (line + 1) + " is longer than "
+                    + bytes.length + " bytes.");
+        }
+        buffer.limit(bytes.length).position(limit);
+        int count = channel.read(buffer);
+        if (count < 0) {
+            endOfInput = true;
+        } else {
+            limit += count;
+        }
+    }
+
+    private void parseLine(QuoteBatch batch, int from, int to) {
+        int start = from;
+        while (start < to && (bytes[start] == ' ' || bytes[start] == '\t')) {
+            start++;
+        }
+        if (start == to || line == 1 && !startsNumber(bytes[start])) {
+            return;
+        }
+        int fields = 0;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == ',') {
+                if (fields == commas.length) {
+                    throw fieldCount();
+                }
+                commas[fields++] = i;
+            }
+        }
+        if (fields != commas.length) {
+            throw fieldCount();
+        }
+        int row = batch.size;
+        try {
+            batch.first[row] = AsciiCodec.parseDouble(bytes, from, commas[0]);
+            batch.second[row] = AsciiCodec.parseDouble(bytes, commas[0] + 1, commas[1]);
+            batch.apr[row] = AsciiCodec.parseDouble(bytes, commas[1] + 1, commas[2]);
+            batch.compounding[row] = AsciiCodec.parseCompounding(bytes, commas[2] + 1, commas[3]);
+            batch.years[row] = AsciiCodec.parseDouble(bytes, commas[3] + 1, to);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+        }
+        batch.lines[row] = line;
+        batch.size++;
+    }
+
+    private IllegalArgumentException fieldCount() {
+        return new IllegalArgumentException("Line " + line + ": expected "
+                + FIELDS + " comma-separated fields.");
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsNumber(byte b) {
+        return b >= '0' && b <= '9' || b == '-' || b == '+' || b == '.';
+    }
+}
@@ -0,0 +1,62 @@
+package finance.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes priced quotes as comma-separated rows of source line number and
+ * result. Results are rounded HALF_UP to two decimal places and encoded
+ * directly into a fixed-size buffer, which is written to the channel whenever
+ * it fills up.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+final class ResultFileWriter {
+
+    // Longest row: a 19 digit line number, a comma, the largest double written
+    // out in full with two decimal places, and a newline.
+    private static final int MAX_ROW_BYTES = 400;
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int position;
+
+    ResultFileWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        bytes = new byte[Math.max(bufferSize, MAX_ROW_BYTES)];
+        buffer = ByteBuffer.wrap(bytes);
+    }
+
+    void writeHeader(String resultTitle) throws IOException {
+        byte[] header = ("line," + resultTitle + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (position + header.length > bytes.length) {
+            flush();
+        }
+        System.arraycopy(header, 0, bytes, position, header.length);
+        position += header.length;
+    }
+
+    void write(QuoteBatch batch) throws IOException {
+        for (int row = 0; row < batch.size; row++) {
+            if (position + MAX_ROW_BYTES > bytes.length) {
+                flush();
+            }
+            position = AsciiCodec.writeLong(batch.lines[row], bytes, position);
+            bytes[position++] = ',';
+            position = AsciiCodec.writeCents(batch.results[row], bytes, position);
+            bytes[position++] = '\n';
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.limit(position).position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+}
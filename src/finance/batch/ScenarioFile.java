@@ -0,0 +1,418 @@
+package finance.batch;
+
+import finance.TVMBatch;
+import finance.enums.CompoundingOption;
+import finance.enums.TVMRegister;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ScenarioFile class reads and writes time-value of money (TVM) scenarios
+ * stored in a compact binary file. Each scenario is a fixed-width
+ * little-endian record holding the five TVM registers, the ordinal of its
+ * CompoundingOption and a result, so scenarios can be priced without parsing
+ * any text.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE} byte header: the magic number
+ * {@value #MAGIC} (the ASCII text "TVMS" read as a little-endian int), the
+ * format version, the record size and the record count. It is followed by
+ * {@value #RECORD_SIZE} byte records laid out as years, APR, PV, PMT and FV
+ * (doubles), the compounding ordinal (int), four bytes of padding and the
+ * result (double). Registers use the units and sign convention of the
+ * TVMEngine class.
+ * <p>
+ * The file is accessed through memory-mapped windows of at most
+ * {@value #WINDOW_RECORDS} records, so files of many gigabytes can be read and
+ * updated in place without copying them onto the heap. The solve () methods
+ * price every record in parallel, writing each result into its own record.
+ * Records may be read and written by several threads at once as long as no two
+ * threads write the same record.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public final class ScenarioFile implements Closeable {
+
+    /**
+     * The magic number that identifies a scenario file.
+     */
+    public static final int MAGIC = 0x534D5654;
+
+    /**
+     * The format version written by this class.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * The size of a scenario record in bytes.
+     */
+    public static final int RECORD_SIZE = 56;
+
+    /**
+     * The maximum number of records in one memory-mapped window.
+     */
+    public static final int WINDOW_RECORDS = 1 << 24;
+
+    private static final int YEARS_OFFSET = 0;
+    private static final int APR_OFFSET = 8;
+    private static final int PV_OFFSET = 16;
+    private static final int PMT_OFFSET = 24;
+    private static final int FV_OFFSET = 32;
+    private static final int COMPOUNDING_OFFSET = 40;
+    private static final int RESULT_OFFSET = 48;
+
+    // Records are copied into primitive columns this many at a time.
+    private static final int BLOCK_RECORDS = 4096;
+    private static final int MIN_CHUNK = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final CompoundingOption[] OPTIONS = CompoundingOption.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] windows;
+    private final long count;
+
+    private ScenarioFile(FileChannel channel, long count) throws IOException {
+        this.channel = channel;
+        this.count = count;
+        windows = new MappedByteBuffer[(int) ((count + WINDOW_RECORDS - 1) / WINDOW_RECORDS)];
+        for (int w = 0; w < windows.length; w++) {
+            long first = (long) w * WINDOW_RECORDS;
+            long records = Math.min(WINDOW_RECORDS, count - first);
+            windows[w] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            windows[w].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Creates a scenario file with the specified number of records, replacing
+     * any existing file. Records are initially all zero, which reads as zero
+     * registers with CUSTOM compounding, so every record should be set before
+     * the file is solved.
+     *
+     * @param path the file to create
+     * @param count the number of records
+     * @return the scenario file, open for reading and writing
+     * @throws IOException if the file cannot be created
+     */
+    public static ScenarioFile create(Path path, long count) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("The record count cannot be negative.");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).putLong(count);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return new ScenarioFile(channel, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing scenario file for reading and writing.
+     *
+     * @param path the file to open
+     * @return the scenario file
+     * @throws IOException if the file cannot be read or is not a scenario
+     * file of a supported version
+     */
+    public static ScenarioFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a scenario file.");
+            }
+            if (header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+                throw new IOException(path + " uses unsupported scenario file version "
+                        + header.getInt(4) + ".");
+            }
+            long count = header.getLong(16);
+            if (count < 0 || HEADER_SIZE + count * RECORD_SIZE > channel.size()) {
+                throw new IOException(path + " is shorter than its header indicates.");
+            }
+            return new ScenarioFile(channel, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Provides the number of records in the file.
+     *
+     * @return the record count
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Sets the registers of a record. The result is left unchanged.
+     *
+     * @param index the index of the record
+     * @param compounding the interest compounding interval
+     * @param years the number of years
+     * @param apr the annual percentage rate
+     * @param pv the present value
+     * @param pmt the payment
+     * @param fv the future value
+     */
+    public void set(long index, CompoundingOption compounding, double years,
+            double apr, double pv, double pmt, double fv) {
+        MappedByteBuffer window = window(index);
+        int offset = offset(index);
+        window.putDouble(offset + YEARS_OFFSET, years);
+        window.putDouble(offset + APR_OFFSET, apr);
+        window.putDouble(offset + PV_OFFSET, pv);
+        window.putDouble(offset + PMT_OFFSET, pmt);
+        window.putDouble(offset + FV_OFFSET, fv);
+        window.putInt(offset + COMPOUNDING_OFFSET, compounding.ordinal());
+    }
+
+    /**
+     * Sets the compounding option of a record.
+     *
+     * @param index the index of the record
+     * @param compounding the interest compounding interval
+     */
+    public void setCompounding(long index, CompoundingOption compounding) {
+        window(index).putInt(offset(index) + COMPOUNDING_OFFSET, compounding.ordinal());
+    }
+
+    /**
+     * Provides the compounding option of a record.
+     *
+     * @param index the index of the record
+     * @return the interest compounding interval
+     */
+    public CompoundingOption getCompounding(long index) {
+        return compounding(window(index).getInt(offset(index) + COMPOUNDING_OFFSET), index);
+    }
+
+    /**
+     * Provides the number of years of a record.
+     *
+     * @param index the index of the record
+     * @return the number of years
+     */
+    public double getYears(long index) {
+        return window(index).getDouble(offset(index) + YEARS_OFFSET);
+    }
+
+    /**
+     * Provides the annual percentage rate of a record.
+     *
+     * @param index the index of the record
+     * @return the annual percentage rate
+     */
+    public double getAPR(long index) {
+        return window(index).getDouble(offset(index) + APR_OFFSET);
+    }
+
+    /**
+     * Provides the present value of a record.
+     *
+     * @param index the index of the record
+     * @return the present value
+     */
+    public double getPV(long index) {
+        return window(index).getDouble(offset(index) + PV_OFFSET);
+    }
+
+    /**
+     * Provides the payment of a record.
+     *
+     * @param index the index of the record
+     * @return the payment
+     */
+    public double getPMT(long index) {
+        return window(index).getDouble(offset(index) + PMT_OFFSET);
+    }
+
+    /**
+     * Provides the future value of a record.
+     *
+     * @param index the index of the record
+     * @return the future value
+     */
+    public double getFV(long index) {
+        return window(index).getDouble(offset(index) + FV_OFFSET);
+    }
+
+    /**
+     * Provides the result of a record.
+     *
+     * @param index the index of the record
+     * @return the result, or zero if the record has not been solved
+     */
+    public double getResult(long index) {
+        return window(index).getDouble(offset(index) + RESULT_OFFSET);
+    }
+
+    /**
+     * Sets the result of a record.
+     *
+     * @param index the index of the record
+     * @param result the result
+     */
+    public void setResult(long index, double result) {
+        window(index).putDouble(offset(index) + RESULT_OFFSET, result);
+    }
+
+    /**
+     * Solves every record for the selected TVM register on the common
+     * ForkJoinPool and stores the value in the record's result. Registers
+     * that are not used to solve for the selected register are ignored.
+     *
+     * @param target the TVM register to solve for
+     */
+    public void solve(TVMRegister target) {
+        solve(target, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves every record for the selected TVM register on the specified
+     * ForkJoinPool and stores the value in the record's result. Results are
+     * identical to TVMBatch.solve () regardless of the number of threads.
+     *
+     * @param target the TVM register to solve for
+     * @param pool the pool used to solve chunks of records
+     */
+    public void solve(TVMRegister target, ForkJoinPool pool) {
+        long chunkSize = Math.max(MIN_CHUNK,
+                (count + pool.getParallelism() * CHUNKS_PER_THREAD - 1)
+                / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        pool.invoke(new Chunk(target, 0, count, chunkSize));
+    }
+
+    /**
+     * Writes any changes to the storage device and closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (MappedByteBuffer window : windows) {
+            window.force();
+        }
+        channel.close();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private MappedByteBuffer window(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index
+                    + " is outside the file of " + count + " records.");
+        }
+        return windows[(int) (index / WINDOW_RECORDS)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % WINDOW_RECORDS) * RECORD_SIZE;
+    }
+
+    private static CompoundingOption compounding(int ordinal, long index) {
+        if (ordinal < 0 || ordinal >= OPTIONS.length) {
+            throw new IllegalArgumentException("Record " + index
+                    + " has an invalid compounding ordinal " + ordinal + ".");
+        }
+        return OPTIONS[ordinal];
+    }
+
+    // Copies blocks of records into columns, solves runs of records that share
+    // a compounding option with TVMBatch, and writes the results back.
+    private void solveRange(TVMRegister target, long from, long to) {
+        double[] years = new double[BLOCK_RECORDS];
+        double[] apr = new double[BLOCK_RECORDS];
+        double[] pv = new double[BLOCK_RECORDS];
+        double[] pmt = new double[BLOCK_RECORDS];
+        double[] fv = new double[BLOCK_RECORDS];
+        double[] out = new double[BLOCK_RECORDS];
+        int[] ordinals = new int[BLOCK_RECORDS];
+        for (long start = from; start < to; ) {
+            MappedByteBuffer window = window(start);
+            long windowEnd = (start / WINDOW_RECORDS + 1) * WINDOW_RECORDS;
+            int n = (int) Math.min(BLOCK_RECORDS, Math.min(to, windowEnd) - start);
+            int base = offset(start);
+            for (int k = 0, offset = base; k < n; k++, offset += RECORD_SIZE) {
+                years[k] = window.getDouble(offset + YEARS_OFFSET);
+                apr[k] = window.getDouble(offset + APR_OFFSET);
+                pv[k] = window.getDouble(offset + PV_OFFSET);
+                pmt[k] = window.getDouble(offset + PMT_OFFSET);
+                fv[k] = window.getDouble(offset + FV_OFFSET);
+                ordinals[k] = window.getInt(offset + COMPOUNDING_OFFSET);
+            }
+            for (int k = 0; k < n; ) {
+                int runEnd = k + 1;
+                while (runEnd < n && ordinals[runEnd] == ordinals[k]) {
+                    runEnd++;
+                }
+                TVMBatch.solve(target, compounding(ordinals[k], start + k),
+                        years, apr, pv, pmt, fv, out, k, runEnd);
+                k = runEnd;
+            }
+            for (int k = 0, offset = base; k < n; k++, offset += RECORD_SIZE) {
+                window.putDouble(offset + RESULT_OFFSET, out[k]);
+            }
+            start += n;
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TVMRegister target;
+        private final long from;
+        private final long to;
+        private final long chunkSize;
+
+        Chunk(TVMRegister target, long from, long to, long chunkSize) {
+            this.target = target;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                solveRange(target, from, to);
+                return;
+            }
+            long middle = (from + to) >>> 1;
+            invokeAll(new Chunk(target, from, middle, chunkSize),
+                    new Chunk(target, middle, to, chunkSize));
+        }
+    }
+}
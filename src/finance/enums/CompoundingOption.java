@@ -9,34 +9,57 @@ public enum CompoundingOption {
 
     /**
      * Indicates that the compounding option being used is not part of this
-     * enumeration.
+     * enumeration. A custom compounding frequency is set with
+     * TVMScenario.withCompoundingFrequency () or
+     * TVMEngine.setCompoundingFrequency ().
      */
     CUSTOM (),
 
     /**
      * Compounding occurs once per year.
      */
-    ANNUAL (1),
+    ANNUAL (1, "Annual"),
 
     /**
      * Compounding occurs twice a year.
      */
-    SEMIANNUAL (2),
+    SEMIANNUAL (2, "Semiannual"),
 
     /**
      * Compounding occurs four times a year.
      */
-    QUARTERLY (4),
+    QUARTERLY (4, "Quarterly"),
 
     /**
      * Compounding occurs 12 times a year.
      */
-    MONTHLY (12),
+    MONTHLY (12, "Monthly"),
 
     /**
      * Compounding occurs 52 times a year.
      */
-    WEEKLY (52);
+    WEEKLY (52, "Weekly"),
+
+    /**
+     * Compounding occurs every two weeks (26 times a year).
+     */
+    BIWEEKLY (26, "Biweekly"),
+
+    /**
+     * Compounding occurs daily, using a 365 day year.
+     */
+    DAILY (365, "Daily"),
+
+    /**
+     * Compounding occurs daily, using a 360 day (banker's) year.
+     */
+    DAILY_360 (360, "Daily (360)"),
+
+    /**
+     * Interest compounds continuously, so a year grows by exp(APR). Unless a
+     * separate payment frequency is set, payments are made once a year.
+     */
+    CONTINUOUS (Double.POSITIVE_INFINITY, "Continuous");
     private double periodsPerYear;
     private String optionText;
 
@@ -45,30 +68,29 @@ public enum CompoundingOption {
         optionText = "Custom";
     }
 
-    private CompoundingOption (double periodsPerYear) {
+    private CompoundingOption (double periodsPerYear, String optionText) {
         this.periodsPerYear = periodsPerYear;
-        if (periodsPerYear == 1) {
-            optionText = "Annual";
-        } else if (periodsPerYear == 2) {
-            optionText = "Semiannual";
-        } else if (periodsPerYear == 4) {
-            optionText = "Quarterly";
-        } else if (periodsPerYear == 12) {
-            optionText = "Monthly";
-        } else if (periodsPerYear == 52) {
-            optionText = "Weekly";
-        }        
+        this.optionText = optionText;
     }
 
     /**
      * Provides the compounding periods per year represented by the selected
      * compounding option.
-     * @return a number representing the compounding periods per year
+     * @return a number representing the compounding periods per year. This is
+     * zero for CUSTOM and positive infinity for CONTINUOUS.
      */
     public double getPeriodsPerYear () {
         return periodsPerYear;
     }
 
+    /**
+     * Indicates whether interest compounds continuously.
+     * @return True for CONTINUOUS, otherwise false.
+     */
+    public boolean isContinuous () {
+        return periodsPerYear == Double.POSITIVE_INFINITY;
+    }
+
     /**
      * Provides a title case representation of the selected compounding option.
      * @return A title case text representation of the compounding option.
@@ -76,4 +98,19 @@ public enum CompoundingOption {
     public String getTitleCaseText () {
         return optionText;
     }
+
+    /**
+     * Provides the compounding option with the specified number of compounding
+     * periods per year.
+     * @param periodsPerYear the compounding periods per year
+     * @return the matching compounding option, or CUSTOM if there is none
+     */
+    public static CompoundingOption forPeriodsPerYear (double periodsPerYear) {
+        for (CompoundingOption option : values()) {
+            if (option != CUSTOM && option.periodsPerYear == periodsPerYear) {
+                return option;
+            }
+        }
+        return CUSTOM;
+    }
 }
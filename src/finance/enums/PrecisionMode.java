@@ -0,0 +1,24 @@
+package finance.enums;
+
+/**
+ * Provides the arithmetic used for the monetary results of a TVM engine.
+ * @author koluongMBP
+ * @version 261016
+ */
+public enum PrecisionMode {
+
+    /**
+     * Results are calculated in double precision and rounded only when they
+     * are formatted as currency. This is the fastest mode.
+     */
+    DOUBLE,
+
+    /**
+     * Results are calculated in 34-digit decimal arithmetic from the decimal
+     * values of the inputs and rounded HALF_UP to the minor unit of the
+     * currency (e.g., the cent). Amortization schedules are kept in whole
+     * minor units, so every row is exact and the schedule pays the loan off
+     * to the cent.
+     */
+    DECIMAL
+}
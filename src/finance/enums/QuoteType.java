@@ -0,0 +1,40 @@
+package finance.enums;
+
+/**
+ * Provides the kinds of quote that can be priced in bulk. Each quote type
+ * corresponds to one of the Report classes and determines how the columns of a
+ * quote file are interpreted.
+ * @author koluongMBP
+ * @version 261016
+ */
+public enum QuoteType {
+
+    /**
+     * A loan payment quote, priced like the LoanPayment class. Quote rows hold
+     * purchase amount, down payment, APR, compounding and loan duration in
+     * years, and the result is the periodic loan payment.
+     */
+    LOAN_PAYMENT ("Payment"),
+
+    /**
+     * An investment quote, priced like the Investment class. Quote rows hold
+     * initial investment, periodic investment, APR, compounding and years
+     * invested, and the result is the value of the investment.
+     */
+    INVESTMENT ("Investment value");
+
+    private final String resultTitle;
+
+    private QuoteType (String resultTitle) {
+        this.resultTitle = resultTitle;
+    }
+
+    /**
+     * Provides a title case description of the value calculated for this
+     * quote type.
+     * @return A title case description of the calculated value.
+     */
+    public String getResultTitle () {
+        return resultTitle;
+    }
+}
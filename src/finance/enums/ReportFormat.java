@@ -0,0 +1,36 @@
+package finance.enums;
+
+/**
+ * Provides the output formats of a ReportWriter.
+ * @author koluongMBP
+ * @version 261016
+ */
+public enum ReportFormat {
+
+    /**
+     * The text summary produced by Report.print (): a title line followed by
+     * one "label: value" line per field, with amounts formatted as currency.
+     * Consecutive reports are separated by a blank line.
+     */
+    TEXT,
+
+    /**
+     * Comma-separated values: a header row of field names followed by one row
+     * per report. Amounts are plain decimals rounded to the minor unit of the
+     * currency.
+     */
+    CSV,
+
+    /**
+     * JSON Lines: one JSON object per report on its own line, keyed by field
+     * name. Amounts are numbers rounded to the minor unit of the currency.
+     */
+    JSON,
+
+    /**
+     * Fixed-width columns: a header row of field names followed by one row per
+     * report, with every field right-aligned in a column of the same width.
+     * Amounts are plain decimals rounded to the minor unit of the currency.
+     */
+    FIXED_WIDTH
+}
@@ -0,0 +1,25 @@
+package finance.enums;
+
+/**
+ * Provides the distributions from which random per-period returns are drawn in
+ * a Monte Carlo simulation.
+ * @author koluongMBP
+ * @version 261016
+ */
+public enum ReturnDistribution {
+
+    /**
+     * Period returns are normally distributed with mean APR / periods per year
+     * and standard deviation volatility / sqrt(periods per year). Returns below
+     * -100% are possible when the volatility is large.
+     */
+    NORMAL,
+
+    /**
+     * Period growth factors are lognormally distributed (geometric Brownian
+     * motion), so a period never loses more than 100%. The APR is the
+     * continuously compounded expected return and the volatility is the
+     * annual standard deviation of the log return.
+     */
+    LOGNORMAL
+}
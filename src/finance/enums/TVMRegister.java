@@ -0,0 +1,35 @@
+package finance.enums;
+
+/**
+ * Provides the set of time-value of money (TVM) registers. Used to select the
+ * register to be solved for when the other registers are known.
+ * @author koluongMBP
+ * @version 261016
+ */
+public enum TVMRegister {
+
+    /**
+     * The number of years associated with the financial calculation.
+     */
+    YEARS,
+
+    /**
+     * The annual percentage rate (APR) or annual return.
+     */
+    APR,
+
+    /**
+     * The present value (e.g., loan amount or initial investment).
+     */
+    PV,
+
+    /**
+     * The payment (e.g., loan payment or periodic investment).
+     */
+    PMT,
+
+    /**
+     * The future value (e.g., value of an investment over a period of time).
+     */
+    FV
+}
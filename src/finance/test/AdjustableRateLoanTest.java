@@ -0,0 +1,224 @@
+package finance.test;
+
+import static finance.test.Checks.close;
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.AdjustableRateLoan;
+import finance.AmortizationSchedule;
+import finance.LoanPayment;
+import finance.RateSchedule;
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the AdjustableRateLoan class. Loans with no resets are
+ * compared with LoanPayment and its amortization schedule, and loans with
+ * resets are compared with a period-by-period amortization that recasts the
+ * payment at each reset. The timings are in AdjustableRateLoanBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class AdjustableRateLoanTest {
+
+    private static final int LOANS = 2000;
+
+    /**
+     * Test software for the AdjustableRateLoan class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(25);
+        CompoundingOption[] options = {CompoundingOption.ANNUAL, CompoundingOption.SEMIANNUAL,
+            CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY, CompoundingOption.WEEKLY,
+            CompoundingOption.DAILY};
+
+        boolean fixedMatches = true;
+        for (int k = 0; k < LOANS && fixedMatches; k++) {
+            LoanPayment fixed = new LoanPayment(random.nextInt(10000, 2000000) / 4.0,
+                    random.nextInt(0, 400) * 25.0, random.nextInt(0, 2500) / 100.0,
+                    options[random.nextInt(options.length)], random.nextInt(1, 41));
+            AdjustableRateLoan loan = new AdjustableRateLoan(fixed.getPurchaseAmount(),
+                    fixed.getDownPayment(), fixed.getAPR(), fixed.getCompounding(),
+                    fixed.getYears(), new RateSchedule());
+            AdjustableRateLoan.Segment[] segments = loan.calcSegments();
+            fixedMatches = segments.length == 1
+                    && close(segments[0].getPayment(), -new Quote(fixed).payment())
+                    && close(segments[0].getInterest(), scheduleInterest(fixed))
+                    && loan.getValue().equals(fixed.getValue());
+        }
+        report("A loan with no resets matches LoanPayment", fixedMatches);
+
+        boolean resetsMatch = true;
+        for (int k = 0; k < LOANS && resetsMatch; k++) {
+            double years = random.nextInt(2, 41);
+            double[] rates = new double[random.nextInt(0, 12)];
+            for (int j = 0; j < rates.length; j++) {
+                rates[j] = random.nextInt(0, 1500) / 100.0;
+            }
+            RateSchedule schedule = RateSchedule.periodic(random.nextInt(1, 41) / 4.0,
+                    random.nextInt(1, 9) / 4.0, rates);
+            AdjustableRateLoan loan = new AdjustableRateLoan(random.nextInt(10000, 2000000) / 4.0,
+                    0, random.nextInt(0, 1500) / 100.0, options[random.nextInt(options.length)],
+                    years, schedule);
+            resetsMatch = matchesIteration(loan);
+        }
+        report("Loans with resets match a period-by-period amortization", resetsMatch);
+
+        AdjustableRateLoan arm = new AdjustableRateLoan(400000, 80000, 5.5,
+                CompoundingOption.MONTHLY, 30, RateSchedule.periodic(5, 1, 5.5, 5.5));
+        AdjustableRateLoan.Segment[] same = arm.calcSegments();
+        report("A reset to the same rate keeps the payment",
+                same.length == 3 && close(same[1].getPayment(), same[0].getPayment())
+                && close(same[2].getPayment(), same[0].getPayment()));
+
+        arm.setRateSchedule(RateSchedule.periodic(5, 1, 6.5, 7.5).withReset(40, 9));
+        AdjustableRateLoan.Segment[] rising = arm.calcSegments();
+        report("Resets beyond the loan term are ignored", rising.length == 3
+                && rising[1].getStartPeriod() == 60 && rising[2].getStartPeriod() == 72
+                && rising[2].getPeriods() == 288 && rising[2].getEndBalance() == 0);
+        report("A rate rise raises the payment",
+                rising[1].getPayment() > rising[0].getPayment()
+                && rising[2].getPayment() > rising[1].getPayment());
+
+        arm.setRateSchedule(new RateSchedule().withReset(0.5, 3).withReset(0.51, 8));
+        AdjustableRateLoan.Segment[] replaced = arm.calcSegments();
+        report("A reset in the same period replaces the one before",
+                replaced.length == 2 && replaced[1].getAPR() == 8);
+
+        boolean decimalMatches = true;
+        for (int k = 0; k < 200 && decimalMatches; k++) {
+            LoanPayment fixed = new LoanPayment(random.nextInt(10000, 2000000) / 4.0,
+                    random.nextInt(0, 400) * 25.0, random.nextInt(0, 2500) / 100.0,
+                    options[random.nextInt(options.length)], random.nextInt(1, 41));
+            fixed.setPrecisionMode(PrecisionMode.DECIMAL);
+            AdjustableRateLoan loan = new AdjustableRateLoan(fixed.getPurchaseAmount(),
+                    fixed.getDownPayment(), fixed.getAPR(), fixed.getCompounding(),
+                    fixed.getYears(), new RateSchedule());
+            loan.setPrecisionMode(PrecisionMode.DECIMAL);
+            AdjustableRateLoan.Segment segment = loan.calcSegments()[0];
+            decimalMatches = segment.getPayment() == fixed.getAmortizationSchedule().getPayment()
+                    && segment.getInterest() == scheduleInterest(fixed);
+        }
+        report("In decimal mode a loan with no resets matches its amortization schedule",
+                decimalMatches);
+
+        arm.setRateSchedule(RateSchedule.periodic(5, 1, 6.5, 7.5, 4.25, 9));
+        arm.setPrecisionMode(PrecisionMode.DECIMAL);
+        AdjustableRateLoan.Segment[] cents = arm.calcSegments();
+        arm.setPrecisionMode(PrecisionMode.DOUBLE);
+        AdjustableRateLoan.Segment[] doubles = arm.calcSegments();
+        boolean exact = cents[cents.length - 1].getEndBalance() == 0;
+        double centsInterest = 0;
+        double doublesInterest = 0;
+        for (int k = 0; k < cents.length; k++) {
+            exact &= isCents(cents[k].getPayment()) && isCents(cents[k].getEndBalance())
+                    && isCents(cents[k].getInterest())
+                    && (k == 0 || cents[k].getStartBalance() == cents[k - 1].getEndBalance());
+            centsInterest += cents[k].getInterest();
+            doublesInterest += doubles[k].getInterest();
+        }
+        // Rounding each payment to the cent moves the interest by cents a
+        // period at most.
+        report("In decimal mode segments are kept in whole cents: " + centsInterest,
+                exact && Math.abs(centsInterest - doublesInterest) < 0.01 * 360);
+
+        boolean rejected = false;
+        try {
+            new RateSchedule().withReset(5, 6).withReset(5, 7);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        report("Resets out of order are rejected", rejected);
+
+        arm.setRateSchedule(RateSchedule.periodic(5, 1, 6.5, 7.5));
+        String text = arm.print();
+        report("The summary reports the resets and the highest payment",
+                text.contains("Adjustable-Rate Loan Summary") && text.contains("Rate Resets")
+                && text.contains("Highest Payment"));
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static boolean matchesIteration(AdjustableRateLoan loan) {
+        AdjustableRateLoan.Segment[] segments = loan.calcSegments();
+        double[] expected = iterate(loan);
+        double interest = 0;
+        double highest = 0;
+        for (AdjustableRateLoan.Segment segment : segments) {
+            interest += segment.getInterest();
+            highest = Math.max(highest, segment.getPayment());
+        }
+        AdjustableRateLoan.Segment last = segments[segments.length - 1];
+        return close(interest, expected[0]) && close(highest, expected[1])
+                && last.getStartPeriod() + last.getPeriods() == (int) expected[2];
+    }
+
+    // Interest, highest payment and number of payments of the loan, one
+    // period at a time.
+    private static double[] iterate(AdjustableRateLoan loan) {
+        RateSchedule schedule = loan.getRateSchedule();
+        double perYear = loan.getPaymentFrequency();
+        int total = (int) Math.round(loan.getYears() * perYear);
+        double balance = loan.getPurchaseAmount() - loan.getDownPayment();
+        double rate = periodRate(loan.getAPR(), loan.getCompoundingFrequency(), perYear);
+        double payment = 0;
+        double interest = 0;
+        double highest = 0;
+        int reset = 0;
+        for (int t = 0; t < total; t++) {
+            boolean changed = t == 0;
+            while (reset < schedule.size() && Math.round(schedule.getYears(reset) * perYear) <= t) {
+                if (Math.round(schedule.getYears(reset) * perYear) == t) {
+                    rate = periodRate(schedule.getAPR(reset), loan.getCompoundingFrequency(), perYear);
+                    changed = true;
+                }
+                reset++;
+            }
+            if (changed) {
+                payment = recast(balance, rate, total - t);
+                highest = Math.max(highest, payment);
+            }
+            double due = balance * rate;
+            interest += due;
+            balance += due - (t == total - 1 ? balance + due : payment);
+        }
+        return new double[]{interest, highest, total};
+    }
+
+    private static double periodRate(double apr, double compoundingPerYear, double paymentsPerYear) {
+        return Math.pow(1 + apr / 100 / compoundingPerYear, compoundingPerYear / paymentsPerYear) - 1;
+    }
+
+    private static double recast(double balance, double rate, int periods) {
+        return rate == 0 ? balance / periods : balance * rate / (1 - Math.pow(1 + rate, -periods));
+    }
+
+    private static double scheduleInterest(LoanPayment loan) {
+        AmortizationSchedule.Cursor cursor = loan.getAmortizationSchedule().cursor();
+        double interest = 0;
+        while (cursor.next()) {
+            interest = cursor.getCumulativeInterest();
+        }
+        return interest;
+    }
+
+    private static boolean isCents(double amount) {
+        return Math.abs(amount * 100 - Math.rint(amount * 100)) < 1e-6;
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(LoanPayment loan) {
+            super(loan.getPurchaseAmount(), loan.getDownPayment(), loan.getAPR(),
+                    loan.getCompounding(), loan.getYears());
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
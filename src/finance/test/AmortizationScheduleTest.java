@@ -0,0 +1,87 @@
+package finance.test;
+
+import finance.AmortizationSchedule;
+import finance.LoanPayment;
+import finance.enums.CompoundingOption;
+
+/**
+ * Test software for the AmortizationSchedule class. Each schedule is checked
+ * against the payment calculated by TVMEngine.calcPMT () and against the
+ * basic amortization identities.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class AmortizationScheduleTest {
+
+    private static final double TOLERANCE = 1e-6;
+
+    /**
+     * Test software for the AmortizationSchedule class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        int failures = 0;
+        failures += check(1, new Quote(350000, 0, 10, CompoundingOption.ANNUAL, 15));
+        failures += check(2, new Quote(350000, 50000, 10, CompoundingOption.MONTHLY, 15));
+        failures += check(3, new Quote(350000, 0, 10, CompoundingOption.WEEKLY, 30));
+        failures += check(4, new Quote(25000, 5000, 3.5, CompoundingOption.QUARTERLY, 5));
+        failures += check(5, new Quote(1000000, 0, 18, CompoundingOption.SEMIANNUAL, 1));
+
+        System.out.println("\nFirst rows of Test Case 2");
+        AmortizationSchedule.Cursor row = new LoanPayment(350000, 50000, 10,
+                CompoundingOption.MONTHLY, 15).getAmortizationSchedule().cursor();
+        for (int k = 0; k < 3 && row.next(); k++) {
+            System.out.println("Period " + row.getPeriod()
+                    + ": interest " + row.getInterest()
+                    + ", principal " + row.getPrincipal()
+                    + ", balance " + row.getBalance()
+                    + ", cumulative interest " + row.getCumulativeInterest());
+        }
+
+        System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+    }
+
+    private static int check(int testCase, Quote loan) {
+        AmortizationSchedule schedule = loan.getAmortizationSchedule();
+        int n = schedule.getPeriods();
+        double[] interest = new double[n];
+        double[] principal = new double[n];
+        double[] balance = new double[n];
+        double[] cumulative = new double[n];
+        schedule.fill(interest, principal, balance, cumulative);
+
+        boolean passed = schedule.getPayment() == -loan.payment();
+        double principalRepaid = 0;
+        AmortizationSchedule.Cursor row = schedule.cursor();
+        for (int k = 0; k < n; k++) {
+            passed &= row.next()
+                    && row.getInterest() == interest[k]
+                    && row.getBalance() == balance[k]
+                    && Math.abs(interest[k] + principal[k] - schedule.getPayment()) <= TOLERANCE;
+            principalRepaid += principal[k];
+        }
+        passed &= !row.next();
+        passed &= Math.abs(balance[n - 1]) <= TOLERANCE;
+        passed &= Math.abs(principalRepaid - schedule.getPrincipal()) <= TOLERANCE;
+        passed &= Math.abs(cumulative[n - 1]
+                - (n * schedule.getPayment() - schedule.getPrincipal())) <= TOLERANCE;
+
+        System.out.println("Schedule Test Case " + testCase + " (" + n + " periods): "
+                + (passed ? "PASS" : "FAIL"));
+        return passed ? 0 : 1;
+    }
+
+    // Exposes the protected calcPMT () so the schedule can be compared with it.
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchaseAmount, double downPayment, double interestRate,
+                CompoundingOption compounding, double loanDuration) {
+            super(purchaseAmount, downPayment, interestRate, compounding,
+                    loanDuration);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package finance.test;
+
+import finance.Investment;
+import finance.LoanPayment;
+import finance.batch.BatchPricer;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the BatchPricer class. Quote files are generated with a
+ * mix of compounding options and number formats, priced in bulk, and every
+ * result row is compared with LoanPayment or Investment results for the same
+ * quote. The timings are in BatchPricerBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class BatchPricerTest {
+
+    private static final int CHECKED_ROWS = 100000;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.SEMIANNUAL, CompoundingOption.QUARTERLY,
+        CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+
+    /**
+     * Test software for the BatchPricer class.
+     * @param args no command line arguments are used.
+     * @throws IOException if a temporary file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path input = Files.createTempFile("quotes", ".csv");
+        Path output = Files.createTempFile("results", ".csv");
+        try {
+            int failures = 0;
+            for (QuoteType type : QuoteType.values()) {
+                generate(input, CHECKED_ROWS, 3);
+                long count = new BatchPricer(type, 1000, 2).price(input, output);
+                int mismatches = verify(type, input, output);
+                System.out.println((mismatches == 0 && count == CHECKED_ROWS ? "PASS " : "FAIL ")
+                        + type + ": " + count + " quotes, " + mismatches + " mismatches");
+                failures += mismatches == 0 && count == CHECKED_ROWS ? 0 : 1;
+            }
+
+            Files.write(input, "purchase,down,apr,compounding,years\n350000,0,10,Monthly\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            try {
+                new BatchPricer(QuoteType.LOAN_PAYMENT).price(input, output);
+                System.out.println("FAIL malformed row was accepted");
+                failures++;
+            } catch (IllegalArgumentException e) {
+                System.out.println("PASS malformed row rejected: " + e.getMessage());
+            }
+
+            Files.write(input, ("purchase,down,apr,compounding,years\n350000,0,10,Monthly,30\n"
+                    + "350000,0,10,Custom,30\n").getBytes(StandardCharsets.US_ASCII));
+            try {
+                new BatchPricer(QuoteType.LOAN_PAYMENT).price(input, output);
+                System.out.println("FAIL CUSTOM row was accepted");
+                failures++;
+            } catch (IllegalArgumentException e) {
+                boolean passed = e.getMessage().startsWith("Line 3: ");
+                System.out.println((passed ? "PASS " : "FAIL ") + "CUSTOM row rejected: "
+                        + e.getMessage());
+                failures += passed ? 0 : 1;
+            }
+
+            // Small batches go round the stages many times; a stage that read
+            // a batch after queueing it would stop at a refilled batch.
+            generate(input, 2000, 5);
+            long count = 0;
+            for (int run = 0; run < 200; run++) {
+                count += new BatchPricer(QuoteType.LOAN_PAYMENT, 16, 2).price(input, output);
+            }
+            System.out.println((count == 200 * 2000 ? "PASS " : "FAIL ")
+                    + "small batches: " + count + " quotes in 200 runs");
+            failures += count == 200 * 2000 ? 0 : 1;
+
+            System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void generate(Path input, int rows, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(input, StandardCharsets.US_ASCII)) {
+            out.write("amount,second amount,apr,compounding,years\r\n");
+            for (int k = 0; k < rows; k++) {
+                double amount = random.nextInt(10000, 2000000) / 4.0;
+                double second = random.nextInt(0, 4000) * 25.0;
+                String apr = random.nextBoolean() ? Double.toString(random.nextInt(1, 2000) / 100.0)
+                        : Double.toString(random.nextDouble(0.5, 20));
+                CompoundingOption option = OPTIONS[random.nextInt(OPTIONS.length)];
+                String compounding = random.nextBoolean() ? option.name() : option.getTitleCaseText();
+                int years = random.nextInt(1, 41);
+                out.write(amount + ", " + second + "," + apr + "," + compounding + ","
+                        + (random.nextInt(10) == 0 ? years + "e0" : Integer.toString(years)) + "\n");
+                if (random.nextInt(1000) == 0) {
+                    out.write("\n");
+                }
+            }
+        }
+    }
+
+    private static int verify(QuoteType type, Path input, Path output) throws IOException {
+        int mismatches = 0;
+        try (BufferedReader quotes = Files.newBufferedReader(input, StandardCharsets.US_ASCII);
+                BufferedReader results = Files.newBufferedReader(output, StandardCharsets.US_ASCII)) {
+            quotes.readLine();
+            results.readLine();
+            long line = 1;
+            String quote;
+            while ((quote = quotes.readLine()) != null) {
+                line++;
+                if (quote.isEmpty()) {
+                    continue;
+                }
+                String[] fields = quote.split(",");
+                double first = Double.parseDouble(fields[0].trim());
+                double second = Double.parseDouble(fields[1].trim());
+                double apr = Double.parseDouble(fields[2]);
+                CompoundingOption compounding = CompoundingOption.valueOf(fields[3].toUpperCase());
+                double years = Double.parseDouble(fields[4]);
+                double value = type == QuoteType.LOAN_PAYMENT
+                        ? -new Quote(first, second, apr, compounding, years).payment()
+                        : -new Projection(first, second, apr, compounding, years).futureValue();
+                String expected = line + "," + BigDecimal.valueOf(value)
+                        .setScale(2, RoundingMode.HALF_UP).toPlainString();
+                String actual = results.readLine();
+                if (!expected.equals(actual)) {
+                    if (mismatches++ < 5) {
+                        System.out.println("  expected " + expected + " but was " + actual);
+                    }
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+
+    private static class Projection extends Investment {
+
+        Projection(double initial, double periodic, double apr, CompoundingOption compounding, double years) {
+            super(initial, periodic, apr, compounding, years);
+        }
+
+        double futureValue() {
+            return calcFV();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package finance.test;
+
+import static finance.test.Checks.allocatedBytes;
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.CashFlowAnalysis;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the CashFlowAnalysis class. NPV and XNPV are compared
+ * with sums of discounted flows, IRR and XIRR are checked against TVM
+ * scenarios, published spreadsheet examples and rates chosen in advance, and
+ * the functions are checked not to allocate on series of 10,000 flows. The
+ * timings are in CashFlowAnalysisBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class CashFlowAnalysisTest {
+
+    private static final int SCENARIOS = 20000;
+    private static final int SERIES_FLOWS = 10000;
+    private static final int REPEATS = 200;
+
+    /**
+     * Test software for the CashFlowAnalysis class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        CashFlowAnalysis analysis = new CashFlowAnalysis();
+        SplittableRandom random = new SplittableRandom(24);
+        CompoundingOption[] options = {CompoundingOption.ANNUAL, CompoundingOption.QUARTERLY,
+            CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+
+        double maxNPV = 0;
+        double maxRateError = 0;
+        for (int k = 0; k < SCENARIOS; k++) {
+            CompoundingOption compounding = options[random.nextInt(options.length)];
+            double apr = random.nextInt(1, 2500) / 100.0;
+            double years = random.nextInt(1, 31);
+            TVMScenario scenario;
+            if (k % 2 == 0) {
+                scenario = new TVMScenario(years, apr, compounding,
+                        random.nextInt(1000, 1000000), 0, 0);
+                scenario = scenario.withPMT(scenario.calcPMT());
+            } else {
+                scenario = new TVMScenario(years, apr, compounding,
+                        -random.nextInt(0, 10000), -random.nextInt(10, 1000), 0);
+                scenario = scenario.withFV(scenario.calcFV());
+            }
+            double[] flows = new double[(int) Math.round(scenario.getPeriods()) + 1];
+            Arrays.fill(flows, scenario.getPMT());
+            flows[0] = scenario.getPV();
+            flows[flows.length - 1] += scenario.getFV();
+            double scale = Math.abs(scenario.getPV()) + Math.abs(scenario.getPMT() * flows.length);
+            maxNPV = Math.max(maxNPV,
+                    Math.abs(CashFlowAnalysis.npv(scenario.getPeriodRate(), flows)) / scale);
+            maxRateError = Math.max(maxRateError,
+                    Math.abs(analysis.irr(flows) - scenario.getPeriodRate()));
+        }
+        report("TVM scenario flows have zero NPV at their rate: " + maxNPV, maxNPV < 1e-12);
+        report("IRR recovers the rate of TVM scenarios: " + maxRateError, maxRateError < 1e-10);
+
+        double[] project = {-70000, 12000, 15000, 18000, 21000, 26000};
+        report("IRR of the spreadsheet example is 8.66%",
+                Math.abs(analysis.irr(project) - 0.0866309480365) < 1e-12);
+        double[] payback = {-70000, 12000, 15000, 18000, 21000};
+        report("IRR of a project that does not pay back is -2.12%",
+                Math.abs(analysis.irr(payback) + 0.0212448482) < 1e-10);
+        long[] dates = {day(2008, 1, 1), day(2008, 3, 1), day(2008, 10, 30), day(2009, 2, 15),
+            day(2009, 4, 1)};
+        double[] dated = {-10000, 2750, 4250, 3250, 2750};
+        report("XNPV of the spreadsheet example is 2,086.65",
+                Math.abs(CashFlowAnalysis.xnpv(0.09, dated, dates) - 2086.647602) < 1e-6);
+        report("XIRR of the spreadsheet example is 37.34%",
+                Math.abs(analysis.xirr(dated, dates) - 0.3733625335) < 1e-9);
+        report("Flows that do not change sign have no IRR",
+                Double.isNaN(analysis.irr(new double[]{100, 200}))
+                && Double.isNaN(analysis.xirr(new double[]{-100, 0}, new long[]{0, 30})));
+        boolean rejected = false;
+        try {
+            CashFlowAnalysis.xnpv(0.05, dated, new long[]{5, 4, 3, 2, 1});
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        report("Dates out of order are rejected", rejected);
+
+        // Long series: NPV against pow () sums, and IRR and XIRR against
+        // rates the series were built to have, including negative rates.
+        double[] series = new double[SERIES_FLOWS];
+        long[] days = new long[SERIES_FLOWS];
+        double maxNPVError = 0;
+        double maxXNPVError = 0;
+        double maxIRRError = 0;
+        double maxXIRRError = 0;
+        for (int k = 0; k < 50; k++) {
+            double rate = random.nextInt(-50, 2000) / 1e5;
+            double annualRate = random.nextInt(-50, 300) / 1e3;
+            randomSeries(random, series, days);
+            maxNPVError = Math.max(maxNPVError, Math.abs(CashFlowAnalysis.npv(rate, series)
+                    - powNPV(rate, series)) / magnitude(rate, series, null));
+            maxXNPVError = Math.max(maxXNPVError,
+                    Math.abs(CashFlowAnalysis.xnpv(annualRate, series, days)
+                    - powXNPV(annualRate, series, days)) / magnitude(annualRate, series, days));
+            series[0] -= powNPV(rate, series);
+            maxIRRError = Math.max(maxIRRError, Math.abs(analysis.irr(series) - rate));
+            randomSeries(random, series, days);
+            series[0] -= powXNPV(annualRate, series, days);
+            maxXIRRError = Math.max(maxXIRRError,
+                    Math.abs(analysis.xirr(series, days) - annualRate));
+        }
+        report("NPV of " + SERIES_FLOWS + " flows matches pow (): " + maxNPVError,
+                maxNPVError < 1e-12);
+        report("XNPV of " + SERIES_FLOWS + " flows matches pow (): " + maxXNPVError,
+                maxXNPVError < 1e-11);
+        report("IRR of " + SERIES_FLOWS + " flows recovers the rate: " + maxIRRError,
+                maxIRRError < 1e-10);
+        report("XIRR of " + SERIES_FLOWS + " flows recovers the rate: " + maxXIRRError,
+                maxXIRRError < 1e-9);
+
+        // Once compiled, the long series functions must not allocate.
+        double sink = 0;
+        long allocated = 0;
+        // What reading the counter itself allocates.
+        long counter = -allocatedBytes() + allocatedBytes();
+        randomSeries(random, series, days);
+        series[0] -= powNPV(0.004, series);
+        double[] datedSeries = series.clone();
+        datedSeries[0] -= powXNPV(0.08, datedSeries, days);
+        for (int round = 0; round < 5; round++) {
+            long bytes = allocatedBytes();
+            for (int k = 0; k < REPEATS; k++) {
+                sink += CashFlowAnalysis.npv(0.004 + k * 1e-6, series)
+                        + CashFlowAnalysis.xnpv(0.08 + k * 1e-6, series, days)
+                        + analysis.irr(series) + analysis.xirr(datedSeries, days);
+            }
+            allocated = allocatedBytes() - bytes - counter;
+        }
+        report("NPV, XNPV, IRR and XIRR allocate nothing: " + allocated + " bytes",
+                allocated == 0 && !Double.isNaN(sink));
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+
+    // An outflow followed by mostly positive flows, dated every few days.
+    private static void randomSeries(SplittableRandom random, double[] flows, long[] days) {
+        flows[0] = -random.nextInt(100000, 10000000);
+        days[0] = day(2000, 1, 1);
+        for (int j = 1; j < flows.length; j++) {
+            flows[j] = random.nextInt(-500, 5000);
+            days[j] = days[j - 1] + random.nextInt(1, 8);
+        }
+    }
+
+    private static double powNPV(double rate, double[] flows) {
+        double npv = 0;
+        for (int t = 0; t < flows.length; t++) {
+            npv += flows[t] / Math.pow(1 + rate, t);
+        }
+        return npv;
+    }
+
+    private static double powXNPV(double rate, double[] flows, long[] days) {
+        double npv = 0;
+        for (int j = 0; j < flows.length; j++) {
+            npv += flows[j] / Math.pow(1 + rate, (days[j] - days[0]) / 365.0);
+        }
+        return npv;
+    }
+
+    // The present value of the flows, all taken as positive: the scale of
+    // the rounding error in an NPV.
+    private static double magnitude(double rate, double[] flows, long[] days) {
+        double size = 0;
+        for (int j = 0; j < flows.length; j++) {
+            double time = days == null ? j : (days[j] - days[0]) / 365.0;
+            size += Math.abs(flows[j]) / Math.pow(1 + rate, time);
+        }
+        return size;
+    }
+
+    private static long day(int year, int month, int dayOfMonth) {
+        return LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
@@ -0,0 +1,62 @@
+package finance.test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The reporting and comparisons shared by the test programs. Each check is
+ * printed as PASS or FAIL with its name, and printSummary () ends a program
+ * with the number of checks that failed. Timings do not belong in the test
+ * programs: the benchmarks are in the JMH source set (see build.xml).
+ * @author koluongMBP
+ * @version 261016
+ */
+final class Checks {
+
+    private static int failures;
+
+    private Checks() {
+    }
+
+    /**
+     * Prints the outcome of a check and counts it if it failed.
+     * @param name what was checked, with any value worth seeing
+     * @param passed true if the check passed
+     */
+    static void report(String name, boolean passed) {
+        System.out.println((passed ? "PASS " : "FAIL ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    /**
+     * Prints whether every check reported so far passed.
+     */
+    static void printSummary() {
+        System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+    }
+
+    /**
+     * Compares two results to a relative tolerance of 1e-9, taken as absolute
+     * for results smaller than one.
+     * @param actual the result checked
+     * @param expected the result it should have
+     * @return true if the results agree
+     */
+    static boolean close(double actual, double expected) {
+        return Math.abs(actual - expected) <= 1e-9 * Math.max(1, Math.abs(expected));
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     * @return the bytes allocated, or 0 if the JVM does not say
+     */
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
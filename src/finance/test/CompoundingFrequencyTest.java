@@ -0,0 +1,125 @@
+package finance.test;
+
+import static finance.test.Checks.close;
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.LoanPayment;
+import finance.TVMBatch;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+
+/**
+ * Test software for compounding frequencies. The original compounding options
+ * must agree with the formula used before daily, continuous and custom
+ * compounding were added. The new frequencies, and payment frequencies that
+ * differ from the compounding frequency, are checked against their closed
+ * forms.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class CompoundingFrequencyTest {
+
+    /**
+     * Test software for compounding frequencies.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        CompoundingOption[] legacy = {CompoundingOption.ANNUAL, CompoundingOption.SEMIANNUAL,
+            CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+        int mismatches = 0;
+        for (CompoundingOption compounding : legacy) {
+            for (double apr = 0.25; apr <= 20; apr += 0.25) {
+                for (int years = 1; years <= 40; years++) {
+                    double payment = new Quote(350000, 50000, apr, compounding, years).payment();
+                    if (!close(payment, legacyPayment(300000, apr, compounding, years))) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        report("Legacy compounding options unchanged: " + mismatches + " mismatches",
+                mismatches == 0);
+
+        double rate = 0.06;
+        TVMScenario continuous = new TVMScenario()
+                .withCompounding(CompoundingOption.CONTINUOUS)
+                .withAPR(rate * 100)
+                .withYears(10)
+                .withPV(-1000);
+        double fv = continuous.calcFV();
+        report("Continuous compounding: FV " + fv,
+                close(fv, 1000 * Math.exp(rate * 10)));
+
+        TVMScenario daily = new TVMScenario()
+                .withCompounding(CompoundingOption.DAILY)
+                .withPaymentFrequency(12)
+                .withAPR(rate * 100)
+                .withYears(30)
+                .withPV(250000);
+        double monthlyRate = Math.pow(1 + rate / 365, 365.0 / 12) - 1;
+        double expected = -250000 * monthlyRate / (1 - Math.pow(1 + monthlyRate, -360));
+        double payment = daily.calcPMT();
+        report("Daily compounding, monthly payments: PMT " + payment,
+                close(payment, expected));
+        report("Daily compounding, monthly payments: years " + daily.withPMT(payment).calcYears(),
+                close(daily.withPMT(payment).calcYears(), 30));
+
+        TVMScenario custom = new TVMScenario()
+                .withCompoundingFrequency(6)
+                .withPaymentFrequency(24)
+                .withAPR(7.5)
+                .withYears(15)
+                .withPV(100000);
+        double apr = custom.withPMT(custom.calcPMT()).withAPR(0).calcAPR();
+        report("Custom frequency " + custom.getCompounding() + ": APR round trip " + apr,
+                close(apr, 7.5));
+        report("Matching frequency selects option: "
+                + new TVMScenario().withCompoundingFrequency(365).getCompounding(),
+                new TVMScenario().withCompoundingFrequency(365).getCompounding()
+                == CompoundingOption.DAILY);
+
+        boolean rejected = false;
+        try {
+            new TVMScenario().withCompounding(CompoundingOption.CUSTOM);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        report("CUSTOM without a frequency rejected", rejected);
+
+        for (CompoundingOption compounding : new CompoundingOption[]{
+            CompoundingOption.BIWEEKLY, CompoundingOption.DAILY_360}) {
+            double[] pv = {200000}, pmt = new double[1];
+            TVMBatch.calcPMT(compounding, new double[]{20}, new double[]{5}, pv,
+                    new double[]{0}, pmt, 0, 1);
+            double scalar = new TVMScenario().withCompounding(compounding)
+                    .withAPR(5).withYears(20).withPV(200000).calcPMT();
+            report(compounding.getTitleCaseText() + " batch PMT " + pmt[0],
+                    Double.doubleToLongBits(pmt[0]) == Double.doubleToLongBits(scalar));
+        }
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+
+    private static double legacyPayment(double pv, double apr, CompoundingOption compounding,
+            double years) {
+        double periodsPerYear = compounding.getPeriodsPerYear();
+        double i = (apr / 100.0) / periodsPerYear;
+        double df = Math.pow(1 + i, years * periodsPerYear);
+        return -pv * i / (1 - 1 / df);
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package finance.test;
+
+import finance.CurrencyFormatter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the CurrencyFormatter class. For several locales the
+ * formatter output is compared with rounding through BigDecimal and formatting
+ * with NumberFormat.getCurrencyInstance (), the way TVMEngine.toCurrency ()
+ * formatted values before CurrencyFormatter was introduced. The timings are
+ * in FormattingBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class CurrencyFormatterTest {
+
+    private static final int RANDOM_VALUES = 200000;
+
+    /**
+     * Test software for the CurrencyFormatter class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        Locale[] locales = {Locale.getDefault(Locale.Category.FORMAT), Locale.US,
+            Locale.UK, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN, Locale.ITALY,
+            new Locale("de", "CH"), new Locale("en", "IN"), new Locale("ar", "EG")};
+        double[] edges = {0, -0.0, 0.005, -0.005, 0.004999, 0.015, 0.025, 1.005,
+            2.675, -2.675, 0.5, 1234.565, 999.995, 999999.995, 1e13 + 0.125,
+            1e14, 1e15, -1e15, 1e20, Double.MIN_VALUE, -Double.MIN_VALUE,
+            Double.MAX_VALUE, 350000, -1877.3434343, 3057.1234, 0.1 + 0.2};
+
+        int failures = 0;
+        for (Locale locale : locales) {
+            CurrencyFormatter formatter = CurrencyFormatter.getInstance(locale);
+            NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+            int mismatches = 0;
+            for (double value : edges) {
+                mismatches += compare(formatter, format, value);
+            }
+            SplittableRandom random = new SplittableRandom(locale.hashCode());
+            for (int k = 0; k < RANDOM_VALUES; k++) {
+                mismatches += compare(formatter, format, randomValue(random));
+            }
+            System.out.println((mismatches == 0 ? "PASS " : "FAIL ") + locale
+                    + ": " + formatter.format(-1234567.891) + " / "
+                    + formatter.format(0.125) + " (" + mismatches + " mismatches)");
+            failures += mismatches == 0 ? 0 : 1;
+        }
+
+        System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+    }
+
+    private static int compare(CurrencyFormatter formatter, NumberFormat format, double value) {
+        String expected = legacyFormat(format, value);
+        String actual = formatter.format(value);
+        if (!expected.equals(actual)) {
+            System.out.println("  " + value + ": expected " + expected + " but was " + actual);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static String legacyFormat(NumberFormat format, double value) {
+        return format.format(BigDecimal.valueOf(value).setScale(
+                format.getMaximumFractionDigits(), RoundingMode.HALF_UP));
+    }
+
+    // Mixes arbitrary doubles, values with few decimal places (many of them
+    // exact HALF_UP ties) and magnitudes from fractions of a cent to 1e16.
+    private static double randomValue(SplittableRandom random) {
+        double magnitude = Math.pow(10, random.nextInt(-3, 17));
+        double value = random.nextDouble() * magnitude;
+        if (random.nextBoolean()) {
+            value = Math.floor(value * 1000) / 1000;
+        }
+        return random.nextBoolean() ? value : -value;
+    }
+}
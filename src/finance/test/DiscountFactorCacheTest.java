@@ -0,0 +1,84 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.DiscountFactorCache;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the DiscountFactorCache class. Cached growth factors are
+ * compared bit for bit with the uncached calculation, least recently used
+ * eviction and the hit, miss and eviction counts are checked on a cache of a
+ * single set, and clear () is checked to empty the cache.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class DiscountFactorCacheTest {
+
+    private static final int LOOKUPS = 200000;
+
+    /**
+     * Test software for the DiscountFactorCache class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(5);
+        DiscountFactorCache cache = new DiscountFactorCache(256);
+        boolean exact = true;
+        for (int k = 0; k < LOOKUPS; k++) {
+            // Few enough keys that most lookups hit, and enough to evict.
+            double periodRate = random.nextInt(0, 40) / 1e4;
+            double periods = random.nextInt(1, 13) * 12;
+            double expected = Math.expm1(periods * Math.log1p(periodRate));
+            exact &= Double.doubleToLongBits(cache.growth(periodRate, periods))
+                    == Double.doubleToLongBits(expected)
+                    && cache.discountFactor(periodRate, periods) == 1 + expected;
+        }
+        report("Cached growth factors match the calculation bit for bit", exact);
+        report("Hits and misses add up to the lookups: " + cache.getHitCount() + " hits, "
+                + cache.getMissCount() + " misses, " + cache.getEvictionCount() + " evictions",
+                cache.getHitCount() + cache.getMissCount() == 2L * LOOKUPS
+                && cache.getHitCount() > 0 && cache.getEvictionCount() > 0
+                // Every miss fills an entry, so those not evicted are still held.
+                && cache.getMissCount() - cache.getEvictionCount() <= cache.getMaximumSize());
+
+        // The smallest cache is a single set, so every key competes for the
+        // same four entries.
+        DiscountFactorCache set = new DiscountFactorCache(1);
+        report("The smallest cache holds one set of 4", set.getMaximumSize() == 4);
+        for (int key = 1; key <= 4; key++) {
+            set.growth(0.01, key);
+        }
+        set.growth(0.01, 1);
+        set.growth(0.01, 5);
+        boolean leastRecent = set.getMissCount() == 5 && set.getHitCount() == 1
+                && set.getEvictionCount() == 1;
+        set.growth(0.01, 1);
+        set.growth(0.01, 3);
+        set.growth(0.01, 4);
+        set.growth(0.01, 5);
+        leastRecent &= set.getMissCount() == 5 && set.getHitCount() == 5;
+        set.growth(0.01, 2);
+        leastRecent &= set.getMissCount() == 6 && set.getEvictionCount() == 2;
+        report("A full set evicts its least recently used entry", leastRecent);
+        report("Hit ratio: " + set.getHitRatio(), set.getHitRatio() == 5.0 / 11);
+
+        set.clear();
+        set.growth(0.01, 2);
+        set.growth(0.01, 2);
+        report("clear () empties the cache and keeps the counts",
+                set.getMissCount() == 7 && set.getHitCount() == 6
+                && set.getEvictionCount() == 2);
+
+        boolean rejected = false;
+        try {
+            new DiscountFactorCache(0);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        report("A maximum size below 1 is rejected", rejected);
+
+        printSummary();
+    }
+}
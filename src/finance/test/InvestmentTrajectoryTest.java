@@ -0,0 +1,83 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.Investment;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import java.util.Random;
+
+/**
+ * Test software for Investment.fillTrajectory () and Investment.balances ().
+ * The balance at every period, evaluated with a running recurrence, is
+ * compared with calcFV () called once per horizon, and the stream of
+ * balances is compared with the array. The timings are in
+ * InvestmentTrajectoryBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class InvestmentTrajectoryTest {
+
+    private static final int PORTFOLIOS = 1000;
+
+    /**
+     * Test software for Investment.fillTrajectory () and Investment.balances ().
+     * @param args optional number of portfolios.
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : PORTFOLIOS;
+        Random random = new Random(161012);
+        Investment[] portfolios = new Investment[count];
+        int maxPeriods = 0;
+        for (int i = 0; i < count; i++) {
+            portfolios[i] = new Investment(random.nextInt(50000), 10 + random.nextInt(1000),
+                    1 + random.nextInt(1200) / 100.0, CompoundingOption.WEEKLY,
+                    10 + random.nextInt(21));
+            maxPeriods = Math.max(maxPeriods, portfolios[i].getPeriods());
+        }
+        double[] recurrence = new double[maxPeriods];
+        double[] naive = new double[maxPeriods];
+
+        long points = 0;
+        double maxRelativeError = 0;
+        int streamMismatches = 0;
+        for (Investment portfolio : portfolios) {
+            portfolio.fillTrajectory(null, null, recurrence);
+            naiveTrajectory(portfolio, naive);
+            for (int k = 0; k < portfolio.getPeriods(); k++) {
+                maxRelativeError = Math.max(maxRelativeError,
+                        Math.abs(recurrence[k] - naive[k]) / Math.abs(naive[k]));
+            }
+            points += portfolio.getPeriods();
+            streamMismatches += streamMatches(portfolio, recurrence) ? 0 : 1;
+        }
+
+        report("Recurrence matches calcFV () on " + points + " balances, max relative diff "
+                + maxRelativeError, maxRelativeError <= 1e-9);
+        report("balances () matches fillTrajectory () on " + count + " portfolios, "
+                + streamMismatches + " mismatches", streamMismatches == 0);
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    // Recomputes the future value from scratch for every horizon.
+    private static void naiveTrajectory(Investment portfolio, double[] balance) {
+        TVMScenario scenario = portfolio.getScenario();
+        double periodsPerYear = scenario.getCompounding().getPeriodsPerYear();
+        for (int k = 0; k < portfolio.getPeriods(); k++) {
+            balance[k] = -scenario.withYears((k + 1) / periodsPerYear).calcFV();
+        }
+    }
+
+    private static boolean streamMatches(Investment portfolio, double[] balance) {
+        double[] streamed = portfolio.balances().toArray();
+        for (int k = 0; k < streamed.length; k++) {
+            if (streamed[k] != balance[k]) {
+                return false;
+            }
+        }
+        return streamed.length == portfolio.getPeriods();
+    }
+}
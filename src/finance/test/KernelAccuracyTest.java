@@ -0,0 +1,145 @@
+package finance.test;
+
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.SplittableRandom;
+
+/**
+ * Accuracy test software for the TVM formulas. Randomly generated scenarios
+ * are solved for PMT, FV and PV and compared with a reference calculated in
+ * 50-digit BigDecimal arithmetic from the same double inputs. Errors are
+ * measured relative to the size of the cash flows that make up each result,
+ * so that cancellation between large cash flows, which no formula can avoid,
+ * is not counted against the formulas. Scenarios are
+ * drawn from four families: a zero rate, rates near zero, ordinary rates and
+ * small negative rates, each over terms of up to 40 years with compounding
+ * up to daily. The error of the formulas used before the log1p/expm1 kernel
+ * is reported alongside for comparison.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class KernelAccuracyTest {
+
+    private static final MathContext REFERENCE = new MathContext(50);
+    private static final int SAMPLES = 20000;
+    private static final double MAX_RELATIVE_ERROR = 1e-14;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.SEMIANNUAL, CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY,
+        CompoundingOption.BIWEEKLY, CompoundingOption.WEEKLY, CompoundingOption.DAILY_360,
+        CompoundingOption.DAILY};
+
+    private static int failures;
+
+    /**
+     * Accuracy test software for the TVM formulas.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(20261016L);
+        check("Zero rate", random, 0, 0);
+        check("Rates near zero", random, 1e-10, 1e-2);
+        check("Ordinary rates", random, 0.1, 30);
+        check("Small negative rates", random, -2, -1e-6);
+
+        System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+
+    // Checks SAMPLES scenarios with an APR drawn log-uniformly from
+    // [minimum, maximum] (or its negative), or exactly zero if both are zero.
+    private static void check(String name, SplittableRandom random, double minimum,
+            double maximum) {
+        double maxError = 0;
+        double maxLegacyError = 0;
+        int legacyNaN = 0;
+        int worst = 0;
+        for (int k = 0; k < SAMPLES; k++) {
+            CompoundingOption compounding = OPTIONS[random.nextInt(OPTIONS.length)];
+            double apr = aprBetween(random, minimum, maximum);
+            int years = 1 + random.nextInt(40);
+            double pv = Math.rint(random.nextDouble(1000, 2000000));
+            double fv = random.nextBoolean() ? 0 : -Math.rint(random.nextDouble(0, pv));
+            double pmt = -Math.rint(random.nextDouble(10, 10000));
+
+            TVMScenario scenario = new TVMScenario().withCompounding(compounding)
+                    .withAPR(apr).withYears(years);
+            double i = scenario.getPeriodRate();
+            int n = (int) scenario.getPeriods();
+            BigDecimal[] reference = reference(i, n, pv, pmt, fv);
+
+            double[] actual = {
+                scenario.withPV(pv).withFV(fv).calcPMT(),
+                scenario.withPV(pv).withPMT(pmt).calcFV(),
+                scenario.withPMT(pmt).withFV(fv).calcPV()};
+            double df = Math.pow(1 + i, n);
+            double[] legacy = {
+                (-pv - fv / df) * i / (1 - 1 / df),
+                (-pv - (pmt / i) * (1 - 1 / df)) * df,
+                -fv / df - (pmt / i) * (1 - 1 / df)};
+            for (int r = 0; r < 3; r++) {
+                double error = relativeError(actual[r], reference[r], reference[r + 3]);
+                if (!(error <= maxError)) {
+                    maxError = error;
+                    worst = k;
+                }
+                double legacyError = relativeError(legacy[r], reference[r], reference[r + 3]);
+                if (Double.isNaN(legacyError)) {
+                    legacyNaN++;
+                } else {
+                    maxLegacyError = Math.max(maxLegacyError, legacyError);
+                }
+            }
+        }
+        boolean passed = maxError <= MAX_RELATIVE_ERROR;
+        System.out.println((passed ? "PASS " : "FAIL ") + name + ": " + SAMPLES
+                + " scenarios, max relative error " + maxError
+                + (passed ? "" : " (scenario " + worst + ")")
+                + "; previous formulas " + maxLegacyError + ", " + legacyNaN + " NaN");
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static double aprBetween(SplittableRandom random, double minimum, double maximum) {
+        if (minimum == 0 && maximum == 0) {
+            return 0;
+        }
+        double low = Math.log(Math.abs(minimum));
+        double high = Math.log(Math.abs(maximum));
+        double magnitude = Math.exp(Math.min(low, high) + random.nextDouble() * Math.abs(high - low));
+        return minimum < 0 ? -magnitude : magnitude;
+    }
+
+    // PMT, FV and PV from the closed forms evaluated in BigDecimal, with the
+    // exact zero-rate forms when i is zero, followed by the sum of the
+    // magnitudes of the terms that make up each of them.
+    private static BigDecimal[] reference(double periodRate, int n, double pv, double pmt,
+            double fv) {
+        BigDecimal i = new BigDecimal(periodRate);
+        BigDecimal df = BigDecimal.ONE.add(i).pow(n, REFERENCE);
+        BigDecimal annuity = periodRate == 0 ? BigDecimal.valueOf(n)
+                : df.subtract(BigDecimal.ONE).divide(i, REFERENCE);
+        BigDecimal pvTerm = new BigDecimal(pv).multiply(df);
+        BigDecimal pmtTerm = new BigDecimal(pmt).multiply(annuity);
+        BigDecimal fvTerm = new BigDecimal(fv);
+        return new BigDecimal[]{
+            pvTerm.add(fvTerm).negate().divide(annuity, REFERENCE),
+            pvTerm.add(pmtTerm).negate(),
+            fvTerm.add(pmtTerm).negate().divide(df, REFERENCE),
+            pvTerm.abs().add(fvTerm.abs()).divide(annuity.abs(), REFERENCE),
+            pvTerm.abs().add(pmtTerm.abs()),
+            fvTerm.abs().add(pmtTerm.abs()).divide(df, REFERENCE)};
+    }
+
+    private static double relativeError(double actual, BigDecimal expected, BigDecimal scale) {
+        if (Double.isNaN(actual) || Double.isInfinite(actual)) {
+            return Double.NaN;
+        }
+        BigDecimal error = new BigDecimal(actual).subtract(expected).abs();
+        return error.divide(scale, REFERENCE).doubleValue();
+    }
+}
@@ -0,0 +1,244 @@
+package finance.test;
+
+import static finance.test.Checks.close;
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.AmortizationSchedule;
+import finance.LoanPayment;
+import finance.LoanPortfolio;
+import finance.enums.CompoundingOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test software for the LoanPortfolio class. Portfolio totals are compared
+ * with totals calculated loan by loan from LoanPayment objects, the cash flow
+ * ladder is checked against the loans it merges, results are compared across
+ * thread counts on a large book, and running totals are checked through a
+ * stream of changes, on the large book as well. The timings are in
+ * LoanPortfolioBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class LoanPortfolioTest {
+
+    private static final int CHECKED_LOANS = 50000;
+    private static final int BOOK_LOANS = 1000000;
+    private static final int UPDATES = 100000;
+
+    /**
+     * Test software for the LoanPortfolio class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(22);
+        // Every option except CUSTOM, which needs a compounding frequency.
+        CompoundingOption[] options = Arrays.copyOfRange(CompoundingOption.values(), 1,
+                CompoundingOption.values().length);
+
+        LoanPortfolio portfolio = new LoanPortfolio(16);
+        int optionCount = CompoundingOption.values().length;
+        long[] count = new long[optionCount];
+        double[] principal = new double[optionCount];
+        double[] payment = new double[optionCount];
+        double weighted = 0;
+        double totalPrincipal = 0;
+        double interest = 0;
+        for (int k = 0; k < CHECKED_LOANS; k++) {
+            LoanPayment loan = randomLoan(random, options);
+            portfolio.add(loan);
+            double due = -new Quote(loan).payment();
+            double financed = loan.getScenario().getPV();
+            int option = loan.getCompounding().ordinal();
+            count[option]++;
+            principal[option] += financed;
+            payment[option] += due;
+            weighted += financed * loan.getAPR();
+            totalPrincipal += financed;
+            interest += scheduleInterest(loan);
+        }
+        LoanPayment custom = new LoanPayment(20000, 0, 7, CompoundingOption.MONTHLY, 5);
+        custom.setCompoundingFrequency(3);
+        int customIndex = portfolio.add(custom);
+        double customPayment = -custom.getScenario().calcPMT();
+        count[CompoundingOption.CUSTOM.ordinal()]++;
+        principal[CompoundingOption.CUSTOM.ordinal()] += 20000;
+        payment[CompoundingOption.CUSTOM.ordinal()] += customPayment;
+        weighted += 20000 * custom.getAPR();
+        totalPrincipal += 20000;
+        interest += scheduleInterest(custom);
+
+        LoanPortfolio.Summary summary = portfolio.summarize();
+        boolean bucketsMatch = summary.getLoanCount() == CHECKED_LOANS + 1;
+        for (CompoundingOption option : CompoundingOption.values()) {
+            int k = option.ordinal();
+            bucketsMatch &= summary.getLoanCount(option) == count[k]
+                    && close(summary.getTotalPrincipal(option), principal[k])
+                    && close(summary.getTotalPayment(option), payment[k]);
+        }
+        report("Totals by compounding option match the loans", bucketsMatch);
+        report("Weighted-average APR: " + summary.getWeightedAverageAPR(),
+                close(summary.getWeightedAverageAPR(), weighted / totalPrincipal));
+        report("Total interest: " + summary.getTotalInterest(),
+                close(summary.getTotalInterest(), interest));
+        report("A custom compounding frequency is kept",
+                portfolio.getCompounding(customIndex) == CompoundingOption.CUSTOM
+                && portfolio.getPayment(customIndex) == customPayment);
+
+        LoanPortfolio.CashFlowLadder ladder = portfolio.ladder(12);
+        double paid = 0;
+        double repaid = 0;
+        double received = 0;
+        for (int k = 0; k < ladder.getPeriods(); k++) {
+            paid += ladder.getPayment(k);
+            repaid += ladder.getPrincipal(k);
+            received += ladder.getInterest(k);
+        }
+        report("Ladder repays the principal: " + repaid, close(repaid, summary.getTotalPrincipal()));
+        report("Ladder payments are principal plus interest", close(paid, repaid + received));
+        report("Ladder interest matches the total interest: " + received,
+                close(received, summary.getTotalInterest()));
+
+        LoanPortfolio mixed = new LoanPortfolio();
+        mixed.add(1200, 0, 0, CompoundingOption.MONTHLY, 1);
+        mixed.add(1000, 0, 0, CompoundingOption.QUARTERLY, 1);
+        mixed.add(520, 0, 0, CompoundingOption.WEEKLY, 1);
+        mixed.add(500, 0, 0, CompoundingOption.SEMIANNUAL, 0.5);
+        double[] months = mixed.ladder(12).getPayments();
+        // Weeks 1-4 fall in the first month and week 13 at the end of the
+        // third, so every third month has five weekly payments.
+        int[] weeks = {4, 4, 5, 4, 4, 5, 4, 4, 5, 4, 4, 5};
+        boolean merged = months.length == 12;
+        for (int k = 0; k < 12 && merged; k++) {
+            double month = 100 + 10 * weeks[k] + (k % 3 == 2 ? 250 : 0) + (k == 5 ? 500 : 0);
+            merged = close(months[k], month);
+        }
+        report("Mixed payment frequencies are merged into monthly periods: "
+                + Arrays.toString(months), merged);
+
+        report("Running totals match a full recalculation",
+                same(portfolio.totals(), portfolio.summarize()));
+        int[] live = new int[portfolio.size()];
+        for (int k = 0; k < live.length; k++) {
+            live[k] = k;
+        }
+        int liveCount = live.length;
+        for (int k = 0; k < UPDATES; k++) {
+            int pick = random.nextInt(liveCount);
+            switch (random.nextInt(3)) {
+                case 0:
+                    portfolio.remove(live[pick]);
+                    live[pick] = live[--liveCount];
+                    break;
+                case 1:
+                    portfolio.set(live[pick], randomLoan(random, options));
+                    break;
+                default:
+                    if (liveCount == live.length) {
+                        live = Arrays.copyOf(live, live.length * 2);
+                    }
+                    live[liveCount++] = portfolio.add(randomLoan(random, options));
+            }
+        }
+        report("Running totals follow " + UPDATES + " adds, changes and removals",
+                portfolio.size() == liveCount && same(portfolio.totals(), portfolio.summarize()));
+        int removed = live[0];
+        portfolio.remove(removed);
+        boolean thrown = false;
+        try {
+            portfolio.getPayment(removed);
+        } catch (IndexOutOfBoundsException e) {
+            thrown = true;
+        }
+        report("A removed index holds no loan and is reused",
+                thrown && !portfolio.contains(removed)
+                && portfolio.add(randomLoan(random, options)) == removed);
+        for (int k = 0; k < liveCount; k++) {
+            portfolio.remove(live[k]);
+        }
+        LoanPortfolio.Summary empty = portfolio.totals();
+        boolean zero = portfolio.size() == 0 && empty.getLoanCount() == 0
+                && empty.getTotalPrincipal() == 0 && empty.getAnnualPayment() == 0
+                && empty.getTotalInterest() == 0 && empty.getWeightedAverageAPR() == 0;
+        report("Removing every loan returns the totals to zero", zero);
+
+        LoanPortfolio book = new LoanPortfolio(BOOK_LOANS);
+        for (int k = 0; k < BOOK_LOANS; k++) {
+            book.add(random.nextInt(10000, 2000000) / 4.0, random.nextInt(0, 400) * 25.0,
+                    random.nextInt(0, 2000) / 100.0, options[random.nextInt(options.length)],
+                    random.nextInt(1, 41));
+        }
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            LoanPortfolio.Summary one = book.summarize(single);
+            LoanPortfolio.Summary all = book.summarize();
+            LoanPortfolio.CashFlowLadder oneLadder = book.ladder(12, single);
+            LoanPortfolio.CashFlowLadder allLadder = book.ladder(12);
+            report("Results do not depend on the number of threads",
+                    one.getTotalInterest() == all.getTotalInterest()
+                    && one.getWeightedAverageAPR() == all.getWeightedAverageAPR()
+                    && one.getAnnualPayment() == all.getAnnualPayment()
+                    && Arrays.equals(oneLadder.getPayments(), allLadder.getPayments()));
+
+            // One loan changes rate or term, and the totals are read after
+            // every change.
+            for (int k = 0; k < UPDATES; k++) {
+                int index = random.nextInt(BOOK_LOANS);
+                book.set(index, book.getPrincipal(index), 0, random.nextInt(0, 2000) / 100.0,
+                        book.getCompounding(index), random.nextInt(1, 41));
+                book.totals();
+            }
+            report("Running totals match after " + UPDATES + " changes to the large book",
+                    same(book.totals(), book.summarize()));
+        } finally {
+            single.shutdown();
+        }
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static LoanPayment randomLoan(SplittableRandom random, CompoundingOption[] options) {
+        return new LoanPayment(random.nextInt(10000, 2000000) / 4.0, random.nextInt(0, 400) * 25.0,
+                random.nextInt(0, 2500) / 100.0, options[random.nextInt(options.length)],
+                random.nextInt(4, 161) / 4.0);
+    }
+
+    private static double scheduleInterest(LoanPayment loan) {
+        AmortizationSchedule.Cursor cursor = loan.getAmortizationSchedule().cursor();
+        double interest = 0;
+        while (cursor.next()) {
+            interest = cursor.getCumulativeInterest();
+        }
+        return interest;
+    }
+
+    private static boolean same(LoanPortfolio.Summary running, LoanPortfolio.Summary full) {
+        boolean same = running.getLoanCount() == full.getLoanCount()
+                && close(running.getTotalPrincipal(), full.getTotalPrincipal())
+                && close(running.getAnnualPayment(), full.getAnnualPayment())
+                && close(running.getWeightedAverageAPR(), full.getWeightedAverageAPR())
+                && close(running.getTotalInterest(), full.getTotalInterest());
+        for (CompoundingOption option : CompoundingOption.values()) {
+            same &= running.getLoanCount(option) == full.getLoanCount(option)
+                    && close(running.getTotalPrincipal(option), full.getTotalPrincipal(option))
+                    && close(running.getTotalPayment(option), full.getTotalPayment(option));
+        }
+        return same;
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(LoanPayment loan) {
+            super(loan.getPurchaseAmount(), loan.getDownPayment(), loan.getAPR(),
+                    loan.getCompounding(), loan.getYears());
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
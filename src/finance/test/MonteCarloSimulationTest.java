@@ -0,0 +1,79 @@
+package finance.test;
+
+import finance.Investment;
+import finance.MonteCarloSimulation;
+import finance.enums.CompoundingOption;
+import finance.enums.ReturnDistribution;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test software for the MonteCarloSimulation class. Simulations without
+ * volatility are compared with the Investment class, lognormal results are
+ * compared with their analytic mean and median, and runs on pools of
+ * different sizes are checked to give identical results for the same seed.
+ * The timings are in MonteCarloSimulationBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class MonteCarloSimulationTest {
+
+    /**
+     * Test software for the MonteCarloSimulation class.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        int failures = 0;
+
+        Investment investment = new Investment(10000, 500, 7, CompoundingOption.MONTHLY, 30);
+        double[] balance = new double[investment.getPeriods()];
+        investment.fillTrajectory(null, null, balance);
+        double expected = balance[balance.length - 1];
+        MonteCarloSimulation.Result fixed = new MonteCarloSimulation(investment, 0,
+                ReturnDistribution.NORMAL).run(10000, 1);
+        failures += check("Zero volatility mean matches Investment",
+                Math.abs(fixed.getMean() - expected) <= 1e-9 * expected,
+                fixed.getMean() + " vs " + expected);
+        failures += check("Zero volatility median within histogram resolution",
+                Math.abs(fixed.getPercentile(50) / expected - 1) <= 0.0025,
+                fixed.getPercentile(50) + " vs " + investment.getValue());
+
+        double mu = 0.06;
+        double sigma = 0.2;
+        double years = 20;
+        MonteCarloSimulation lumpSum = new MonteCarloSimulation(1000, 0, mu * 100,
+                sigma * 100, ReturnDistribution.LOGNORMAL, CompoundingOption.MONTHLY, years);
+        MonteCarloSimulation.Result lognormal = lumpSum.run(400000, 42);
+        double analyticMean = 1000 * Math.exp(mu * years);
+        double analyticMedian = 1000 * Math.exp((mu - sigma * sigma / 2) * years);
+        double standardError = lognormal.getStandardDeviation() / Math.sqrt(lognormal.getPaths());
+        failures += check("Lognormal mean within 4 standard errors",
+                Math.abs(lognormal.getMean() - analyticMean) <= 4 * standardError,
+                lognormal.getMean() + " vs " + analyticMean);
+        failures += check("Lognormal median within 1%",
+                Math.abs(lognormal.getPercentile(50) / analyticMedian - 1) <= 0.01,
+                lognormal.getPercentile(50) + " vs " + analyticMedian);
+        failures += check("Percentiles ordered",
+                lognormal.getMin() <= lognormal.getPercentile(5)
+                && lognormal.getPercentile(5) < lognormal.getPercentile(50)
+                && lognormal.getPercentile(50) < lognormal.getPercentile(95)
+                && lognormal.getPercentile(95) <= lognormal.getMax(), "");
+
+        MonteCarloSimulation retirement = new MonteCarloSimulation(investment, 15,
+                ReturnDistribution.NORMAL);
+        MonteCarloSimulation.Result single = retirement.run(50000, 7, new ForkJoinPool(1));
+        MonteCarloSimulation.Result parallel = retirement.run(50000, 7, new ForkJoinPool(8));
+        failures += check("Same seed gives identical results on 1 and 8 threads",
+                Double.doubleToLongBits(single.getMean()) == Double.doubleToLongBits(parallel.getMean())
+                && single.getStandardDeviation() == parallel.getStandardDeviation()
+                && single.getPercentile(10) == parallel.getPercentile(10)
+                && single.getPercentile(90) == parallel.getPercentile(90), "");
+
+        System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+    }
+
+    private static int check(String name, boolean passed, String detail) {
+        System.out.println((passed ? "PASS " : "FAIL ") + name
+                + (detail.isEmpty() ? "" : ": " + detail));
+        return passed ? 0 : 1;
+    }
+}
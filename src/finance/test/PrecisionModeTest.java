@@ -0,0 +1,150 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.AmortizationSchedule;
+import finance.LoanPayment;
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the precision modes. Decimal payments are checked
+ * against an independent 50-digit BigDecimal calculation, and decimal
+ * amortization schedules are checked to balance to the cent. The timings are
+ * in PrecisionModeBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class PrecisionModeTest {
+
+    private static final int LOANS = 20000;
+    private static final MathContext REFERENCE = new MathContext(50);
+
+    /**
+     * Test software for the precision modes.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(42);
+        Quote[] doubles = new Quote[LOANS];
+        Quote[] decimals = new Quote[LOANS];
+        for (int k = 0; k < LOANS; k++) {
+            double purchase = Math.rint(random.nextDouble(50000, 1000000) * 100) / 100;
+            double down = Math.rint(purchase * random.nextInt(0, 40)) / 100;
+            double apr = random.nextInt(0, 1600) / 100.0;
+            CompoundingOption compounding = random.nextBoolean()
+                    ? CompoundingOption.MONTHLY : CompoundingOption.BIWEEKLY;
+            int years = 5 * random.nextInt(1, 7);
+            doubles[k] = new Quote(purchase, down, apr, compounding, years);
+            decimals[k] = new Quote(purchase, down, apr, compounding, years);
+            decimals[k].setPrecisionMode(PrecisionMode.DECIMAL);
+        }
+
+        int mismatches = 0;
+        int centDifferences = 0;
+        for (int k = 0; k < LOANS; k++) {
+            double decimal = decimals[k].payment();
+            if (decimal != referencePayment(decimals[k])) {
+                mismatches++;
+            }
+            if (round(doubles[k].payment()) != decimal) {
+                centDifferences++;
+            }
+        }
+        report("Decimal payments match 50-digit reference: " + mismatches + " mismatches",
+                mismatches == 0);
+        System.out.println("     Double payments rounding to a different cent: " + centDifferences
+                + " of " + LOANS);
+
+        int unbalanced = 0;
+        for (int k = 0; k < LOANS; k += 10) {
+            if (!balances(decimals[k])) {
+                unbalanced++;
+            }
+        }
+        report("Decimal schedules balance to the cent: " + unbalanced + " failures",
+                unbalanced == 0);
+
+        Quote free = new Quote(1200.01, 0, 0, CompoundingOption.MONTHLY, 1);
+        free.setPrecisionMode(PrecisionMode.DECIMAL);
+        report("Zero rate decimal payment " + free.payment() + ", schedule balances",
+                free.payment() == -100 && balances(free));
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+
+    // The payment evaluated independently at 50 digits from the decimal
+    // inputs and rounded HALF_UP to the cent.
+    private static double referencePayment(Quote quote) {
+        BigDecimal pv = BigDecimal.valueOf(quote.getPurchaseAmount())
+                .subtract(BigDecimal.valueOf(quote.getDownPayment()));
+        double periodsPerYear = quote.getCompounding().getPeriodsPerYear();
+        BigDecimal i = BigDecimal.valueOf(quote.rate).divide(BigDecimal.valueOf(100 * periodsPerYear),
+                REFERENCE);
+        int n = (int) (quote.getYears() * periodsPerYear);
+        BigDecimal payment;
+        if (i.signum() == 0) {
+            payment = pv.divide(BigDecimal.valueOf(n), REFERENCE);
+        } else {
+            BigDecimal discount = BigDecimal.ONE.add(i).pow(-n, REFERENCE);
+            payment = pv.multiply(i).divide(BigDecimal.ONE.subtract(discount), REFERENCE);
+        }
+        return -payment.setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    // Replays a decimal schedule in whole cents: every row's interest is the
+    // exact interest on the previous balance rounded HALF_UP, the principal repaid
+    // adds up to the amount financed, and the balance ends at zero.
+    private static boolean balances(Quote quote) {
+        AmortizationSchedule schedule = quote.getAmortizationSchedule();
+        BigDecimal rate = BigDecimal.valueOf(quote.rate);
+        BigDecimal divisor = BigDecimal.valueOf(100 * quote.getCompounding().getPeriodsPerYear());
+        long balance = Math.round(schedule.getPrincipal() * 100);
+        long repaid = 0;
+        long interest = 0;
+        AmortizationSchedule.Cursor row = schedule.cursor();
+        while (row.next()) {
+            long rowInterest = BigDecimal.valueOf(balance).multiply(rate)
+                    .divide(divisor, 0, RoundingMode.HALF_UP).longValue();
+            long rowPrincipal = Math.round(row.getPrincipal() * 100);
+            if (Math.round(row.getInterest() * 100) != rowInterest
+                    || Math.round(row.getPayment() * 100) != rowInterest + rowPrincipal) {
+                return false;
+            }
+            balance -= rowPrincipal;
+            repaid += rowPrincipal;
+            interest += rowInterest;
+            if (Math.round(row.getBalance() * 100) != balance
+                    || Math.round(row.getCumulativeInterest() * 100) != interest) {
+                return false;
+            }
+        }
+        return balance == 0 && repaid == Math.round(schedule.getPrincipal() * 100);
+    }
+
+    private static double round(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static class Quote extends LoanPayment {
+
+        private final double rate;
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+            rate = apr;
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.Investment;
+import finance.LoanPayment;
+import finance.batch.PricingServer;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test and load test software for the PricingServer class. A server is started
+ * on a free local port, single quotes, arrays and comma-separated rows are
+ * posted and compared with LoanPayment and Investment results, and malformed
+ * requests are checked for the right status, also when one shares a
+ * micro-batch with valid requests. Many client threads then post
+ * single-quote requests at once to report latency percentiles, throughput and
+ * the average size of the micro-batches the server priced.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class PricingServerLoadTest {
+
+    private static final int CLIENTS = 32;
+    private static final int REQUESTS_PER_CLIENT = 2000;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY,
+        CompoundingOption.BIWEEKLY, CompoundingOption.WEEKLY};
+
+    /**
+     * Test and load test software for the PricingServer class.
+     * @param args no command line arguments are used.
+     * @throws Exception if the server cannot be started or a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        // As PricingServer.main () does; see the PricingServer class.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try (PricingServer server = new PricingServer(0)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort() + "/price/";
+
+            String loan = "{\"purchaseAmount\": 350000, \"downPayment\": 50000, \"apr\": 6.5,"
+                    + " \"compounding\": \"MONTHLY\", \"years\": 30}";
+            Response single = post(base + "loan", "application/json", loan);
+            String expected = "{\"result\":"
+                    + cents(-new Quote(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30).payment())
+                    + "}\n";
+            report("Single loan quote " + single.body.trim(), single.status == 200
+                    && single.body.equals(expected));
+
+            Response array = post(base + "investment", null, "[{\"initialInvestment\":1000,"
+                    + "\"periodicInvestment\":100,\"apr\":5,\"compounding\":\"monthly\",\"years\":10},"
+                    + " {\"apr\":0,\"compounding\":\"ANNUAL\",\"years\":1,\"initialInvestment\":5}]");
+            expected = "{\"results\":["
+                    + cents(-new Projection(1000, 100, 5, CompoundingOption.MONTHLY, 10).futureValue())
+                    + ",5.00]}\n";
+            report("Investment array " + array.body.trim(), array.status == 200
+                    && array.body.equals(expected));
+
+            Response rows = post(base + "loan", "text/csv", "purchase,down,apr,compounding,years\n"
+                    + "200000,20000,4.25,Monthly,15\r\n\n100000,0,7,Weekly,5\n");
+            expected = "line," + QuoteType.LOAN_PAYMENT.getResultTitle() + "\n2,"
+                    + cents(-new Quote(200000, 20000, 4.25, CompoundingOption.MONTHLY, 15).payment())
+                    + "\n4," + cents(-new Quote(100000, 0, 7, CompoundingOption.WEEKLY, 5).payment())
+                    + "\n";
+            report("Comma-separated rows", rows.status == 200 && rows.body.equals(expected));
+
+            report("Missing APR rejected with 400", post(base + "loan", null,
+                    "{\"purchaseAmount\":1,\"compounding\":\"MONTHLY\",\"years\":1}").status == 400);
+            report("Unknown compounding rejected with 400", post(base + "loan", null,
+                    "{\"apr\":1,\"compounding\":\"HOURLY\",\"years\":1}").status == 400);
+            Response custom = post(base + "loan", "text/csv", "100000,0,7,Custom,5\n");
+            report("CUSTOM compounding rejected with 400 " + custom.body.trim(),
+                    custom.status == 400 && custom.body.startsWith("Line 1: "));
+            report("Unknown path rejected with 404", post(base + "bond", null, loan).status == 404);
+            HttpURLConnection get = (HttpURLConnection) new URL(base + "loan").openConnection();
+            report("GET rejected with 405", get.getResponseCode() == 405);
+            get.getErrorStream().close();
+
+            loadTest(server, base + "loan");
+        }
+        mixedBatchTest();
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+    private static void loadTest(PricingServer server, String url) throws InterruptedException {
+        long[][] latencies = new long[CLIENTS][REQUESTS_PER_CLIENT];
+        AtomicInteger mismatches = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Thread[] clients = new Thread[CLIENTS];
+        long batchesBefore = server.getBatchCount();
+        long quotesBefore = server.getQuoteCount();
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            long[] latency = latencies[c];
+            SplittableRandom random = new SplittableRandom(c);
+            clients[c] = new Thread(() -> {
+                for (int k = 0; k < REQUESTS_PER_CLIENT; k++) {
+                    double purchase = random.nextInt(10000, 2000000) / 4.0;
+                    double down = random.nextInt(0, 400) * 25.0;
+                    double apr = random.nextInt(0, 2000) / 100.0;
+                    CompoundingOption compounding = OPTIONS[random.nextInt(OPTIONS.length)];
+                    int years = random.nextInt(1, 41);
+                    String body = "{\"purchaseAmount\":" + purchase + ",\"downPayment\":" + down
+                            + ",\"apr\":" + apr + ",\"compounding\":\"" + compounding.name()
+                            + "\",\"years\":" + years + "}";
+                    long sent = System.nanoTime();
+                    try {
+                        Response response = post(url, "application/json", body);
+                        latency[k] = System.nanoTime() - sent;
+                        String expected = "{\"result\":" + cents(-new Quote(purchase, down, apr,
+                                compounding, years).payment()) + "}\n";
+                        if (response.status != 200 || !response.body.equals(expected)) {
+                            mismatches.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        latency[k] = System.nanoTime() - sent;
+                        errors.incrementAndGet();
+                    }
+                }
+            }, "client-" + c);
+            clients[c].start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        long batches = server.getBatchCount() - batchesBefore;
+        long quotes = server.getQuoteCount() - quotesBefore;
+
+        long[] all = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        for (int c = 0; c < CLIENTS; c++) {
+            System.arraycopy(latencies[c], 0, all, c * REQUESTS_PER_CLIENT, REQUESTS_PER_CLIENT);
+        }
+        Arrays.sort(all);
+        report("Load test: " + all.length + " requests from " + CLIENTS + " clients, "
+                + mismatches.get() + " mismatches, " + errors.get() + " errors",
+                mismatches.get() == 0 && errors.get() == 0);
+        System.out.println("\nLatency p50 " + all[all.length / 2] / 1000 + " us, p99 "
+                + all[(int) (all.length * 0.99)] / 1000 + " us, max "
+                + all[all.length - 1] / 1000 + " us");
+        System.out.println("Throughput " + (long) (all.length / (elapsed / 1e9)) + " requests/s, "
+                + batches + " batches averaging "
+                + String.format("%.2f", batches == 0 ? 0 : (double) quotes / batches) + " quotes");
+    }
+
+    // Posts a CUSTOM quote at the same time as valid ones to a server that
+    // lingers for more requests, so that they are coalesced; only the CUSTOM
+    // request may fail.
+    private static void mixedBatchTest() throws Exception {
+        int valid = 6;
+        Response[] responses = new Response[valid + 1];
+        Thread[] clients = new Thread[valid + 1];
+        try (PricingServer server = new PricingServer(0, valid + 1,
+                PricingServer.DEFAULT_BATCH_SIZE, 100000)) {
+            server.start();
+            String url = "http://localhost:" + server.getPort() + "/price/loan";
+            for (int c = 0; c <= valid; c++) {
+                int client = c;
+                String body = "{\"purchaseAmount\":" + (100000 + 1000 * c) + ",\"apr\":6,"
+                        + "\"compounding\":\"" + (c == valid ? "CUSTOM" : "MONTHLY")
+                        + "\",\"years\":30}";
+                clients[c] = new Thread(() -> {
+                    try {
+                        responses[client] = post(url, "application/json", body);
+                    } catch (IOException e) {
+                        responses[client] = new Response(0, String.valueOf(e));
+                    }
+                }, "client-" + c);
+                clients[c].start();
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+        }
+        boolean passed = responses[valid].status == 400;
+        for (int c = 0; c < valid; c++) {
+            passed &= responses[c].status == 200 && responses[c].body.equals("{\"result\":"
+                    + cents(-new Quote(100000 + 1000 * c, 0, 6, CompoundingOption.MONTHLY, 30)
+                            .payment()) + "}\n");
+        }
+        report("Mixed batch: " + valid + " MONTHLY quotes priced, CUSTOM rejected with "
+                + responses[valid].status, passed);
+    }
+
+    private static Response post(String url, String contentType, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (contentType != null) {
+            connection.setRequestProperty("Content-Type", contentType);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(bytes);
+        }
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) >= 0;) {
+                received.write(buffer, 0, read);
+            }
+        }
+        return new Response(status, new String(received.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    private static String cents(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static final class Response {
+
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+
+    private static class Projection extends Investment {
+
+        Projection(double initial, double periodic, double apr, CompoundingOption compounding, double years) {
+            super(initial, periodic, apr, compounding, years);
+        }
+
+        double futureValue() {
+            return calcFV();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.CurrencyFormatter;
+import finance.Investment;
+import finance.LoanPayment;
+import finance.QuoteCache;
+import finance.enums.CompoundingOption;
+import finance.enums.PrecisionMode;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test software for the QuoteCache class. Cached results are compared with
+ * LoanPayment and Investment results for the same quotes, the hit, eviction
+ * and expiration counts are checked, and a skewed stream of quotes, in which
+ * a few quotes make up most of the traffic, is priced from one cache by
+ * several threads. The timings are in QuoteCacheBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class QuoteCacheTest {
+
+    private static final int POPULAR_QUOTES = 200;
+    private static final int REQUESTS = 400000;
+    private static final int THREADS = 4;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.QUARTERLY, CompoundingOption.MONTHLY,
+        CompoundingOption.BIWEEKLY, CompoundingOption.WEEKLY};
+
+    /**
+     * Test software for the QuoteCache class.
+     * @param args no command line arguments are used.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        QuoteCache cache = new QuoteCache(1024);
+        SplittableRandom random = new SplittableRandom(11);
+        int mismatches = 0;
+        for (int k = 0; k < 20000; k++) {
+            double first = random.nextInt(10000, 2000000) / 4.0;
+            double second = random.nextInt(0, 400) * 25.0;
+            double apr = random.nextInt(0, 2000) / 100.0;
+            CompoundingOption compounding = OPTIONS[random.nextInt(OPTIONS.length)];
+            int years = random.nextInt(1, 41);
+            for (int pass = 0; pass < 2; pass++) {
+                QuoteCache.Result payment = cache.loanPayment(first, second, apr, compounding, years);
+                QuoteCache.Result value = cache.investmentValue(first, second, apr, compounding, years);
+                if (!payment.getText().equals(new LoanPayment(first, second, apr, compounding, years).getValue())
+                        || !value.getText().equals(new Investment(first, second, apr, compounding, years).getValue())) {
+                    mismatches++;
+                }
+            }
+        }
+        report("Cached results match getValue (): " + mismatches + " mismatches", mismatches == 0);
+        report("Repeated quotes hit: " + cache.getHitCount() + " hits, " + cache.getMissCount()
+                + " misses", cache.getHitCount() == 40000 && cache.getMissCount() == 40000);
+        report("Full cache evicts: " + cache.getEvictionCount() + " evictions of "
+                + cache.getMaximumSize() + " entries",
+                cache.getEvictionCount() == 40000 - cache.getMaximumSize());
+
+        QuoteCache.Result loan = cache.loanPayment(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30);
+        report("Loan and investment with equal inputs are kept apart",
+                loan != cache.investmentValue(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30)
+                && loan == cache.loanPayment(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30));
+        report("Different compounding is a different quote",
+                loan != cache.loanPayment(350000, 50000, 6.5, CompoundingOption.WEEKLY, 30));
+
+        QuoteCache decimal = new QuoteCache(16, 1, TimeUnit.HOURS, PrecisionMode.DECIMAL);
+        LoanPayment exact = new LoanPayment(1200.01, 0, 0, CompoundingOption.MONTHLY, 1);
+        exact.setPrecisionMode(PrecisionMode.DECIMAL);
+        report("Decimal cache matches decimal engine",
+                decimal.loanPayment(1200.01, 0, 0, CompoundingOption.MONTHLY, 1).getText()
+                .equals(exact.getValue()));
+
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        String home = cache.loanPayment(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30).getText();
+        Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+        String euro;
+        try {
+            euro = cache.loanPayment(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30).getText();
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, locale);
+        }
+        report("A change of locale formats the quote again: " + euro,
+                euro.equals(CurrencyFormatter.getInstance(Locale.GERMANY).format(loan.getValue()))
+                && home.equals(loan.getText()));
+
+        QuoteCache shortLived = new QuoteCache(16, 20, TimeUnit.MILLISECONDS);
+        QuoteCache.Result before = shortLived.loanPayment(1000, 0, 5, CompoundingOption.ANNUAL, 1);
+        boolean fresh = before == shortLived.loanPayment(1000, 0, 5, CompoundingOption.ANNUAL, 1);
+        Thread.sleep(40);
+        QuoteCache.Result after = shortLived.loanPayment(1000, 0, 5, CompoundingOption.ANNUAL, 1);
+        report("Results expire after their time to live: " + shortLived.getExpirationCount()
+                + " expirations", fresh && after != before
+                && after.getText().equals(before.getText()) && shortLived.getExpirationCount() == 1);
+
+        // A skewed stream: 90% of requests repeat one of a few popular quotes.
+        double[][] quotes = new double[REQUESTS][];
+        for (int k = 0; k < REQUESTS; k++) {
+            SplittableRandom source = random.nextInt(10) < 9
+                    ? new SplittableRandom(random.nextInt(POPULAR_QUOTES)) : random;
+            quotes[k] = new double[]{source.nextInt(10000, 2000000) / 4.0,
+                source.nextInt(0, 400) * 25.0, source.nextInt(0, 2000) / 100.0,
+                source.nextInt(OPTIONS.length), source.nextInt(1, 41)};
+        }
+        QuoteCache shared = new QuoteCache(4096);
+        AtomicInteger differences = new AtomicInteger();
+        run(quotes, shared, differences);
+        report("Concurrent cached results match: " + differences.get() + " differences",
+                differences.get() == 0);
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+
+    // Prices the quotes from the cache on several threads. Every hundredth
+    // result is checked.
+    private static void run(double[][] quotes, QuoteCache cache, AtomicInteger differences)
+            throws InterruptedException {
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int from = t * quotes.length / THREADS;
+            int to = (t + 1) * quotes.length / THREADS;
+            threads[t] = new Thread(() -> {
+                for (int k = from; k < to; k++) {
+                    double[] q = quotes[k];
+                    CompoundingOption compounding = OPTIONS[(int) q[3]];
+                    String text = cache.loanPayment(q[0], q[1], q[2], compounding, q[4]).getText();
+                    if (k % 100 == 0 && !text.equals(
+                            new LoanPayment(q[0], q[1], q[2], compounding, q[4]).getValue())) {
+                        differences.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
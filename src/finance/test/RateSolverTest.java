@@ -0,0 +1,86 @@
+package finance.test;
+
+import static finance.test.Checks.close;
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.RateSolver;
+import finance.TVMScenario;
+import finance.enums.CompoundingOption;
+import java.util.Random;
+
+/**
+ * Test software for the RateSolver class. Randomly generated loans and
+ * investments are solved for their period rate, and calcAPR (), calcPV ()
+ * and calcYears () are checked to recover the values the scenarios were
+ * built from. The timings are in RateSolverBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class RateSolverTest {
+
+    private static final int SCENARIOS = 200000;
+
+    /**
+     * Test software for the RateSolver class.
+     * @param args optional number of scenarios to solve.
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : SCENARIOS;
+        RateSolver solver = new RateSolver();
+        CompoundingOption[] options = {CompoundingOption.ANNUAL,
+            CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+
+        Random random = new Random(161012);
+        long totalIterations = 0;
+        int maxIterations = 0;
+        int failures = 0;
+        double maxRateError = 0;
+        int aprMismatches = 0;
+        int pvMismatches = 0;
+        int yearsMismatches = 0;
+        for (int i = 0; i < count; i++) {
+            CompoundingOption compounding = options[random.nextInt(options.length)];
+            double apr = 0.5 + random.nextInt(2000) / 100.0;
+            double years = 1 + random.nextInt(30);
+            TVMScenario scenario;
+            if (i % 2 == 0) {
+                // Loan
+                scenario = new TVMScenario(years, apr, compounding,
+                        1000 + random.nextInt(1000000), 0, 0);
+                scenario = scenario.withPMT(scenario.calcPMT());
+            } else {
+                // Investment
+                scenario = new TVMScenario(years, apr, compounding,
+                        -random.nextInt(10000), -(10 + random.nextInt(1000)), 0);
+                scenario = scenario.withFV(scenario.calcFV());
+            }
+            double periods = scenario.getPeriods();
+            double pv = scenario.getPV();
+            double pmt = scenario.getPMT();
+            double fv = scenario.getFV();
+            int iterations = solver.countIterations(periods, pv, pmt, fv);
+            if (iterations < 0) {
+                failures++;
+            } else {
+                totalIterations += iterations;
+                maxIterations = Math.max(maxIterations, iterations);
+                double rate = solver.solvePeriodRate(periods, pv, pmt, fv);
+                maxRateError = Math.max(maxRateError, Math.abs(rate - scenario.getPeriodRate()));
+            }
+            aprMismatches += close(scenario.calcAPR(), apr) ? 0 : 1;
+            pvMismatches += close(scenario.calcPV(), pv) ? 0 : 1;
+            yearsMismatches += close(scenario.calcYears(), years) ? 0 : 1;
+        }
+
+        report("Converged on " + (count - failures) + " of " + count + " scenarios, mean "
+                + (double) totalIterations / Math.max(count - failures, 1) + " iterations, max "
+                + maxIterations, failures == 0 && maxIterations < solver.getMaxIterations());
+        report("Period rates within " + maxRateError, maxRateError <= 1e-12);
+        report("calcAPR () recovers the APR, " + aprMismatches + " mismatches", aprMismatches == 0);
+        report("calcPV () recovers the PV, " + pvMismatches + " mismatches", pvMismatches == 0);
+        report("calcYears () recovers the years, " + yearsMismatches + " mismatches",
+                yearsMismatches == 0);
+        printSummary();
+    }
+}
@@ -0,0 +1,212 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.ChannelAppendable;
+import finance.CurrencyFormatter;
+import finance.Investment;
+import finance.LoanPayment;
+import finance.Report;
+import finance.ReportWriter;
+import finance.enums.CompoundingOption;
+import finance.enums.ReportFormat;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the ReportWriter class. The text written by print () is
+ * compared with the string concatenation it replaced, the CSV, JSON and
+ * fixed-width renderers are checked against the same reports, and output to
+ * a file channel is checked to be UTF-8. The timings are in
+ * ReportWriterBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class ReportWriterTest {
+
+    private static final int CHECKED_REPORTS = 20000;
+
+    /**
+     * Test software for the ReportWriter class.
+     * @param args no command line arguments are used.
+     * @throws IOException if a temporary file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        SplittableRandom random = new SplittableRandom(5);
+        // Every option except CUSTOM, which needs a compounding frequency.
+        CompoundingOption[] options = Arrays.copyOfRange(CompoundingOption.values(), 1,
+                CompoundingOption.values().length);
+        int textMismatches = 0;
+        int structuredMismatches = 0;
+        CurrencyFormatter currency = CurrencyFormatter.getInstance();
+        for (int k = 0; k < CHECKED_REPORTS; k++) {
+            double first = random.nextInt(0, 4000000) / 4.0;
+            double second = random.nextInt(0, 40000) / 4.0;
+            double apr = random.nextInt(0, 2500) / 100.0;
+            CompoundingOption compounding = options[random.nextInt(options.length)];
+            double years = random.nextInt(1, 121) / 4.0;
+            LoanPayment loan = new LoanPayment(first, second, apr, compounding, years);
+            Investment investment = new Investment(first, second, apr, compounding, years);
+            if (!loan.print().equals(legacyPrint(loan))
+                    || !investment.print().equals(legacyPrint(investment))) {
+                textMismatches++;
+            }
+
+            StringBuilder csv = new StringBuilder();
+            loan.writeTo(csv, ReportFormat.CSV);
+            StringBuilder json = new StringBuilder();
+            loan.writeTo(json, ReportFormat.JSON);
+            String payment = plain(-new Quote(first, second, apr, compounding, years).payment(),
+                    currency.getFractionDigits());
+            String lowerCase = compounding.toString().toLowerCase();
+            String expectedCsv = "purchaseAmount,downPayment,amountFinanced,apr,compounding,years,payment\n"
+                    + plain(first, currency.getFractionDigits()) + ","
+                    + plain(second, currency.getFractionDigits()) + ","
+                    + plain(first - second, currency.getFractionDigits()) + "," + loan.getAPR() + ","
+                    + lowerCase + "," + loan.getYears() + "," + payment + "\n";
+            String expectedJson = "{\"purchaseAmount\":" + plain(first, currency.getFractionDigits())
+                    + ",\"downPayment\":" + plain(second, currency.getFractionDigits())
+                    + ",\"amountFinanced\":" + plain(first - second, currency.getFractionDigits())
+                    + ",\"apr\":" + loan.getAPR() + ",\"compounding\":\"" + lowerCase
+                    + "\",\"years\":" + loan.getYears()
+                    + ",\"payment\":" + payment + "}\n";
+            if (!csv.toString().equals(expectedCsv) || !json.toString().equals(expectedJson)) {
+                if (structuredMismatches++ < 3) {
+                    System.out.println("  expected " + expectedCsv + expectedJson + "  but was "
+                            + csv + json);
+                }
+            }
+        }
+        report("print () matches the original text: " + textMismatches + " mismatches",
+                textMismatches == 0);
+        report("CSV and JSON fields match the calculation: " + structuredMismatches
+                + " mismatches", structuredMismatches == 0);
+
+        StringBuilder text = new StringBuilder();
+        ReportWriter writer = ReportWriter.create(ReportFormat.TEXT, text);
+        LoanPayment loan = new LoanPayment(350000, 50000, 6.5, CompoundingOption.MONTHLY, 30);
+        Investment investment = new Investment(1000, 100, 5, CompoundingOption.QUARTERLY, 10);
+        loan.writeTo(writer);
+        investment.writeTo(writer);
+        report("Consecutive text reports are separated by a blank line",
+                text.toString().equals(loan.print() + "\n" + investment.print()));
+
+        StringBuilder fixed = new StringBuilder();
+        writer = ReportWriter.create(ReportFormat.FIXED_WIDTH, fixed);
+        for (int k = 0; k < 3; k++) {
+            new Investment(1000 * k, 100, 5, CompoundingOption.QUARTERLY, 10).writeTo(writer);
+        }
+        String[] lines = fixed.toString().split("\n");
+        boolean aligned = lines.length == 4 && lines[0].trim().startsWith("initialInvestment");
+        for (String line : lines) {
+            aligned &= line.length() == 6 * 20;
+        }
+        report("Fixed-width columns are aligned:\n" + fixed, aligned);
+
+        StringBuilder quoted = new StringBuilder();
+        writer = ReportWriter.create(ReportFormat.CSV, quoted);
+        writer.beginReport("Note");
+        writer.text("note", "Note", "a \"quoted\", text");
+        writer.endReport();
+        StringBuilder escaped = new StringBuilder();
+        writer = ReportWriter.create(ReportFormat.JSON, escaped);
+        writer.beginReport("Note");
+        writer.text("note", "Note", "a \"quoted\"\n\\text");
+        writer.amount("value", "Value", Double.NaN);
+        writer.endReport();
+        report("Text fields are quoted and escaped",
+                quoted.toString().equals("note\n\"a \"\"quoted\"\", text\"\n")
+                && escaped.toString().equals("{\"note\":\"a \\\"quoted\\\"\\u000a\\\\text\",\"value\":null}\n"));
+
+        // A Report written before writeTo () existed implements print () only.
+        Report legacy = () -> "Legacy summary";
+        StringBuilder fallback = new StringBuilder();
+        legacy.writeTo(fallback, ReportFormat.JSON);
+        report("A report with only print () writes its text as one field",
+                fallback.toString().equals("{\"summary\":\"Legacy summary\"}\n"));
+
+        CurrencyFormatter euro = CurrencyFormatter.getInstance(Locale.GERMANY);
+        StringBuilder plain = new StringBuilder();
+        StringBuilder exactly = new StringBuilder();
+        for (int k = 0; k < 100000; k++) {
+            double value = (random.nextLong(-1000000000000L, 1000000000000L)
+                    + random.nextInt(0, 1001) / 1000.0) / 10;
+            euro.formatPlain(value, plain).append(' ');
+            exactly.append(plain(value, euro.getFractionDigits())).append(' ');
+        }
+        report("formatPlain () rounds HALF_UP like BigDecimal",
+                plain.toString().equals(exactly.toString()));
+
+        Path file = Files.createTempFile("reports", ".csv");
+        try {
+            List<String> written;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ChannelAppendable out = new ChannelAppendable(channel, StandardCharsets.UTF_8, 16);
+                writer = ReportWriter.create(ReportFormat.TEXT, out, euro);
+                new LoanPayment(250000, 0, 4, CompoundingOption.MONTHLY, 25).writeTo(writer);
+                out.append("\né😀");
+                writer.flush();
+            }
+            written = Files.readAllLines(file, StandardCharsets.UTF_8);
+            report("Channel output is UTF-8: " + written.get(written.size() - 1),
+                    written.get(written.size() - 1).equals("é😀")
+                    && written.get(written.size() - 2).endsWith("€"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        printSummary();
+    }
+
+    ///////////////////////////////////////////
+    //Private methods - NOT PART OF THE API!!!
+
+    // The string concatenation print () used before reports were written
+    // through a ReportWriter.
+    private static String legacyPrint(LoanPayment loan) {
+        return "\nLoan Payment Summary"
+                + "\nPurchase Amount: " + loan.toCurrency(loan.getPurchaseAmount())
+                + "\nDown Payment: " + loan.toCurrency(loan.getDownPayment())
+                + "\nAmount Financed: " + loan.toCurrency(loan.getScenario().getPV())
+                + "\nAPR: " + loan.getAPR() + "%"
+                + "\nCompounding: " + loan.getCompounding().toString().toLowerCase()
+                + "\nLoan Duration (years): " + loan.getYears()
+                + "\nPayment " + "(" + loan.getCompounding().toString().toLowerCase() + "): "
+                + loan.getValue();
+    }
+
+    private static String legacyPrint(Investment investment) {
+        return "\nInvestment Value Summary"
+                + "\nInitial Investment: " + investment.toCurrency(investment.getInitialInvestment())
+                + "\nPeriodic Investment (" + investment.getCompounding().toString().toLowerCase()
+                + "): " + investment.toCurrency(investment.getPeriodicInvestment())
+                + "\nAnnual Return: " + investment.getAPR() + "%"
+                + "\nInvestment after " + investment.getYears() + " years: " + investment.getValue();
+    }
+
+    private static String plain(double value, int fractionDigits) {
+        return BigDecimal.valueOf(value).setScale(fractionDigits, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package finance.test;
+
+import finance.TVMBatch;
+import finance.batch.ScenarioFile;
+import finance.enums.CompoundingOption;
+import finance.enums.TVMRegister;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Test software for the ScenarioFile class. A scenario file is written,
+ * solved in parallel, reopened and compared bit for bit with TVMBatch results
+ * for the same scenarios. The header layout and the rejection of a truncated
+ * file are checked. The timings are in ScenarioFileBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class ScenarioFileTest {
+
+    private static final int CHECKED_RECORDS = 200000;
+    private static final CompoundingOption[] OPTIONS = {CompoundingOption.ANNUAL,
+        CompoundingOption.SEMIANNUAL, CompoundingOption.QUARTERLY,
+        CompoundingOption.MONTHLY, CompoundingOption.WEEKLY};
+
+    /**
+     * Test software for the ScenarioFile class.
+     * @param args no command line arguments are used.
+     * @throws IOException if a temporary file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Files.createTempFile("scenarios", ".tvm");
+        try {
+            int failures = 0;
+            for (TVMRegister target : new TVMRegister[]{TVMRegister.PMT, TVMRegister.FV}) {
+                try (ScenarioFile file = ScenarioFile.create(path, CHECKED_RECORDS)) {
+                    fill(file, 5);
+                    file.solve(target);
+                }
+                int mismatches = 0;
+                try (ScenarioFile file = ScenarioFile.open(path)) {
+                    double[] out = new double[1];
+                    for (long i = 0; i < file.size(); i++) {
+                        TVMBatch.solve(target, file.getCompounding(i),
+                                new double[]{file.getYears(i)}, new double[]{file.getAPR(i)},
+                                new double[]{file.getPV(i)}, new double[]{file.getPMT(i)},
+                                new double[]{file.getFV(i)}, out, 0, 1);
+                        if (Double.doubleToLongBits(out[0])
+                                != Double.doubleToLongBits(file.getResult(i))) {
+                            mismatches++;
+                        }
+                    }
+                }
+                System.out.println((mismatches == 0 ? "PASS " : "FAIL ") + "solve " + target
+                        + ": " + CHECKED_RECORDS + " records, " + mismatches + " mismatches");
+                failures += mismatches == 0 ? 0 : 1;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(ScenarioFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                channel.read(header, 0);
+            }
+            boolean headerOK = header.getInt(0) == ScenarioFile.MAGIC
+                    && header.getInt(4) == ScenarioFile.VERSION
+                    && header.getInt(8) == ScenarioFile.RECORD_SIZE
+                    && header.getLong(16) == CHECKED_RECORDS
+                    && Files.size(path) == ScenarioFile.HEADER_SIZE
+                    + (long) CHECKED_RECORDS * ScenarioFile.RECORD_SIZE;
+            System.out.println((headerOK ? "PASS " : "FAIL ") + "header and file size");
+            failures += headerOK ? 0 : 1;
+
+            Files.write(path, new byte[]{1, 2, 3});
+            try {
+                ScenarioFile.open(path).close();
+                System.out.println("FAIL truncated file was accepted");
+                failures++;
+            } catch (IOException e) {
+                System.out.println("PASS truncated file rejected: " + e.getMessage());
+            }
+
+            System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void fill(ScenarioFile file, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        CompoundingOption compounding = CompoundingOption.MONTHLY;
+        for (long i = 0; i < file.size(); i++) {
+            if (random.nextInt(50) == 0) {
+                compounding = OPTIONS[random.nextInt(OPTIONS.length)];
+            }
+            file.set(i, compounding, random.nextInt(1, 41), random.nextDouble(0.5, 20),
+                    random.nextInt(10000, 2000000) / 4.0, -random.nextInt(0, 5000),
+                    random.nextInt(3) == 0 ? 10000 : 0);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.ScenarioPricer;
+import finance.TVMBatch;
+import finance.enums.CompoundingOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test software for the ScenarioPricer class on a caller-supplied executor.
+ * Results are compared with TVMBatch, and a failed chunk or a rejected chunk
+ * must be reported to the caller only after the chunks already started have
+ * finished.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class ScenarioPricerTest {
+
+    private static final int ROWS = 200000;
+    private static final int THREADS = 4;
+
+    /**
+     * Test software for the ScenarioPricer class.
+     * @param args no command line arguments are used.
+     * @throws InterruptedException if interrupted while stopping the executor
+     */
+    public static void main(String[] args) throws InterruptedException {
+        double[] years = new double[ROWS];
+        double[] apr = new double[ROWS];
+        double[] pv = new double[ROWS];
+        double[] fv = new double[ROWS];
+        for (int k = 0; k < ROWS; k++) {
+            years[k] = 1 + k % 30;
+            apr[k] = (k % 1500) / 100.0;
+            pv[k] = 1000 + k;
+        }
+        double[] expected = new double[ROWS];
+        TVMBatch.calcPMT(CompoundingOption.MONTHLY, years, apr, pv, fv, expected);
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            ScenarioPricer pricer = new ScenarioPricer(threads, THREADS);
+            double[] out = new double[ROWS];
+            pricer.calcPMT(CompoundingOption.MONTHLY, years, apr, pv, fv, out);
+            report("Executor results match TVMBatch", Arrays.equals(out, expected));
+
+            boolean thrown = false;
+            try {
+                pricer.calcPMT(CompoundingOption.MONTHLY, years, apr, pv, new double[ROWS / 2], out);
+            } catch (IllegalArgumentException e) {
+                thrown = true;
+            }
+            report("A failed chunk is thrown to the caller", thrown);
+
+            // Accept two chunks, each slow to start, then reject the rest.
+            final AtomicInteger accepted = new AtomicInteger();
+            ScenarioPricer rejecting = new ScenarioPricer(task -> {
+                if (accepted.getAndIncrement() >= 2) {
+                    throw new RejectedExecutionException("Full");
+                }
+                threads.execute(() -> {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    task.run();
+                });
+            }, THREADS);
+            Arrays.fill(out, 0);
+            int acceptedRows = 2 * rejecting.getChunkSize(ROWS);
+            boolean finished = false;
+            try {
+                rejecting.calcPMT(CompoundingOption.MONTHLY, years, apr, pv, fv, out);
+            } catch (RejectedExecutionException e) {
+                finished = Arrays.equals(Arrays.copyOf(out, acceptedRows),
+                        Arrays.copyOf(expected, acceptedRows));
+            }
+            report("A rejected chunk is thrown after the accepted chunks finish", finished);
+        } finally {
+            threads.shutdown();
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        printSummary();
+    }
+}
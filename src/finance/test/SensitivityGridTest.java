@@ -0,0 +1,83 @@
+package finance.test;
+
+import finance.Investment;
+import finance.LoanPayment;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import finance.ui.SensitivityTableModel;
+
+/**
+ * Test software for the sensitivity grid. Every cell of a grid is compared bit
+ * for bit with the value calculated by a LoanPayment or Investment object for
+ * the same APR and term, and the APR axis is checked to stop at zero. The
+ * timings are in SensitivityGridBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class SensitivityGridTest {
+
+    /**
+     * Test software for the sensitivity grid.
+     * @param args no command line arguments are used.
+     */
+    public static void main(String[] args) {
+        double[] apr = SensitivityTableModel.steps(6.5 - 2, 6.5 + 2, 0.125, 0);
+        double[] years = SensitivityTableModel.steps(10, 30, 1, 0);
+        int failures = 0;
+        failures += check("Loan payment grid", QuoteType.LOAN_PAYMENT, apr, years);
+        failures += check("Investment grid", QuoteType.INVESTMENT, apr, years);
+
+        double[] clipped = SensitivityTableModel.steps(1 - 2, 1 + 2, 0.125, 0);
+        boolean clipOK = clipped.length == 25 && clipped[0] == 0 && clipped[24] == 3;
+        System.out.println((clipOK ? "PASS " : "FAIL ") + "APR axis clipped at zero: "
+                + clipped.length + " rows");
+        failures += clipOK ? 0 : 1;
+
+        System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+    }
+
+    private static int check(String name, QuoteType type, double[] apr, double[] years) {
+        int mismatches = 0;
+        for (CompoundingOption compounding : new CompoundingOption[]{CompoundingOption.ANNUAL,
+            CompoundingOption.MONTHLY, CompoundingOption.WEEKLY}) {
+            SensitivityTableModel model = new SensitivityTableModel(type, compounding,
+                    350000, 50000, apr, years);
+            for (int row = 0; row < apr.length; row++) {
+                for (int column = 0; column < years.length; column++) {
+                    double expected = type == QuoteType.LOAN_PAYMENT
+                            ? new Quote(350000, 50000, apr[row], compounding, years[column]).payment()
+                            : new Projection(50000, 350000, apr[row], compounding, years[column]).futureValue();
+                    if (Double.doubleToLongBits(expected)
+                            != Double.doubleToLongBits(model.getValue(row, column))) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        System.out.println((mismatches == 0 ? "PASS " : "FAIL ") + name + ": "
+                + apr.length + " x " + years.length + " cells, " + mismatches + " mismatches");
+        return mismatches == 0 ? 0 : 1;
+    }
+
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchase, double down, double apr, CompoundingOption compounding, double years) {
+            super(purchase, down, apr, compounding, years);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+
+    private static class Projection extends Investment {
+
+        Projection(double initial, double periodic, double apr, CompoundingOption compounding, double years) {
+            super(initial, periodic, apr, compounding, years);
+        }
+
+        double futureValue() {
+            return calcFV();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package finance.test;
+
+import static finance.test.Checks.printSummary;
+import static finance.test.Checks.report;
+
+import finance.LoanPayment;
+import finance.ScenarioPricer;
+import finance.TVMBatch;
+import finance.enums.CompoundingOption;
+import java.util.Random;
+
+/**
+ * Test software for the TVMBatch and ScenarioPricer classes. Payments priced
+ * through the columnar and parallel paths are checked to match, bit for bit,
+ * those of the object-per-row path used by FinancialCalculationsTest. The
+ * timings are in KernelBenchmark.
+ * @author koluongMBP
+ * @version 261016
+ */
+public class TVMBatchTest {
+
+    private static final int ROWS = 1000000;
+
+    /**
+     * Test software for the TVMBatch and ScenarioPricer classes.
+     * @param args optional number of scenarios to price.
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : ROWS;
+        CompoundingOption compounding = CompoundingOption.MONTHLY;
+
+        Random random = new Random(161012);
+        double[] years = new double[rows];
+        double[] apr = new double[rows];
+        double[] pv = new double[rows];
+        double[] fv = new double[rows];
+        double[] batchPMT = new double[rows];
+        double[] parallelPMT = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            years[i] = 5 + random.nextInt(26);
+            apr[i] = 1 + random.nextInt(1500) / 100.0;
+            pv[i] = 10000 + random.nextInt(990000);
+        }
+
+        TVMBatch.calcPMT(compounding, years, apr, pv, fv, batchPMT);
+        new ScenarioPricer().calcPMT(compounding, years, apr, pv, fv, parallelPMT);
+
+        int batchMismatches = 0;
+        int parallelMismatches = 0;
+        for (int i = 0; i < rows; i++) {
+            long expected = Double.doubleToLongBits(
+                    new Quote(pv[i], 0, apr[i], compounding, years[i]).payment());
+            if (Double.doubleToLongBits(batchPMT[i]) != expected) {
+                batchMismatches++;
+            }
+            if (Double.doubleToLongBits(parallelPMT[i]) != expected) {
+                parallelMismatches++;
+            }
+        }
+
+        report("TVMBatch matches the object path on " + rows + " scenarios, "
+                + batchMismatches + " bit mismatches", batchMismatches == 0);
+        report("ScenarioPricer matches the object path on " + rows + " scenarios, "
+                + parallelMismatches + " bit mismatches", parallelMismatches == 0);
+        printSummary();
+    }
+
+    // Exposes the protected calcPMT () so the test can read the raw payment
+    // without currency formatting.
+    private static class Quote extends LoanPayment {
+
+        Quote(double purchaseAmount, double downPayment, double interestRate,
+                CompoundingOption compounding, double loanDuration) {
+            super(purchaseAmount, downPayment, interestRate, compounding,
+                    loanDuration);
+        }
+
+        double payment() {
+            return calcPMT();
+        }
+    }
+}
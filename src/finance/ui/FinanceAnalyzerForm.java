@@ -10,11 +10,25 @@ import finance.LoanPayment;
 import finance.Report;
 import finance.TVMEngine;
 import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JDialog;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import finance.ui.SwingValidator;
 
 /**
+ * Calculator form for loan payments and investment values. Calculations run on
+ * a SwingWorker so the event dispatch thread is never blocked. The result is
+ * also recalculated as the user types: edits restart a short timer, and when
+ * it expires the inputs are validated silently and a new calculation is
+ * started. Each edit cancels any calculation still in progress, and only the
+ * most recently started calculation may publish its result.
  *
  * @author koluongMBP
  * @version 161017
@@ -27,6 +41,18 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
     private SwingValidator valid;
     private Boolean terminate = false;
 
+    // Milliseconds to wait after the last edit before recalculating.
+    private static final int RECALCULATE_DELAY = 300;
+    private final Timer recalculateTimer;
+    private CalculationWorker calculation;
+    private long calculationGeneration;
+
+    // Sensitivity table: APR rows around the entered rate, one column per term.
+    private static final double SENSITIVITY_APR_RANGE = 2;
+    private static final double SENSITIVITY_APR_STEP = 0.125;
+    private static final double SENSITIVITY_MIN_YEARS = 10;
+    private static final double SENSITIVITY_MAX_YEARS = 30;
+
     /**
      * Creates new form FinanceAnalyzerForm
      */
@@ -40,6 +66,29 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
         optText.setEnabled(false);
         optText.setText("0");
         summaryReportButton.setEnabled(false);
+
+        recalculateTimer = new Timer(RECALCULATE_DELAY, e -> calculate(false));
+        recalculateTimer.setRepeats(false);
+        DocumentListener recalculateOnEdit = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                scheduleRecalculation();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                scheduleRecalculation();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                scheduleRecalculation();
+            }
+        };
+        reqText.getDocument().addDocumentListener(recalculateOnEdit);
+        optText.getDocument().addDocumentListener(recalculateOnEdit);
+        aprText.getDocument().addDocumentListener(recalculateOnEdit);
+        durationText.getDocument().addDocumentListener(recalculateOnEdit);
     }
 
     /**
@@ -64,6 +113,7 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
         calculateButton = new javax.swing.JButton();
         clearButton = new javax.swing.JButton();
         summaryReportButton = new javax.swing.JButton();
+        sensitivityButton = new javax.swing.JButton();
         exitButton = new javax.swing.JButton();
         reqText = new javax.swing.JTextField();
         optText = new javax.swing.JTextField();
@@ -152,6 +202,13 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
             }
         });
 
+        sensitivityButton.setText("Sensitivity Table");
+        sensitivityButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                sensitivityButtonActionPerformed(evt);
+            }
+        });
+
         exitButton.setText("Exit");
         exitButton.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -223,6 +280,8 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
                             .addGroup(layout.createSequentialGroup()
                                 .addComponent(clearButton)
                                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                                .addComponent(sensitivityButton)
+                                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                                 .addComponent(exitButton))
                             .addGroup(layout.createSequentialGroup()
                                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
@@ -299,6 +358,7 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
                 .addGap(18, 18, 18)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(clearButton)
+                    .addComponent(sensitivityButton)
                     .addComponent(exitButton))
                 .addContainerGap(12, Short.MAX_VALUE))
         );
@@ -400,41 +460,11 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
         } else if (option.equals("Weekly")) {
             cOption = CompoundingOption.WEEKLY;
         }
+        scheduleRecalculation();
     }//GEN-LAST:event_compoundingBoxActionPerformed
 
     private void calculateButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_calculateButtonActionPerformed
-
-        if (numberValid()) {
-
-            double apr = Double.parseDouble(aprText.getText());
-            double years = Double.parseDouble(durationText.getText());
-            double reqCF = Double.parseDouble(reqText.getText());
-            double optCF = Double.parseDouble(optText.getText());
-
-            if (loanRadioButton.isSelected()) {
-                //Loan Mode
-
-                double loan = reqCF - optCF;
-
-                while (loan < 0) {
-                    JOptionPane.showMessageDialog(null, "Loan Amount must be greater or equal to zero.", "Invalid Entry", 0);
-                    clearFinal();
-                    return;
-                }
-
-                loanAmountText.setText(calculator.toCurrency(loan));
-                LoanPayment lp = new LoanPayment(reqCF, optCF, apr, cOption, years);
-                calculator = lp;
-                report = lp;
-            } else {
-                //Investment Mode
-                Investment invest = new Investment(optCF, reqCF, apr, cOption, years);
-                calculator = invest;
-                report = invest;
-            }
-            finalText.setText(calculator.getValue());
-            summaryReportButton.setEnabled(true);
-        }
+        calculate(true);
     }//GEN-LAST:event_calculateButtonActionPerformed
 
     private void summaryReportButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_summaryReportButtonActionPerformed
@@ -442,6 +472,28 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
         JOptionPane.showMessageDialog(null, report.print(), "Summary Report", 1);
     }//GEN-LAST:event_summaryReportButtonActionPerformed
 
+    private void sensitivityButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_sensitivityButtonActionPerformed
+        Inputs inputs = readInputs(true);
+        if (inputs == null) {
+            return;
+        }
+
+        SensitivityTableModel model = new SensitivityTableModel(
+                inputs.loanMode ? QuoteType.LOAN_PAYMENT : QuoteType.INVESTMENT, cOption,
+                inputs.reqCF, inputs.optCF,
+                SensitivityTableModel.steps(inputs.apr - SENSITIVITY_APR_RANGE,
+                        inputs.apr + SENSITIVITY_APR_RANGE, SENSITIVITY_APR_STEP, 0),
+                SensitivityTableModel.steps(SENSITIVITY_MIN_YEARS,
+                        SENSITIVITY_MAX_YEARS, 1, 0));
+        JTable table = new JTable(model);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        JDialog dialog = new JDialog(this, finalLabel.getText() + " Sensitivity", false);
+        dialog.add(new JScrollPane(table));
+        dialog.setSize(800, 500);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }//GEN-LAST:event_sensitivityButtonActionPerformed
+
     private void aprTextActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_aprTextActionPerformed
         // TODO add your handling code here:
     }//GEN-LAST:event_aprTextActionPerformed
@@ -463,6 +515,78 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
         loanAmountText.setText("");
     }
 
+    // Restarts the recalculation timer after an edit, cancelling any
+    // calculation that the edit has made stale.
+    private void scheduleRecalculation() {
+        cancelCalculation();
+        recalculateTimer.restart();
+    }
+
+    private void cancelCalculation() {
+        calculationGeneration++;
+        if (calculation != null) {
+            calculation.cancel(true);
+            calculation = null;
+        }
+    }
+
+    // Validates the inputs and starts a calculation in the background. When
+    // the user asks for the calculation, invalid inputs are reported in dialog
+    // boxes; during recalculation as the user types they only clear the result.
+    private void calculate(boolean interactive) {
+        recalculateTimer.stop();
+        cancelCalculation();
+        Inputs inputs = readInputs(interactive);
+        if (inputs == null) {
+            if (!interactive) {
+                clearFinal();
+                summaryReportButton.setEnabled(false);
+            }
+            return;
+        }
+
+        calculation = new CalculationWorker(calculationGeneration, inputs.loanMode,
+                inputs.reqCF, inputs.optCF, inputs.apr, cOption, inputs.years);
+        calculation.execute();
+    }
+
+    // Validates and parses the inputs, returning null if they are invalid.
+    // When interactive, invalid inputs are reported in dialog boxes. A loan
+    // amount below zero also clears the result.
+    private Inputs readInputs(boolean interactive) {
+        if (interactive ? !numberValid() : !inputsComplete()) {
+            return null;
+        }
+
+        Inputs inputs = new Inputs(loanRadioButton.isSelected(),
+                Double.parseDouble(reqText.getText()),
+                Double.parseDouble(optText.getText()),
+                Double.parseDouble(aprText.getText()),
+                Double.parseDouble(durationText.getText()));
+
+        if (inputs.loanMode && inputs.reqCF - inputs.optCF < 0) {
+            if (interactive) {
+                JOptionPane.showMessageDialog(null, "Loan Amount must be greater or equal to zero.", "Invalid Entry", 0);
+            }
+            clearFinal();
+            summaryReportButton.setEnabled(false);
+            return null;
+        }
+        return inputs;
+    }
+
+    // Applies the same rules as numberValid () without displaying messages.
+    private boolean inputsComplete() {
+        try {
+            return Double.parseDouble(reqText.getText()) > 0
+                    && Double.parseDouble(aprText.getText()) >= 0
+                    && Integer.parseInt(durationText.getText()) >= 0
+                    && !Double.isNaN(Double.parseDouble(optText.getText()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     private boolean numberValid() {
         
         return valid.isPresent(reqText, reqLabel.getText()) &&
@@ -476,6 +600,89 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
 
     }
 
+    // The parsed values of the input fields.
+    private static final class Inputs {
+
+        final boolean loanMode;
+        final double reqCF;
+        final double optCF;
+        final double apr;
+        final double years;
+
+        Inputs(boolean loanMode, double reqCF, double optCF, double apr,
+                double years) {
+            this.loanMode = loanMode;
+            this.reqCF = reqCF;
+            this.optCF = optCF;
+            this.apr = apr;
+            this.years = years;
+        }
+    }
+
+    // Builds and prices a LoanPayment or Investment off the event dispatch
+    // thread. The result is published only if no newer calculation has been
+    // started since this one.
+    private final class CalculationWorker extends SwingWorker<TVMEngine, Void> {
+
+        private final long generation;
+        private final boolean loanMode;
+        private final double reqCF;
+        private final double optCF;
+        private final double apr;
+        private final CompoundingOption compounding;
+        private final double years;
+        private String value;
+        private String loanAmount;
+
+        CalculationWorker(long generation, boolean loanMode, double reqCF,
+                double optCF, double apr, CompoundingOption compounding,
+                double years) {
+            this.generation = generation;
+            this.loanMode = loanMode;
+            this.reqCF = reqCF;
+            this.optCF = optCF;
+            this.apr = apr;
+            this.compounding = compounding;
+            this.years = years;
+        }
+
+        @Override
+        protected TVMEngine doInBackground() {
+            TVMEngine engine;
+            if (loanMode) {
+                //Loan Mode
+                engine = new LoanPayment(reqCF, optCF, apr, compounding, years);
+                loanAmount = engine.toCurrency(reqCF - optCF);
+            } else {
+                //Investment Mode
+                engine = new Investment(optCF, reqCF, apr, compounding, years);
+            }
+            value = engine.getValue();
+            return engine;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || generation != calculationGeneration) {
+                return;
+            }
+            calculation = null;
+            try {
+                calculator = get();
+            } catch (InterruptedException | ExecutionException e) {
+                clearFinal();
+                summaryReportButton.setEnabled(false);
+                return;
+            }
+            report = (Report) calculator;
+            if (loanMode) {
+                loanAmountText.setText(loanAmount);
+            }
+            finalText.setText(value);
+            summaryReportButton.setEnabled(true);
+        }
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -538,6 +745,7 @@ public class FinanceAnalyzerForm extends javax.swing.JFrame {
     private javax.swing.JTextField optText;
     private javax.swing.JLabel reqLabel;
     private javax.swing.JTextField reqText;
+    private javax.swing.JButton sensitivityButton;
     private javax.swing.JButton summaryReportButton;
     private javax.swing.JDialog summaryReportWindow;
     // End of variables declaration//GEN-END:variables
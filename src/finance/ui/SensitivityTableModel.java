@@ -0,0 +1,126 @@
+package finance.ui;
+
+import finance.CurrencyFormatter;
+import finance.TVMBatch;
+import finance.enums.CompoundingOption;
+import finance.enums.QuoteType;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for a sensitivity (what-if) grid of loan payments or investment
+ * values. Each row is an APR and each column after the first is a term in
+ * years. The whole grid is calculated in one call to TVMBatch and held as a
+ * single array of doubles; cell text is only created when a cell is rendered,
+ * so large grids cost no more memory than their numbers.
+ *
+ * @author koluongMBP
+ * @version 261016
+ */
+public class SensitivityTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[] apr;
+    private final double[] years;
+    private final double[] values;
+    private final CurrencyFormatter currency;
+
+    /**
+     * Creates a sensitivity grid model. For loan payments the amounts are the
+     * purchase amount and the down payment; for investments they are the
+     * periodic investment and the initial investment, as entered in
+     * FinanceAnalyzerForm.
+     *
+     * @param quoteType the kind of value shown in the grid
+     * @param compounding the interest compounding interval
+     * @param reqCF the purchase amount or periodic investment
+     * @param optCF the down payment or initial investment
+     * @param apr the APR for each row
+     * @param years the term in years for each column
+     */
+    public SensitivityTableModel(QuoteType quoteType, CompoundingOption compounding,
+            double reqCF, double optCF, double[] apr, double[] years) {
+        this.apr = apr.clone();
+        this.years = years.clone();
+        values = new double[apr.length * years.length];
+        if (quoteType == QuoteType.LOAN_PAYMENT) {
+            TVMBatch.calcPMTGrid(compounding, reqCF - optCF, 0, this.apr, this.years, values);
+        } else {
+            TVMBatch.calcFVGrid(compounding, optCF, reqCF, this.apr, this.years, values);
+        }
+        currency = CurrencyFormatter.getInstance();
+    }
+
+    /**
+     * Creates evenly spaced values from start to end (inclusive), leaving out
+     * values below the minimum. Each value is calculated from its index, so
+     * steps such as 0.125 do not accumulate rounding error.
+     *
+     * @param start the first value
+     * @param end the last value
+     * @param step the spacing between values
+     * @param minimum the smallest value to include
+     * @return the values in ascending order
+     */
+    public static double[] steps(double start, double end, double step, double minimum) {
+        if (!(step > 0) || end < start) {
+            throw new IllegalArgumentException("Invalid range " + start + " to "
+                    + end + " in steps of " + step + ".");
+        }
+        int count = (int) Math.floor((end - start) / step + 1e-9) + 1;
+        int first = 0;
+        while (first < count && start + first * step < minimum) {
+            first++;
+        }
+        double[] values = new double[count - first];
+        for (int k = 0; k < values.length; k++) {
+            values[k] = start + (first + k) * step;
+        }
+        return values;
+    }
+
+    /**
+     * Provides the value of a cell without formatting it. Values use the cash
+     * flow sign convention, so loan payments are negative.
+     *
+     * @param row the APR row
+     * @param column the term column, starting at zero for the first term
+     * @return the payment or investment value of the cell
+     */
+    public double getValue(int row, int column) {
+        return values[row * years.length + column];
+    }
+
+    @Override
+    public int getRowCount() {
+        return apr.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return years.length + 1;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        if (column == 0) {
+            return "APR%";
+        }
+        double term = years[column - 1];
+        return (term == Math.rint(term) ? Long.toString((long) term) : Double.toString(term))
+                + " years";
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == 0) {
+            return Double.toString(apr[row]);
+        }
+        return currency.format(-getValue(row, column - 1));
+    }
+}